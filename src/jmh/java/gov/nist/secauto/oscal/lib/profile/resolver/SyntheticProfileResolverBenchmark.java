@@ -0,0 +1,198 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.profile.resolver.SyntheticCatalogGenerator.Selection;
+import gov.nist.secauto.oscal.lib.profile.resolver.cache.DocumentCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Measures resolution of generated catalogs of increasing size using profiles that exercise the
+ * different selection and modification features.
+ * <p>
+ * Run using {@code mvn -Pjmh test-compile exec:exec@run-benchmarks}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class SyntheticProfileResolverBenchmark {
+  private static final int CONTROLS_PER_GROUP = 50;
+  /**
+   * The depth of the enhancements nested under each top-level control in the deep alter scenario.
+   */
+  private static final int DEEP_ENHANCEMENT_DEPTH = 3;
+  /**
+   * The ratio of the eligible controls selected by identifier, altered, or having their parameters
+   * set.
+   */
+  private static final double TARGET_RATIO = 0.1;
+
+  public enum Scenario {
+    INCLUDE_ALL,
+    WITH_IDS,
+    MATCHING,
+    DEEP_ALTERS,
+    SET_PARAMETERS;
+  }
+
+  /**
+   * The total number of controls in the generated catalog, including enhancements.
+   */
+  @Param({ "1000", "10000", "100000" })
+  public int controls;
+
+  @Param
+  public Scenario scenario;
+
+  @Param({ "XML" })
+  public Format format;
+
+  private Path tempDir;
+  private Path profilePath;
+  private ProfileResolver cachingResolver;
+  private IDocumentNodeItem profileDocument;
+
+  @Setup
+  public void setup() throws IOException {
+    tempDir = Files.createTempDirectory("profile-resolver-benchmark");
+    SyntheticCatalogGenerator generator = newGenerator(controls, scenario);
+    if (generator.getControlCount() != controls) {
+      throw new IllegalStateException(String.format("The scenario '%s' generates %d controls instead of %d",
+          scenario, generator.getControlCount(), controls));
+    }
+    profilePath = generator.write(ObjectUtils.notNull(tempDir), ObjectUtils.notNull(format));
+
+    // parse the imported catalog once, so only resolution is measured
+    cachingResolver = ProfileResolver.builder()
+        .documentCache(new DocumentCache(Long.MAX_VALUE))
+        .build();
+    profileDocument = cachingResolver.getBoundLoader().loadAsNodeItem(profilePath);
+  }
+
+  @TearDown
+  public void teardown() throws IOException {
+    try (Stream<Path> paths = Files.walk(tempDir)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /**
+   * Resolve a pre-loaded profile against a pre-parsed catalog.
+   * 
+   * @return the resolved catalog
+   * @throws IOException
+   *           if an error occurred while loading an import
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the profile
+   */
+  @Benchmark
+  public IDocumentNodeItem resolve() throws IOException, ProfileResolutionException {
+    return cachingResolver.resolve(ObjectUtils.notNull(profileDocument));
+  }
+
+  /**
+   * Resolve the profile from its source, parsing the profile and catalog.
+   * 
+   * @return the resolved catalog
+   * @throws IOException
+   *           if an error occurred while loading the profile or an import
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the profile
+   */
+  @Benchmark
+  public IDocumentNodeItem resolveFromSource() throws IOException, ProfileResolutionException {
+    return new ProfileResolver().resolveProfile(ObjectUtils.notNull(profilePath));
+  }
+
+  @NonNull
+  private static SyntheticCatalogGenerator newGenerator(int controlCount, @NonNull Scenario scenario) {
+    int enhancementDepth = Scenario.DEEP_ALTERS.equals(scenario) ? DEEP_ENHANCEMENT_DEPTH : 1;
+    // each top-level control has a single chain of nested enhancements
+    int topLevelControls = controlCount / (enhancementDepth + 1);
+
+    SyntheticCatalogGenerator.Builder builder = SyntheticCatalogGenerator.builder()
+        .seed(controlCount)
+        .groupDepth(1)
+        .groupFanOut(Math.max(1, topLevelControls / CONTROLS_PER_GROUP))
+        .controlsPerGroup(Math.min(topLevelControls, CONTROLS_PER_GROUP))
+        .enhancementDepth(enhancementDepth)
+        .enhancementsPerControl(1)
+        .parametersPerControl(1)
+        .insertDensity(1.0);
+
+    switch (scenario) {
+    case WITH_IDS:
+      builder.selection(Selection.WITH_IDS)
+          .selectionRatio(TARGET_RATIO);
+      break;
+    case MATCHING:
+      builder.selection(Selection.MATCHING);
+      break;
+    case DEEP_ALTERS:
+      // only the most deeply nested enhancements are altered
+      builder.alterDepth(DEEP_ENHANCEMENT_DEPTH)
+          .alterRatio(TARGET_RATIO);
+      break;
+    case SET_PARAMETERS:
+      builder.setParameterRatio(TARGET_RATIO);
+      break;
+    case INCLUDE_ALL:
+    default:
+      break;
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures end-to-end resolution of the profiles used by the unit tests, including the loading of
+ * the profile and its imports.
+ * <p>
+ * Run using {@code mvn -Pjmh test-compile exec:exec@run-benchmarks}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TestProfileResolverBenchmark {
+  private static final String PROFILE_UNIT_TEST_PATH
+      = "oscal/src/specifications/profile-resolution/profile-resolution-examples";
+
+  @Param({
+      PROFILE_UNIT_TEST_PATH + "/include-all-test_profile.xml",
+      PROFILE_UNIT_TEST_PATH + "/include-match-test_profile.xml",
+      PROFILE_UNIT_TEST_PATH + "/include-call-with-children-test_profile.xml",
+      PROFILE_UNIT_TEST_PATH + "/exclude-call-test_profile.xml",
+      PROFILE_UNIT_TEST_PATH + "/import-twice_profile.xml",
+      PROFILE_UNIT_TEST_PATH + "/merge-keep-resources_profile.xml",
+      PROFILE_UNIT_TEST_PATH + "/modify-adds_profile.xml",
+      PROFILE_UNIT_TEST_PATH + "/full-test_profile.xml",
+      "src/test/resources/content/test-multiple-imports-profile.xml"
+  })
+  public String profile;
+
+  private Path profilePath;
+
+  @Setup
+  public void setup() {
+    profilePath = Paths.get(profile);
+  }
+
+  @Benchmark
+  public IDocumentNodeItem resolve() throws IOException, ProfileResolutionException {
+    return new ProfileResolver().resolveProfile(ObjectUtils.notNull(profilePath));
+  }
+}
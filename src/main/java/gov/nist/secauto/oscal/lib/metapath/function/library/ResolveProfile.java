@@ -46,6 +46,9 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 
 public final class ResolveProfile {
 
+  @NonNull
+  private static final ProfileResolver RESOLVER = new ProfileResolver();
+
   @NonNull
   static final IFunction SIGNATURE_NO_ARG = IFunction.builder()
       .name("resolve-profile")
@@ -119,10 +122,8 @@ public final class ResolveProfile {
       retval = profile;
     } else {
       // this is a profile
-      ProfileResolver resolver = new ProfileResolver();
-      resolver.setDynamicContext(dynamicContext);
       try {
-        retval = resolver.resolve(profile);
+        retval = RESOLVER.resolve(profile, dynamicContext);
       } catch (IOException | ProfileResolutionException ex) {
         throw new MetapathException(String.format("Unable to resolve profile '%s'", profile.getBaseUri()), ex);
       }
@@ -0,0 +1,227 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Profile;
+import gov.nist.secauto.oscal.lib.model.ProfileImport;
+
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Performs a single call to {@link ProfileResolver#resolveProfileAsync(URI, Executor)}, which loads
+ * and resolves the documents in an import graph as a graph of dependent tasks.
+ * <p>
+ * The documents are loaded into, and the completed resolutions recorded in, the call's
+ * {@link ResolutionContext}. Each profile is then resolved by the resolver using this context, so
+ * its imports are found already loaded and resolved.
+ */
+final class AsyncResolver {
+  @NonNull
+  private final ProfileResolver resolver;
+  @NonNull
+  private final Executor executor;
+  @NonNull
+  private final ResolutionContext context;
+  /**
+   * The documents resolved, or being resolved, by location.
+   */
+  @NonNull
+  private final ConcurrentMap<URI, CompletableFuture<IDocumentNodeItem>> resolvedDocuments
+      = new ConcurrentHashMap<>();
+
+  /**
+   * Construct a new asynchronous resolution.
+   * 
+   * @param resolver
+   *          the resolver providing the configuration and used to resolve each profile
+   * @param executor
+   *          the executor used to load documents and resolve profiles
+   */
+  AsyncResolver(@NonNull ProfileResolver resolver, @NonNull Executor executor) {
+    this.resolver = resolver;
+    this.executor = executor;
+    // the imports of each profile are resolved on the task resolving that profile
+    this.context = new ResolutionContext(
+        resolver.newDynamicContext(),
+        resolver.getResolutionListener(),
+        null,
+        null,
+        false);
+  }
+
+  /**
+   * Load then resolve the profile at the provided location.
+   * 
+   * @param uri
+   *          the location of the profile to resolve
+   * @return a future completing with the resolved profile
+   */
+  @NonNull
+  CompletableFuture<IDocumentNodeItem> resolveAsync(@NonNull URI uri) {
+    return resolveAsync(uri, new InputSource(uri.toASCIIString()), ObjectUtils.notNull(Set.of()));
+  }
+
+  /**
+   * Resolve the provided profile once all of its imports have been resolved.
+   * 
+   * @param profileOrCatalog
+   *          the loaded profile to resolve
+   * @return a future completing with the resolved profile
+   */
+  @NonNull
+  CompletableFuture<IDocumentNodeItem> resolveAsync(@NonNull IDocumentNodeItem profileOrCatalog) {
+    return resolveLoadedAsync(
+        ObjectUtils.notNull(profileOrCatalog.getDocumentUri()),
+        profileOrCatalog,
+        ObjectUtils.notNull(Set.of()));
+  }
+
+  @NonNull
+  private CompletableFuture<IDocumentNodeItem> load(@NonNull URI uri, @NonNull InputSource source) {
+    return ObjectUtils.notNull(context.getLoadedDocuments().computeIfAbsent(uri,
+        key -> CompletableFuture.supplyAsync(() -> {
+          try {
+            return resolver.loadImport(source, context);
+          } catch (IOException ex) {
+            throw new CompletionException(ex);
+          }
+        }, executor)));
+  }
+
+  /**
+   * Load then resolve the identified document, reusing a previously started resolution of the
+   * document.
+   * 
+   * @param uri
+   *          the document's location
+   * @param source
+   *          the document's source
+   * @param importPath
+   *          the locations of the profiles importing this document, used to avoid waiting on an
+   *          import cycle
+   * @return a future completing with the resolved document
+   */
+  @NonNull
+  private CompletableFuture<IDocumentNodeItem> resolveAsync(
+      @NonNull URI uri,
+      @NonNull InputSource source,
+      @NonNull Set<URI> importPath) {
+    CompletableFuture<IDocumentNodeItem> retval = resolvedDocuments.get(uri);
+    if (retval == null) {
+      CompletableFuture<IDocumentNodeItem> future = load(uri, source)
+          .thenComposeAsync(document -> resolveLoadedAsync(uri, ObjectUtils.notNull(document), importPath),
+              executor);
+      retval = resolvedDocuments.putIfAbsent(uri, future);
+      if (retval == null) {
+        retval = future;
+      }
+    }
+    return retval;
+  }
+
+  /**
+   * Resolve the provided document once all of its imports have been resolved.
+   * 
+   * @param uri
+   *          the document's location
+   * @param document
+   *          the loaded document
+   * @param importPath
+   *          the locations of the profiles importing this document, used to avoid waiting on an
+   *          import cycle
+   * @return a future completing with the resolved document
+   */
+  @NonNull
+  private CompletableFuture<IDocumentNodeItem> resolveLoadedAsync(
+      @NonNull URI uri,
+      @NonNull IDocumentNodeItem document,
+      @NonNull Set<URI> importPath) {
+    if (!(document.getValue() instanceof Profile)) {
+      // a catalog is used as-is
+      context.getResolvedImports().putIfAbsent(uri, CompletableFuture.completedFuture(document));
+      return ObjectUtils.notNull(CompletableFuture.completedFuture(document));
+    }
+
+    Set<URI> childImportPath = new HashSet<>(importPath);
+    childImportPath.add(uri);
+
+    List<CompletableFuture<IDocumentNodeItem>> imports = new ArrayList<>();
+    for (IRequiredValueModelNodeItem profileImportItem : document.getRootAssemblyNodeItem()
+        .getModelItemsByName("import")) {
+      URI importUri = ((ProfileImport) profileImportItem.getValue()).getHref();
+      if (importUri == null) {
+        // reported when the profile is resolved
+        continue;
+      }
+
+      InputSource source;
+      try {
+        source = resolver.newImportSource(importUri, document, context);
+      } catch (IOException ex) {
+        // reported when the profile is resolved
+        continue;
+      }
+
+      if (source.getByteStream() == null && source.getCharacterStream() == null) {
+        URI sourceUri = ObjectUtils.notNull(URI.create(source.getSystemId()));
+        // an import cycle is not waited on, so that it is reported when the profile is resolved
+        if (!childImportPath.contains(sourceUri)) {
+          imports.add(resolveAsync(sourceUri, source, childImportPath));
+        }
+      }
+    }
+
+    return ObjectUtils.notNull(CompletableFuture.allOf(imports.toArray(new CompletableFuture<?>[0]))
+        .thenApplyAsync(ignored -> {
+          try {
+            // the resolved imports are reused, so only this profile is resolved here
+            IDocumentNodeItem retval = resolver.resolve(document, context.newImportContext());
+            context.getResolvedImports().putIfAbsent(uri, CompletableFuture.completedFuture(retval));
+            return retval;
+          } catch (IOException | ProfileResolutionException ex) {
+            throw new CompletionException(ex);
+          }
+        }, executor));
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Performs a single call to {@link ProfileResolver#resolveAll(Collection, Executor)}, which loads
+ * every document in the combined import graph of a set of profiles once, and resolves each distinct
+ * profile in the graph once.
+ * <p>
+ * All profiles of the batch are resolved using the same {@link ResolutionContext}, so the loaded
+ * documents, resolved imports and selected content are shared by all of them.
+ */
+final class BatchResolver {
+  @NonNull
+  private final ProfileResolver resolver;
+  @NonNull
+  private final Executor executor;
+  @NonNull
+  private final ResolutionContext context;
+  @NonNull
+  private final ImportGraph importGraph;
+
+  /**
+   * Construct a new batch resolution.
+   * 
+   * @param resolver
+   *          the resolver providing the configuration and used to resolve each profile
+   * @param executor
+   *          the executor used to load documents and resolve profiles
+   */
+  BatchResolver(@NonNull ProfileResolver resolver, @NonNull Executor executor) {
+    this.resolver = resolver;
+    this.executor = executor;
+    // the imports of each profile are resolved on the task resolving that profile
+    this.context = new ResolutionContext(
+        resolver.newDynamicContext(),
+        resolver.getResolutionListener(),
+        null,
+        null,
+        false);
+    this.importGraph = new ImportGraph(resolver, executor, context);
+  }
+
+  /**
+   * Resolve the provided profiles as a single import graph.
+   * 
+   * @param profileUris
+   *          the locations of the profiles to resolve
+   * @return a mapping of each profile location to its resolved catalog, in the order provided
+   * @throws IOException
+   *           if an error occurred while loading a profile or an import
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving a profile
+   */
+  @NonNull
+  Map<URI, IDocumentNodeItem> resolveBatch(@NonNull Collection<URI> profileUris)
+      throws IOException, ProfileResolutionException {
+    // load every distinct document in the combined import graph once
+    preload(profileUris);
+
+    // resolve the profiles using the shared documents
+    Map<URI, CompletableFuture<IDocumentNodeItem>> futures = new LinkedHashMap<>();
+    for (URI profileUri : profileUris) {
+      futures.computeIfAbsent(profileUri, uri -> CompletableFuture.supplyAsync(() -> {
+        try {
+          return resolveShared(ObjectUtils.notNull(uri));
+        } catch (IOException | ProfileResolutionException ex) {
+          throw new CompletionException(ex);
+        }
+      }, executor));
+    }
+
+    Map<URI, IDocumentNodeItem> retval = new LinkedHashMap<>();
+    try {
+      for (Map.Entry<URI, CompletableFuture<IDocumentNodeItem>> entry : futures.entrySet()) {
+        retval.put(entry.getKey(), ProfileResolver.await(ObjectUtils.notNull(entry.getValue())));
+      }
+    } finally {
+      // stop any outstanding work if a previous profile failed
+      futures.values().forEach(future -> future.cancel(false));
+    }
+    return retval;
+  }
+
+  /**
+   * Load every distinct document in the combined import graph of the provided profiles once, and
+   * verify that the graph has no import cycles.
+   * 
+   * @param profileUris
+   *          the locations of the profiles to resolve
+   * @throws IOException
+   *           if an import cycle was found
+   */
+  private void preload(@NonNull Collection<URI> profileUris) throws IOException {
+    for (URI profileUri : profileUris) {
+      importGraph.load(ObjectUtils.notNull(profileUri), new InputSource(profileUri.toASCIIString()));
+    }
+    importGraph.awaitLoad();
+    importGraph.checkCycles(profileUris);
+  }
+
+  /**
+   * Resolve a profile of the batch, sharing the result with the profiles of the batch that import
+   * it.
+   * 
+   * @param uri
+   *          the profile's location
+   * @return the resolved profile
+   * @throws IOException
+   *           if an error occurred while loading the profile or an import
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the profile
+   */
+  @NonNull
+  private IDocumentNodeItem resolveShared(@NonNull URI uri) throws IOException, ProfileResolutionException {
+    return resolver.resolveImportedDocument(new InputSource(uri.toASCIIString()), uri, context.newImportContext());
+  }
+}
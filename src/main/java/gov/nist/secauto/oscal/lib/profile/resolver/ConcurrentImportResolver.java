@@ -0,0 +1,262 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.CustomCollectors;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.BackMatter;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.Metadata;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.BasicIndexer;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.util.VersionUtil;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Resolves the imports of a profile concurrently, which is used when the resolver is configured
+ * with an import executor.
+ * <p>
+ * Each import is resolved into its own staging catalog as a separate task, using its own import
+ * history. The results are merged into the resolved catalog in document order once all tasks
+ * complete, producing the same output as sequential resolution. Before these tasks start, the
+ * documents in the import graph are loaded as separate tasks while the graph is checked for cycles.
+ */
+final class ConcurrentImportResolver {
+  @NonNull
+  private final ProfileResolver resolver;
+  @NonNull
+  private final Executor executor;
+  @NonNull
+  private final ResolutionContext context;
+
+  /**
+   * Construct a new concurrent import resolver.
+   * 
+   * @param resolver
+   *          the resolver used to resolve each import
+   * @param executor
+   *          the executor used to load the documents and resolve the imports
+   * @param context
+   *          the state of the current resolution
+   */
+  ConcurrentImportResolver(
+      @NonNull ProfileResolver resolver,
+      @NonNull Executor executor,
+      @NonNull ResolutionContext context) {
+    this.resolver = resolver;
+    this.executor = executor;
+    this.context = context;
+  }
+
+  /**
+   * Resolve the provided imports of a profile concurrently, adding the selected content to the
+   * resolved catalog.
+   * 
+   * @param resolvedCatalog
+   *          the catalog to add the resolved content to
+   * @param profileDocument
+   *          the profile containing the imports
+   * @param profileImports
+   *          the imports to resolve
+   * @return the index of the resolved content
+   * @throws IOException
+   *           if an error occurred while loading an import, or an import cycle was found
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving an import
+   */
+  @NonNull
+  IIndexer resolveImports(
+      @NonNull Catalog resolvedCatalog,
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull List<? extends IRequiredValueModelNodeItem> profileImports)
+      throws IOException, ProfileResolutionException {
+    checkImportGraph(profileDocument);
+
+    // each import is resolved into its own staging catalog using its own import history
+    List<CompletableFuture<StagedImport>> futures = profileImports.stream()
+        .map(profileImportItem -> CompletableFuture.supplyAsync(() -> {
+          Catalog stagingCatalog = new Catalog();
+          try {
+            IIndexer index = resolver.resolveImport(
+                ObjectUtils.notNull(profileImportItem),
+                profileDocument,
+                stagingCatalog,
+                context.newImportContext());
+            return new StagedImport(stagingCatalog, index);
+          } catch (IOException | ProfileResolutionException ex) {
+            throw new CompletionException(ex);
+          }
+        }, executor))
+        .collect(Collectors.toList());
+
+    // merge the results in document order
+    IIndexer retval = new BasicIndexer();
+    try {
+      for (CompletableFuture<StagedImport> future : futures) {
+        StagedImport result = ProfileResolver.await(ObjectUtils.notNull(future));
+        mergeStagedImport(result.getCatalog(), resolvedCatalog);
+        retval.append(result.getIndex());
+      }
+    } finally {
+      // stop any outstanding work if a previous import failed
+      futures.forEach(future -> future.cancel(false));
+    }
+    return retval;
+  }
+
+  /**
+   * Verify that no import cycle is reachable from a profile, before its imports are resolved
+   * concurrently.
+   * <p>
+   * The documents in the import graph are loaded using the executor while the graph is walked. The
+   * loaded documents are recorded in the resolution's context, so they are not loaded again when
+   * they are imported.
+   * 
+   * @param profileDocument
+   *          the profile at the root of the import graph
+   * @throws IOException
+   *           if an import cycle was found
+   */
+  private void checkImportGraph(@NonNull IDocumentNodeItem profileDocument) throws IOException {
+    URI profileUri = ObjectUtils.notNull(profileDocument.getDocumentUri());
+
+    ImportGraph importGraph = new ImportGraph(resolver, executor, context);
+    importGraph.loadImports(profileUri, profileDocument);
+    importGraph.awaitLoad();
+    importGraph.checkCycles(CollectionUtil.singletonList(profileUri));
+  }
+
+  /**
+   * Append the content resolved from a single import into the resolved catalog.
+   * <p>
+   * This produces the same result as resolving the import directly into the resolved catalog, since
+   * the entities contributed by a single import are already distinct.
+   * 
+   * @param stagingCatalog
+   *          the catalog containing the content resolved from a single import
+   * @param resolvedCatalog
+   *          the catalog to append the content to
+   */
+  private static void mergeStagedImport(@NonNull Catalog stagingCatalog, @NonNull Catalog resolvedCatalog) {
+    CollectionUtil.listOrEmpty(stagingCatalog.getParams()).forEach(param -> resolvedCatalog.addParam(param));
+    CollectionUtil.listOrEmpty(stagingCatalog.getControls())
+        .forEach(control -> resolvedCatalog.addControl(control));
+    CollectionUtil.listOrEmpty(stagingCatalog.getGroups()).forEach(group -> resolvedCatalog.addGroup(group));
+
+    Metadata stagingMetadata = stagingCatalog.getMetadata();
+    if (stagingMetadata != null) {
+      Metadata resolvedMetadata = resolvedCatalog.getMetadata();
+      if (resolvedMetadata == null) {
+        resolvedMetadata = new Metadata();
+        resolvedCatalog.setMetadata(resolvedMetadata);
+      }
+
+      String stagingVersion = stagingMetadata.getOscalVersion();
+      if (stagingVersion != null) {
+        Version importOscalVersion = VersionUtil.parseVersion(stagingVersion, null, null);
+        Version resolvedCatalogVersion = VersionUtil.parseVersion(resolvedMetadata.getOscalVersion(), null, null);
+
+        if (importOscalVersion.compareTo(resolvedCatalogVersion) > 0) {
+          resolvedMetadata.setOscalVersion(importOscalVersion.toString());
+        }
+      }
+
+      resolvedMetadata.setRoles(
+          distinctByKey(resolvedMetadata.getRoles(), stagingMetadata.getRoles(), item -> item.getId()));
+      resolvedMetadata.setParties(
+          distinctByKey(resolvedMetadata.getParties(), stagingMetadata.getParties(), item -> item.getUuid()));
+      resolvedMetadata.setLocations(
+          distinctByKey(resolvedMetadata.getLocations(), stagingMetadata.getLocations(), item -> item.getUuid()));
+    }
+
+    BackMatter stagingBackMatter = stagingCatalog.getBackMatter();
+    if (stagingBackMatter != null && !CollectionUtil.listOrEmpty(stagingBackMatter.getResources()).isEmpty()) {
+      BackMatter resolvedBackMatter = resolvedCatalog.getBackMatter();
+      if (resolvedBackMatter == null) {
+        resolvedBackMatter = new BackMatter();
+        resolvedCatalog.setBackMatter(resolvedBackMatter);
+      }
+
+      resolvedBackMatter.setResources(
+          distinctByKey(resolvedBackMatter.getResources(), stagingBackMatter.getResources(), item -> item.getUuid()));
+    }
+  }
+
+  @NonNull
+  private static <T, K> List<T> distinctByKey(
+      @Nullable List<T> resolvedItems,
+      @Nullable List<T> importedItems,
+      @NonNull Function<? super T, ? extends K> keyMapper) {
+    return CustomCollectors.distinctByKey(
+        ObjectUtils.notNull(Stream.concat(
+            CollectionUtil.listOrEmpty(resolvedItems).stream(),
+            CollectionUtil.listOrEmpty(importedItems).stream())),
+        keyMapper,
+        (key, value1, value2) -> value2)
+        .collect(Collectors.toCollection(LinkedList::new));
+  }
+
+  private static final class StagedImport {
+    @NonNull
+    private final Catalog catalog;
+    @NonNull
+    private final IIndexer index;
+
+    private StagedImport(@NonNull Catalog catalog, @NonNull IIndexer index) {
+      this.catalog = catalog;
+      this.index = index;
+    }
+
+    @NonNull
+    public Catalog getCatalog() {
+      return catalog;
+    }
+
+    @NonNull
+    public IIndexer getIndex() {
+      return index;
+    }
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Profile;
+import gov.nist.secauto.oscal.lib.model.ProfileImport;
+import gov.nist.secauto.oscal.lib.profile.resolver.selection.ImportCycleException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * The documents in an import graph, which are loaded concurrently and checked for import cycles
+ * before the graph is resolved.
+ * <p>
+ * Once an import graph is known to be acyclic, a resolution in progress never waits on a resolution
+ * that depends on it. This allows an import of a document being resolved on another import path to
+ * wait for that resolution, instead of resolving the document again.
+ */
+final class ImportGraph {
+  private static final Logger LOGGER = LogManager.getLogger(ImportGraph.class);
+
+  @NonNull
+  private final ProfileResolver resolver;
+  @NonNull
+  private final Executor executor;
+  @NonNull
+  private final ResolutionContext context;
+  /**
+   * The loaded documents, by location, which are those of the resolution's context.
+   */
+  @NonNull
+  private final ConcurrentMap<URI, CompletableFuture<IDocumentNodeItem>> documents;
+  /**
+   * The locations of the documents imported by each loaded profile, in document order.
+   */
+  @NonNull
+  private final ConcurrentMap<URI, List<URI>> importedDocuments = new ConcurrentHashMap<>();
+
+  /**
+   * Construct a new import graph.
+   * 
+   * @param resolver
+   *          the resolver used to locate and load the documents
+   * @param executor
+   *          the executor used to load the documents
+   * @param context
+   *          the state of the resolution, in which the loaded documents are recorded
+   */
+  ImportGraph(@NonNull ProfileResolver resolver, @NonNull Executor executor, @NonNull ResolutionContext context) {
+    this.resolver = resolver;
+    this.executor = executor;
+    this.context = context;
+    this.documents = context.getLoadedDocuments();
+  }
+
+  /**
+   * Schedule the document and its transitive imports to be loaded, if not already scheduled.
+   * 
+   * @param uri
+   *          the document's location
+   * @param source
+   *          the document's source
+   */
+  void load(@NonNull URI uri, @NonNull InputSource source) {
+    CompletableFuture<IDocumentNodeItem> future = new CompletableFuture<>();
+    if (documents.putIfAbsent(uri, future) == null) {
+      executor.execute(() -> {
+        try {
+          // the document is digested before it is loaded, as it is when an import is resolved
+          context.recordDependency(uri);
+          IDocumentNodeItem document = resolver.loadImport(source, context);
+          if (document.getValue() instanceof Profile) {
+            loadImports(uri, document);
+          }
+          future.complete(document);
+        } catch (IOException | RuntimeException ex) {
+          future.completeExceptionally(ex);
+        }
+      });
+    }
+  }
+
+  /**
+   * Schedule the transitive imports of an already loaded profile to be loaded.
+   * 
+   * @param uri
+   *          the profile's location
+   * @param profileDocument
+   *          the profile
+   */
+  void loadImports(@NonNull URI uri, @NonNull IDocumentNodeItem profileDocument) {
+    List<URI> imports = new ArrayList<>();
+    loadImports(profileDocument, imports, new HashSet<>());
+    importedDocuments.put(uri, imports);
+  }
+
+  private void loadImports(
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull List<URI> imports,
+      @NonNull Set<String> embeddedSources) {
+    for (IRequiredValueModelNodeItem profileImportItem : profileDocument.getRootAssemblyNodeItem()
+        .getModelItemsByName("import")) {
+      URI importUri = ((ProfileImport) profileImportItem.getValue()).getHref();
+      if (importUri != null) {
+        try {
+          InputSource source = resolver.newImportSource(importUri, profileDocument, context);
+          if (source.getByteStream() == null && source.getCharacterStream() == null) {
+            URI sourceUri = ObjectUtils.notNull(URI.create(source.getSystemId()));
+            imports.add(sourceUri);
+            load(sourceUri, source);
+          } else if (embeddedSources.add(source.getSystemId())) {
+            // content embedded in a back-matter resource is part of the importing document, so its
+            // imports are treated as imports of that document
+            IDocumentNodeItem document = resolver.loadImport(source, context);
+            if (document.getValue() instanceof Profile) {
+              loadImports(document, imports, embeddedSources);
+            }
+          }
+        } catch (IOException ex) {
+          // the error will be reported when the profile is resolved
+          if (LOGGER.isDebugEnabled()) {
+            LOGGER.atDebug().log("unable to preload import '{}': {}", importUri, ex.getLocalizedMessage());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Wait for all scheduled documents, including those scheduled while waiting, to finish loading.
+   */
+  void awaitLoad() {
+    int size;
+    do {
+      size = documents.size();
+      // an import is scheduled before the importing document completes, so all imports of the
+      // completed documents are known once all known documents complete
+      CompletableFuture.allOf(documents.values().toArray(new CompletableFuture<?>[0]))
+          .handle((result, ex) -> null)
+          .join();
+    } while (size != documents.size());
+  }
+
+  /**
+   * Verify that no import cycle is reachable from the provided documents.
+   * 
+   * @param roots
+   *          the locations of the documents at the roots of the import graph
+   * @throws IOException
+   *           if an import cycle was found
+   */
+  void checkCycles(@NonNull Collection<URI> roots) throws IOException {
+    Set<URI> checked = new HashSet<>();
+    for (URI root : roots) {
+      checkCycles(ObjectUtils.notNull(root), new Stack<>(), checked);
+    }
+  }
+
+  private void checkCycles(@NonNull URI uri, @NonNull Stack<URI> path, @NonNull Set<URI> checked)
+      throws IOException {
+    try {
+      ProfileResolver.requireNonCycle(uri, path);
+    } catch (ImportCycleException ex) {
+      throw new IOException(ex);
+    }
+
+    if (checked.add(uri)) {
+      path.push(uri);
+      for (URI importUri : CollectionUtil.listOrEmpty(importedDocuments.get(uri))) {
+        checkCycles(ObjectUtils.notNull(importUri), path, checked);
+      }
+      path.pop();
+    }
+  }
+}
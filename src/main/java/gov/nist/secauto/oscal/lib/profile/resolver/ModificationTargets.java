@@ -0,0 +1,570 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.model.common.metapath.MetapathExpression;
+import gov.nist.secauto.metaschema.model.common.metapath.format.IPathFormatter;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueAssemblyNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.Modify;
+import gov.nist.secauto.oscal.lib.model.Modify.ProfileSetParameter;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.model.Property;
+import gov.nist.secauto.oscal.lib.profile.resolver.alter.AddVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.alter.AlterPlan;
+import gov.nist.secauto.oscal.lib.profile.resolver.alter.RemoveVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionCounter;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Finds the parameters and controls targeted by the set-parameters and alters of a profile, and
+ * applies the modifications to them.
+ * <p>
+ * A target is found before its modification is applied, so applying a modification only modifies
+ * the bound objects of the resolved catalog. This allows the modifications to be applied
+ * concurrently, partitioned by their targets.
+ */
+final class ModificationTargets {
+  private static final MetapathExpression METAPATH_ALTER_REMOVE
+      = MetapathExpression.compile("remove");
+  private static final MetapathExpression METAPATH_ALTER_ADD
+      = MetapathExpression.compile("add");
+
+  private ModificationTargets() {
+    // disable construction
+  }
+
+  /**
+   * Apply a set-parameter to the parameter it targets.
+   * 
+   * @param item
+   *          the set-parameter
+   * @param indexer
+   *          the index of the resolved catalog used to find the targeted parameter
+   * @throws ProfileResolutionEvaluationException
+   *           if the set-parameter could not be applied
+   */
+  static void applySetParameter(@NonNull IRequiredValueAssemblyNodeItem item, @NonNull IIndexer indexer) {
+    try {
+      newSetParameterTarget(item, indexer).apply();
+    } catch (ModificationFailure ex) {
+      throw ex.toEvaluationException();
+    }
+  }
+
+  /**
+   * Apply the removes and adds of an alter to the control it targets using the provided plan.
+   * 
+   * @param item
+   *          the alter
+   * @param indexer
+   *          the index of the resolved catalog used to find the altered control
+   * @param alterPlan
+   *          the plan used to apply the removes and adds
+   * @throws ProfileResolutionEvaluationException
+   *           if the alter could not be applied
+   */
+  static void applyAlter(
+      @NonNull IRequiredValueAssemblyNodeItem item,
+      @NonNull IIndexer indexer,
+      @NonNull AlterPlan alterPlan) {
+    try {
+      newAlterTarget(item, indexer).apply(alterPlan);
+    } catch (ModificationFailure ex) {
+      throw ex.toEvaluationException();
+    }
+  }
+
+  /**
+   * Apply the provided modifications concurrently using the provided pool.
+   * <p>
+   * The set-parameters are partitioned by the parameter they target, and the alters by the
+   * top-level control containing the control they target. All set-parameters are applied before
+   * any alter. If modifications fail, the error thrown is the one for the first failing
+   * modification in document order.
+   * 
+   * @param pool
+   *          the pool to apply the modifications on
+   * @param setParameters
+   *          the set-parameters in document order
+   * @param alters
+   *          the alters in document order
+   * @param indexer
+   *          the index of the resolved catalog
+   * @param listener
+   *          the listener notified as modifications are applied, from the pool's threads
+   * @throws ProfileResolutionEvaluationException
+   *           if a modification could not be applied
+   */
+  static void applyConcurrently(
+      @NonNull ForkJoinPool pool,
+      @NonNull List<? extends IRequiredValueAssemblyNodeItem> setParameters,
+      @NonNull List<? extends IRequiredValueAssemblyNodeItem> alters,
+      @NonNull IIndexer indexer,
+      @NonNull IResolutionListener listener) {
+    // the targets are found on this thread, so the pool's threads only modify the targets
+    List<SetParameterTarget> setParameterTargets = setParameters.stream()
+        .map(setParameter -> newSetParameterTarget(ObjectUtils.notNull(setParameter), indexer))
+        .collect(Collectors.toList());
+    applyPartitioned(
+        pool,
+        setParameterTargets,
+        SetParameterTarget::getPartitionKey,
+        () -> target -> {
+          target.apply();
+          listener.increment(ResolutionCounter.SET_PARAMETERS_APPLIED, 1);
+        },
+        (target, ex) -> ex instanceof ModificationFailure
+            ? newSetParameterFailure(target.getItem(), ((ModificationFailure) ex).toEvaluationException())
+            : ex);
+
+    List<AlterTarget> alterTargets = alters.stream()
+        .map(alter -> newAlterTarget(ObjectUtils.notNull(alter), indexer))
+        .collect(Collectors.toList());
+    applyPartitioned(
+        pool,
+        alterTargets,
+        AlterTarget::getPartitionKey,
+        () -> {
+          AlterPlan alterPlan = new AlterPlan();
+          return target -> {
+            target.apply(alterPlan);
+            listener.increment(ResolutionCounter.ALTERS_APPLIED, 1);
+          };
+        },
+        (target, ex) -> ex instanceof ModificationFailure
+            ? ((ModificationFailure) ex).toEvaluationException()
+            : ex);
+  }
+
+  /**
+   * Create the exception reporting that a set-parameter could not be applied.
+   * 
+   * @param setParameter
+   *          the set-parameter
+   * @param ex
+   *          the cause of the failure
+   * @return the exception
+   */
+  @NonNull
+  static ProfileResolutionEvaluationException newSetParameterFailure(
+      @NonNull IRequiredValueAssemblyNodeItem setParameter,
+      @NonNull ProfileResolutionEvaluationException ex) {
+    return new ProfileResolutionEvaluationException(
+        String.format("Unable to apply the set-parameter at '%s'. %s",
+            setParameter.toPath(IPathFormatter.METAPATH_PATH_FORMATER),
+            ex.getLocalizedMessage()),
+        ex);
+  }
+
+  /**
+   * Apply the provided modifications concurrently, partitioned using the provided key function.
+   * <p>
+   * The partition keys are determined on the calling thread. The modifications in a partition are
+   * applied in document order using a handler created for the partition. A partition stops at its
+   * first failure. Once all partitions complete, the failure of the modification that is first in
+   * document order is mapped on the calling thread and thrown.
+   * 
+   * @param <T>
+   *          the type of modification
+   * @param pool
+   *          the pool to apply the partitions on
+   * @param items
+   *          the modifications in document order
+   * @param partitionKeyFunction
+   *          provides the object identifying the partition of a modification
+   * @param handlerSupplier
+   *          creates the handler used to apply the modifications of a partition
+   * @param failureMapper
+   *          maps the failure of a modification to the exception to throw
+   */
+  private static <T> void applyPartitioned(
+      @NonNull ForkJoinPool pool,
+      @NonNull List<T> items,
+      @NonNull Function<T, Object> partitionKeyFunction,
+      @NonNull Supplier<Consumer<T>> handlerSupplier,
+      @NonNull BiFunction<T, RuntimeException, RuntimeException> failureMapper) {
+    Map<Object, List<Integer>> partitions = new IdentityHashMap<>();
+    for (int index = 0; index < items.size(); index++) {
+      T item = ObjectUtils.notNull(items.get(index));
+      partitions.computeIfAbsent(partitionKeyFunction.apply(item), key -> new ArrayList<>()).add(index);
+    }
+
+    ConcurrentNavigableMap<Integer, RuntimeException> failures = new ConcurrentSkipListMap<>();
+    List<ForkJoinTask<?>> tasks = partitions.values().stream()
+        .map(partition -> ForkJoinTask.adapt(() -> {
+          Consumer<T> handler = handlerSupplier.get();
+          for (Integer index : partition) {
+            try {
+              handler.accept(ObjectUtils.notNull(items.get(index)));
+            } catch (RuntimeException ex) {
+              failures.put(index, ex);
+              break;
+            }
+          }
+        }))
+        .collect(Collectors.toList());
+    pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+    Map.Entry<Integer, RuntimeException> failure = failures.firstEntry();
+    if (failure != null) {
+      throw failureMapper.apply(
+          ObjectUtils.notNull(items.get(failure.getKey())),
+          ObjectUtils.notNull(failure.getValue()));
+    }
+  }
+
+  /**
+   * Find the parameter targeted by a set-parameter.
+   * 
+   * @param item
+   *          the set-parameter
+   * @param indexer
+   *          the index of the resolved catalog
+   * @return the set-parameter and its target
+   */
+  @NonNull
+  private static SetParameterTarget newSetParameterTarget(
+      @NonNull IRequiredValueAssemblyNodeItem item,
+      @NonNull IIndexer indexer) {
+    ProfileSetParameter setParameter = (Modify.ProfileSetParameter) item.getValue();
+    String paramId = setParameter.getParamId();
+    // a missing parameter is reported when the set-parameter is applied
+    IEntityItem entity = paramId == null ? null : indexer.getEntity(IEntityItem.ItemType.PARAMETER, paramId, false);
+    return new SetParameterTarget(item, setParameter, entity == null ? null : entity.getInstanceValue());
+  }
+
+  /**
+   * Find the control targeted by an alter, along with the alter's removes and adds.
+   * 
+   * @param item
+   *          the alter
+   * @param indexer
+   *          the index of the resolved catalog
+   * @return the alter and its target
+   */
+  @NonNull
+  private static AlterTarget newAlterTarget(
+      @NonNull IRequiredValueAssemblyNodeItem item,
+      @NonNull IIndexer indexer) {
+    Modify.Alter alter = (Modify.Alter) item.getValue();
+    String controlId = alter.getControlId();
+    // a missing control is reported when the alter is applied
+    IEntityItem entity = controlId == null ? null : indexer.getEntity(IEntityItem.ItemType.CONTROL, controlId, false);
+
+    Control control = null;
+    // an add may target the content of a child control, so alters targeting nested controls are
+    // partitioned by the top-level control
+    Object partitionKey = item;
+    if (entity != null) {
+      IRequiredValueModelNodeItem controlItem = entity.getInstance();
+      control = (Control) controlItem.getValue();
+      partitionKey = control;
+      for (IRequiredValueAssemblyNodeItem parent = controlItem.getParentContentNodeItem();
+          parent != null && parent.getValue() instanceof Control;
+          parent = parent.getParentContentNodeItem()) {
+        partitionKey = parent.getValue();
+      }
+    }
+
+    List<IRequiredValueNodeItem> removeItems = METAPATH_ALTER_REMOVE.evaluate(item).asStream()
+        .map(nodeItem -> (IRequiredValueNodeItem) nodeItem)
+        .collect(Collectors.toList());
+    List<IRequiredValueNodeItem> addItems = METAPATH_ALTER_ADD.evaluate(item).asStream()
+        .map(nodeItem -> (IRequiredValueNodeItem) nodeItem)
+        .collect(Collectors.toList());
+    return new AlterTarget(
+        item,
+        control,
+        ObjectUtils.notNull(partitionKey),
+        ObjectUtils.notNull(removeItems),
+        ObjectUtils.notNull(addItems));
+  }
+
+  /**
+   * A set-parameter along with the parameter it targets.
+   * <p>
+   * The target is found before the set-parameter is applied, so applying it only modifies the
+   * target's bound object, without reading the profile's node items or the index of the resolved
+   * catalog.
+   */
+  private static final class SetParameterTarget {
+    @NonNull
+    private final IRequiredValueAssemblyNodeItem item;
+    @NonNull
+    private final ProfileSetParameter setParameter;
+    @Nullable
+    private final Parameter targetParam;
+
+    private SetParameterTarget(
+        @NonNull IRequiredValueAssemblyNodeItem item,
+        @NonNull ProfileSetParameter setParameter,
+        @Nullable Parameter param) {
+      this.item = item;
+      this.setParameter = setParameter;
+      this.targetParam = param;
+    }
+
+    @NonNull
+    public IRequiredValueAssemblyNodeItem getItem() {
+      return item;
+    }
+
+    /**
+     * Get the object identifying the partition the set-parameter is applied in, which is the
+     * targeted parameter.
+     * 
+     * @return the partition key, which is the set-parameter itself if the parameter does not exist
+     */
+    @NonNull
+    public Object getPartitionKey() {
+      return targetParam == null ? item : targetParam;
+    }
+
+    /**
+     * Apply the set-parameter to the targeted parameter.
+     * 
+     * @throws ModificationFailure
+     *           if the set-parameter could not be applied
+     */
+    public void apply() {
+      Parameter param = targetParam;
+      if (param == null) {
+        String paramId = ObjectUtils.requireNonNull(setParameter.getParamId());
+        throw new ModificationFailure(item, path -> String.format(
+            "Unable to apply the set-parameter targeting parameter '%s' at '%s'."
+                + " The parameter does not exist in the resolved catalog.",
+            paramId,
+            path), null);
+      }
+
+      // apply the set parameter values
+      param.setClazz(ModifyPhaseUtils.mergeItem(param.getClazz(), setParameter.getClazz()));
+      param.setProps(ModifyPhaseUtils.merge(param.getProps(), setParameter.getProps(),
+          ModifyPhaseUtils.identifierKey(Property::getUuid)));
+      param.setLinks(
+          ModifyPhaseUtils.merge(param.getLinks(), setParameter.getLinks(), ModifyPhaseUtils.identityKey()));
+      param.setLabel(ModifyPhaseUtils.mergeItem(param.getLabel(), setParameter.getLabel()));
+      param.setUsage(ModifyPhaseUtils.mergeItem(param.getUsage(), setParameter.getUsage()));
+      param.setConstraints(ModifyPhaseUtils.merge(param.getConstraints(), setParameter.getConstraints(),
+          ModifyPhaseUtils.identityKey()));
+      param.setGuidelines(ModifyPhaseUtils.merge(param.getGuidelines(), setParameter.getGuidelines(),
+          ModifyPhaseUtils.identityKey()));
+      param.setValues(new LinkedList<>(setParameter.getValues()));
+      param.setSelect(setParameter.getSelect());
+    }
+  }
+
+  /**
+   * An alter along with the control it targets and its removes and adds.
+   * <p>
+   * The target, removes, and adds are found before the alter is applied, so applying it only
+   * modifies the target's bound object, without reading the profile's node items or the index of the
+   * resolved catalog.
+   */
+  private static final class AlterTarget {
+    @NonNull
+    private final IRequiredValueAssemblyNodeItem item;
+    @NonNull
+    private final Modify.Alter alter;
+    @Nullable
+    private final Control targetControl;
+    @NonNull
+    private final Object partitionKey;
+    @NonNull
+    private final List<IRequiredValueNodeItem> removeItems;
+    @NonNull
+    private final List<Modify.Alter.Remove> removes;
+    @NonNull
+    private final List<IRequiredValueNodeItem> addItems;
+    @NonNull
+    private final List<Modify.Alter.Add> adds;
+
+    private AlterTarget(
+        @NonNull IRequiredValueAssemblyNodeItem item,
+        @Nullable Control control,
+        @NonNull Object partitionKey,
+        @NonNull List<IRequiredValueNodeItem> removeItems,
+        @NonNull List<IRequiredValueNodeItem> addItems) {
+      this.item = item;
+      this.alter = (Modify.Alter) item.getValue();
+      this.targetControl = control;
+      this.partitionKey = partitionKey;
+      this.removeItems = removeItems;
+      this.removes = ObjectUtils.notNull(removeItems.stream()
+          .map(removeItem -> (Modify.Alter.Remove) removeItem.getValue())
+          .collect(Collectors.toList()));
+      this.addItems = addItems;
+      this.adds = ObjectUtils.notNull(addItems.stream()
+          .map(addItem -> (Modify.Alter.Add) addItem.getValue())
+          .collect(Collectors.toList()));
+    }
+
+    /**
+     * Get the object identifying the partition the alter is applied in, which is the top-level
+     * control containing the targeted control.
+     * 
+     * @return the partition key, which is the alter itself if the control does not exist
+     */
+    @NonNull
+    public Object getPartitionKey() {
+      return partitionKey;
+    }
+
+    /**
+     * Apply the removes and adds of the alter to the targeted control using the provided plan.
+     * 
+     * @param alterPlan
+     *          the plan used to apply the removes and adds
+     * @throws ModificationFailure
+     *           if the alter could not be applied
+     */
+    public void apply(@NonNull AlterPlan alterPlan) {
+      Control control = targetControl;
+      if (control == null) {
+        String controlId = ObjectUtils.requireNonNull(alter.getControlId());
+        throw new ModificationFailure(item, path -> String.format(
+            "Unable to apply the alter targeting control '%s' at '%s'."
+                + " The control does not exist in the resolved catalog.",
+            controlId,
+            path), null);
+      }
+
+      for (int index = 0; index < removes.size(); index++) {
+        Modify.Alter.Remove remove = ObjectUtils.notNull(removes.get(index));
+        try {
+          if (!alterPlan.remove(
+              control,
+              remove.getByName(),
+              remove.getByClass(),
+              remove.getById(),
+              remove.getByNs(),
+              RemoveVisitor.TargetType.forFieldName(remove.getByItemName()))) {
+            throw new ProfileResolutionEvaluationException(
+                String.format("The remove did not match a valid target"));
+          }
+        } catch (ProfileResolutionEvaluationException ex) {
+          throw new ModificationFailure(ObjectUtils.notNull(removeItems.get(index)), path -> String.format(
+              "Unable to apply the remove targeting control '%s' at '%s'. %s",
+              control.getId(),
+              path,
+              ex.getLocalizedMessage()), ex);
+        }
+      }
+
+      for (int index = 0; index < adds.size(); index++) {
+        Modify.Alter.Add add = ObjectUtils.notNull(adds.get(index));
+        String byId = add.getById();
+        try {
+          if (!alterPlan.add(
+              control,
+              AddVisitor.Position.forName(add.getPosition()),
+              byId,
+              add.getTitle(),
+              CollectionUtil.listOrEmpty(add.getParams()),
+              CollectionUtil.listOrEmpty(add.getProps()),
+              CollectionUtil.listOrEmpty(add.getLinks()),
+              CollectionUtil.listOrEmpty(add.getParts()))) {
+
+            throw new ProfileResolutionEvaluationException(
+                String.format("The add did not match a valid target"));
+          }
+        } catch (ProfileResolutionEvaluationException ex) {
+          throw new ModificationFailure(ObjectUtils.notNull(addItems.get(index)), path -> String.format(
+              "Unable to apply the add targeting control '%s'%s at '%s'. %s",
+              control.getId(),
+              byId == null ? "" : String.format(" having by-id '%s'", byId),
+              path,
+              ex.getLocalizedMessage()), ex);
+        }
+      }
+    }
+  }
+
+  /**
+   * Reports a failed modification without reading the profile's node items, which allows the
+   * modification to be applied on another thread. The path of the failing node item is only
+   * determined when the failure is converted on the calling thread.
+   */
+  private static final class ModificationFailure
+      extends RuntimeException {
+    /**
+     * the serial version UUID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    @NonNull
+    private final transient IRequiredValueNodeItem item;
+    @NonNull
+    private final transient Function<String, String> messageFunction;
+
+    private ModificationFailure(
+        @NonNull IRequiredValueNodeItem item,
+        @NonNull Function<String, String> messageFunction,
+        @Nullable ProfileResolutionEvaluationException cause) {
+      super(cause);
+      this.item = item;
+      this.messageFunction = messageFunction;
+    }
+
+    /**
+     * Create the exception reporting this failure, including the path of the failing node item.
+     * 
+     * @return the exception
+     */
+    @NonNull
+    public ProfileResolutionEvaluationException toEvaluationException() {
+      return new ProfileResolutionEvaluationException(
+          messageFunction.apply(item.toPath(IPathFormatter.METAPATH_PATH_FORMATER)),
+          getCause());
+    }
+  }
+}
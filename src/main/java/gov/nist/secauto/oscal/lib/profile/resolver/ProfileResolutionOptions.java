@@ -0,0 +1,215 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import java.time.Duration;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Limits the resources used by a single profile resolution, and allows the resolution to be
+ * cancelled.
+ * <p>
+ * The limits are checked cooperatively as the resolution makes progress. A resolution exceeding a
+ * limit fails with a {@link ResolutionLimitExceededException}, and a cancelled resolution fails
+ * with a {@link ResolutionCancelledException}. Memory use is bounded indirectly, using the limits on
+ * the number of loaded documents and selected controls.
+ */
+public final class ProfileResolutionOptions {
+  @Nullable
+  private final Duration timeout;
+  private final int maxImportDepth;
+  private final int maxDocuments;
+  private final long maxControls;
+  @NonNull
+  private final CancellationToken cancellationToken;
+
+  /**
+   * Get a new builder for resolution options, which has no limits by default.
+   * 
+   * @return the builder
+   */
+  @NonNull
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private ProfileResolutionOptions(@NonNull Builder builder) {
+    this.timeout = builder.timeout;
+    this.maxImportDepth = builder.maxImportDepth;
+    this.maxDocuments = builder.maxDocuments;
+    this.maxControls = builder.maxControls;
+    this.cancellationToken = builder.cancellationToken;
+  }
+
+  /**
+   * Get the maximum elapsed time of the resolution.
+   * 
+   * @return the timeout, or {@code null} if the time is not limited
+   */
+  @Nullable
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * Get the maximum length of a chain of imports, where the imports of the resolved profile have a
+   * depth of {@code 1}.
+   * 
+   * @return the maximum depth
+   */
+  public int getMaxImportDepth() {
+    return maxImportDepth;
+  }
+
+  /**
+   * Get the maximum number of imported documents that can be loaded. Each load of a document is
+   * counted, including loads satisfied by a document cache.
+   * 
+   * @return the maximum number of documents
+   */
+  public int getMaxDocuments() {
+    return maxDocuments;
+  }
+
+  /**
+   * Get the maximum number of controls that can be selected, summed over all imports, including
+   * those of imported profiles.
+   * 
+   * @return the maximum number of controls
+   */
+  public long getMaxControls() {
+    return maxControls;
+  }
+
+  /**
+   * Get the token used to cancel the resolution.
+   * 
+   * @return the cancellation token
+   */
+  @NonNull
+  public CancellationToken getCancellationToken() {
+    return cancellationToken;
+  }
+
+  public static final class Builder {
+    @Nullable
+    private Duration timeout;
+    private int maxImportDepth = Integer.MAX_VALUE;
+    private int maxDocuments = Integer.MAX_VALUE;
+    private long maxControls = Long.MAX_VALUE;
+    @NonNull
+    private CancellationToken cancellationToken = new CancellationToken();
+
+    private Builder() {
+      // use the builder() method
+    }
+
+    /**
+     * Limit the elapsed time of the resolution.
+     * 
+     * @param value
+     *          the timeout
+     * @return this builder
+     */
+    @NonNull
+    public Builder timeout(@NonNull Duration value) {
+      if (value.isNegative() || value.isZero()) {
+        throw new IllegalArgumentException("the timeout must be positive");
+      }
+      this.timeout = value;
+      return this;
+    }
+
+    /**
+     * Limit the length of a chain of imports.
+     * 
+     * @param value
+     *          the maximum depth, where the imports of the resolved profile have a depth of {@code 1}
+     * @return this builder
+     */
+    @NonNull
+    public Builder maxImportDepth(int value) {
+      if (value < 1) {
+        throw new IllegalArgumentException("the maximum import depth must be at least 1");
+      }
+      this.maxImportDepth = value;
+      return this;
+    }
+
+    /**
+     * Limit the number of imported documents that can be loaded.
+     * 
+     * @param value
+     *          the maximum number of documents
+     * @return this builder
+     */
+    @NonNull
+    public Builder maxDocuments(int value) {
+      if (value < 1) {
+        throw new IllegalArgumentException("the maximum number of documents must be at least 1");
+      }
+      this.maxDocuments = value;
+      return this;
+    }
+
+    /**
+     * Limit the number of controls that can be selected.
+     * 
+     * @param value
+     *          the maximum number of controls
+     * @return this builder
+     */
+    @NonNull
+    public Builder maxControls(long value) {
+      if (value < 0) {
+        throw new IllegalArgumentException("the maximum number of controls must not be negative");
+      }
+      this.maxControls = value;
+      return this;
+    }
+
+    /**
+     * Use the provided token to cancel the resolution.
+     * 
+     * @param value
+     *          the cancellation token
+     * @return this builder
+     */
+    @NonNull
+    public Builder cancellationToken(@NonNull CancellationToken value) {
+      this.cancellationToken = value;
+      return this;
+    }
+
+    @NonNull
+    public ProfileResolutionOptions build() {
+      return new ProfileResolutionOptions(this);
+    }
+  }
+}
@@ -29,17 +29,14 @@ package gov.nist.secauto.oscal.lib.profile.resolver;
 import gov.nist.secauto.metaschema.binding.io.BindingException;
 import gov.nist.secauto.metaschema.binding.io.DeserializationFeature;
 import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
-import gov.nist.secauto.metaschema.binding.model.IAssemblyClassBinding;
-import gov.nist.secauto.metaschema.binding.model.RootAssemblyDefinition;
 import gov.nist.secauto.metaschema.model.common.metapath.DynamicContext;
+import gov.nist.secauto.metaschema.model.common.metapath.IDocumentLoader;
 import gov.nist.secauto.metaschema.model.common.metapath.MetapathExpression;
 import gov.nist.secauto.metaschema.model.common.metapath.StaticContext;
-import gov.nist.secauto.metaschema.model.common.metapath.format.IPathFormatter;
 import gov.nist.secauto.metaschema.model.common.metapath.item.DefaultNodeItemFactory;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueAssemblyNodeItem;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
-import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueNodeItem;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRootAssemblyNodeItem;
 import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
@@ -48,20 +45,26 @@ import gov.nist.secauto.oscal.lib.OscalUtils;
 import gov.nist.secauto.oscal.lib.model.BackMatter;
 import gov.nist.secauto.oscal.lib.model.BackMatter.Resource;
 import gov.nist.secauto.oscal.lib.model.Catalog;
-import gov.nist.secauto.oscal.lib.model.Control;
 import gov.nist.secauto.oscal.lib.model.Merge;
 import gov.nist.secauto.oscal.lib.model.Metadata;
-import gov.nist.secauto.oscal.lib.model.Modify;
-import gov.nist.secauto.oscal.lib.model.Modify.ProfileSetParameter;
-import gov.nist.secauto.oscal.lib.model.Parameter;
 import gov.nist.secauto.oscal.lib.model.Profile;
 import gov.nist.secauto.oscal.lib.model.ProfileImport;
-import gov.nist.secauto.oscal.lib.model.Property;
 import gov.nist.secauto.oscal.lib.model.metadata.AbstractLink;
 import gov.nist.secauto.oscal.lib.model.metadata.AbstractProperty;
-import gov.nist.secauto.oscal.lib.profile.resolver.alter.AddVisitor;
-import gov.nist.secauto.oscal.lib.profile.resolver.alter.RemoveVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.alter.AlterPlan;
+import gov.nist.secauto.oscal.lib.profile.resolver.cache.ContentDigest;
+import gov.nist.secauto.oscal.lib.profile.resolver.cache.DocumentCache;
+import gov.nist.secauto.oscal.lib.profile.resolver.cache.IResolvedCatalogCache;
+import gov.nist.secauto.oscal.lib.profile.resolver.cache.ResolvedCatalogEntry;
+import gov.nist.secauto.oscal.lib.profile.resolver.merge.ControlCombiner;
+import gov.nist.secauto.oscal.lib.profile.resolver.merge.CustomStructuringBuilder;
 import gov.nist.secauto.oscal.lib.profile.resolver.merge.FlatteningStructuringVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.JfrResolutionListener;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionCounter;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionPhase;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionTimer;
+import gov.nist.secauto.oscal.lib.profile.resolver.policy.ReferenceGraph;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.Import;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.ImportCycleException;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.BasicIndexer;
@@ -70,6 +73,7 @@ import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
 
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.xml.sax.EntityResolver;
@@ -84,14 +88,23 @@ import java.net.URL;
 import java.nio.file.Path;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 public class ProfileResolver {
@@ -100,10 +113,6 @@ public class ProfileResolver {
       = MetapathExpression.compile("/profile/modify/set-parameter");
   private static final MetapathExpression METAPATH_ALTER
       = MetapathExpression.compile("/profile/modify/alter");
-  private static final MetapathExpression METAPATH_ALTER_REMOVE
-      = MetapathExpression.compile("remove");
-  private static final MetapathExpression METAPATH_ALTER_ADD
-      = MetapathExpression.compile("add");
 
   public enum StructuringDirective {
     FLAT,
@@ -111,81 +120,567 @@ public class ProfileResolver {
     CUSTOM;
   }
 
-  private IBoundLoader loader;
-  private DynamicContext dynamicContext;
+  /**
+   * Identifies how the content of an imported catalog is copied before it is modified by the import
+   * process.
+   */
+  public enum ImportCopyMode {
+    /**
+     * Copy the entire imported catalog before performing selection.
+     */
+    FULL,
+    /**
+     * Perform selection and reference counting on the unmodified imported catalog, then copy only
+     * the content that is retained.
+     */
+    SELECTIVE;
+  }
+
+  @NonNull
+  private final IBoundLoader loader;
+  @Nullable
+  private final DynamicContext dynamicContext;
+  @Nullable
+  private final Executor importExecutor;
+  @Nullable
+  private final IResolvedCatalogCache resolvedCatalogCache;
+  @Nullable
+  private final DocumentCache documentCache;
+  @NonNull
+  private final ImportCopyMode importCopyMode;
+  @NonNull
+  private final IResolutionListener resolutionListener;
+  @Nullable
+  private final ForkJoinPool modifyPool;
+  private final boolean deterministicOutput;
+  @Nullable
+  private final ZonedDateTime lastModified;
+
+  /**
+   * Construct a new resolver using the default configuration.
+   */
+  public ProfileResolver() {
+    this(builder());
+  }
 
   /**
-   * Gets the configured loader or creates a new default loader if no loader was configured.
+   * Construct a new resolver using the configuration of the provided builder.
    * 
-   * @return the bound loader
+   * @param builder
+   *          the builder providing the configuration
    */
-  @NonNull
-  public IBoundLoader getBoundLoader() {
-    synchronized (this) {
-      if (loader == null) {
-        loader = OscalBindingContext.instance().newBoundLoader();
-        loader.disableFeature(DeserializationFeature.DESERIALIZE_VALIDATE_CONSTRAINTS);
-      }
-      assert loader != null;
-      return loader;
+  protected ProfileResolver(@NonNull Builder builder) {
+    IBoundLoader boundLoader = builder.loader;
+    if (boundLoader == null) {
+      boundLoader = OscalBindingContext.instance().newBoundLoader();
+      boundLoader.disableFeature(DeserializationFeature.DESERIALIZE_VALIDATE_CONSTRAINTS);
     }
+    this.loader = boundLoader;
+    this.dynamicContext = builder.dynamicContext;
+    this.importExecutor = builder.importExecutor;
+    this.resolvedCatalogCache = builder.resolvedCatalogCache;
+    this.documentCache = builder.documentCache;
+    this.importCopyMode = builder.importCopyMode;
+    this.resolutionListener = builder.resolutionListener;
+    this.modifyPool = builder.modifyPool;
+    this.deterministicOutput = builder.deterministicOutput;
+    this.lastModified = builder.lastModified;
   }
 
-  public void setBoundLoader(@NonNull IBoundLoader loader) {
-    synchronized (this) {
-      this.loader = loader;
-    }
+  /**
+   * Get a new builder for a resolver, which uses the default configuration unless changed.
+   * 
+   * @return the builder
+   */
+  @NonNull
+  public static Builder builder() {
+    return new Builder();
   }
 
+  /**
+   * Get the loader used to load the profiles resolved from a location.
+   * 
+   * @return the configured loader, or a default loader if no loader was configured
+   */
   @NonNull
+  public IBoundLoader getBoundLoader() {
+    return loader;
+  }
+
+  /**
+   * Get the dynamic context whose document loader is used to locate and load imports.
+   * 
+   * @return the configured dynamic context, or {@code null} if each resolution creates its own
+   *         dynamic context using the {@link #getBoundLoader() bound loader}
+   */
+  @Nullable
   @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "intending to expose this field")
   public DynamicContext getDynamicContext() {
-    synchronized (this) {
-      if (dynamicContext == null) {
-        dynamicContext = new StaticContext().newDynamicContext();
-        dynamicContext.setDocumentLoader(getBoundLoader());
-      }
-      assert dynamicContext != null;
-      return dynamicContext;
-    }
+    return dynamicContext;
   }
 
-  @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "intending to store this parameter")
-  public void setDynamicContext(@NonNull DynamicContext dynamicContext) {
-    synchronized (this) {
-      this.dynamicContext = dynamicContext;
+  /**
+   * Get the executor used to resolve the imports of a profile concurrently.
+   * 
+   * @return the executor or {@code null} if imports are resolved sequentially
+   */
+  @Nullable
+  public Executor getImportExecutor() {
+    return importExecutor;
+  }
+
+  /**
+   * Get the cache used to reuse previously resolved catalogs.
+   * 
+   * @return the cache or {@code null} if resolved catalogs are not cached
+   */
+  @Nullable
+  public IResolvedCatalogCache getResolvedCatalogCache() {
+    return resolvedCatalogCache;
+  }
+
+  /**
+   * Get the cache used to share parsed imported documents.
+   * 
+   * @return the cache or {@code null} if imported documents are parsed on every import
+   */
+  @Nullable
+  public DocumentCache getDocumentCache() {
+    return documentCache;
+  }
+
+  /**
+   * Get how imported catalogs are copied before they are modified.
+   * 
+   * @return the copy mode
+   */
+  @NonNull
+  public ImportCopyMode getImportCopyMode() {
+    return importCopyMode;
+  }
+
+  /**
+   * Get the listener notified of the timing and activity of resolutions.
+   * 
+   * @return the listener
+   */
+  @NonNull
+  public IResolutionListener getResolutionListener() {
+    return resolutionListener;
+  }
+
+  /**
+   * Get the pool used to apply the modifications of a profile concurrently.
+   * 
+   * @return the pool or {@code null} if modifications are applied sequentially
+   */
+  @Nullable
+  public ForkJoinPool getModifyPool() {
+    return modifyPool;
+  }
+
+  /**
+   * Determine if resolved catalogs are identified using their inputs.
+   * 
+   * @return {@code true} if the output is deterministic, or {@code false} if each resolved catalog is
+   *         given a random UUID
+   */
+  public boolean isDeterministicOutput() {
+    return deterministicOutput;
+  }
+
+  /**
+   * Get the last-modified timestamp used for resolved catalogs.
+   * 
+   * @return the timestamp, or {@code null} if the timestamp is determined for each resolution
+   */
+  @Nullable
+  public ZonedDateTime getLastModified() {
+    return lastModified;
+  }
+
+  /**
+   * Get the dynamic context used by a new resolution.
+   * 
+   * @return the configured dynamic context, or a new dynamic context using the
+   *         {@link #getBoundLoader() bound loader} if none is configured
+   */
+  @NonNull
+  DynamicContext newDynamicContext() {
+    DynamicContext retval = getDynamicContext();
+    if (retval == null) {
+      retval = new StaticContext().newDynamicContext();
+      retval.setDocumentLoader(getBoundLoader());
     }
+    return retval;
   }
 
   @NonNull
-  protected EntityResolver getEntityResolver(@NonNull URI documentUri) {
-    return new DocumentEntityResolver(documentUri);
+  private ResolutionContext newResolutionContext(
+      @NonNull DynamicContext dynamicContext,
+      @Nullable ResolutionBudget budget,
+      boolean trackDependencies) {
+    return newResolutionContext(dynamicContext, budget, trackDependencies, null);
+  }
+
+  @NonNull
+  private ResolutionContext newResolutionContext(
+      @NonNull DynamicContext dynamicContext,
+      @Nullable ResolutionBudget budget,
+      boolean trackDependencies,
+      @Nullable ReferenceGraph referenceGraph) {
+    // the budget of a limited resolution checks the limits as progress is reported
+    return new ResolutionContext(
+        dynamicContext,
+        budget == null ? getResolutionListener() : budget,
+        getImportExecutor(),
+        budget,
+        // a deterministic identity is derived from the digests of the imports
+        trackDependencies || isDeterministicOutput(),
+        referenceGraph);
+  }
+
+  /**
+   * Get the entity resolver used to resolve the references made by a document.
+   * 
+   * @param documentUri
+   *          the location of the document, against which relative references are resolved
+   * @param context
+   *          the state of the current resolution, whose document loader is used to resolve entities
+   * @return the entity resolver
+   */
+  @NonNull
+  protected EntityResolver getEntityResolver(@NonNull URI documentUri, @NonNull ResolutionContext context) {
+    return new DocumentEntityResolver(documentUri, context.getDocumentLoader());
   }
 
   public IDocumentNodeItem resolveProfile(@NonNull URL url)
       throws URISyntaxException, IOException, ProfileResolutionException {
     IBoundLoader loader = getBoundLoader();
     IDocumentNodeItem catalogOrProfile = loader.loadAsNodeItem(url);
-    return resolve(catalogOrProfile);
+    return resolveUsingCache(catalogOrProfile, null);
   }
 
   public IDocumentNodeItem resolveProfile(@NonNull Path path) throws IOException, ProfileResolutionException {
     IBoundLoader loader = getBoundLoader();
     IDocumentNodeItem catalogOrProfile = loader.loadAsNodeItem(path);
-    return resolve(catalogOrProfile);
+    return resolveUsingCache(catalogOrProfile, null);
   }
 
   public IDocumentNodeItem resolveProfile(@NonNull File file) throws IOException, ProfileResolutionException {
     return resolveProfile(ObjectUtils.notNull(file.toPath()));
   }
 
+  /**
+   * Resolve the profile at the provided location, enforcing the limits of the provided options.
+   * 
+   * @param path
+   *          the location of the profile to resolve
+   * @param options
+   *          the limits to enforce and the token used to cancel the resolution
+   * @return the resolved profile
+   * @throws IOException
+   *           if an error occurred while loading the profile or an import
+   * @throws ResolutionLimitExceededException
+   *           if the resolution exceeded one of the limits
+   * @throws ResolutionCancelledException
+   *           if the resolution was cancelled
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the profile
+   */
+  @NonNull
+  public IDocumentNodeItem resolveProfile(@NonNull Path path, @NonNull ProfileResolutionOptions options)
+      throws IOException, ProfileResolutionException {
+    IBoundLoader loader = getBoundLoader();
+    IDocumentNodeItem catalogOrProfile = loader.loadAsNodeItem(path);
+    return resolve(catalogOrProfile, options);
+  }
+
+  /**
+   * Resolve the provided profile, enforcing the limits of the provided options.
+   * <p>
+   * The limits apply to this resolution only, and are checked as the imports, selection, reference
+   * handling and modifications make progress. When a limit is exceeded or the resolution is
+   * cancelled, the resolution stops at the next check and any outstanding concurrent work is
+   * abandoned.
+   * 
+   * @param profileOrCatalog
+   *          a {@link IDocumentNodeItem} containing the profile to resolve
+   * @param options
+   *          the limits to enforce and the token used to cancel the resolution
+   * @return the resolved profile
+   * @throws IOException
+   *           if an error occurred while loading the profile or an import
+   * @throws ResolutionLimitExceededException
+   *           if the resolution exceeded one of the limits
+   * @throws ResolutionCancelledException
+   *           if the resolution was cancelled
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the profile
+   */
+  @NonNull
+  public IDocumentNodeItem resolve(@NonNull IDocumentNodeItem profileOrCatalog,
+      @NonNull ProfileResolutionOptions options) throws IOException, ProfileResolutionException {
+    ResolutionBudget budget = new ResolutionBudget(options, getResolutionListener());
+    try {
+      budget.checkpoint();
+      return resolveUsingCache(profileOrCatalog, budget);
+    } catch (ResolutionBudget.AbortedException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Resolve the provided profile, using the document loader of the provided dynamic context to
+   * locate and load its imports instead of the configured one.
+   * 
+   * @param profileOrCatalog
+   *          a {@link IDocumentNodeItem} containing the profile to resolve
+   * @param dynamicContext
+   *          the dynamic context to use for this resolution
+   * @return the resolved profile
+   * @throws IOException
+   *           if an error occurred while loading the profile or an import
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the profile
+   */
+  @NonNull
+  public IDocumentNodeItem resolve(@NonNull IDocumentNodeItem profileOrCatalog,
+      @NonNull DynamicContext dynamicContext) throws IOException, ProfileResolutionException {
+    return resolve(profileOrCatalog, newResolutionContext(dynamicContext, null, false));
+  }
+
+  /**
+   * Resolve the provided profile, recording the references counted while filtering its imported
+   * content in the provided graph.
+   * <p>
+   * The graph is only populated by this resolution, so the
+   * {@link #getResolvedCatalogCache() resolved catalog cache} is not used. The graph holds the nodes
+   * of the imported documents, so the caller should discard it once it is no longer needed.
+   * 
+   * @param profileOrCatalog
+   *          a {@link IDocumentNodeItem} containing the profile to resolve
+   * @param referenceGraph
+   *          the graph to record references in
+   * @return the resolved profile
+   * @throws IOException
+   *           if an error occurred while loading the profile or an import
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the profile
+   */
+  @NonNull
+  public IDocumentNodeItem resolve(@NonNull IDocumentNodeItem profileOrCatalog,
+      @NonNull ReferenceGraph referenceGraph) throws IOException, ProfileResolutionException {
+    return resolve(profileOrCatalog, newResolutionContext(newDynamicContext(), null, false, referenceGraph));
+  }
+
+  /**
+   * Asynchronously resolve the profile at the provided location.
+   * 
+   * @param path
+   *          the location of the profile to resolve
+   * @param executor
+   *          the executor used to load documents and resolve profiles
+   * @return a future completing with the resolved profile
+   * @see #resolveProfileAsync(URI, Executor)
+   */
+  @NonNull
+  public CompletableFuture<IDocumentNodeItem> resolveProfileAsync(@NonNull Path path, @NonNull Executor executor) {
+    return resolveProfileAsync(ObjectUtils.notNull(path.toUri()), executor);
+  }
+
+  /**
+   * Asynchronously resolve the profile at the provided location.
+   * <p>
+   * The profile and its transitive imports are loaded as tasks on the provided executor, with each
+   * distinct document being loaded a single time. An imported profile is resolved as soon as its
+   * own imports have been resolved, so loading the remaining imports overlaps with resolving the
+   * imports that are already loaded. No task waits on another task, so any executor can be used,
+   * including one that creates a virtual thread per task.
+   * <p>
+   * The configured {@link #getResolvedCatalogCache() resolved catalog cache} is not used.
+   * 
+   * @param uri
+   *          the location of the profile to resolve
+   * @param executor
+   *          the executor used to load documents and resolve profiles
+   * @return a future completing with the resolved profile, or exceptionally with a
+   *         {@link CompletionException} whose cause is the {@link IOException} or
+   *         {@link ProfileResolutionException} that occurred
+   */
+  @NonNull
+  public CompletableFuture<IDocumentNodeItem> resolveProfileAsync(@NonNull URI uri, @NonNull Executor executor) {
+    return new AsyncResolver(this, executor).resolveAsync(uri);
+  }
+
+  /**
+   * Asynchronously resolve the provided profile, loading its transitive imports as described by
+   * {@link #resolveProfileAsync(URI, Executor)}.
+   * 
+   * @param profileOrCatalog
+   *          a {@link IDocumentNodeItem} containing the profile to resolve
+   * @param executor
+   *          the executor used to load documents and resolve profiles
+   * @return a future completing with the resolved profile, or exceptionally with a
+   *         {@link CompletionException} whose cause is the {@link IOException} or
+   *         {@link ProfileResolutionException} that occurred
+   */
+  @NonNull
+  public CompletableFuture<IDocumentNodeItem> resolveAsync(
+      @NonNull IDocumentNodeItem profileOrCatalog,
+      @NonNull Executor executor) {
+    return new AsyncResolver(this, executor).resolveAsync(profileOrCatalog);
+  }
+
+  /**
+   * Resolve a set of profiles together, loading each distinct document in their combined import
+   * graph only once.
+   * <p>
+   * The documents transitively imported by all of the profiles are first loaded concurrently using
+   * the provided executor, with each distinct document being loaded a single time, and the combined
+   * import graph is checked for cycles. The profiles are then resolved concurrently. Each distinct
+   * imported profile, including a requested profile imported by another requested profile, is
+   * resolved once and shared by every profile importing it.
+   * <p>
+   * Using the {@link ImportCopyMode#SELECTIVE} import copy mode avoids copying each large shared
+   * catalog in full for every import. In this mode, the content selected from a shared document is
+   * also determined once for all imports of that document making the same selection.
+   * <p>
+   * Imports of each profile are resolved sequentially on the task resolving that profile.
+   * 
+   * @param profileUris
+   *          the locations of the profiles to resolve
+   * @param executor
+   *          the executor used to load documents and resolve profiles
+   * @return a mapping of each profile location to its resolved catalog, in the order provided
+   * @throws IOException
+   *           if an error occurred while loading a profile or an import
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving a profile
+   */
+  @NonNull
+  public Map<URI, IDocumentNodeItem> resolveAll(
+      @NonNull Collection<URI> profileUris,
+      @NonNull Executor executor) throws IOException, ProfileResolutionException {
+    return new BatchResolver(this, executor).resolveBatch(profileUris);
+  }
+
+  /**
+   * Resolve the profile to a catalog, reusing a previously resolved catalog from the configured
+   * cache if the profile and all of its transitive imports are unchanged.
+   * 
+   * @param profileOrCatalog
+   *          a {@link IDocumentNodeItem} containing the profile to resolve
+   * @param budget
+   *          the limits of the resolution, or {@code null} if the resolution is not limited
+   * @return the resolved profile
+   * @throws IOException
+   *           if an error occurred while loading the profile or an import
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the profile
+   */
+  @NonNull
+  private IDocumentNodeItem resolveUsingCache(
+      @NonNull IDocumentNodeItem profileOrCatalog,
+      @Nullable ResolutionBudget budget) throws IOException, ProfileResolutionException {
+    IResolvedCatalogCache cache = getResolvedCatalogCache();
+    if (cache == null || !(profileOrCatalog.getValue() instanceof Profile)) {
+      return resolve(profileOrCatalog, newResolutionContext(newDynamicContext(), budget, false));
+    }
+
+    URI profileUri = profileOrCatalog.getDocumentUri();
+    String profileDigest = ContentDigest.digest(profileUri);
+    String key = ContentDigest.key(profileUri, profileDigest, getCacheConfiguration());
+
+    ResolvedCatalogEntry entry;
+    try {
+      entry = cache.get(key);
+    } catch (IOException ex) {
+      LOGGER.atWarn().log("unable to read the resolved catalog cache for profile '{}', resolving without the cache: {}",
+          profileUri, ex.getLocalizedMessage());
+      return resolve(profileOrCatalog, newResolutionContext(newDynamicContext(), budget, false));
+    }
+
+    if (entry != null && entry.isCurrent(profileDigest)) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.atDebug().log("using cached resolved catalog for profile '{}'", profileUri);
+      }
+      // the cached catalog is shared, so each caller is given its own copy, identified as a new
+      // resolution unless the identity is derived from the inputs
+      IDocumentNodeItem retval = copyDocument(entry.getResolvedCatalog());
+      if (!isDeterministicOutput()) {
+        ((Catalog) retval.getValue()).setUuid(UUID.randomUUID());
+      }
+      return retval;
+    }
+
+    // Each import is digested as it is resolved, before it is loaded. A change made during the
+    // resolution makes the stored catalog out of date, instead of being associated with it.
+    ResolutionContext context = newResolutionContext(newDynamicContext(), budget, true);
+    IDocumentNodeItem retval = resolve(profileOrCatalog, context);
+
+    Map<URI, String> dependencies = context.getDependencies();
+    try {
+      cache.put(key, new ResolvedCatalogEntry(
+          ContentDigest.combine(profileDigest, dependencies),
+          dependencies,
+          copyDocument(retval)));
+    } catch (IOException ex) {
+      LOGGER.atWarn().log("unable to store the resolved catalog for profile '{}' in the cache: {}",
+          profileUri, ex.getLocalizedMessage());
+    }
+    return retval;
+  }
+
+  /**
+   * Get a description of the configuration of this resolver that affects the content of a resolved
+   * catalog. This is included in the key used to cache a resolved catalog, so that a catalog
+   * resolved using a different configuration is not reused.
+   * <p>
+   * The default implementation identifies the resolver's class, since a subclass may change how a
+   * profile is resolved, the {@link #getImportCopyMode() import copy mode}, and how the resolved
+   * catalog is {@link #isDeterministicOutput() identified} and {@link #getLastModified() timestamped}.
+   * Subclasses that add configuration affecting the resolved catalog must include it in the returned
+   * value.
+   * 
+   * @return the configuration description
+   */
+  @NonNull
+  protected String getCacheConfiguration() {
+    return getClass().getName()
+        + " importCopyMode=" + getImportCopyMode()
+        + " deterministicOutput=" + isDeterministicOutput()
+        + " lastModified=" + getLastModified();
+  }
+
+  /**
+   * Create a deep copy of a document, which can be modified without affecting the original.
+   * 
+   * @param document
+   *          the document to copy
+   * @return the copy
+   * @throws IOException
+   *           if an error occurred while copying the document
+   */
+  @NonNull
+  private static IDocumentNodeItem copyDocument(@NonNull IDocumentNodeItem document) throws IOException {
+    try {
+      return DefaultNodeItemFactory.instance().newDocumentNodeItem(
+          document.getRootAssemblyNodeItem().getDefinition(),
+          OscalBindingContext.instance().copyBoundObject(document.getValue(), null),
+          document.getDocumentUri());
+    } catch (BindingException ex) {
+      throw new IOException(ex);
+    }
+  }
+
   /**
    * Resolve the profile to a catalog.
    * 
    * @param profileDocument
    *          a {@link IDocumentNodeItem} containing the profile to resolve
-   * @param importHistory
-   *          the import stack for cycle detection
+   * @param context
+   *          the state of the current resolution
    * @return the resolved profile
    * @throws IOException
    *           if an error occurred while loading the profile or an import
@@ -195,33 +690,55 @@ public class ProfileResolver {
   @NonNull
   protected IDocumentNodeItem resolveProfile(
       @NonNull IDocumentNodeItem profileDocument,
-      @NonNull Stack<URI> importHistory) throws IOException, ProfileResolutionException {
+      @NonNull ResolutionContext context) throws IOException, ProfileResolutionException {
+    ResolutionTimer timer = ResolutionTimer.start();
+
     Catalog resolvedCatalog = new Catalog();
 
     generateMetadata(resolvedCatalog, profileDocument);
 
-    IIndexer index = resolveImports(resolvedCatalog, profileDocument, importHistory);
+    IIndexer index = resolveImports(resolvedCatalog, profileDocument, context);
+    if (isDeterministicOutput()) {
+      generateDeterministicIdentity(resolvedCatalog, profileDocument, context);
+    }
     handleReferences(resolvedCatalog, profileDocument, index);
-    handleMerge(resolvedCatalog, profileDocument, index);
-    handleModify(resolvedCatalog, profileDocument);
 
-    return DefaultNodeItemFactory.instance().newDocumentNodeItem(
-        new RootAssemblyDefinition(
-            ObjectUtils.notNull(
-                (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Catalog.class))),
-        resolvedCatalog,
-        profileDocument.getBaseUri());
+    // the node item tree over the resolved catalog is shared by the remaining phases
+    ResolvedCatalogDocument resolvedDocument
+        = new ResolvedCatalogDocument(resolvedCatalog, ObjectUtils.notNull(profileDocument.getBaseUri()));
+    handleMerge(resolvedDocument, profileDocument, index, context);
+    handleModify(resolvedDocument, profileDocument, context);
+
+    IDocumentNodeItem retval = resolvedDocument.getDocument();
+    context.getResolutionListener().resolutionCompleted(
+        ObjectUtils.notNull(profileDocument.getDocumentUri()),
+        timer.getWallNanos(),
+        timer.getCpuNanos());
+    return retval;
   }
 
   @NonNull
   public IDocumentNodeItem resolve(@NonNull IDocumentNodeItem profileOrCatalog)
       throws IOException, ProfileResolutionException {
-    return resolve(profileOrCatalog, new Stack<>());
+    return resolve(profileOrCatalog, newResolutionContext(newDynamicContext(), null, false));
   }
 
+  /**
+   * Resolve the provided document, which is returned as-is if it is already a catalog.
+   * 
+   * @param profileOrCatalog
+   *          a {@link IDocumentNodeItem} containing the profile to resolve
+   * @param context
+   *          the state of the current resolution
+   * @return the resolved profile
+   * @throws IOException
+   *           if an error occurred while loading the profile or an import
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the profile
+   */
   @NonNull
   protected IDocumentNodeItem resolve(@NonNull IDocumentNodeItem profileOrCatalog,
-      @NonNull Stack<URI> importHistory)
+      @NonNull ResolutionContext context)
       throws IOException, ProfileResolutionException {
     Object profileObject = profileOrCatalog.getValue();
 
@@ -231,7 +748,7 @@ public class ProfileResolver {
       retval = profileOrCatalog;
     } else {
       // must be a profile
-      retval = resolveProfile(profileOrCatalog, importHistory);
+      retval = resolveProfile(profileOrCatalog, context);
     }
     return retval;
   }
@@ -251,7 +768,7 @@ public class ProfileResolver {
     return (Profile) object;
   }
 
-  private static void generateMetadata(@NonNull Catalog resolvedCatalog, @NonNull IDocumentNodeItem profileDocument) {
+  private void generateMetadata(@NonNull Catalog resolvedCatalog, @NonNull IDocumentNodeItem profileDocument) {
     resolvedCatalog.setUuid(UUID.randomUUID());
 
     Profile profile = toProfile(profileDocument);
@@ -267,7 +784,8 @@ public class ProfileResolver {
     // metadata.setOscalVersion(OscalUtils.OSCAL_VERSION);
     resolvedMetadata.setOscalVersion(profileMetadata.getOscalVersion());
 
-    resolvedMetadata.setLastModified(ZonedDateTime.now(ZoneOffset.UTC));
+    ZonedDateTime timestamp = getLastModified();
+    resolvedMetadata.setLastModified(timestamp == null ? ZonedDateTime.now(ZoneOffset.UTC) : timestamp);
 
     resolvedMetadata.addProp(AbstractProperty.builder("resolution-tool").value("libOSCAL-Java").build());
 
@@ -277,11 +795,69 @@ public class ProfileResolver {
     resolvedCatalog.setMetadata(resolvedMetadata);
   }
 
+  /**
+   * Replace the random UUID and, if no timestamp is configured, the current time of a resolved
+   * catalog with values derived from the inputs of the resolution.
+   * <p>
+   * The UUID is derived from the content digests of the profile and its imports. An imported profile
+   * contributes the UUID of its resolved catalog, which is derived in the same way from its own
+   * imports.
+   * 
+   * @param resolvedCatalog
+   *          the resolved catalog, whose imports have been resolved
+   * @param profileDocument
+   *          the profile being resolved
+   * @param context
+   *          the state of the current resolution
+   * @throws IOException
+   *           if an error occurred while reading the content of an input
+   */
+  private void generateDeterministicIdentity(
+      @NonNull Catalog resolvedCatalog,
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull ResolutionContext context) throws IOException {
+    List<String> digests = new ArrayList<>();
+    digests.add(context.getDigest(ObjectUtils.notNull(profileDocument.getDocumentUri())));
+    ZonedDateTime latest = toProfile(profileDocument).getMetadata().getLastModified();
+
+    for (IRequiredValueModelNodeItem profileImportItem : profileDocument.getRootAssemblyNodeItem()
+        .getModelItemsByName("import")) {
+      ProfileImport profileImport = (ProfileImport) ObjectUtils.notNull(profileImportItem.getValue());
+
+      // the imports have been resolved, so the href is valid
+      InputSource source
+          = newImportSource(ObjectUtils.requireNonNull(profileImport.getHref()), profileDocument, context);
+      if (source.getByteStream() == null && source.getCharacterStream() == null) {
+        // embedded content is covered by the profile's digest
+        digests.add(context.getDigest(ObjectUtils.notNull(URI.create(source.getSystemId()))));
+      }
+
+      IDocumentNodeItem importedDocument = context.getImportedDocument(profileImport);
+      if (importedDocument != null) {
+        Catalog importedCatalog = (Catalog) importedDocument.getValue();
+        if (importedCatalog.getUuid() != null) {
+          digests.add(importedCatalog.getUuid().toString());
+        }
+
+        Metadata importedMetadata = importedCatalog.getMetadata();
+        ZonedDateTime importedLastModified = importedMetadata == null ? null : importedMetadata.getLastModified();
+        if (latest == null || importedLastModified != null && importedLastModified.isAfter(latest)) {
+          latest = importedLastModified;
+        }
+      }
+    }
+
+    resolvedCatalog.setUuid(ContentDigest.nameBasedUuid(digests));
+    if (getLastModified() == null && latest != null) {
+      resolvedCatalog.getMetadata().setLastModified(latest.withZoneSameInstant(ZoneOffset.UTC));
+    }
+  }
+
   @NonNull
   private IIndexer resolveImports(
       @NonNull Catalog resolvedCatalog,
       @NonNull IDocumentNodeItem profileDocument,
-      @NonNull Stack<URI> importHistory)
+      @NonNull ResolutionContext context)
       throws IOException, ProfileResolutionException {
 
     IRootAssemblyNodeItem profileItem = profileDocument.getRootAssemblyNodeItem();
@@ -292,20 +868,80 @@ public class ProfileResolver {
       throw new ProfileResolutionException(String.format("Profile '%s' has no imports", profileItem.getBaseUri()));
     }
 
+    Executor executor = context.getImportExecutor();
+    if (executor != null && profileImports.size() > 1 && context.getImportHistory().isEmpty()) {
+      return new ConcurrentImportResolver(this, executor, context)
+          .resolveImports(resolvedCatalog, profileDocument, profileImports);
+    }
+
     // now process each import
     IIndexer retval = new BasicIndexer();
     for (IRequiredValueModelNodeItem profileImportItem : profileImports) {
-      IIndexer result = resolveImport(profileImportItem, profileDocument, importHistory, resolvedCatalog);
+      IIndexer result = resolveImport(profileImportItem, profileDocument, resolvedCatalog, context);
       retval.append(result);
     }
     return retval;
   }
 
+  /**
+   * Wait for a future to complete, rethrowing the cause of a failure.
+   * 
+   * @param <T>
+   *          the type of the future's result
+   * @param future
+   *          the future to wait on
+   * @return the future's result
+   * @throws IOException
+   *           if the future failed with this exception
+   * @throws ProfileResolutionException
+   *           if the future failed with this exception
+   */
+  @NonNull
+  static <T> T await(@NonNull CompletableFuture<T> future)
+      throws IOException, ProfileResolutionException {
+    try {
+      return ObjectUtils.notNull(future.join());
+    } catch (CompletionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof ProfileResolutionException) {
+        throw (ProfileResolutionException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Resolve a single import of a profile, adding the selected content to the resolved catalog.
+   * <p>
+   * An imported document is loaded and resolved only once during a given resolution. When the same
+   * document is imported again, the previously resolved document is reused. Since a resolved
+   * document is shared in this way, it is copied before being modified by the import.
+   * 
+   * @param profileImportItem
+   *          the import to resolve
+   * @param profileDocument
+   *          the profile containing the import
+   * @param resolvedCatalog
+   *          the catalog to add the resolved content to
+   * @param context
+   *          the state of the current resolution, whose import history is used for cycle detection
+   * @return the index of the resolved content
+   * @throws IOException
+   *           if an error occurred while loading the import
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the import
+   */
   protected IIndexer resolveImport(
       @NonNull IRequiredValueModelNodeItem profileImportItem,
       @NonNull IDocumentNodeItem profileDocument,
-      @NonNull Stack<URI> importHistory,
-      @NonNull Catalog resolvedCatalog) throws IOException, ProfileResolutionException {
+      @NonNull Catalog resolvedCatalog,
+      @NonNull ResolutionContext context) throws IOException, ProfileResolutionException {
     ProfileImport profileImport = (ProfileImport) profileImportItem.getValue();
 
     URI importUri = profileImport.getHref();
@@ -316,11 +952,13 @@ public class ProfileResolver {
     if (LOGGER.isDebugEnabled()) {
       LOGGER.atDebug().log("resolving profile import '{}'", importUri);
     }
+    context.checkImport(importUri);
 
-    InputSource source = newImportSource(importUri, profileDocument);
+    InputSource source = newImportSource(importUri, profileDocument, context);
     URI sourceUri = ObjectUtils.notNull(URI.create(source.getSystemId()));
 
     // check for import cycle
+    Stack<URI> importHistory = context.getImportHistory();
     try {
       requireNonCycle(
           sourceUri,
@@ -329,11 +967,30 @@ public class ProfileResolver {
       throw new IOException(ex);
     }
 
+    // content embedded in a back-matter resource is covered by the importing document's digest
+    if (source.getByteStream() == null && source.getCharacterStream() == null) {
+      context.recordDependency(sourceUri);
+    }
+
+    ResolutionTimer timer = ResolutionTimer.start();
+    IResolutionListener listener = context.getResolutionListener();
+    URI profileUri = ObjectUtils.notNull(profileDocument.getDocumentUri());
+
     // track the import in the import history
     importHistory.push(sourceUri);
     try {
-      IDocumentNodeItem document = getDynamicContext().getDocumentLoader().loadAsNodeItem(source);
-      IDocumentNodeItem importedCatalog = resolve(document, importHistory);
+      IDocumentNodeItem importedCatalog = resolveImportedDocument(source, sourceUri, context);
+      context.recordImportedDocument(profileImport, importedCatalog);
+
+      if (ImportCopyMode.SELECTIVE.equals(getImportCopyMode())) {
+        // only the retained content is copied
+        Import selectiveImport
+            = new Import(profileDocument, profileImportItem, listener, context.getReferenceGraph());
+        IIndexer selection = selectImportedContent(selectiveImport, importedCatalog, context);
+        IIndexer retval = selectiveImport.resolveSelected(importedCatalog, selection, resolvedCatalog);
+        listener.importCompleted(profileUri, sourceUri, timer.getWallNanos(), timer.getCpuNanos());
+        return retval;
+      }
 
       // Create a defensive deep copy of the document and associated values, since we will be making
       // changes to the data.
@@ -343,8 +1000,9 @@ public class ProfileResolver {
             OscalBindingContext.instance().copyBoundObject(importedCatalog.getValue(), null),
             importedCatalog.getDocumentUri());
 
-        IIndexer retval = new Import(profileDocument, profileImportItem)
+        IIndexer retval = new Import(profileDocument, profileImportItem, listener, context.getReferenceGraph())
             .resolve(importedCatalog, resolvedCatalog);
+        listener.importCompleted(profileUri, sourceUri, timer.getWallNanos(), timer.getCpuNanos());
 
         return retval;
       } catch (BindingException ex) {
@@ -357,13 +1015,143 @@ public class ProfileResolver {
     }
   }
 
+  /**
+   * Load and resolve an imported document, reusing the resolution of the same document by another
+   * import of the same resolution.
+   * 
+   * @param source
+   *          the imported document's source
+   * @param sourceUri
+   *          the imported document's location
+   * @param context
+   *          the state of the current resolution
+   * @return the resolved document
+   * @throws IOException
+   *           if an error occurred while loading the document or one of its imports
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the document
+   */
+  @NonNull
+  IDocumentNodeItem resolveImportedDocument(
+      @NonNull InputSource source,
+      @NonNull URI sourceUri,
+      @NonNull ResolutionContext context)
+      throws IOException, ProfileResolutionException {
+    ConcurrentMap<URI, CompletableFuture<IDocumentNodeItem>> resolvedImports = context.getResolvedImports();
+    CompletableFuture<IDocumentNodeItem> future = new CompletableFuture<>();
+    CompletableFuture<IDocumentNodeItem> existing = resolvedImports.putIfAbsent(sourceUri, future);
+    if (existing != null) {
+      // A resolution in progress on another import path is only found when imports are resolved
+      // concurrently, in which case the import graph was checked for cycles before it was resolved. That
+      // resolution does not depend on this one, and can be waited on.
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.atDebug().log("reusing the resolved import '{}'", sourceUri);
+      }
+      return await(existing);
+    }
+
+    try {
+      // use the document if it was loaded in advance
+      IDocumentNodeItem document = context.getLoadedDocument(source);
+      if (document == null) {
+        document = loadImport(source, context);
+      }
+
+      IDocumentNodeItem retval = resolve(document, context);
+      future.complete(retval);
+      return retval;
+    } catch (IOException | ProfileResolutionException | RuntimeException ex) {
+      // waiting imports receive the failure, while a later import resolves the document again
+      resolvedImports.remove(sourceUri, future);
+      future.completeExceptionally(ex);
+      throw ex;
+    }
+  }
+
+  /**
+   * Determine the content of an imported document retained by an import, when using the
+   * {@link ImportCopyMode#SELECTIVE} import copy mode.
+   * <p>
+   * The content selected from a document is shared by all imports of the document in the same
+   * resolution making the same selection.
+   * 
+   * @param profileImport
+   *          the import
+   * @param importedCatalog
+   *          the imported document, which must not be modified
+   * @param context
+   *          the state of the current resolution
+   * @return the index recording the retained content, which must not be modified
+   * @throws ProfileResolutionException
+   *           if an error occurred while selecting the content
+   */
+  @NonNull
+  protected IIndexer selectImportedContent(
+      @NonNull Import profileImport,
+      @NonNull IDocumentNodeItem importedCatalog,
+      @NonNull ResolutionContext context) throws ProfileResolutionException {
+    String selectionKey = profileImport.getSelectionKey();
+    CompletableFuture<IIndexer> future = new CompletableFuture<>();
+    CompletableFuture<IIndexer> existing = context.putSelectionIfAbsent(importedCatalog, selectionKey, future);
+    if (existing != null) {
+      // a selection does not resolve any imports, so waiting on one in progress cannot deadlock
+      try {
+        return await(existing);
+      } catch (IOException ex) {
+        throw new ProfileResolutionException(ex.getLocalizedMessage(), ex);
+      }
+    }
+
+    try {
+      IIndexer retval = profileImport.select(importedCatalog);
+      future.complete(retval);
+      return retval;
+    } catch (ProfileResolutionException | RuntimeException ex) {
+      // waiting imports receive the failure, while later imports select the content again
+      context.removeSelection(importedCatalog, selectionKey, future);
+      future.completeExceptionally(ex);
+      throw ex;
+    }
+  }
+
+  /**
+   * Load the document identified by an import source, using the configured document cache if one is
+   * available.
+   * 
+   * @param source
+   *          the import source
+   * @param context
+   *          the state of the current resolution, whose document loader is used to load the document
+   * @return the loaded document
+   * @throws IOException
+   *           if an error occurred while loading the document
+   */
+  @NonNull
+  protected IDocumentNodeItem loadImport(@NonNull InputSource source, @NonNull ResolutionContext context)
+      throws IOException {
+    ResolutionTimer timer = ResolutionTimer.start();
+    DocumentCache cache = getDocumentCache();
+    IDocumentLoader documentLoader = context.getDocumentLoader();
+
+    IDocumentNodeItem retval;
+    if (cache == null) {
+      retval = documentLoader.loadAsNodeItem(source);
+    } else {
+      retval = cache.get(source, importSource -> documentLoader.loadAsNodeItem(importSource));
+    }
+    timer.phaseCompleted(context.getResolutionListener(), ObjectUtils.notNull(retval.getDocumentUri()),
+        ResolutionPhase.LOAD);
+    return retval;
+  }
+
   @NonNull
   protected InputSource newImportSource(
       @NonNull URI importUri,
-      @NonNull IDocumentNodeItem profileDocument) throws IOException {
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull ResolutionContext context) throws IOException {
 
     // Get the entity resolver to resolve relative references in the profile
-    EntityResolver resolver = getEntityResolver(profileDocument.getDocumentUri());
+    EntityResolver resolver = getEntityResolver(ObjectUtils.notNull(profileDocument.getDocumentUri()), context);
 
     InputSource source;
     if (OscalUtils.isInternalReference(importUri)) {
@@ -394,7 +1182,17 @@ public class ProfileResolver {
     return source;
   }
 
-  private static void requireNonCycle(@NonNull URI uri, @NonNull Stack<URI> importHistory)
+  /**
+   * Verify that importing the identified document does not form an import cycle.
+   * 
+   * @param uri
+   *          the location of the imported document
+   * @param importHistory
+   *          the locations of the profiles importing the document
+   * @throws ImportCycleException
+   *           if the document is already in the import history
+   */
+  static void requireNonCycle(@NonNull URI uri, @NonNull Stack<URI> importHistory)
       throws ImportCycleException {
     List<URI> cycle = checkCycle(uri, importHistory);
     if (!cycle.isEmpty()) {
@@ -416,6 +1214,16 @@ public class ProfileResolver {
     return retval;
   }
 
+  @NonNull
+  private static ControlCombiner.Method getCombineMethod(@NonNull Profile profile) {
+    Merge merge = profile.getMerge();
+    Merge.Combine combine = merge == null ? null : merge.getCombine();
+    String method = combine == null ? null : combine.getMethod();
+
+    // duplicate controls are kept by default, which was the only behavior before combine was supported
+    return method == null ? ControlCombiner.Method.KEEP : ControlCombiner.Method.lookup(method);
+  }
+
   // TODO: move this to an abstract method on profile
   private static StructuringDirective getStructuringDirective(Profile profile) {
     Merge merge = profile.getMerge();
@@ -433,194 +1241,180 @@ public class ProfileResolver {
     return retval;
   }
 
-  protected void handleMerge(@NonNull Catalog resolvedCatalog, @NonNull IDocumentNodeItem profileDocument,
-      @NonNull IIndexer importIndex) {
+  protected void handleMerge(@NonNull ResolvedCatalogDocument resolvedDocument,
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull IIndexer importIndex,
+      @NonNull ResolutionContext context) throws ProfileResolutionException {
+    ResolutionTimer timer = ResolutionTimer.start();
+    IResolutionListener listener = context.getResolutionListener();
+
+    Profile profile = toProfile(profileDocument);
+
     // handle combine
+    try {
+      ControlCombiner.Method combineMethod = getCombineMethod(profile);
+      if (!ControlCombiner.Method.KEEP.equals(combineMethod)) {
+        int combined = new ControlCombiner(combineMethod).combine(resolvedDocument.getCatalog());
+        if (combined > 0) {
+          listener.increment(ResolutionCounter.CONTROLS_COMBINED, combined);
+          // the duplicate controls have been removed
+          resolvedDocument.invalidate();
+        }
+      }
+    } catch (ProfileResolutionEvaluationException ex) {
+      throw new ProfileResolutionException(ex.getLocalizedMessage(), ex);
+    }
 
     // handle structuring
-    switch (getStructuringDirective(toProfile(profileDocument))) {
+    switch (getStructuringDirective(profile)) {
     case AS_IS:
       // do nothing
       break;
     case CUSTOM:
-      throw new UnsupportedOperationException("custom structuring");
+      structureCustom(resolvedDocument, profileDocument);
+      break;
     case FLAT:
     default:
-      structureFlat(resolvedCatalog, profileDocument, importIndex);
+      structureFlat(resolvedDocument, importIndex);
       break;
     }
 
+    timer.phaseCompleted(listener, ObjectUtils.notNull(profileDocument.getDocumentUri()), ResolutionPhase.MERGE);
   }
 
-  protected void structureFlat(@NonNull Catalog resolvedCatalog, @NonNull IDocumentNodeItem profileDocument,
+  protected void structureFlat(@NonNull ResolvedCatalogDocument resolvedDocument,
       @NonNull IIndexer importIndex) {
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("applying flat structuring directive");
     }
 
-    // {
-    // // rebuild an index
-    // IDocumentNodeItem resolvedCatalogItem = DefaultNodeItemFactory.instance().newDocumentNodeItem(
-    // new RootAssemblyDefinition(
-    // ObjectUtils.notNull(
-    // (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Catalog.class))),
-    // resolvedCatalog,
-    // profileDocument.getBaseUri());
-    //
-    // // FIXME: need to find a better way to create an index that doesn't auto select groups
-    // IIndexer indexer = new BasicIndexer();
-    // ControlSelectionVisitor selectionVisitor
-    // = new ControlSelectionVisitor(IControlFilter.ALWAYS_MATCH, indexer);
-    // selectionVisitor.visitCatalog(resolvedCatalogItem);
-    // }
-
-    // rebuild the document, since the paths have changed
-    IDocumentNodeItem resolvedCatalogItem = DefaultNodeItemFactory.instance().newDocumentNodeItem(
-        new RootAssemblyDefinition(
-            ObjectUtils.notNull(
-                (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Catalog.class))),
-        resolvedCatalog,
-        profileDocument.getBaseUri());
-
-    FlatteningStructuringVisitor.instance().visitCatalog(resolvedCatalogItem, importIndex);
-  }
-
-  protected void handleModify(@NonNull Catalog resolvedCatalog, @NonNull IDocumentNodeItem profileDocument)
+    FlatteningStructuringVisitor.instance().visitCatalog(resolvedDocument.getDocument(), importIndex);
+
+    // the paths have changed
+    resolvedDocument.invalidate();
+  }
+
+  protected void structureCustom(@NonNull ResolvedCatalogDocument resolvedDocument,
+      @NonNull IDocumentNodeItem profileDocument) throws ProfileResolutionException {
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("applying custom structuring directive");
+    }
+
+    Merge.Custom custom = ObjectUtils.requireNonNull(toProfile(profileDocument).getMerge().getCustom());
+
+    // index the controls of the resolved catalog, since the import index refers to imported content
+    IIndexer indexer = new BasicIndexer();
+    new ControlIndexingVisitor(ObjectUtils.notNull(EnumSet.of(IEntityItem.ItemType.CONTROL)))
+        .visitCatalog(resolvedDocument.getDocument(), indexer);
+
+    try {
+      // the groups of the directive become part of the resolved catalog, so the profile is left as-is
+      Merge.Custom customCopy = OscalBindingContext.instance().copyBoundObject(custom, null);
+      new CustomStructuringBuilder(indexer).build(resolvedDocument.getCatalog(), ObjectUtils.notNull(customCopy));
+    } catch (BindingException ex) {
+      throw new ProfileResolutionException(
+          String.format("Unable to copy the custom structuring directive in profile '%s'.",
+              profileDocument.getDocumentUri()),
+          ex);
+    } catch (ProfileResolutionEvaluationException ex) {
+      throw new ProfileResolutionException(ex.getLocalizedMessage(), ex);
+    } finally {
+      // the paths have changed
+      resolvedDocument.invalidate();
+    }
+  }
+
+  protected void handleModify(@NonNull ResolvedCatalogDocument resolvedDocument,
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull ResolutionContext context)
       throws ProfileResolutionException {
-    IDocumentNodeItem resolvedCatalogDocument = DefaultNodeItemFactory.instance().newDocumentNodeItem(
-        new RootAssemblyDefinition(
-            ObjectUtils.notNull(
-                (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Catalog.class))),
-        resolvedCatalog,
-        profileDocument.getBaseUri());
+    List<? extends IRequiredValueAssemblyNodeItem> setParameters
+        = METAPATH_SET_PARAMETER.evaluate(profileDocument).asStream()
+            .map(item -> (IRequiredValueAssemblyNodeItem) item)
+            .collect(Collectors.toList());
+    List<? extends IRequiredValueAssemblyNodeItem> alters
+        = METAPATH_ALTER.evaluate(profileDocument).asStream()
+            .map(item -> (IRequiredValueAssemblyNodeItem) item)
+            .collect(Collectors.toList());
+    if (setParameters.isEmpty() && alters.isEmpty()) {
+      // nothing to modify, so the current node item tree remains valid
+      return;
+    }
 
+    ResolutionTimer timer = ResolutionTimer.start();
+    IResolutionListener listener = context.getResolutionListener();
     try {
       IIndexer indexer = new BasicIndexer();
       ControlIndexingVisitor visitor = new ControlIndexingVisitor(
           ObjectUtils.notNull(EnumSet.of(IEntityItem.ItemType.CONTROL, IEntityItem.ItemType.PARAMETER)));
-      visitor.visitCatalog(resolvedCatalogDocument, indexer);
-
-      METAPATH_SET_PARAMETER.evaluate(profileDocument)
-          .forEach(item -> {
-            IRequiredValueAssemblyNodeItem setParameter = (IRequiredValueAssemblyNodeItem) item;
-            try {
-              handleSetParameter(setParameter, indexer);
-            } catch (ProfileResolutionEvaluationException ex) {
-              throw new ProfileResolutionEvaluationException(
-                  String.format("Unable to apply the set-parameter at '%s'. %s",
-                      setParameter.toPath(IPathFormatter.METAPATH_PATH_FORMATER),
-                      ex.getLocalizedMessage()),
-                  ex);
-            }
-          });
-
-      METAPATH_ALTER.evaluate(profileDocument)
-          .forEach(item -> {
-            handleAlter((IRequiredValueAssemblyNodeItem) item, indexer);
-          });
+      visitor.visitCatalog(resolvedDocument.getDocument(), indexer);
+
+      ForkJoinPool pool = getModifyPool();
+      if (pool == null || setParameters.size() + alters.size() < 2) {
+        setParameters.forEach(setParameter -> applySetParameter(ObjectUtils.notNull(setParameter), indexer, listener));
+
+        // alters are applied in document order, indexing each altered control once
+        AlterPlan alterPlan = new AlterPlan();
+        alters.forEach(alter -> applyAlter(ObjectUtils.notNull(alter), indexer, alterPlan, listener));
+      } else {
+        ModificationTargets.applyConcurrently(pool, setParameters, alters, indexer, listener);
+      }
     } catch (ProfileResolutionEvaluationException ex) {
       throw new ProfileResolutionException(ex.getLocalizedMessage(), ex);
+    } finally {
+      // the content of the modified controls and parameters has changed
+      resolvedDocument.invalidate();
+    }
+    timer.phaseCompleted(listener, ObjectUtils.notNull(profileDocument.getDocumentUri()), ResolutionPhase.MODIFY);
+  }
+
+  private void applySetParameter(
+      @NonNull IRequiredValueAssemblyNodeItem setParameter,
+      @NonNull IIndexer indexer,
+      @NonNull IResolutionListener listener) {
+    try {
+      handleSetParameter(setParameter, indexer);
+      listener.increment(ResolutionCounter.SET_PARAMETERS_APPLIED, 1);
+    } catch (ProfileResolutionEvaluationException ex) {
+      throw ModificationTargets.newSetParameterFailure(setParameter, ex);
     }
   }
 
+  private void applyAlter(
+      @NonNull IRequiredValueAssemblyNodeItem alter,
+      @NonNull IIndexer indexer,
+      @NonNull AlterPlan alterPlan,
+      @NonNull IResolutionListener listener) {
+    handleAlter(alter, indexer, alterPlan);
+    listener.increment(ResolutionCounter.ALTERS_APPLIED, 1);
+  }
+
   protected void handleSetParameter(IRequiredValueAssemblyNodeItem item, IIndexer indexer) {
-    ProfileSetParameter setParameter = (Modify.ProfileSetParameter) item.getValue();
-    String paramId = ObjectUtils.requireNonNull(setParameter.getParamId());
-    IEntityItem entity = indexer.getEntity(IEntityItem.ItemType.PARAMETER, paramId, false);
-    if (entity == null) {
-      throw new ProfileResolutionEvaluationException(
-          String.format(
-              "Unable to apply the set-parameter targeting parameter '%s' at '%s'."
-                  + " The parameter does not exist in the resolved catalog.",
-              paramId,
-              item.toPath(IPathFormatter.METAPATH_PATH_FORMATER)));
-    }
-
-    Parameter param = entity.getInstanceValue();
-
-    // apply the set parameter values
-    param.setClazz(ModifyPhaseUtils.mergeItem(param.getClazz(), setParameter.getClazz()));
-    param.setProps(ModifyPhaseUtils.merge(param.getProps(), setParameter.getProps(),
-        ModifyPhaseUtils.identifierKey(Property::getUuid)));
-    param.setLinks(ModifyPhaseUtils.merge(param.getLinks(), setParameter.getLinks(), ModifyPhaseUtils.identityKey()));
-    param.setLabel(ModifyPhaseUtils.mergeItem(param.getLabel(), setParameter.getLabel()));
-    param.setUsage(ModifyPhaseUtils.mergeItem(param.getUsage(), setParameter.getUsage()));
-    param.setConstraints(
-        ModifyPhaseUtils.merge(param.getConstraints(), setParameter.getConstraints(), ModifyPhaseUtils.identityKey()));
-    param.setGuidelines(
-        ModifyPhaseUtils.merge(param.getGuidelines(), setParameter.getGuidelines(), ModifyPhaseUtils.identityKey()));
-    param.setValues(new LinkedList<>(setParameter.getValues()));
-    param.setSelect(setParameter.getSelect());
+    ModificationTargets.applySetParameter(ObjectUtils.notNull(item), ObjectUtils.notNull(indexer));
   }
 
   protected void handleAlter(IRequiredValueAssemblyNodeItem item, IIndexer indexer) {
-    Modify.Alter alter = (Modify.Alter) item.getValue();
-    String controlId = ObjectUtils.requireNonNull(alter.getControlId());
-    IEntityItem entity = indexer.getEntity(IEntityItem.ItemType.CONTROL, controlId, false);
-    if (entity == null) {
-      throw new ProfileResolutionEvaluationException(
-          String.format(
-              "Unable to apply the alter targeting control '%s' at '%s'."
-                  + " The control does not exist in the resolved catalog.",
-              controlId,
-              item.toPath(IPathFormatter.METAPATH_PATH_FORMATER)));
-    }
-    Control control = entity.getInstanceValue();
-
-    METAPATH_ALTER_REMOVE.evaluate(item)
-        .forEach(nodeItem -> {
-          IRequiredValueNodeItem removeItem = (IRequiredValueNodeItem) nodeItem;
-          Modify.Alter.Remove remove = ObjectUtils.notNull((Modify.Alter.Remove) removeItem.getValue());
-
-          try {
-            if (!RemoveVisitor.remove(
-                control,
-                remove.getByName(),
-                remove.getByClass(),
-                remove.getById(),
-                remove.getByNs(),
-                RemoveVisitor.TargetType.forFieldName(remove.getByItemName()))) {
-              throw new ProfileResolutionEvaluationException(
-                  String.format("The remove did not match a valid target"));
-            }
-          } catch (ProfileResolutionEvaluationException ex) {
-            throw new ProfileResolutionEvaluationException(
-                String.format("Unable to apply the remove targeting control '%s' at '%s'. %s",
-                    control.getId(),
-                    removeItem.toPath(IPathFormatter.METAPATH_PATH_FORMATER),
-                    ex.getLocalizedMessage()),
-                ex);
-          }
-        });
-    METAPATH_ALTER_ADD.evaluate(item)
-        .forEach(nodeItem -> {
-          IRequiredValueNodeItem addItem = (IRequiredValueNodeItem) nodeItem;
-          Modify.Alter.Add add = ObjectUtils.notNull((Modify.Alter.Add) addItem.getValue());
-          String byId = add.getById();
-          try {
-            if (!AddVisitor.add(
-                control,
-                AddVisitor.Position.forName(add.getPosition()),
-                byId,
-                add.getTitle(),
-                CollectionUtil.listOrEmpty(add.getParams()),
-                CollectionUtil.listOrEmpty(add.getProps()),
-                CollectionUtil.listOrEmpty(add.getLinks()),
-                CollectionUtil.listOrEmpty(add.getParts()))) {
-
-              throw new ProfileResolutionEvaluationException(
-                  String.format("The add did not match a valid target"));
-            }
-          } catch (ProfileResolutionEvaluationException ex) {
-            throw new ProfileResolutionEvaluationException(
-                String.format("Unable to apply the add targeting control '%s'%s at '%s'. %s",
-                    control.getId(),
-                    byId == null ? "" : String.format(" having by-id '%s'", byId),
-                    addItem.toPath(IPathFormatter.METAPATH_PATH_FORMATER),
-                    ex.getLocalizedMessage()),
-                ex);
-          }
-        });
+    handleAlter(item, indexer, new AlterPlan());
+  }
+
+  /**
+   * Apply the removes and adds of an alter using the provided plan, which allows multiple alters
+   * targeting the same control to be applied without walking the control for each.
+   * 
+   * @param item
+   *          the alter to apply
+   * @param indexer
+   *          the index of the resolved catalog used to find the altered control
+   * @param alterPlan
+   *          the plan used to apply the removes and adds
+   * @throws ProfileResolutionEvaluationException
+   *           if the alter could not be applied
+   */
+  protected void handleAlter(
+      @NonNull IRequiredValueAssemblyNodeItem item,
+      @NonNull IIndexer indexer,
+      @NonNull AlterPlan alterPlan) {
+    ModificationTargets.applyAlter(item, indexer, alterPlan);
   }
 
   private static void handleReferences(@NonNull Catalog resolvedCatalog, @NonNull IDocumentNodeItem profileDocument,
@@ -675,25 +1469,23 @@ public class ProfileResolver {
     index.append(profileIndex);
   }
 
-  private class DocumentEntityResolver implements EntityResolver {
+  private static final class DocumentEntityResolver implements EntityResolver {
     @NonNull
     private final URI documentUri;
+    @NonNull
+    private final IDocumentLoader documentLoader;
 
-    public DocumentEntityResolver(@NonNull URI documentUri) {
+    private DocumentEntityResolver(@NonNull URI documentUri, @NonNull IDocumentLoader documentLoader) {
       this.documentUri = documentUri;
-    }
-
-    @NonNull
-    protected URI getDocumentUri() {
-      return documentUri;
+      this.documentLoader = documentLoader;
     }
 
     @Override
     public InputSource resolveEntity(String publicId, String systemId) throws SAXException, IOException {
 
-      URI resolvedUri = getDocumentUri().resolve(systemId);
+      URI resolvedUri = documentUri.resolve(systemId);
 
-      EntityResolver resolver = getDynamicContext().getDocumentLoader().getEntityResolver();
+      EntityResolver resolver = documentLoader.getEntityResolver();
 
       InputSource retval;
       if (resolver == null) {
@@ -703,6 +1495,239 @@ public class ProfileResolver {
       }
       return retval;
     }
+  }
+
+  /**
+   * Builds an immutable {@link ProfileResolver}.
+   * <p>
+   * Since a resolver's configuration cannot change once it is built, a single resolver can be shared
+   * by concurrent resolutions. The state of each resolution is held by its own
+   * {@link ResolutionContext}.
+   */
+  public static final class Builder {
+    @Nullable
+    private IBoundLoader loader;
+    @Nullable
+    private DynamicContext dynamicContext;
+    @Nullable
+    private Executor importExecutor;
+    @Nullable
+    private IResolvedCatalogCache resolvedCatalogCache;
+    @Nullable
+    private DocumentCache documentCache;
+    @NonNull
+    private ImportCopyMode importCopyMode = ImportCopyMode.FULL;
+    @NonNull
+    private IResolutionListener resolutionListener = IResolutionListener.noop();
+    @Nullable
+    private ForkJoinPool modifyPool;
+    private boolean deterministicOutput;
+    @Nullable
+    private ZonedDateTime lastModified;
+
+    private Builder() {
+      // use the static method
+    }
+
+    /**
+     * Configure the loader used to load the profiles resolved from a location.
+     * <p>
+     * When no {@link #dynamicContext(DynamicContext) dynamic context} is configured, this loader is
+     * also used to load imports.
+     * 
+     * @param value
+     *          the loader to use
+     * @return this builder
+     */
+    @NonNull
+    public Builder boundLoader(@NonNull IBoundLoader value) {
+      this.loader = value;
+      return this;
+    }
+
+    /**
+     * Configure the dynamic context whose document loader is used to locate and load imports.
+     * 
+     * @param value
+     *          the dynamic context to use
+     * @return this builder
+     */
+    @NonNull
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "intending to store this parameter")
+    public Builder dynamicContext(@NonNull DynamicContext value) {
+      this.dynamicContext = value;
+      return this;
+    }
+
+    /**
+     * Configure the executor used to resolve the imports of a profile concurrently.
+     * <p>
+     * When an executor is configured, each import of the profile being resolved is loaded, resolved,
+     * and filtered as a separate task. The results are merged into the resolved catalog in document
+     * order once all tasks complete, producing the same output as sequential resolution. Imports of
+     * nested profiles are resolved sequentially on the task that resolves their parent import, which
+     * avoids blocking executor threads on their own sub-tasks. Before these tasks start, the
+     * documents in the import graph are loaded as separate tasks while the graph is checked for
+     * cycles.
+     * <p>
+     * The configured document loader must support concurrent use when an executor is provided.
+     * 
+     * @param value
+     *          the executor to use, or {@code null} to resolve imports sequentially
+     * @return this builder
+     */
+    @NonNull
+    public Builder importExecutor(@Nullable Executor value) {
+      this.importExecutor = value;
+      return this;
+    }
 
+    /**
+     * Configure the cache used to reuse previously resolved catalogs.
+     * <p>
+     * When a cache is configured, profiles resolved using {@link ProfileResolver#resolveProfile(URL)},
+     * {@link ProfileResolver#resolveProfile(Path)}, or {@link ProfileResolver#resolveProfile(File)} are
+     * looked up in the cache using the profile's location and content digest. A cached catalog is
+     * used only if the content digests of the profile and all transitively imported documents are
+     * unchanged. Each caller receives its own copy of a cached catalog, which it is free to modify.
+     * <p>
+     * An error reading from or writing to the cache is logged, and the profile is resolved as if no
+     * cache was configured.
+     * 
+     * @param value
+     *          the cache to use, or {@code null} to disable caching
+     * @return this builder
+     */
+    @NonNull
+    public Builder resolvedCatalogCache(@Nullable IResolvedCatalogCache value) {
+      this.resolvedCatalogCache = value;
+      return this;
+    }
+
+    /**
+     * Configure the cache used to share parsed imported documents.
+     * <p>
+     * When a cache is configured, documents imported by a profile are loaded through the cache using
+     * the resolution's document loader. Only imports of local files are cached. A single cache may be
+     * shared by multiple resolvers.
+     * 
+     * @param value
+     *          the cache to use, or {@code null} to disable caching
+     * @return this builder
+     */
+    @NonNull
+    public Builder documentCache(@Nullable DocumentCache value) {
+      this.documentCache = value;
+      return this;
+    }
+
+    /**
+     * Configure how imported catalogs are copied before they are modified.
+     * <p>
+     * The {@link ImportCopyMode#SELECTIVE} mode avoids copying the content of large catalogs that is
+     * not selected by an import.
+     * 
+     * @param value
+     *          the copy mode to use
+     * @return this builder
+     */
+    @NonNull
+    public Builder importCopyMode(@NonNull ImportCopyMode value) {
+      this.importCopyMode = value;
+      return this;
+    }
+
+    /**
+     * Configure a listener to notify of the timing and activity of resolutions.
+     * <p>
+     * The {@link JfrResolutionListener} can be used to record this information using JDK Flight
+     * Recorder.
+     * 
+     * @param value
+     *          the listener to notify
+     * @return this builder
+     */
+    @NonNull
+    public Builder resolutionListener(@NonNull IResolutionListener value) {
+      this.resolutionListener = value;
+      return this;
+    }
+
+    /**
+     * Configure the pool used to apply the modifications of a profile concurrently.
+     * <p>
+     * When a pool is configured, the set-parameters of a profile are partitioned by the parameter
+     * they target, and the alters by the top-level control containing the control they target. The
+     * partitions are applied concurrently, with the modifications in each partition applied in
+     * document order. All set-parameters are applied before any alter, as with sequential
+     * application. If modifications fail, the error reported is the one for the first failing
+     * modification in document order, which is the error sequential application would report.
+     * <p>
+     * The parameter or control targeted by each modification, and the removes and adds of each
+     * alter, are found on the resolving thread before the partitions are applied. The pool's threads
+     * only modify the bound objects of the resolved catalog, with each partition modifying distinct
+     * parameters or controls, and do not read the index of the resolved catalog or the profile's
+     * node items. As a result,
+     * {@link ProfileResolver#handleSetParameter(IRequiredValueAssemblyNodeItem, IIndexer)} and
+     * {@link ProfileResolver#handleAlter(IRequiredValueAssemblyNodeItem, IIndexer, AlterPlan)} are
+     * only called when modifications are applied sequentially.
+     * <p>
+     * The configured {@link #resolutionListener(IResolutionListener) listener} is called from the
+     * pool's threads.
+     * 
+     * @param value
+     *          the pool to use, or {@code null} to apply modifications sequentially
+     * @return this builder
+     */
+    @NonNull
+    public Builder modifyPool(@Nullable ForkJoinPool value) {
+      this.modifyPool = value;
+      return this;
+    }
+
+    /**
+     * Configure if resolved catalogs are identified using their inputs.
+     * <p>
+     * When enabled, the UUID of a resolved catalog is a name-based UUID derived from the content
+     * digests of the profile and its transitive imports, and its last-modified timestamp is the
+     * {@link #lastModified(ZonedDateTime) configured timestamp} or, if none is configured, the latest
+     * last-modified timestamp of the profile and its imports. Resolving identical inputs then produces
+     * identical output, which allows the output to be cached and deduplicated by its digest.
+     * 
+     * @param value
+     *          {@code true} to derive the identity of resolved catalogs from their inputs, or
+     *          {@code false} to use a random UUID and the current time
+     * @return this builder
+     */
+    @NonNull
+    public Builder deterministicOutput(boolean value) {
+      this.deterministicOutput = value;
+      return this;
+    }
+
+    /**
+     * Configure the last-modified timestamp used for resolved catalogs.
+     * 
+     * @param value
+     *          the timestamp to use, or {@code null} to use the current time, or the latest timestamp
+     *          of the inputs when {@link #deterministicOutput(boolean) deterministic output} is
+     *          enabled
+     * @return this builder
+     */
+    @NonNull
+    public Builder lastModified(@Nullable ZonedDateTime value) {
+      this.lastModified = value;
+      return this;
+    }
+
+    /**
+     * Build a resolver using the configuration of this builder.
+     * 
+     * @return the resolver
+     */
+    @NonNull
+    public ProfileResolver build() {
+      return new ProfileResolver(this);
+    }
   }
 }
@@ -0,0 +1,165 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionCounter;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionPhase;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Tracks the resources used by a single resolution against the limits of its
+ * {@link ProfileResolutionOptions}.
+ * <p>
+ * The budget is used as the resolution's listener, since the import, selection, reference and
+ * modify loops already report their progress to the listener. Each callback is forwarded to the
+ * delegate listener, then the limits and cancellation token are checked. Since a listener cannot
+ * throw a checked exception, an exceeded limit is thrown as an {@link AbortedException} carrying
+ * the {@link ProfileResolutionException} to report.
+ */
+final class ResolutionBudget implements IResolutionListener {
+  @NonNull
+  private final ProfileResolutionOptions options;
+  @NonNull
+  private final IResolutionListener delegate;
+  private final long startNanos;
+  private final AtomicInteger documents = new AtomicInteger();
+  private final AtomicLong controls = new AtomicLong();
+
+  ResolutionBudget(@NonNull ProfileResolutionOptions options, @NonNull IResolutionListener delegate) {
+    this.options = options;
+    this.delegate = delegate;
+    this.startNanos = System.nanoTime();
+  }
+
+  /**
+   * Check that the resolution has not been cancelled and has not run out of time.
+   * 
+   * @throws AbortedException
+   *           if the resolution must stop
+   */
+  void checkpoint() {
+    if (options.getCancellationToken().isCancellationRequested()) {
+      throw new AbortedException(new ResolutionCancelledException("The profile resolution was cancelled."));
+    }
+
+    Duration timeout = options.getTimeout();
+    if (timeout != null && System.nanoTime() - startNanos > timeout.toNanos()) {
+      throw new AbortedException(new ResolutionLimitExceededException(
+          ResolutionLimitExceededException.Limit.TIMEOUT,
+          String.format("The profile resolution exceeded the timeout of %s.", timeout)));
+    }
+  }
+
+  /**
+   * Check that an import at the provided depth is allowed.
+   * 
+   * @param depth
+   *          the depth of the import, where the imports of the resolved profile have a depth of
+   *          {@code 1}
+   * @param importUri
+   *          the location of the imported document
+   * @throws AbortedException
+   *           if the resolution must stop
+   */
+  void checkImport(int depth, @NonNull URI importUri) {
+    checkpoint();
+    if (depth > options.getMaxImportDepth()) {
+      throw new AbortedException(new ResolutionLimitExceededException(
+          ResolutionLimitExceededException.Limit.IMPORT_DEPTH,
+          String.format("The import of '%s' exceeds the maximum import depth of %d.",
+              importUri,
+              options.getMaxImportDepth())));
+    }
+  }
+
+  @Override
+  public void resolutionCompleted(URI profile, long wallNanos, long cpuNanos) {
+    delegate.resolutionCompleted(profile, wallNanos, cpuNanos);
+  }
+
+  @Override
+  public void phaseCompleted(URI document, ResolutionPhase phase, long wallNanos, long cpuNanos) {
+    delegate.phaseCompleted(document, phase, wallNanos, cpuNanos);
+
+    if (ResolutionPhase.LOAD.equals(phase) && documents.incrementAndGet() > options.getMaxDocuments()) {
+      throw new AbortedException(new ResolutionLimitExceededException(
+          ResolutionLimitExceededException.Limit.DOCUMENTS,
+          String.format("Loading '%s' exceeds the maximum of %d imported documents.",
+              document,
+              options.getMaxDocuments())));
+    }
+    checkpoint();
+  }
+
+  @Override
+  public void importCompleted(URI profile, URI importedDocument, long wallNanos, long cpuNanos) {
+    delegate.importCompleted(profile, importedDocument, wallNanos, cpuNanos);
+    checkpoint();
+  }
+
+  @Override
+  public void increment(ResolutionCounter counter, long amount) {
+    delegate.increment(counter, amount);
+
+    if (ResolutionCounter.CONTROLS_SELECTED.equals(counter)
+        && controls.addAndGet(amount) > options.getMaxControls()) {
+      throw new AbortedException(new ResolutionLimitExceededException(
+          ResolutionLimitExceededException.Limit.CONTROLS,
+          String.format("The profile resolution exceeds the maximum of %d selected controls.",
+              options.getMaxControls())));
+    }
+    checkpoint();
+  }
+
+  /**
+   * Carries the reason a resolution was stopped out of code that cannot throw a checked exception.
+   */
+  static final class AbortedException
+      extends RuntimeException {
+
+    /**
+     * the serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    AbortedException(@NonNull ProfileResolutionException cause) {
+      super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized ProfileResolutionException getCause() {
+      return (ProfileResolutionException) super.getCause();
+    }
+  }
+}
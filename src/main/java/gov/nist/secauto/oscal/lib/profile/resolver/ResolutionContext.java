@@ -0,0 +1,433 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.model.common.metapath.DynamicContext;
+import gov.nist.secauto.metaschema.model.common.metapath.IDocumentLoader;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.ProfileImport;
+import gov.nist.secauto.oscal.lib.profile.resolver.cache.ContentDigest;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
+import gov.nist.secauto.oscal.lib.profile.resolver.policy.ReferenceGraph;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * The state of a single call to a {@link ProfileResolver}.
+ * <p>
+ * A resolver holds only its configuration, so a single resolver can be shared by concurrent
+ * resolutions. Everything a resolution learns while it runs, including the documents it has loaded
+ * and resolved, is held by its context. The imports of a profile resolved concurrently are each
+ * resolved using a context sharing this state, but having its own import history.
+ */
+public final class ResolutionContext {
+  @NonNull
+  private final DynamicContext dynamicContext;
+  @NonNull
+  private final IResolutionListener listener;
+  @Nullable
+  private final Executor importExecutor;
+  @Nullable
+  private final ResolutionBudget budget;
+  @NonNull
+  private final Stack<URI> importHistory;
+  /**
+   * The documents resolved, or being resolved, by location.
+   */
+  @NonNull
+  private final ConcurrentMap<URI, CompletableFuture<IDocumentNodeItem>> resolvedImports;
+  /**
+   * The documents loaded, or being loaded, in advance of being resolved, by location.
+   */
+  @NonNull
+  private final ConcurrentMap<URI, CompletableFuture<IDocumentNodeItem>> loadedDocuments;
+  /**
+   * The content selected from an imported document, which is shared by all imports of the document
+   * making the same selection.
+   */
+  @NonNull
+  private final ConcurrentMap<SelectionKey, CompletableFuture<IIndexer>> selections;
+  /**
+   * The content digests of the imported documents, by location, or {@code null} if they are not
+   * tracked.
+   */
+  @Nullable
+  private final ConcurrentMap<URI, String> dependencies;
+  /**
+   * The resolved document used by each import, keyed by the import.
+   */
+  @NonNull
+  private final ConcurrentMap<ProfileImport, IDocumentNodeItem> importedDocuments;
+  /**
+   * The graph used to record the references counted while filtering the imported documents, or
+   * {@code null} if references are only counted.
+   */
+  @Nullable
+  private final ReferenceGraph referenceGraph;
+
+  /**
+   * Construct a new context for a resolution.
+   * 
+   * @param dynamicContext
+   *          the dynamic context whose document loader is used to locate and load imports
+   * @param listener
+   *          the listener notified of the resolution's progress
+   * @param importExecutor
+   *          the executor used to resolve the imports of a profile concurrently, or {@code null} to
+   *          resolve them sequentially
+   * @param budget
+   *          the limits of the resolution, or {@code null} if the resolution is not limited
+   * @param trackDependencies
+   *          {@code true} if the content digests of the imported documents are to be recorded
+   */
+  ResolutionContext(
+      @NonNull DynamicContext dynamicContext,
+      @NonNull IResolutionListener listener,
+      @Nullable Executor importExecutor,
+      @Nullable ResolutionBudget budget,
+      boolean trackDependencies) {
+    this(dynamicContext, listener, importExecutor, budget, trackDependencies, null);
+  }
+
+  /**
+   * Construct a new context for a resolution, which records the references counted while filtering
+   * the imported documents in the provided graph.
+   * 
+   * @param dynamicContext
+   *          the dynamic context whose document loader is used to locate and load imports
+   * @param listener
+   *          the listener notified of the resolution's progress
+   * @param importExecutor
+   *          the executor used to resolve the imports of a profile concurrently, or {@code null} to
+   *          resolve them sequentially
+   * @param budget
+   *          the limits of the resolution, or {@code null} if the resolution is not limited
+   * @param trackDependencies
+   *          {@code true} if the content digests of the imported documents are to be recorded
+   * @param referenceGraph
+   *          the graph to record references in, or {@code null} to only count references
+   */
+  ResolutionContext(
+      @NonNull DynamicContext dynamicContext,
+      @NonNull IResolutionListener listener,
+      @Nullable Executor importExecutor,
+      @Nullable ResolutionBudget budget,
+      boolean trackDependencies,
+      @Nullable ReferenceGraph referenceGraph) {
+    this.dynamicContext = dynamicContext;
+    this.listener = listener;
+    this.importExecutor = importExecutor;
+    this.budget = budget;
+    this.importHistory = new Stack<>();
+    this.resolvedImports = new ConcurrentHashMap<>();
+    this.loadedDocuments = new ConcurrentHashMap<>();
+    this.selections = new ConcurrentHashMap<>();
+    this.dependencies = trackDependencies ? new ConcurrentSkipListMap<>() : null;
+    this.importedDocuments = new ConcurrentHashMap<>();
+    this.referenceGraph = referenceGraph;
+  }
+
+  private ResolutionContext(@NonNull ResolutionContext parent) {
+    this.dynamicContext = parent.dynamicContext;
+    this.listener = parent.listener;
+    this.importExecutor = parent.importExecutor;
+    this.budget = parent.budget;
+    this.importHistory = new Stack<>();
+    this.resolvedImports = parent.resolvedImports;
+    this.loadedDocuments = parent.loadedDocuments;
+    this.selections = parent.selections;
+    this.dependencies = parent.dependencies;
+    this.importedDocuments = parent.importedDocuments;
+    this.referenceGraph = parent.referenceGraph;
+  }
+
+  /**
+   * Create a context for resolving an import independently of the other imports, which shares the
+   * state of this context except for the import history, which starts empty.
+   * 
+   * @return the new context
+   */
+  @NonNull
+  ResolutionContext newImportContext() {
+    return new ResolutionContext(this);
+  }
+
+  /**
+   * Get the dynamic context used to locate and load the imported documents.
+   * 
+   * @return the dynamic context
+   */
+  @NonNull
+  @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "intending to expose this field")
+  public DynamicContext getDynamicContext() {
+    return dynamicContext;
+  }
+
+  /**
+   * Get the document loader used to locate and load the imported documents.
+   * 
+   * @return the loader
+   */
+  @NonNull
+  public IDocumentLoader getDocumentLoader() {
+    return ObjectUtils.requireNonNull(dynamicContext.getDocumentLoader(), "the dynamic context has no document loader");
+  }
+
+  /**
+   * Get the listener notified of the resolution's progress.
+   * 
+   * @return the listener
+   */
+  @NonNull
+  public IResolutionListener getResolutionListener() {
+    return listener;
+  }
+
+  /**
+   * Get the locations of the profiles importing the document currently being resolved, used to
+   * detect import cycles.
+   * 
+   * @return the import history
+   */
+  @NonNull
+  @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "intending to expose this field")
+  public Stack<URI> getImportHistory() {
+    return importHistory;
+  }
+
+  /**
+   * Get the graph used to record the references counted while filtering the imported documents.
+   * 
+   * @return the graph, or {@code null} if references are only counted
+   */
+  @Nullable
+  @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "intending to expose this field")
+  public ReferenceGraph getReferenceGraph() {
+    return referenceGraph;
+  }
+
+  @Nullable
+  Executor getImportExecutor() {
+    return importExecutor;
+  }
+
+  /**
+   * Check that an import of the identified document is allowed by the limits of the resolution.
+   * 
+   * @param importUri
+   *          the location of the imported document
+   * @throws ResolutionBudget.AbortedException
+   *           if the resolution must stop
+   */
+  void checkImport(@NonNull URI importUri) {
+    if (budget != null) {
+      budget.checkImport(importHistory.size() + 1, importUri);
+    }
+  }
+
+  @NonNull
+  ConcurrentMap<URI, CompletableFuture<IDocumentNodeItem>> getResolvedImports() {
+    return resolvedImports;
+  }
+
+  @NonNull
+  ConcurrentMap<URI, CompletableFuture<IDocumentNodeItem>> getLoadedDocuments() {
+    return loadedDocuments;
+  }
+
+  /**
+   * Get the document identified by an import source, if it has already been loaded in advance.
+   * 
+   * @param source
+   *          the import source
+   * @return the document, or {@code null} if it has not been successfully loaded yet
+   */
+  @Nullable
+  IDocumentNodeItem getLoadedDocument(@NonNull InputSource source) {
+    CompletableFuture<IDocumentNodeItem> future = null;
+    if (source.getSystemId() != null && source.getByteStream() == null && source.getCharacterStream() == null) {
+      future = loadedDocuments.get(URI.create(source.getSystemId()));
+    }
+    // a load in progress is not waited on, since the loading task may be queued behind the caller
+    return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+  }
+
+  /**
+   * Get the shared selection of content from an imported document.
+   * 
+   * @param document
+   *          the imported document
+   * @param selection
+   *          the key identifying the content selected by an import
+   * @param newSelection
+   *          the future to record if no selection has been made yet
+   * @return the future of an existing selection, or {@code null} if the provided future was recorded
+   */
+  @Nullable
+  CompletableFuture<IIndexer> putSelectionIfAbsent(
+      @NonNull IDocumentNodeItem document,
+      @NonNull String selection,
+      @NonNull CompletableFuture<IIndexer> newSelection) {
+    return selections.putIfAbsent(new SelectionKey(document, selection), newSelection);
+  }
+
+  /**
+   * Forget a failed selection, so that a later import selects the content again.
+   * 
+   * @param document
+   *          the imported document
+   * @param selection
+   *          the key identifying the content selected by an import
+   * @param failedSelection
+   *          the failed future
+   */
+  void removeSelection(
+      @NonNull IDocumentNodeItem document,
+      @NonNull String selection,
+      @NonNull CompletableFuture<IIndexer> failedSelection) {
+    selections.remove(new SelectionKey(document, selection), failedSelection);
+  }
+
+  /**
+   * Record the content digest of an imported document, if dependencies are being tracked.
+   * 
+   * @param uri
+   *          the location of the imported document
+   * @throws IOException
+   *           if an error occurred while reading the document
+   */
+  void recordDependency(@NonNull URI uri) throws IOException {
+    ConcurrentMap<URI, String> map = dependencies;
+    if (map != null && !map.containsKey(uri)) {
+      map.putIfAbsent(uri, ContentDigest.digest(uri));
+    }
+  }
+
+  /**
+   * Get the content digest of a document, reusing the digest recorded for an imported document.
+   * 
+   * @param uri
+   *          the location of the document
+   * @return the hex encoded digest
+   * @throws IOException
+   *           if an error occurred while reading the document
+   */
+  @NonNull
+  String getDigest(@NonNull URI uri) throws IOException {
+    ConcurrentMap<URI, String> map = dependencies;
+    String retval = map == null ? null : map.get(uri);
+    return retval == null ? ContentDigest.digest(uri) : retval;
+  }
+
+  /**
+   * Get the content digests of the imported documents recorded so far.
+   * 
+   * @return the digests, by location, ordered by location
+   */
+  @NonNull
+  Map<URI, String> getDependencies() {
+    ConcurrentMap<URI, String> map = dependencies;
+    return map == null ? CollectionUtil.emptyMap() : CollectionUtil.unmodifiableMap(new LinkedHashMap<>(map));
+  }
+
+  /**
+   * Record the resolved document used by an import.
+   * 
+   * @param profileImport
+   *          the import
+   * @param document
+   *          the resolved document
+   */
+  void recordImportedDocument(@NonNull ProfileImport profileImport, @NonNull IDocumentNodeItem document) {
+    importedDocuments.put(profileImport, document);
+  }
+
+  /**
+   * Get the resolved document used by an import.
+   * 
+   * @param profileImport
+   *          the import
+   * @return the resolved document, or {@code null} if the import has not been resolved
+   */
+  @Nullable
+  IDocumentNodeItem getImportedDocument(@NonNull ProfileImport profileImport) {
+    return importedDocuments.get(profileImport);
+  }
+
+  /**
+   * Identifies the content selected from an imported document.
+   * <p>
+   * The document is compared by identity, since a selection records the node items of the document
+   * it was made against.
+   */
+  private static final class SelectionKey {
+    @NonNull
+    private final IDocumentNodeItem document;
+    @NonNull
+    private final String selection;
+
+    private SelectionKey(@NonNull IDocumentNodeItem document, @NonNull String selection) {
+      this.document = document;
+      this.selection = selection;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(document) + selection.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof SelectionKey)) {
+        return false;
+      }
+      SelectionKey other = (SelectionKey) obj;
+      return document == other.document && selection.equals(other.selection);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Indicates that a profile resolution was stopped because it exceeded one of the limits provided by
+ * its {@link ProfileResolutionOptions}.
+ */
+public class ResolutionLimitExceededException
+    extends ProfileResolutionException {
+
+  /**
+   * the serial version UID.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The limits that can be exceeded.
+   */
+  public enum Limit {
+    /**
+     * The elapsed time of the resolution.
+     */
+    TIMEOUT,
+    /**
+     * The depth of the chain of imports.
+     */
+    IMPORT_DEPTH,
+    /**
+     * The number of imported documents loaded.
+     */
+    DOCUMENTS,
+    /**
+     * The number of controls selected by imports.
+     */
+    CONTROLS;
+  }
+
+  @NonNull
+  private final Limit limit;
+
+  /**
+   * Create a new exception for the provided {@code limit}.
+   * 
+   * @param limit
+   *          the limit that was exceeded
+   * @param message
+   *          a description of the error that occurred
+   */
+  public ResolutionLimitExceededException(@NonNull Limit limit, String message) {
+    super(message);
+    this.limit = limit;
+  }
+
+  /**
+   * Get the limit that was exceeded.
+   * 
+   * @return the limit
+   */
+  @NonNull
+  public Limit getLimit() {
+    return limit;
+  }
+}
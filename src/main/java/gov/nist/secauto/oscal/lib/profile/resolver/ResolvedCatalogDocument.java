@@ -0,0 +1,111 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.binding.model.IAssemblyClassBinding;
+import gov.nist.secauto.metaschema.binding.model.RootAssemblyDefinition;
+import gov.nist.secauto.metaschema.model.common.metapath.item.DefaultNodeItemFactory;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+
+import java.net.URI;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Holds the catalog being produced by a profile resolution, along with a node item tree over this
+ * catalog that is shared by the resolution phases.
+ * <p>
+ * The node item tree is created on first use and reused until it is invalidated. A phase that
+ * changes the structure or content of the catalog must call {@link #invalidate()} once it is done,
+ * since the node items materialized before the change will no longer reflect the catalog. A phase
+ * that only reads the catalog can reuse the tree created by an earlier phase.
+ */
+public final class ResolvedCatalogDocument {
+  @NonNull
+  private static final RootAssemblyDefinition CATALOG_DEFINITION = new RootAssemblyDefinition(
+      ObjectUtils.notNull(
+          (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Catalog.class)));
+
+  @NonNull
+  private final Catalog catalog;
+  @NonNull
+  private final URI baseUri;
+  @Nullable
+  private IDocumentNodeItem document;
+
+  /**
+   * Construct a new holder for the provided catalog.
+   * 
+   * @param catalog
+   *          the catalog being resolved
+   * @param baseUri
+   *          the base URI of the resulting document, which is the base URI of the profile being
+   *          resolved
+   */
+  public ResolvedCatalogDocument(@NonNull Catalog catalog, @NonNull URI baseUri) {
+    this.catalog = catalog;
+    this.baseUri = baseUri;
+  }
+
+  /**
+   * Get the catalog being resolved.
+   * 
+   * @return the catalog
+   */
+  @NonNull
+  public Catalog getCatalog() {
+    return catalog;
+  }
+
+  /**
+   * Get the node item tree over the catalog, creating it if it does not exist or has been
+   * invalidated.
+   * 
+   * @return the document node item for the catalog
+   */
+  @NonNull
+  public IDocumentNodeItem getDocument() {
+    IDocumentNodeItem retval = document;
+    if (retval == null) {
+      retval = DefaultNodeItemFactory.instance().newDocumentNodeItem(CATALOG_DEFINITION, catalog, baseUri);
+      document = retval;
+    }
+    return retval;
+  }
+
+  /**
+   * Discard the current node item tree, since the catalog has been changed. The tree will be
+   * recreated on the next call to {@link #getDocument()}.
+   */
+  public void invalidate() {
+    document = null;
+  }
+}
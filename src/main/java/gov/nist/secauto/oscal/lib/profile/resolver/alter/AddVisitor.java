@@ -223,7 +223,7 @@ public class AddVisitor implements ICatalogVisitor<Boolean, AddVisitor.Context>
       @NonNull List<Property> props,
       @NonNull List<Link> links,
       @NonNull List<ControlPart> parts) {
-    return INSTANCE.visitControl(
+    return add(
         control,
         new Context(
             control,
@@ -236,6 +236,21 @@ public class AddVisitor implements ICatalogVisitor<Boolean, AddVisitor.Context>
             parts));
   }
 
+  /**
+   * Apply the add directive described by the provided context.
+   * 
+   * @param control
+   *          the control target
+   * @param context
+   *          the content to add and where to add it
+   * @return {@code true} if the modification was made or {@code false} otherwise
+   * @throws ProfileResolutionEvaluationException
+   *           if a processing error occurred during profile resolution
+   */
+  static boolean add(@NonNull Control control, @NonNull Context context) {
+    return INSTANCE.visitControl(control, context);
+  }
+
   @Override
   public Boolean visitCatalog(Catalog catalog, Context context) {
     // not required
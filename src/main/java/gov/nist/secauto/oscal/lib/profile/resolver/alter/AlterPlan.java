@@ -0,0 +1,397 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.alter;
+
+import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupLine;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Link;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.model.Property;
+import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionEvaluationException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Applies the removes and adds of a profile's alters, walking each altered control at most once.
+ * <p>
+ * The first alter applied to a control indexes the parameters and parts of the control by
+ * identifier, along with the collection containing each. Removes and adds that target an
+ * identifier are then applied directly against this index, which is kept current as items are
+ * removed and added. This allows the alters targeting a control to be applied in document order,
+ * so that an alter observes the changes made by the alters preceding it, without walking the
+ * control for every remove and add.
+ * <p>
+ * Directives the index cannot answer, such as a remove by name or class, or an add targeting
+ * content in a child control, are delegated to {@link RemoveVisitor} and {@link AddVisitor}, which
+ * produce the same result.
+ * <p>
+ * This class is not thread safe.
+ */
+public class AlterPlan {
+  private static final Logger LOGGER = LogManager.getLogger(AlterPlan.class);
+
+  @NonNull
+  private final Map<Control, ControlIndex> indexes = new IdentityHashMap<>();
+
+  /**
+   * Apply the remove directive.
+   * 
+   * @param control
+   *          the control target
+   * @param objectName
+   *          the name flag of a matching node to remove
+   * @param objectClass
+   *          the class flag of a matching node to remove
+   * @param objectId
+   *          the id flag of a matching node to remove
+   * @param objectNamespace
+   *          the namespace flag of a matching node to remove
+   * @param itemType
+   *          the type of a matching node to remove
+   * @return {@code true} if the modification was made or {@code false} otherwise
+   * @throws ProfileResolutionEvaluationException
+   *           if a processing error occurred during profile resolution
+   * @see RemoveVisitor#remove(Control, String, String, String, String, RemoveVisitor.TargetType)
+   */
+  public boolean remove(
+      @NonNull Control control,
+      @Nullable String objectName,
+      @Nullable String objectClass,
+      @Nullable String objectId,
+      @Nullable String objectNamespace,
+      @Nullable RemoveVisitor.TargetType itemType) {
+    RemoveVisitor.Context context
+        = new RemoveVisitor.Context(objectName, objectClass, objectId, objectNamespace, itemType);
+
+    boolean retval;
+    ControlIndex index = getIndex(control);
+    Entry entry = objectId == null ? null : index.getUnique(objectId);
+    // the control itself cannot be removed
+    if (entry != null && entry.getContainer() != null && context.isApplicableTo(entry.getItem())) {
+      index.remove(entry);
+      retval = true;
+    } else {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.atDebug().log("Applying remove to control '{}' using a full traversal.", control.getId());
+      }
+      retval = RemoveVisitor.remove(control, context);
+      if (retval) {
+        // a remove only changes the content of the control
+        indexes.remove(control);
+      }
+    }
+    return retval;
+  }
+
+  /**
+   * Apply the add directive.
+   * 
+   * @param control
+   *          the control target
+   * @param position
+   *          the position to apply the content or {@code null}
+   * @param byId
+   *          the identifier of the target or {@code null}
+   * @param title
+   *          a title to set
+   * @param params
+   *          parameters to add
+   * @param props
+   *          properties to add
+   * @param links
+   *          links to add
+   * @param parts
+   *          parts to add
+   * @return {@code true} if the modification was made or {@code false} otherwise
+   * @throws ProfileResolutionEvaluationException
+   *           if a processing error occurred during profile resolution
+   * @see AddVisitor#add(Control, AddVisitor.Position, String, MarkupLine, List, List, List, List)
+   */
+  public boolean add(
+      @NonNull Control control,
+      @Nullable AddVisitor.Position position,
+      @Nullable String byId,
+      @Nullable MarkupLine title,
+      @NonNull List<Parameter> params,
+      @NonNull List<Property> props,
+      @NonNull List<Link> links,
+      @NonNull List<ControlPart> parts) {
+    AddVisitor.Context context = new AddVisitor.Context(
+        control,
+        position == null ? AddVisitor.Position.ENDING : position,
+        byId,
+        title,
+        params,
+        props,
+        links,
+        parts);
+
+    ControlIndex index = getIndex(control);
+    Entry entry = byId == null ? index.getControlEntry() : index.getUnique(byId);
+
+    boolean retval;
+    if (entry != null && context.appliesTo(entry.getItem()) && applyAdd(entry, context, index)) {
+      retval = true;
+    } else {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.atDebug().log("Applying add to control '{}' using a full traversal.", control.getId());
+      }
+      retval = AddVisitor.add(control, context);
+      if (retval) {
+        // an add may change the content of a child control, which may be indexed separately
+        indexes.clear();
+      }
+    }
+    return retval;
+  }
+
+  private static boolean applyAdd(
+      @NonNull Entry entry,
+      @NonNull AddVisitor.Context context,
+      @NonNull ControlIndex index) {
+    Object item = entry.getItem();
+
+    boolean retval = true;
+    if (context.isSequenceTargeted(item)) {
+      List<?> newItems = item instanceof Parameter ? context.getParams() : context.getParts();
+      List<Object> container = ObjectUtils.requireNonNull(entry.getContainer());
+      int position = indexOf(container, item);
+      if (AddVisitor.Position.AFTER.equals(context.getPosition())) {
+        position++;
+      }
+      container.addAll(position, newItems);
+      index.addAll(newItems, container);
+    } else if (item instanceof Control) {
+      Control control = (Control) item;
+      if (context.getTitle() != null) {
+        control.setTitle(context.getTitle());
+      }
+      addItems(context, context.getParams(), control::getParams, control::setParams, index);
+      addItems(context, context.getProps(), control::getProps, control::setProps, null);
+      addItems(context, context.getLinks(), control::getLinks, control::setLinks, null);
+      addItems(context, context.getParts(), control::getParts, control::setParts, index);
+    } else if (context.getTitle() != null) {
+      // only controls have a title that can be set, let the visitor report this
+      retval = false;
+    } else if (item instanceof Parameter) {
+      Parameter param = (Parameter) item;
+      addItems(context, context.getProps(), param::getProps, param::setProps, null);
+      addItems(context, context.getLinks(), param::getLinks, param::setLinks, null);
+    } else {
+      ControlPart part = (ControlPart) item;
+      addItems(context, context.getProps(), part::getProps, part::setProps, null);
+      addItems(context, context.getLinks(), part::getLinks, part::setLinks, null);
+      addItems(context, context.getParts(), part::getParts, part::setParts, index);
+    }
+    return retval;
+  }
+
+  private static <T> void addItems(
+      @NonNull AddVisitor.Context context,
+      @NonNull List<T> newItems,
+      @NonNull Supplier<List<T>> getter,
+      @NonNull Consumer<List<T>> setter,
+      @Nullable ControlIndex index) {
+    if (!newItems.isEmpty()) {
+      List<T> items = getter.get();
+      if (items == null) {
+        items = new LinkedList<>();
+        setter.accept(items);
+      }
+
+      if (AddVisitor.Position.STARTING.equals(context.getPosition())) {
+        items.addAll(0, newItems);
+      } else {
+        items.addAll(newItems);
+      }
+
+      if (index != null) {
+        index.addAll(newItems, items);
+      }
+    }
+  }
+
+  private static int indexOf(@NonNull List<?> list, @NonNull Object item) {
+    int retval = 0;
+    for (Object current : list) {
+      if (current == item) {
+        return retval;
+      }
+      retval++;
+    }
+    throw new IllegalStateException("The indexed item is no longer in its collection");
+  }
+
+  @NonNull
+  private ControlIndex getIndex(@NonNull Control control) {
+    return ObjectUtils.notNull(indexes.computeIfAbsent(control, ControlIndex::new));
+  }
+
+  private static final class Entry {
+    @NonNull
+    private final Object item;
+    @Nullable
+    private final List<Object> container;
+
+    @SuppressWarnings("unchecked")
+    private Entry(@NonNull Object item, @Nullable List<?> container) {
+      this.item = item;
+      this.container = (List<Object>) container;
+    }
+
+    @NonNull
+    public Object getItem() {
+      return item;
+    }
+
+    /**
+     * Get the collection containing the item.
+     * 
+     * @return the collection or {@code null} if the item is the indexed control
+     */
+    @Nullable
+    public List<Object> getContainer() {
+      return container;
+    }
+  }
+
+  /**
+   * An index of the identified parameters and parts of a control, excluding the content of child
+   * controls.
+   */
+  private static final class ControlIndex {
+    @NonNull
+    private final Entry controlEntry;
+    @NonNull
+    private final Map<String, List<Entry>> idToEntries = new HashMap<>();
+
+    private ControlIndex(@NonNull Control control) {
+      this.controlEntry = new Entry(control, null);
+      String id = control.getId();
+      if (id != null) {
+        register(id, controlEntry);
+      }
+      addAll(CollectionUtil.listOrEmpty(control.getParams()), control.getParams());
+      addAll(CollectionUtil.listOrEmpty(control.getParts()), control.getParts());
+    }
+
+    @NonNull
+    public Entry getControlEntry() {
+      return controlEntry;
+    }
+
+    /**
+     * Get the entry for the only item with the provided identifier.
+     * 
+     * @param id
+     *          the identifier
+     * @return the entry or {@code null} if no item, or more than one item, has the identifier
+     */
+    @Nullable
+    public Entry getUnique(@NonNull String id) {
+      List<Entry> entries = idToEntries.get(id);
+      return entries == null || entries.size() != 1 ? null : entries.get(0);
+    }
+
+    public void addAll(@NonNull List<?> items, @Nullable List<?> container) {
+      for (Object item : items) {
+        if (item instanceof Parameter) {
+          String id = ((Parameter) item).getId();
+          if (id != null) {
+            register(id, new Entry(item, container));
+          }
+        } else if (item instanceof ControlPart) {
+          ControlPart part = (ControlPart) item;
+          if (part.getId() != null) {
+            register(ObjectUtils.notNull(part.getId().toString()), new Entry(part, container));
+          }
+          addAll(CollectionUtil.listOrEmpty(part.getParts()), part.getParts());
+        }
+      }
+    }
+
+    private void register(@NonNull String id, @NonNull Entry entry) {
+      idToEntries.computeIfAbsent(id, key -> new ArrayList<>(1)).add(entry);
+    }
+
+    public void remove(@NonNull Entry entry) {
+      List<Object> container = ObjectUtils.requireNonNull(entry.getContainer());
+      ListIterator<Object> iter = container.listIterator();
+      while (iter.hasNext()) {
+        if (iter.next() == entry.getItem()) {
+          iter.remove();
+          break;
+        }
+      }
+      unregister(entry.getItem());
+    }
+
+    private void unregister(@NonNull Object item) {
+      String id = null;
+      List<ControlPart> children = Collections.emptyList();
+      if (item instanceof Parameter) {
+        id = ((Parameter) item).getId();
+      } else if (item instanceof ControlPart) {
+        ControlPart part = (ControlPart) item;
+        id = part.getId() == null ? null : part.getId().toString();
+        children = CollectionUtil.listOrEmpty(part.getParts());
+      }
+
+      if (id != null) {
+        List<Entry> entries = idToEntries.get(id);
+        if (entries != null) {
+          entries.removeIf(entry -> entry.getItem() == item);
+          if (entries.isEmpty()) {
+            idToEntries.remove(id);
+          }
+        }
+      }
+
+      for (ControlPart child : children) {
+        unregister(ObjectUtils.notNull(child));
+      }
+    }
+  }
+}
@@ -227,9 +227,22 @@ public class RemoveVisitor implements ICatalogVisitor<Boolean, RemoveVisitor.Con
       @Nullable String objectId,
       @Nullable String objectNamespace,
       @Nullable TargetType itemType) {
-    return INSTANCE.visitControl(
-        control,
-        new Context(objectName, objectClass, objectId, objectNamespace, itemType));
+    return remove(control, new Context(objectName, objectClass, objectId, objectNamespace, itemType));
+  }
+
+  /**
+   * Apply the remove directive described by the provided context.
+   * 
+   * @param control
+   *          the control target
+   * @param context
+   *          the remove criteria
+   * @return {@code true} if the modification was made or {@code false} otherwise
+   * @throws ProfileResolutionEvaluationException
+   *           if a processing error occurred during profile resolution
+   */
+  static boolean remove(@NonNull Control control, @NonNull Context context) {
+    return INSTANCE.visitControl(control, context);
   }
 
   @Override
@@ -444,7 +457,7 @@ public class RemoveVisitor implements ICatalogVisitor<Boolean, RemoveVisitor.Con
       return retval;
     }
 
-    private Context(
+    Context(
         @Nullable String objectName,
         @Nullable String objectClass,
         @Nullable String objectId,
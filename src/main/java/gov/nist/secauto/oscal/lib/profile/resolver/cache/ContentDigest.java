@@ -0,0 +1,209 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.cache;
+
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Provides SHA-256 based content digests used to identify resolved catalogs.
+ */
+public final class ContentDigest {
+  private static final String ALGORITHM = "SHA-256";
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final int BUFFER_SIZE = 8192;
+  /**
+   * The namespace of the name-based UUIDs derived from content digests.
+   */
+  @NonNull
+  private static final UUID NAMESPACE = ObjectUtils.notNull(UUID.fromString("0c2b6f5e-4b8e-5a8e-9f3a-6f7d3c1a2e90"));
+
+  private ContentDigest() {
+    // disable construction
+  }
+
+  @NonNull
+  private static MessageDigest newMessageDigest() {
+    try {
+      return ObjectUtils.notNull(MessageDigest.getInstance(ALGORITHM));
+    } catch (NoSuchAlgorithmException ex) {
+      // every Java platform is required to support SHA-256
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  /**
+   * Compute the digest of the content provided by the stream. The stream is read to completion, but
+   * is not closed.
+   * 
+   * @param is
+   *          the content to digest
+   * @return the hex encoded digest
+   * @throws IOException
+   *           if an error occurred while reading the stream
+   */
+  @NonNull
+  public static String digest(@NonNull InputStream is) throws IOException {
+    MessageDigest digest = newMessageDigest();
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int read;
+    while ((read = is.read(buffer)) != -1) {
+      digest.update(buffer, 0, read);
+    }
+    return toHex(ObjectUtils.notNull(digest.digest()));
+  }
+
+  /**
+   * Compute the digest of the resource identified by the provided URI.
+   * 
+   * @param uri
+   *          the resource to digest
+   * @return the hex encoded digest
+   * @throws IOException
+   *           if an error occurred while reading the resource
+   */
+  @NonNull
+  public static String digest(@NonNull URI uri) throws IOException {
+    try (InputStream is = uri.toURL().openStream()) {
+      return digest(ObjectUtils.notNull(is));
+    }
+  }
+
+  /**
+   * Compute the key used to identify the resolved catalog for a profile.
+   * 
+   * @param profileUri
+   *          the location of the profile
+   * @param profileDigest
+   *          the content digest of the profile
+   * @param configuration
+   *          a description of the resolver configuration that affects the resolved catalog
+   * @return the hex encoded key
+   */
+  @NonNull
+  public static String key(
+      @NonNull URI profileUri,
+      @NonNull String profileDigest,
+      @NonNull String configuration) {
+    MessageDigest digest = newMessageDigest();
+    digest.update(profileUri.toASCIIString().getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) '\n');
+    digest.update(profileDigest.getBytes(StandardCharsets.US_ASCII));
+    digest.update((byte) '\n');
+    digest.update(configuration.getBytes(StandardCharsets.UTF_8));
+    return toHex(ObjectUtils.notNull(digest.digest()));
+  }
+
+  /**
+   * Compute a single digest over a profile digest and the ordered digests of its transitive imports.
+   * 
+   * @param profileDigest
+   *          the content digest of the profile
+   * @param dependencies
+   *          the content digests of the transitively imported documents
+   * @return the hex encoded digest
+   */
+  @NonNull
+  public static String combine(@NonNull String profileDigest, @NonNull Map<URI, String> dependencies) {
+    MessageDigest digest = newMessageDigest();
+    digest.update(profileDigest.getBytes(StandardCharsets.US_ASCII));
+    for (Map.Entry<URI, String> entry : dependencies.entrySet()) {
+      digest.update((byte) '\n');
+      digest.update(entry.getKey().toASCIIString().getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) ' ');
+      digest.update(entry.getValue().getBytes(StandardCharsets.US_ASCII));
+    }
+    return toHex(ObjectUtils.notNull(digest.digest()));
+  }
+
+  /**
+   * Derive a name-based (version 5) UUID from an ordered sequence of content digests.
+   * <p>
+   * Document locations are not part of the name, so the same content produces the same UUID
+   * regardless of where it is located.
+   * 
+   * @param digests
+   *          the hex encoded content digests, in a stable order
+   * @return the UUID
+   */
+  @NonNull
+  public static UUID nameBasedUuid(@NonNull List<String> digests) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException ex) {
+      // every Java platform is required to support SHA-1
+      throw new IllegalStateException(ex);
+    }
+    digest.update(toBytes(NAMESPACE.getMostSignificantBits()));
+    digest.update(toBytes(NAMESPACE.getLeastSignificantBits()));
+    digest.update(String.join("\n", digests).getBytes(StandardCharsets.US_ASCII));
+    byte[] hash = digest.digest();
+
+    long msb = 0;
+    long lsb = 0;
+    for (int i = 0; i < 8; i++) {
+      msb = (msb << 8) | (hash[i] & 0xFF);
+      lsb = (lsb << 8) | (hash[i + 8] & 0xFF);
+    }
+    // set the version to 5 and the variant to IETF, as described by RFC 4122
+    msb = (msb & ~0xF000L) | 0x5000L;
+    lsb = (lsb & ~(0xC0L << 56)) | (0x80L << 56);
+    return new UUID(msb, lsb);
+  }
+
+  @NonNull
+  private static byte[] toBytes(long value) {
+    byte[] retval = new byte[8];
+    for (int i = 0; i < 8; i++) {
+      retval[i] = (byte) (value >>> (56 - i * 8));
+    }
+    return retval;
+  }
+
+  @NonNull
+  private static String toHex(@NonNull byte[] bytes) {
+    char[] retval = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      int value = bytes[i] & 0xFF;
+      retval[i * 2] = HEX_DIGITS[value >>> 4];
+      retval[i * 2 + 1] = HEX_DIGITS[value & 0x0F];
+    }
+    return new String(retval);
+  }
+}
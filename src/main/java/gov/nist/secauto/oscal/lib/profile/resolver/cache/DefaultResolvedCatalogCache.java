@@ -0,0 +1,274 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.cache;
+
+import gov.nist.secauto.metaschema.binding.io.DeserializationFeature;
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.model.common.metapath.item.DefaultNodeItemFactory;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A two tier resolved catalog cache.
+ * <p>
+ * The first tier holds a bounded number of resolved catalogs in memory, evicting the least
+ * recently used entry when full. The optional second tier stores each resolved catalog as OSCAL
+ * XML in a directory, allowing entries to be reused across process restarts. Entries loaded from
+ * the second tier are promoted into the first tier.
+ */
+public class DefaultResolvedCatalogCache implements IResolvedCatalogCache {
+  private static final Logger LOGGER = LogManager.getLogger(DefaultResolvedCatalogCache.class);
+  private static final String CATALOG_EXTENSION = ".xml";
+  private static final String INDEX_EXTENSION = ".index";
+
+  private final int maximumEntries;
+  @Nullable
+  private final Path directory;
+  @NonNull
+  private final Map<String, ResolvedCatalogEntry> entries;
+
+  /**
+   * Construct a new in-memory only cache.
+   * 
+   * @param maximumEntries
+   *          the maximum number of resolved catalogs to keep in memory
+   */
+  public DefaultResolvedCatalogCache(int maximumEntries) {
+    this(maximumEntries, null);
+  }
+
+  /**
+   * Construct a new cache.
+   * 
+   * @param maximumEntries
+   *          the maximum number of resolved catalogs to keep in memory
+   * @param directory
+   *          the directory used to store resolved catalogs, or {@code null} to only cache catalogs
+   *          in memory
+   */
+  public DefaultResolvedCatalogCache(int maximumEntries, @Nullable Path directory) {
+    if (maximumEntries < 1) {
+      throw new IllegalArgumentException(
+          String.format("The maximum number of entries '%d' must be positive", maximumEntries));
+    }
+    this.maximumEntries = maximumEntries;
+    this.directory = directory;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      /**
+       * the serial version UUID.
+       */
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, ResolvedCatalogEntry> eldest) {
+        return size() > DefaultResolvedCatalogCache.this.maximumEntries;
+      }
+    };
+  }
+
+  /**
+   * Get the maximum number of resolved catalogs kept in memory.
+   * 
+   * @return the maximum number of entries
+   */
+  public int getMaximumEntries() {
+    return maximumEntries;
+  }
+
+  /**
+   * Get the directory used to store resolved catalogs.
+   * 
+   * @return the directory or {@code null} if catalogs are only cached in memory
+   */
+  @Nullable
+  public Path getDirectory() {
+    return directory;
+  }
+
+  @Override
+  public ResolvedCatalogEntry get(@NonNull String key) throws IOException {
+    ResolvedCatalogEntry retval;
+    synchronized (entries) {
+      retval = entries.get(key);
+    }
+
+    if (retval == null && directory != null) {
+      retval = read(directory, key);
+      if (retval != null) {
+        synchronized (entries) {
+          entries.put(key, retval);
+        }
+      }
+    }
+    return retval;
+  }
+
+  @Override
+  public void put(@NonNull String key, @NonNull ResolvedCatalogEntry entry) throws IOException {
+    synchronized (entries) {
+      entries.put(key, entry);
+    }
+
+    if (directory != null) {
+      write(directory, key, entry);
+    }
+  }
+
+  @Override
+  public void clear() throws IOException {
+    synchronized (entries) {
+      entries.clear();
+    }
+
+    if (directory != null && Files.isDirectory(directory)) {
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*{"
+          + CATALOG_EXTENSION + "," + INDEX_EXTENSION + "}")) {
+        for (Path path : stream) {
+          Files.deleteIfExists(path);
+        }
+      }
+    }
+  }
+
+  @Nullable
+  private static ResolvedCatalogEntry read(@NonNull Path directory, @NonNull String key) throws IOException {
+    Path indexFile = directory.resolve(key + INDEX_EXTENSION);
+    Path catalogFile = directory.resolve(key + CATALOG_EXTENSION);
+    if (!Files.isRegularFile(indexFile) || !Files.isRegularFile(catalogFile)) {
+      return null;
+    }
+
+    String fingerprint;
+    URI documentUri;
+    Map<URI, String> dependencies = new LinkedHashMap<>();
+    try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+      fingerprint = reader.readLine();
+      String documentUriLine = reader.readLine();
+      if (fingerprint == null || documentUriLine == null) {
+        throw new IOException(String.format("The cache index '%s' is incomplete", indexFile));
+      }
+      documentUri = URI.create(documentUriLine);
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+        int separator = line.indexOf(' ');
+        if (separator == -1) {
+          throw new IOException(String.format("The cache index '%s' contains an invalid entry '%s'", indexFile, line));
+        }
+        dependencies.put(URI.create(line.substring(separator + 1)), line.substring(0, separator));
+      }
+    }
+
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+    loader.disableFeature(DeserializationFeature.DESERIALIZE_VALIDATE_CONSTRAINTS);
+    IDocumentNodeItem document = loader.loadAsNodeItem(catalogFile);
+
+    // use the profile's location as the document URI, which matches the resolved catalog
+    IDocumentNodeItem resolvedCatalog = DefaultNodeItemFactory.instance().newDocumentNodeItem(
+        document.getRootAssemblyNodeItem().getDefinition(),
+        ObjectUtils.requireNonNull(document.getValue()),
+        ObjectUtils.notNull(documentUri));
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.atDebug().log("loaded cached resolved catalog '{}' for '{}'", catalogFile, documentUri);
+    }
+    return new ResolvedCatalogEntry(
+        ObjectUtils.notNull(fingerprint),
+        dependencies,
+        resolvedCatalog);
+  }
+
+  private static void write(
+      @NonNull Path directory,
+      @NonNull String key,
+      @NonNull ResolvedCatalogEntry entry) throws IOException {
+    Files.createDirectories(directory);
+
+    IDocumentNodeItem resolvedCatalog = entry.getResolvedCatalog();
+
+    // write the catalog before the index, since the index marks the entry as complete
+    Path catalogFile = directory.resolve(key + CATALOG_EXTENSION);
+    Path tempCatalogFile = ObjectUtils.notNull(Files.createTempFile(directory, key, CATALOG_EXTENSION));
+    try {
+      OscalBindingContext.instance().newSerializer(Format.XML, Catalog.class)
+          .serialize((Catalog) ObjectUtils.requireNonNull(resolvedCatalog.getValue()), tempCatalogFile);
+      move(tempCatalogFile, ObjectUtils.notNull(catalogFile));
+    } finally {
+      Files.deleteIfExists(tempCatalogFile);
+    }
+
+    Path indexFile = directory.resolve(key + INDEX_EXTENSION);
+    Path tempIndexFile = ObjectUtils.notNull(Files.createTempFile(directory, key, INDEX_EXTENSION));
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(tempIndexFile, StandardCharsets.UTF_8)) {
+        writer.write(entry.getFingerprint());
+        writer.newLine();
+        writer.write(resolvedCatalog.getDocumentUri().toASCIIString());
+        writer.newLine();
+        for (Map.Entry<URI, String> dependency : entry.getDependencies().entrySet()) {
+          writer.write(dependency.getValue());
+          writer.write(' ');
+          writer.write(dependency.getKey().toASCIIString());
+          writer.newLine();
+        }
+      }
+      move(tempIndexFile, ObjectUtils.notNull(indexFile));
+    } finally {
+      Files.deleteIfExists(tempIndexFile);
+    }
+  }
+
+  private static void move(@NonNull Path source, @NonNull Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException ex) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+}
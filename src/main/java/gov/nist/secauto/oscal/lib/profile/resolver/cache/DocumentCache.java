@@ -0,0 +1,430 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.cache;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A bounded cache of parsed documents, which allows a document imported by multiple profiles to be
+ * parsed once.
+ * <p>
+ * Documents are identified by their resolved URI. The last modified time and size of the underlying
+ * file are recorded with each document, so a changed file is parsed again and replaces the
+ * document parsed from its previous version. Concurrent requests for a document that is not cached
+ * wait for a single load of the document. The size of each file is used as its weight. When the
+ * total weight exceeds the configured maximum, the least recently used documents are evicted.
+ * <p>
+ * Only documents stored as local files are cached. Determining if a remote resource has changed
+ * would require a request to its server for every lookup, so these documents are always loaded.
+ * <p>
+ * Cached documents are shared between callers and must not be modified.
+ */
+public class DocumentCache {
+  private static final Logger LOGGER = LogManager.getLogger(DocumentCache.class);
+
+  /**
+   * Loads a document that is not in the cache.
+   */
+  @FunctionalInterface
+  public interface IDocumentLoadFunction {
+    /**
+     * Load the document identified by the provided source.
+     * 
+     * @param source
+     *          the document source
+     * @return the loaded document
+     * @throws IOException
+     *           if an error occurred while loading the document
+     */
+    @NonNull
+    IDocumentNodeItem load(@NonNull InputSource source) throws IOException;
+  }
+
+  private final long maximumWeight;
+  @NonNull
+  private final Map<URI, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+  private long hitCount;
+  private long missCount;
+  private long loadCount;
+  private long evictionCount;
+
+  /**
+   * Construct a new cache.
+   * 
+   * @param maximumWeight
+   *          the maximum combined size in bytes of the files backing the cached documents
+   */
+  public DocumentCache(long maximumWeight) {
+    if (maximumWeight < 1) {
+      throw new IllegalArgumentException(
+          String.format("The maximum weight '%d' must be positive", maximumWeight));
+    }
+    this.maximumWeight = maximumWeight;
+  }
+
+  /**
+   * Get the maximum combined size in bytes of the files backing the cached documents.
+   * 
+   * @return the maximum weight
+   */
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  /**
+   * Get the document identified by the provided source, loading it if it is not cached.
+   * <p>
+   * Sources that provide their content directly as a stream, or that do not identify a local file,
+   * are always loaded and never cached.
+   * 
+   * @param source
+   *          the document source
+   * @param loadFunction
+   *          the function used to load the document on a cache miss
+   * @return the document
+   * @throws IOException
+   *           if an error occurred while loading the document
+   */
+  @NonNull
+  public IDocumentNodeItem get(@NonNull InputSource source, @NonNull IDocumentLoadFunction loadFunction)
+      throws IOException {
+    Key key = newKey(source);
+    if (key == null) {
+      synchronized (this) {
+        loadCount++;
+      }
+      return loadFunction.load(source);
+    }
+
+    Entry entry;
+    boolean loadRequired = false;
+    synchronized (this) {
+      entry = entries.get(key.getUri());
+      if (entry != null && entry.getKey().equals(key)) {
+        hitCount++;
+      } else {
+        missCount++;
+        if (entry != null) {
+          // the file has changed, so the document parsed from the previous version is no longer used
+          remove(entry);
+        }
+
+        if (key.getSize() > maximumWeight) {
+          entry = null;
+        } else {
+          // concurrent requests wait for this caller to load the document
+          entry = new Entry(key);
+          loadRequired = true;
+          entries.put(key.getUri(), entry);
+          weight += key.getSize();
+          evict();
+        }
+      }
+    }
+
+    if (entry == null) {
+      synchronized (this) {
+        loadCount++;
+      }
+      return loadFunction.load(source);
+    }
+
+    if (loadRequired) {
+      load(entry, source, loadFunction);
+    }
+    return entry.getDocument();
+  }
+
+  private void load(
+      @NonNull Entry entry,
+      @NonNull InputSource source,
+      @NonNull IDocumentLoadFunction loadFunction) {
+    try {
+      IDocumentNodeItem document = loadFunction.load(source);
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.atDebug().log("caching parsed document '{}'", entry.getKey().getUri());
+      }
+      entry.getFuture().complete(document);
+    } catch (IOException | RuntimeException | Error ex) { // NOPMD - waiting callers must be released
+      synchronized (this) {
+        // allow a later request to retry the load
+        if (entries.get(entry.getKey().getUri()) == entry) {
+          remove(entry);
+        }
+      }
+      entry.getFuture().completeExceptionally(ex);
+    } finally {
+      synchronized (this) {
+        loadCount++;
+      }
+    }
+  }
+
+  private void remove(@NonNull Entry entry) {
+    entries.remove(entry.getKey().getUri());
+    weight -= entry.getKey().getSize();
+  }
+
+  private void evict() {
+    Iterator<Entry> iter = entries.values().iterator();
+    while (weight > maximumWeight && iter.hasNext()) {
+      Entry entry = iter.next();
+      iter.remove();
+      weight -= entry.getKey().getSize();
+      evictionCount++;
+    }
+  }
+
+  /**
+   * Remove all documents from the cache. The statistics are not reset.
+   */
+  public void clear() {
+    synchronized (this) {
+      entries.clear();
+      weight = 0;
+    }
+  }
+
+  /**
+   * Get a snapshot of the cache statistics.
+   * 
+   * @return the statistics
+   */
+  @NonNull
+  public Statistics getStatistics() {
+    synchronized (this) {
+      return new Statistics(hitCount, missCount, loadCount, evictionCount, entries.size(), weight);
+    }
+  }
+
+  @Nullable
+  private static Key newKey(@NonNull InputSource source) throws IOException {
+    String systemId = source.getSystemId();
+    if (systemId == null || source.getByteStream() != null || source.getCharacterStream() != null) {
+      return null;
+    }
+
+    URI uri = ObjectUtils.notNull(URI.create(systemId));
+    if (!"file".equals(uri.getScheme())) {
+      // checking a remote resource for changes costs a request on every lookup
+      return null;
+    }
+
+    Path path = Paths.get(uri);
+    if (!Files.isRegularFile(path)) {
+      // let the loader report the problem
+      return null;
+    }
+    return new Key(uri, Files.getLastModifiedTime(path).toMillis(), Files.size(path));
+  }
+
+  private static final class Key {
+    @NonNull
+    private final URI uri;
+    private final long lastModified;
+    private final long size;
+
+    private Key(@NonNull URI uri, long lastModified, long size) {
+      this.uri = uri;
+      this.lastModified = lastModified;
+      this.size = size;
+    }
+
+    @NonNull
+    public URI getUri() {
+      return uri;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(uri, lastModified, size);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return uri.equals(other.uri) && lastModified == other.lastModified && size == other.size;
+    }
+  }
+
+  private static final class Entry {
+    @NonNull
+    private final Key key;
+    @NonNull
+    private final CompletableFuture<IDocumentNodeItem> future = new CompletableFuture<>();
+
+    private Entry(@NonNull Key key) {
+      this.key = key;
+    }
+
+    @NonNull
+    public Key getKey() {
+      return key;
+    }
+
+    @NonNull
+    public CompletableFuture<IDocumentNodeItem> getFuture() {
+      return future;
+    }
+
+    /**
+     * Get the document, waiting for it to be loaded if needed.
+     * 
+     * @return the document
+     * @throws IOException
+     *           if an error occurred while loading the document
+     */
+    @NonNull
+    public IDocumentNodeItem getDocument() throws IOException {
+      try {
+        return ObjectUtils.notNull(future.join());
+      } catch (CompletionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw ex;
+      }
+    }
+  }
+
+  /**
+   * A point-in-time snapshot of the cache statistics.
+   */
+  public static final class Statistics {
+    private final long hitCount;
+    private final long missCount;
+    private final long loadCount;
+    private final long evictionCount;
+    private final int size;
+    private final long weight;
+
+    private Statistics(long hitCount, long missCount, long loadCount, long evictionCount, int size, long weight) {
+      this.hitCount = hitCount;
+      this.missCount = missCount;
+      this.loadCount = loadCount;
+      this.evictionCount = evictionCount;
+      this.size = size;
+      this.weight = weight;
+    }
+
+    /**
+     * Get the number of requests served from the cache.
+     * 
+     * @return the hit count
+     */
+    public long getHitCount() {
+      return hitCount;
+    }
+
+    /**
+     * Get the number of requests for cacheable documents that were not in the cache.
+     * 
+     * @return the miss count
+     */
+    public long getMissCount() {
+      return missCount;
+    }
+
+    /**
+     * Get the number of documents parsed, including documents that could not be cached.
+     * 
+     * @return the load count
+     */
+    public long getLoadCount() {
+      return loadCount;
+    }
+
+    /**
+     * Get the number of documents evicted to stay within the maximum weight.
+     * 
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+      return evictionCount;
+    }
+
+    /**
+     * Get the number of cached documents.
+     * 
+     * @return the number of documents
+     */
+    public int getSize() {
+      return size;
+    }
+
+    /**
+     * Get the combined size in bytes of the files backing the cached documents.
+     * 
+     * @return the weight
+     */
+    public long getWeight() {
+      return weight;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("hits=%d, misses=%d, loads=%d, evictions=%d, size=%d, weight=%d",
+          hitCount, missCount, loadCount, evictionCount, size, weight);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.cache;
+
+import java.io.IOException;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A store of previously resolved catalogs.
+ * <p>
+ * Entries are identified by a key derived from the location and content digest of the resolved
+ * profile, and the resolver configuration that affects the resolved catalog. Each entry records the
+ * content digest of every document transitively imported by the profile, which allows a caller to
+ * determine if the entry is still current before using it.
+ */
+public interface IResolvedCatalogCache {
+  /**
+   * Get the entry associated with the provided key.
+   * 
+   * @param key
+   *          the cache key
+   * @return the entry or {@code null} if no entry exists for the key
+   * @throws IOException
+   *           if an error occurred while reading a stored entry
+   */
+  @Nullable
+  ResolvedCatalogEntry get(@NonNull String key) throws IOException;
+
+  /**
+   * Store the provided entry using the provided key, replacing any existing entry.
+   * 
+   * @param key
+   *          the cache key
+   * @param entry
+   *          the entry to store
+   * @throws IOException
+   *           if an error occurred while storing the entry
+   */
+  void put(@NonNull String key, @NonNull ResolvedCatalogEntry entry) throws IOException;
+
+  /**
+   * Remove all entries from the cache.
+   * 
+   * @throws IOException
+   *           if an error occurred while removing stored entries
+   */
+  void clear() throws IOException;
+}
@@ -0,0 +1,188 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.cache;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A resolved catalog along with the content digests of the documents used to produce it.
+ */
+public class ResolvedCatalogEntry {
+  private static final Logger LOGGER = LogManager.getLogger(ResolvedCatalogEntry.class);
+
+  @NonNull
+  private final String fingerprint;
+  @NonNull
+  private final Map<URI, String> dependencies;
+  @NonNull
+  private final IDocumentNodeItem resolvedCatalog;
+  /**
+   * The file modification stamps of the dependencies, taken before their digests were last found to
+   * be unchanged, or {@code null} if the digests have not been verified yet.
+   */
+  @Nullable
+  private volatile Map<URI, String> verifiedStamps;
+
+  /**
+   * Construct a new entry.
+   * 
+   * @param fingerprint
+   *          the digest over the profile and all transitively imported documents, as computed by
+   *          {@link ContentDigest#combine(String, Map)}
+   * @param dependencies
+   *          the content digests of the documents transitively imported by the profile, in the
+   *          order used to compute the fingerprint
+   * @param resolvedCatalog
+   *          the resolved catalog
+   */
+  public ResolvedCatalogEntry(
+      @NonNull String fingerprint,
+      @NonNull Map<URI, String> dependencies,
+      @NonNull IDocumentNodeItem resolvedCatalog) {
+    this.fingerprint = fingerprint;
+    this.dependencies = CollectionUtil.unmodifiableMap(new LinkedHashMap<>(dependencies));
+    this.resolvedCatalog = resolvedCatalog;
+  }
+
+  /**
+   * Get the digest computed over the profile and all transitively imported documents.
+   * 
+   * @return the hex encoded digest
+   */
+  @NonNull
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  /**
+   * Get the content digests of the documents transitively imported by the profile.
+   * 
+   * @return a mapping of document URI to hex encoded digest, in the order used to compute the
+   *         fingerprint
+   */
+  @NonNull
+  public Map<URI, String> getDependencies() {
+    return dependencies;
+  }
+
+  /**
+   * Get the resolved catalog.
+   * <p>
+   * The returned document is shared by all users of the cache and must not be modified.
+   * 
+   * @return the resolved catalog document
+   */
+  @NonNull
+  public IDocumentNodeItem getResolvedCatalog() {
+    return resolvedCatalog;
+  }
+
+  /**
+   * Determine if this entry is still current by comparing the digests of the profile and the
+   * imported documents.
+   * <p>
+   * An imported file whose modification time and size are unchanged since its digest was last
+   * verified is not read again. All other imported documents are read and digested.
+   * 
+   * @param profileDigest
+   *          the current content digest of the profile
+   * @return {@code true} if the profile and all imported documents are unchanged, or {@code false}
+   *         otherwise
+   */
+  public boolean isCurrent(@NonNull String profileDigest) {
+    if (!fingerprint.equals(ContentDigest.combine(profileDigest, dependencies))) {
+      // the profile has changed
+      return false;
+    }
+
+    // stamp the files before reading them, so that a change made while reading is detected next time
+    Map<URI, String> stamps = stamp(dependencies);
+    if (stamps != null && stamps.equals(verifiedStamps)) {
+      return true;
+    }
+
+    for (Map.Entry<URI, String> dependency : dependencies.entrySet()) {
+      URI uri = ObjectUtils.notNull(dependency.getKey());
+      try {
+        if (!dependency.getValue().equals(ContentDigest.digest(uri))) {
+          return false;
+        }
+      } catch (IOException ex) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.atDebug().log("unable to read cached import dependency '{}': {}", uri, ex.getLocalizedMessage());
+        }
+        return false;
+      }
+    }
+    verifiedStamps = stamps;
+    return true;
+  }
+
+  /**
+   * Get the modification time and size of each of the provided files.
+   * 
+   * @param dependencies
+   *          the documents to stamp
+   * @return a mapping of document URI to stamp, or {@code null} if a document is not a readable file
+   */
+  @Nullable
+  private static Map<URI, String> stamp(@NonNull Map<URI, String> dependencies) {
+    Map<URI, String> retval = new LinkedHashMap<>();
+    for (URI uri : dependencies.keySet()) {
+      if (!"file".equalsIgnoreCase(uri.getScheme())) {
+        return null;
+      }
+
+      try {
+        Path path = Paths.get(uri);
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        retval.put(uri, attributes.lastModifiedTime() + " " + attributes.size());
+      } catch (IOException | RuntimeException ex) {
+        // a file that cannot be stamped is digested
+        return null;
+      }
+    }
+    return retval;
+  }
+}
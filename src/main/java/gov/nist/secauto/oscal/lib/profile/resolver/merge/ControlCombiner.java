@@ -0,0 +1,295 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.merge;
+
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Link;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.model.Property;
+import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionEvaluationException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Combines controls having the same identifier, which occur when the same control is imported more
+ * than once, based on a profile's {@code merge/combine} directive.
+ * <p>
+ * The resolved catalog is walked once in document order, which follows the order of the imports.
+ * The first control seen with a given identifier is kept, and each later control having the same
+ * identifier is detected using a hash lookup and is combined with it. This makes the result
+ * independent of the order the imports were resolved in.
+ */
+public class ControlCombiner {
+  private static final Logger LOGGER = LogManager.getLogger(ControlCombiner.class);
+
+  /**
+   * The supported {@code merge/combine/@method} values.
+   */
+  public enum Method {
+    /**
+     * Keep the first control, dropping any later duplicates.
+     */
+    USE_FIRST("use-first"),
+    /**
+     * Keep the first control, adding to it the content of any later duplicates that it does not
+     * already have.
+     */
+    MERGE("merge"),
+    /**
+     * Keep all duplicates as-is.
+     */
+    KEEP("keep");
+
+    @NonNull
+    private final String value;
+
+    Method(@NonNull String value) {
+      this.value = value;
+    }
+
+    /**
+     * Get the value used for the method in an OSCAL profile.
+     * 
+     * @return the value
+     */
+    @NonNull
+    public String getValue() {
+      return value;
+    }
+
+    /**
+     * Get the method for the provided OSCAL profile value.
+     * 
+     * @param value
+     *          the value to lookup
+     * @return the method
+     * @throws ProfileResolutionEvaluationException
+     *           if the value is not a supported method
+     */
+    @NonNull
+    public static Method lookup(@NonNull String value) {
+      for (Method method : values()) {
+        if (method.getValue().equals(value)) {
+          return method;
+        }
+      }
+      throw new ProfileResolutionEvaluationException(
+          String.format("The combine method '%s' is not supported.", value));
+    }
+  }
+
+  @NonNull
+  private final Method method;
+  /**
+   * The first control seen for each identifier.
+   */
+  @NonNull
+  private final Map<String, Control> identifierToControlMap = new HashMap<>();
+  private int combinedCount;
+
+  /**
+   * Construct a new combiner.
+   * 
+   * @param method
+   *          the method used to combine duplicate controls
+   */
+  public ControlCombiner(@NonNull Method method) {
+    this.method = method;
+  }
+
+  /**
+   * Combine the duplicate controls in the provided catalog.
+   * 
+   * @param catalog
+   *          the resolved catalog to update
+   * @return the number of duplicate controls that were combined
+   * @throws ProfileResolutionEvaluationException
+   *           if a control has no identifier
+   */
+  public int combine(@NonNull Catalog catalog) {
+    if (!Method.KEEP.equals(method)) {
+      combineControls(catalog.getControls());
+      combineGroups(catalog.getGroups());
+
+      if (combinedCount > 0 && LOGGER.isDebugEnabled()) {
+        LOGGER.atDebug().log("Combined {} duplicate controls using the '{}' method.", combinedCount,
+            method.getValue());
+      }
+    }
+    return combinedCount;
+  }
+
+  private void combineGroups(@Nullable List<CatalogGroup> groups) {
+    for (CatalogGroup group : CollectionUtil.listOrEmpty(groups)) {
+      combineControls(group.getControls());
+      combineGroups(group.getGroups());
+    }
+  }
+
+  /**
+   * Register the provided controls, and their child controls, removing each duplicate from the list
+   * after combining it with the first control having the same identifier.
+   * 
+   * @param controls
+   *          the list of controls to update
+   */
+  private void combineControls(@Nullable List<Control> controls) {
+    if (controls == null || controls.isEmpty()) {
+      return;
+    }
+
+    List<Control> retained = new ArrayList<>(controls.size());
+    for (Control control : controls) {
+      if (register(ObjectUtils.notNull(control))) {
+        retained.add(control);
+      }
+    }
+
+    if (retained.size() != controls.size()) {
+      // rebuild the list in one pass, instead of removing each duplicate individually
+      controls.clear();
+      controls.addAll(retained);
+    }
+  }
+
+  /**
+   * Register the provided control, combining it with a previously registered control having the
+   * same identifier.
+   * 
+   * @param control
+   *          the control to register
+   * @return {@code true} if the control is the first having its identifier, or {@code false} if it
+   *         is a duplicate that must be removed
+   */
+  private boolean register(@NonNull Control control) {
+    String id = control.getId();
+    if (id == null) {
+      throw new ProfileResolutionEvaluationException("control is missing an identifier");
+    }
+
+    Control first = identifierToControlMap.putIfAbsent(id, control);
+    boolean retval;
+    if (first == null) {
+      combineControls(control.getControls());
+      retval = true;
+    } else {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.atDebug().log("Combining duplicate control '{}'.", id);
+      }
+      if (Method.MERGE.equals(method)) {
+        mergeInto(first, control);
+      }
+      combinedCount++;
+      retval = false;
+    }
+    return retval;
+  }
+
+  /**
+   * Add the content of the {@code duplicate} control that is not already present in the
+   * {@code target} control.
+   * 
+   * @param target
+   *          the control to update
+   * @param duplicate
+   *          the duplicate control providing the content to add
+   */
+  private void mergeInto(@NonNull Control target, @NonNull Control duplicate) {
+    Set<String> paramIds = new HashSet<>();
+    CollectionUtil.listOrEmpty(target.getParams()).forEach(param -> paramIds.add(param.getId()));
+    for (Parameter param : CollectionUtil.listOrEmpty(duplicate.getParams())) {
+      if (paramIds.add(param.getId())) {
+        target.addParam(param);
+      }
+    }
+
+    Set<String> propKeys = new HashSet<>();
+    CollectionUtil.listOrEmpty(target.getProps()).forEach(prop -> propKeys.add(toKey(prop)));
+    for (Property prop : CollectionUtil.listOrEmpty(duplicate.getProps())) {
+      if (propKeys.add(toKey(prop))) {
+        target.addProp(prop);
+      }
+    }
+
+    Set<String> linkKeys = new HashSet<>();
+    CollectionUtil.listOrEmpty(target.getLinks()).forEach(link -> linkKeys.add(toKey(link)));
+    for (Link link : CollectionUtil.listOrEmpty(duplicate.getLinks())) {
+      if (linkKeys.add(toKey(link))) {
+        target.addLink(link);
+      }
+    }
+
+    Set<String> partKeys = new HashSet<>();
+    CollectionUtil.listOrEmpty(target.getParts()).forEach(part -> partKeys.add(toKey(part)));
+    for (ControlPart part : CollectionUtil.listOrEmpty(duplicate.getParts())) {
+      if (partKeys.add(toKey(part))) {
+        target.addPart(part);
+      }
+    }
+
+    // child controls not seen before are moved to the target, while others are combined as well
+    for (Control child : CollectionUtil.listOrEmpty(duplicate.getControls())) {
+      if (register(ObjectUtils.notNull(child))) {
+        target.addControl(child);
+        child.setParentControl(target);
+      }
+    }
+  }
+
+  @NonNull
+  private static String toKey(@NonNull Property prop) {
+    return String.join("|", String.valueOf(prop.getNs()), prop.getName(), prop.getClazz(), prop.getValue());
+  }
+
+  @NonNull
+  private static String toKey(@NonNull Link link) {
+    return String.join("|", String.valueOf(link.getHref()), String.valueOf(link.getRel()));
+  }
+
+  @NonNull
+  private static String toKey(@NonNull ControlPart part) {
+    // parts without an identifier are assumed to be the same part if they have the same name
+    String id = part.getId();
+    return id == null ? "name:" + part.getName() : "id:" + id;
+  }
+}
@@ -0,0 +1,318 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.merge;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.InsertControls;
+import gov.nist.secauto.oscal.lib.model.Merge;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.model.ProfileGroup;
+import gov.nist.secauto.oscal.lib.model.ProfileSelectControlById;
+import gov.nist.secauto.oscal.lib.model.control.profile.IProfileSelectControlById;
+import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionEvaluationException;
+import gov.nist.secauto.oscal.lib.profile.resolver.selection.DefaultControlSelectionFilter;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Restructures a resolved catalog based on a profile's {@code merge/custom} directive.
+ * <p>
+ * The groups defined by the directive replace the groups of the resolved catalog. Controls are
+ * placed using the {@code insert-controls} directives, which are processed in document order.
+ * Controls are located using the provided index, requiring a lookup for each identifier and a
+ * single pass over the indexed controls for each {@code matching} selection. A control selected by
+ * more than one directive is placed by the first one. Controls that are not placed, and are not
+ * retained as a child of a placed control, are dropped from the resolved catalog. The parameters of
+ * the original groups are promoted to the catalog.
+ */
+public class CustomStructuringBuilder {
+  private static final Logger LOGGER = LogManager.getLogger(CustomStructuringBuilder.class);
+
+  @NonNull
+  private static final String ORDER_ASCENDING = "ascending";
+  @NonNull
+  private static final String ORDER_DESCENDING = "descending";
+
+  @NonNull
+  private final IIndexer index;
+  /**
+   * The indexed controls in document order.
+   */
+  @NonNull
+  private final List<Control> controls;
+  /**
+   * The position of each indexed control in document order.
+   */
+  @NonNull
+  private final Map<Control, Integer> controlToOrdinalMap;
+  /**
+   * The controls placed so far.
+   */
+  @NonNull
+  private final Set<Control> placedControls = new HashSet<>();
+
+  /**
+   * Construct a new builder.
+   * 
+   * @param index
+   *          an index containing the controls of the catalog to restructure, in document order
+   */
+  public CustomStructuringBuilder(@NonNull IIndexer index) {
+    this.index = index;
+
+    Collection<IEntityItem> entities = index.getEntitiesByItemType(ItemType.CONTROL);
+    this.controls = new ArrayList<>(entities.size());
+    this.controlToOrdinalMap = new IdentityHashMap<>(entities.size());
+    for (IEntityItem entity : entities) {
+      Control control = entity.getInstanceValue();
+      controlToOrdinalMap.put(control, controls.size());
+      controls.add(control);
+    }
+  }
+
+  /**
+   * Replace the structure of the provided catalog with the structure described by the
+   * {@code custom} directive.
+   * <p>
+   * The content of the directive becomes part of the catalog, so callers are expected to provide a
+   * copy of the directive if the profile is to be reused.
+   * 
+   * @param catalog
+   *          the resolved catalog to restructure
+   * @param custom
+   *          the custom structuring directive
+   * @throws ProfileResolutionEvaluationException
+   *           if an indexed control has no identifier
+   */
+  public void build(@NonNull Catalog catalog, @NonNull Merge.Custom custom) {
+    List<Parameter> promotedParameters = new LinkedList<>(CollectionUtil.listOrEmpty(catalog.getParams()));
+    collectGroupParameters(CollectionUtil.listOrEmpty(catalog.getGroups()), promotedParameters);
+
+    // groups appear before the insert-controls directives in document order
+    List<CatalogGroup> groups = buildGroups(CollectionUtil.listOrEmpty(custom.getGroups()));
+    List<Control> topLevelControls = insertControls(CollectionUtil.listOrEmpty(custom.getInsertControls()));
+
+    detachPlacedControls();
+
+    catalog.setParams(promotedParameters.isEmpty() ? null : promotedParameters);
+    catalog.setGroups(groups.isEmpty() ? null : groups);
+    catalog.setControls(topLevelControls.isEmpty() ? null : topLevelControls);
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.atDebug().log("Placed {} of {} controls using custom structuring.", placedControls.size(),
+          controls.size());
+    }
+  }
+
+  private static void collectGroupParameters(@NonNull List<CatalogGroup> groups,
+      @NonNull List<Parameter> parameters) {
+    for (CatalogGroup group : groups) {
+      parameters.addAll(CollectionUtil.listOrEmpty(group.getParams()));
+      collectGroupParameters(CollectionUtil.listOrEmpty(group.getGroups()), parameters);
+    }
+  }
+
+  @NonNull
+  private List<CatalogGroup> buildGroups(@NonNull List<ProfileGroup> profileGroups) {
+    List<CatalogGroup> retval = new ArrayList<>(profileGroups.size());
+    for (ProfileGroup profileGroup : profileGroups) {
+      retval.add(buildGroup(ObjectUtils.notNull(profileGroup)));
+    }
+    return retval;
+  }
+
+  @NonNull
+  private CatalogGroup buildGroup(@NonNull ProfileGroup profileGroup) {
+    CatalogGroup group = new CatalogGroup();
+    group.setId(profileGroup.getId());
+    group.setClazz(profileGroup.getClazz());
+    group.setTitle(profileGroup.getTitle());
+    group.setParams(profileGroup.getParams());
+    group.setProps(profileGroup.getProps());
+    group.setLinks(profileGroup.getLinks());
+    group.setParts(profileGroup.getParts());
+
+    List<CatalogGroup> childGroups = buildGroups(CollectionUtil.listOrEmpty(profileGroup.getGroups()));
+    if (!childGroups.isEmpty()) {
+      group.setGroups(childGroups);
+    }
+
+    List<Control> groupControls = insertControls(CollectionUtil.listOrEmpty(profileGroup.getInsertControls()));
+    if (!groupControls.isEmpty()) {
+      group.setControls(groupControls);
+    }
+    return group;
+  }
+
+  @NonNull
+  private List<Control> insertControls(@NonNull List<InsertControls> directives) {
+    List<Control> retval = new LinkedList<>();
+    for (InsertControls directive : directives) {
+      retval.addAll(selectControls(ObjectUtils.notNull(directive)));
+    }
+    return retval;
+  }
+
+  /**
+   * Determine the controls to place for the provided {@code insert-controls} directive, ordered as
+   * requested by the directive. Controls already placed by a previous directive are skipped.
+   * 
+   * @param directive
+   *          the directive to process
+   * @return the controls to place
+   */
+  @NonNull
+  protected List<Control> selectControls(@NonNull InsertControls directive) {
+    Collection<Control> included;
+    if (directive.getIncludeAll() == null) {
+      included = lookupControls(CollectionUtil.listOrEmpty(directive.getIncludeControls()));
+    } else {
+      included = controls;
+    }
+    Set<Control> excluded = lookupControls(CollectionUtil.listOrEmpty(directive.getExcludeControls()));
+
+    List<Control> retval = new ArrayList<>(included.size());
+    for (Control control : included) {
+      if (!excluded.contains(control) && placedControls.add(control)) {
+        retval.add(control);
+      }
+    }
+    retval.sort(getComparator(directive.getOrder()));
+    return retval;
+  }
+
+  @NonNull
+  private Comparator<Control> getComparator(String order) {
+    Comparator<Control> retval;
+    if (ORDER_ASCENDING.equals(order)) {
+      retval = Comparator.comparing(Control::getId);
+    } else if (ORDER_DESCENDING.equals(order)) {
+      retval = Comparator.comparing(Control::getId, Comparator.reverseOrder());
+    } else {
+      // "keep" is the default
+      retval = Comparator.comparing(controlToOrdinalMap::get);
+    }
+    return ObjectUtils.notNull(retval);
+  }
+
+  @NonNull
+  private Set<Control> lookupControls(@NonNull List<? extends IProfileSelectControlById> selections) {
+    Set<Control> retval = new LinkedHashSet<>();
+    for (IProfileSelectControlById selection : selections) {
+      boolean withChildControls = "yes".equals(selection.getWithChildControls());
+
+      for (String id : CollectionUtil.listOrEmpty(selection.getWithIds())) {
+        IEntityItem entity = index.getEntity(ItemType.CONTROL, ObjectUtils.notNull(id));
+        if (entity == null) {
+          if (LOGGER.isDebugEnabled()) {
+            LOGGER.atDebug().log("The control '{}' selected by an insert-controls directive does not exist.", id);
+          }
+        } else {
+          addControl(entity.getInstanceValue(), withChildControls, retval);
+        }
+      }
+
+      List<ProfileSelectControlById.Matching> matching = CollectionUtil.listOrEmpty(selection.getMatching());
+      if (!matching.isEmpty()) {
+        Predicate<String> predicate = matching.stream()
+            .map(match -> DefaultControlSelectionFilter.toPattern(ObjectUtils.notNull(match)))
+            .map(Pattern::asMatchPredicate)
+            .reduce(Predicate::or)
+            .get();
+        for (Control control : controls) {
+          String id = control.getId();
+          if (id == null) {
+            throw new ProfileResolutionEvaluationException("control is missing an identifier");
+          }
+          if (predicate.test(id)) {
+            addControl(control, withChildControls, retval);
+          }
+        }
+      }
+    }
+    return retval;
+  }
+
+  private static void addControl(@NonNull Control control, boolean withChildControls,
+      @NonNull Set<Control> controls) {
+    if (controls.add(control) && withChildControls) {
+      for (Control child : CollectionUtil.listOrEmpty(control.getControls())) {
+        addControl(ObjectUtils.notNull(child), true, controls);
+      }
+    }
+  }
+
+  /**
+   * Remove the placed controls from the child controls of their original parent control. Child
+   * controls that were not placed remain with their parent.
+   */
+  private void detachPlacedControls() {
+    Set<Control> parents = new HashSet<>();
+    for (IEntityItem entity : index.getEntitiesByItemType(ItemType.CONTROL)) {
+      Control control = entity.getInstanceValue();
+      if (placedControls.contains(control)) {
+        IRequiredValueModelNodeItem parentItem = entity.getInstance().getParentContentNodeItem();
+        if (parentItem != null && parentItem.getValue() instanceof Control) {
+          parents.add((Control) parentItem.getValue());
+        }
+        control.setParentControl(null);
+      }
+    }
+
+    for (Control parent : parents) {
+      List<Control> children = parent.getControls().stream()
+          .filter(child -> !placedControls.contains(child))
+          .collect(Collectors.toCollection(LinkedList::new));
+      parent.setControls(children.isEmpty() ? null : children);
+    }
+  }
+}
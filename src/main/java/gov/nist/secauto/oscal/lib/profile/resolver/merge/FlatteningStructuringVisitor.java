@@ -38,7 +38,6 @@ import gov.nist.secauto.oscal.lib.model.Metadata.Location;
 import gov.nist.secauto.oscal.lib.model.Parameter;
 import gov.nist.secauto.oscal.lib.model.Metadata.Party;
 import gov.nist.secauto.oscal.lib.model.Metadata.Role;
-import gov.nist.secauto.oscal.lib.profile.resolver.policy.ReferenceCountingVisitor;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.DefaultResult;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.FilterNonSelectedVisitor;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.AbstractCatalogEntityVisitor;
@@ -90,10 +89,8 @@ public class FlatteningStructuringVisitor
       }
     }
 
-    // process references, looking for orphaned links to groups
-    ReferenceCountingVisitor.instance().visitCatalog(catalogItem, index, catalogItem.getDocumentUri());
-
-    FlatteningFilterNonSelectedVisitor.instance().visitCatalog(catalogItem, index);
+    // process references, looking for orphaned links to groups, while filtering
+    FlatteningFilterNonSelectedVisitor.instance().visitCatalog(catalogItem, index, catalogItem.getDocumentUri());
     return null;
   }
 
@@ -244,10 +241,10 @@ public class FlatteningStructuringVisitor
           retval.removeControl(control);
         }
         retval.appendPromoted(ObjectUtils.notNull(childResult));
-        index.remove(entity);
+        context.removeEntity(entity);
 
         // remove any associated parts from the index
-        removePartsFromIndex(item, index);
+        removePartsFromIndex(item, context);
       }
       return retval;
     }
@@ -0,0 +1,117 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.metrics;
+
+import java.net.URI;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Receives timing and activity information about a profile resolution.
+ * <p>
+ * All methods have an empty default implementation, allowing an implementation to only handle the
+ * information it is interested in. Implementations must be thread safe, since imports may be
+ * resolved concurrently. Methods are called on the thread performing the work, so implementations
+ * should return quickly.
+ * <p>
+ * Times are provided in nanoseconds. The CPU time is the time spent by the calling thread, which is
+ * {@code -1} if the JVM does not support measuring thread CPU time.
+ */
+public interface IResolutionListener {
+  /**
+   * Get a listener that ignores all information.
+   * 
+   * @return the listener
+   */
+  @NonNull
+  static IResolutionListener noop() {
+    return NoopResolutionListener.INSTANCE;
+  }
+
+  /**
+   * Called when the resolution of a profile has completed. This is called for each profile that is
+   * resolved, including imported profiles.
+   * 
+   * @param profile
+   *          the location of the resolved profile
+   * @param wallNanos
+   *          the elapsed wall-clock time
+   * @param cpuNanos
+   *          the elapsed CPU time, or {@code -1} if not available
+   */
+  default void resolutionCompleted(@NonNull URI profile, long wallNanos, long cpuNanos) {
+    // do nothing by default
+  }
+
+  /**
+   * Called when a phase of a profile resolution has completed.
+   * 
+   * @param document
+   *          the location of the profile being resolved, or of the imported document for the
+   *          {@link ResolutionPhase#LOAD} phase
+   * @param phase
+   *          the completed phase
+   * @param wallNanos
+   *          the elapsed wall-clock time
+   * @param cpuNanos
+   *          the elapsed CPU time, or {@code -1} if not available
+   */
+  default void phaseCompleted(@NonNull URI document, @NonNull ResolutionPhase phase, long wallNanos,
+      long cpuNanos) {
+    // do nothing by default
+  }
+
+  /**
+   * Called when a profile import has been resolved, which includes the time taken to load and
+   * resolve the imported document and to select its content.
+   * 
+   * @param profile
+   *          the location of the profile containing the import
+   * @param importedDocument
+   *          the location of the imported document
+   * @param wallNanos
+   *          the elapsed wall-clock time
+   * @param cpuNanos
+   *          the elapsed CPU time, or {@code -1} if not available
+   */
+  default void importCompleted(@NonNull URI profile, @NonNull URI importedDocument, long wallNanos,
+      long cpuNanos) {
+    // do nothing by default
+  }
+
+  /**
+   * Called when a counted activity occurs.
+   * 
+   * @param counter
+   *          the activity
+   * @param amount
+   *          the number of occurrences
+   */
+  default void increment(@NonNull ResolutionCounter counter, long amount) {
+    // do nothing by default
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.metrics;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A listener that emits JDK Flight Recorder events describing profile resolutions.
+ * <p>
+ * An event is emitted for each completed profile resolution, phase, and import. The counted
+ * activities are accumulated and emitted as a single counters event each time a profile resolution
+ * completes, covering the activity since the previous counters event. Since an imported profile is
+ * resolved before the profile importing it, the counters event for the importing profile does not
+ * include the activity reported for the imported profile. When multiple resolutions share this
+ * listener concurrently, their counts are combined.
+ * <p>
+ * Events are only emitted when enabled in a running recording, allowing this listener to be left in
+ * place on production systems.
+ */
+public class JfrResolutionListener implements IResolutionListener {
+  @NonNull
+  private final Map<ResolutionCounter, LongAdder> counters = new EnumMap<>(ResolutionCounter.class);
+
+  /**
+   * Construct a new listener.
+   */
+  public JfrResolutionListener() {
+    for (ResolutionCounter counter : ResolutionCounter.values()) {
+      counters.put(counter, new LongAdder());
+    }
+  }
+
+  @Override
+  public void resolutionCompleted(URI profile, long wallNanos, long cpuNanos) {
+    ResolutionEvent event = new ResolutionEvent();
+    if (event.isEnabled()) {
+      event.profile = profile.toString();
+      event.wallTime = wallNanos;
+      event.cpuTime = cpuNanos;
+      event.commit();
+    }
+
+    CountersEvent countersEvent = new CountersEvent();
+    // always reset the counts, so that the next event only reports the next resolution
+    countersEvent.profile = profile.toString();
+    countersEvent.groupsVisited = sumThenReset(ResolutionCounter.GROUPS_VISITED);
+    countersEvent.groupsSelected = sumThenReset(ResolutionCounter.GROUPS_SELECTED);
+    countersEvent.controlsVisited = sumThenReset(ResolutionCounter.CONTROLS_VISITED);
+    countersEvent.controlsSelected = sumThenReset(ResolutionCounter.CONTROLS_SELECTED);
+    countersEvent.referencesResolved = sumThenReset(ResolutionCounter.REFERENCES_RESOLVED);
+    countersEvent.referencesMissed = sumThenReset(ResolutionCounter.REFERENCES_MISSED);
+    countersEvent.entitiesPruned = sumThenReset(ResolutionCounter.ENTITIES_PRUNED);
+    countersEvent.controlsCombined = sumThenReset(ResolutionCounter.CONTROLS_COMBINED);
+    countersEvent.setParametersApplied = sumThenReset(ResolutionCounter.SET_PARAMETERS_APPLIED);
+    countersEvent.altersApplied = sumThenReset(ResolutionCounter.ALTERS_APPLIED);
+    if (countersEvent.isEnabled()) {
+      countersEvent.commit();
+    }
+  }
+
+  @Override
+  public void phaseCompleted(URI document, ResolutionPhase phase, long wallNanos, long cpuNanos) {
+    PhaseEvent event = new PhaseEvent();
+    if (event.isEnabled()) {
+      event.document = document.toString();
+      event.phase = phase.name();
+      event.wallTime = wallNanos;
+      event.cpuTime = cpuNanos;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void importCompleted(URI profile, URI importedDocument, long wallNanos, long cpuNanos) {
+    ImportEvent event = new ImportEvent();
+    if (event.isEnabled()) {
+      event.profile = profile.toString();
+      event.importedDocument = importedDocument.toString();
+      event.wallTime = wallNanos;
+      event.cpuTime = cpuNanos;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void increment(ResolutionCounter counter, long amount) {
+    counters.get(counter).add(amount);
+  }
+
+  private long sumThenReset(@NonNull ResolutionCounter counter) {
+    return counters.get(counter).sumThenReset();
+  }
+
+  @Name("gov.nist.secauto.oscal.ProfileResolution")
+  @Label("Profile Resolution")
+  @Description("The resolution of an OSCAL profile")
+  @Category({ "OSCAL", "Profile Resolution" })
+  @SuppressFBWarnings(value = "URF_UNREAD_FIELD", justification = "fields are read by JDK Flight Recorder")
+  static final class ResolutionEvent extends Event {
+    @Label("Profile")
+    String profile;
+    @Label("Wall Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long wallTime;
+    @Label("CPU Time")
+    @Description("The CPU time used by the resolving thread, or -1 if not supported")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+  }
+
+  @Name("gov.nist.secauto.oscal.ProfileResolutionPhase")
+  @Label("Profile Resolution Phase")
+  @Description("A phase of an OSCAL profile resolution")
+  @Category({ "OSCAL", "Profile Resolution" })
+  @SuppressFBWarnings(value = "URF_UNREAD_FIELD", justification = "fields are read by JDK Flight Recorder")
+  static final class PhaseEvent extends Event {
+    @Label("Document")
+    String document;
+    @Label("Phase")
+    String phase;
+    @Label("Wall Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long wallTime;
+    @Label("CPU Time")
+    @Description("The CPU time used by the resolving thread, or -1 if not supported")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+  }
+
+  @Name("gov.nist.secauto.oscal.ProfileImport")
+  @Label("Profile Import")
+  @Description("The resolution of an import in an OSCAL profile")
+  @Category({ "OSCAL", "Profile Resolution" })
+  @SuppressFBWarnings(value = "URF_UNREAD_FIELD", justification = "fields are read by JDK Flight Recorder")
+  static final class ImportEvent extends Event {
+    @Label("Profile")
+    String profile;
+    @Label("Imported Document")
+    String importedDocument;
+    @Label("Wall Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long wallTime;
+    @Label("CPU Time")
+    @Description("The CPU time used by the resolving thread, or -1 if not supported")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+  }
+
+  @Name("gov.nist.secauto.oscal.ProfileResolutionCounters")
+  @Label("Profile Resolution Counters")
+  @Description("The activity counted during an OSCAL profile resolution")
+  @Category({ "OSCAL", "Profile Resolution" })
+  @SuppressFBWarnings(value = "URF_UNREAD_FIELD", justification = "fields are read by JDK Flight Recorder")
+  static final class CountersEvent extends Event {
+    @Label("Profile")
+    String profile;
+    @Label("Groups Visited")
+    long groupsVisited;
+    @Label("Groups Selected")
+    long groupsSelected;
+    @Label("Controls Visited")
+    long controlsVisited;
+    @Label("Controls Selected")
+    long controlsSelected;
+    @Label("References Resolved")
+    long referencesResolved;
+    @Label("References Missed")
+    long referencesMissed;
+    @Label("Entities Pruned")
+    long entitiesPruned;
+    @Label("Controls Combined")
+    long controlsCombined;
+    @Label("Set Parameters Applied")
+    long setParametersApplied;
+    @Label("Alters Applied")
+    long altersApplied;
+  }
+}
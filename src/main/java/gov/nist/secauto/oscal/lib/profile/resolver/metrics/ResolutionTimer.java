@@ -0,0 +1,104 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Measures the wall-clock and CPU time elapsed on the current thread since the timer was started.
+ */
+public final class ResolutionTimer {
+  @NonNull
+  private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+  private final long startWallNanos;
+  private final long startCpuNanos;
+
+  /**
+   * Start a new timer on the current thread.
+   * 
+   * @return the timer
+   */
+  @NonNull
+  public static ResolutionTimer start() {
+    return new ResolutionTimer();
+  }
+
+  private ResolutionTimer() {
+    this.startCpuNanos = currentCpuNanos();
+    this.startWallNanos = System.nanoTime();
+  }
+
+  private static long currentCpuNanos() {
+    return THREAD_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_BEAN.getCurrentThreadCpuTime() : -1;
+  }
+
+  /**
+   * Get the wall-clock time elapsed since the timer was started.
+   * 
+   * @return the elapsed time in nanoseconds
+   */
+  public long getWallNanos() {
+    return System.nanoTime() - startWallNanos;
+  }
+
+  /**
+   * Get the CPU time used by the current thread since the timer was started. This must be called on
+   * the thread that started the timer.
+   * 
+   * @return the elapsed time in nanoseconds, or {@code -1} if thread CPU time is not supported
+   */
+  public long getCpuNanos() {
+    long retval = -1;
+    if (startCpuNanos >= 0) {
+      long current = currentCpuNanos();
+      if (current >= 0) {
+        retval = current - startCpuNanos;
+      }
+    }
+    return retval;
+  }
+
+  /**
+   * Report the elapsed time of a completed phase to the listener.
+   * 
+   * @param listener
+   *          the listener to notify
+   * @param document
+   *          the location of the document the phase was performed on
+   * @param phase
+   *          the completed phase
+   */
+  public void phaseCompleted(@NonNull IResolutionListener listener, @NonNull URI document,
+      @NonNull ResolutionPhase phase) {
+    listener.phaseCompleted(document, phase, getWallNanos(), getCpuNanos());
+  }
+}
@@ -29,6 +29,7 @@ package gov.nist.secauto.oscal.lib.profile.resolver.policy;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionEvaluationException;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionCounter;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 
 import org.apache.logging.log4j.LogManager;
@@ -69,6 +70,17 @@ public abstract class AbstractCustomReferencePolicy<TYPE> implements ICustomRefe
   @NonNull
   protected abstract List<IEntityItem.ItemType> getEntityItemTypes(@NonNull TYPE reference);
 
+  /**
+   * Get the kind of the reference, which is used to tag the reference when it is recorded in a
+   * {@link ReferenceGraph}.
+   * 
+   * @param reference
+   *          the reference object
+   * @return the kind of reference
+   */
+  @NonNull
+  protected abstract ReferenceKind getReferenceKind(@NonNull TYPE reference);
+
   /**
    * Handle an index hit.
    * 
@@ -95,9 +107,9 @@ public abstract class AbstractCustomReferencePolicy<TYPE> implements ICustomRefe
         // this referenced item will need to be resolved
         visitorContext.resolveEntity(item, visitorContext);
       }
-      item.incrementReferenceCount();
+      visitorContext.countReference(contextItem, item, getReferenceKind(reference));
 
-      if (item.isIdentifierReassigned()) {
+      if (item.isIdentifierReassigned() && !visitorContext.isReadOnly()) {
         String referenceText = ObjectUtils.notNull(getReferenceText(reference));
         String newReferenceText = getIdentifierParser().update(referenceText, item.getIdentifier());
         setReferenceText(reference, newReferenceText);
@@ -107,7 +119,7 @@ public abstract class AbstractCustomReferencePolicy<TYPE> implements ICustomRefe
         }
       }
       handleSelected(contextItem, reference, item, visitorContext);
-    } else {
+    } else if (!visitorContext.isReadOnly()) {
       handleUnselected(contextItem, reference, item, visitorContext);
     }
     return true;
@@ -263,8 +275,12 @@ public abstract class AbstractCustomReferencePolicy<TYPE> implements ICustomRefe
       }
 
       if (item == null) {
-        retval = handleIndexMiss(contextItem, type, itemTypes, identifier, visitorContext);
+        visitorContext.getListener().increment(ResolutionCounter.REFERENCES_MISSED, 1);
+        // index misses are reported when the references are processed for update
+        retval = visitorContext.isReadOnly()
+            || handleIndexMiss(contextItem, type, itemTypes, identifier, visitorContext);
       } else {
+        visitorContext.getListener().increment(ResolutionCounter.REFERENCES_RESOLVED, 1);
         retval = handleIndexHit(contextItem, type, item, visitorContext);
       }
     }
@@ -62,6 +62,11 @@ public class AnchorReferencePolicy
         IEntityItem.ItemType.PART);
   }
 
+  @Override
+  protected ReferenceKind getReferenceKind(@NonNull InlineLinkNode link) {
+    return ReferenceKind.ANCHOR;
+  }
+
   @Override
   public String getReferenceText(@NonNull InlineLinkNode link) {
     return link.getUrl().toString();
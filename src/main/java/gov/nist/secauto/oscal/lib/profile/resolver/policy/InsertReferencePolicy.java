@@ -64,6 +64,11 @@ public class InsertReferencePolicy
     return itemTypes;
   }
 
+  @Override
+  protected ReferenceKind getReferenceKind(@NonNull InsertAnchorNode insert) {
+    return ReferenceKind.INSERT;
+  }
+
   @Override
   public String getReferenceText(@NonNull InsertAnchorNode insert) {
     return insert.getIdReference().toString();
@@ -61,6 +61,11 @@ public class LinkReferencePolicy
     super(IIdentifierParser.FRAGMENT_PARSER, itemTypes);
   }
 
+  @Override
+  protected ReferenceKind getReferenceKind(@NonNull Link link) {
+    return ReferenceKind.link(link.getRel());
+  }
+
   @Override
   public String getReferenceText(@NonNull Link link) {
     return link.getHref().toString();
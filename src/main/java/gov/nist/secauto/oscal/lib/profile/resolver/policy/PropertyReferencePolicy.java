@@ -63,6 +63,11 @@ public class PropertyReferencePolicy
     super(identifierParser, itemTypes);
   }
 
+  @Override
+  protected ReferenceKind getReferenceKind(@NonNull Property property) {
+    return ReferenceKind.property(property.getName());
+  }
+
   @Override
   public String getReferenceText(@NonNull Property property) {
     return property.getValue();
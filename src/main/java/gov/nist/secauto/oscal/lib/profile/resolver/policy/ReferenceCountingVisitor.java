@@ -46,6 +46,8 @@ import gov.nist.secauto.oscal.lib.model.Link;
 import gov.nist.secauto.oscal.lib.model.Property;
 import gov.nist.secauto.oscal.lib.model.metadata.AbstractProperty;
 import gov.nist.secauto.oscal.lib.model.metadata.IProperty;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionCounter;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.AbstractCatalogEntityVisitor;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
@@ -175,9 +177,109 @@ public class ReferenceCountingVisitor
   // }
 
   public void visitCatalog(@NonNull IDocumentNodeItem catalogItem, @NonNull IIndexer indexer, @NonNull URI baseUri) {
-    Context context = new Context(indexer, baseUri);
+    visitCatalog(catalogItem, indexer, baseUri, false);
+  }
+
+  /**
+   * Count the references to indexed entities made by the selected content of the catalog.
+   * <p>
+   * When {@code readOnly} is {@code true}, only the reference counts in the index are updated. The
+   * catalog is not modified, which allows the counting to be performed on a shared document. In
+   * this mode, references to unselected items are not remapped, reassigned identifiers are not
+   * applied, and unresolvable references are not reported.
+   * 
+   * @param catalogItem
+   *          the catalog document to count references in
+   * @param indexer
+   *          the index of the catalog's entities
+   * @param baseUri
+   *          the URI used to import the catalog
+   * @param readOnly
+   *          {@code true} if the catalog must not be modified, or {@code false} otherwise
+   */
+  public void visitCatalog(
+      @NonNull IDocumentNodeItem catalogItem,
+      @NonNull IIndexer indexer,
+      @NonNull URI baseUri,
+      boolean readOnly) {
+    Context context = newContext(indexer, baseUri, readOnly);
     visitCatalog(catalogItem, context);
+    resolveReferencedEntities(context);
+  }
+
+  /**
+   * Create a new reference counting state, which can be used to count the references of individual
+   * groups and controls using {@link #visitGroup(IRequiredValueModelNodeItem, Void, Context)} and
+   * {@link #visitControl(IRequiredValueModelNodeItem, Void, Context)}.
+   * <p>
+   * Once all groups and controls have been visited,
+   * {@link #resolveReferencedEntities(Context)} must be called to complete the reference counts.
+   * 
+   * @param indexer
+   *          the index of the catalog's entities
+   * @param baseUri
+   *          the URI used to import the catalog
+   * @param readOnly
+   *          {@code true} if the catalog must not be modified, or {@code false} otherwise
+   * @return the new state
+   */
+  @NonNull
+  public Context newContext(@NonNull IIndexer indexer, @NonNull URI baseUri, boolean readOnly) {
+    return newContext(indexer, baseUri, readOnly, IResolutionListener.noop());
+  }
 
+  /**
+   * Create a new reference counting state, which reports resolved and missed references to the
+   * provided listener.
+   * 
+   * @param indexer
+   *          the index of the catalog's entities
+   * @param baseUri
+   *          the URI used to import the catalog
+   * @param readOnly
+   *          {@code true} if the catalog must not be modified, or {@code false} otherwise
+   * @param listener
+   *          the listener to notify
+   * @return the new state
+   * @see #newContext(IIndexer, URI, boolean)
+   */
+  @NonNull
+  public Context newContext(@NonNull IIndexer indexer, @NonNull URI baseUri, boolean readOnly,
+      @NonNull IResolutionListener listener) {
+    return new Context(indexer, baseUri, readOnly, listener, null);
+  }
+
+  /**
+   * Create a new reference counting state, which also records each counted reference in the
+   * provided graph.
+   * 
+   * @param indexer
+   *          the index of the catalog's entities
+   * @param baseUri
+   *          the URI used to import the catalog
+   * @param readOnly
+   *          {@code true} if the catalog must not be modified, or {@code false} otherwise
+   * @param listener
+   *          the listener to notify
+   * @param referenceGraph
+   *          the graph to record references in, or {@code null} to only count references
+   * @return the new state
+   * @see #newContext(IIndexer, URI, boolean, IResolutionListener)
+   */
+  @NonNull
+  public Context newContext(@NonNull IIndexer indexer, @NonNull URI baseUri, boolean readOnly,
+      @NonNull IResolutionListener listener, @Nullable ReferenceGraph referenceGraph) {
+    return new Context(indexer, baseUri, readOnly, listener, referenceGraph);
+  }
+
+  /**
+   * Count the references made by the referenced roles, locations, parties, parameters, and
+   * resources, which completes the reference counts once all groups and controls have been visited.
+   * 
+   * @param context
+   *          the reference counting state
+   */
+  public void resolveReferencedEntities(@NonNull Context context) {
     IIndexer index = context.getIndexer();
     // resolve the entities picked up by the original indexing operation
     // FIXME: Is this necessary?
@@ -298,8 +400,29 @@ public class ReferenceCountingVisitor
       @NonNull IRequiredValueModelNodeItem item,
       @NonNull Context context) {
     if (IIndexer.SelectionStatus.SELECTED.equals(context.getIndexer().getSelectionStatus(item))) {
+      IRequiredValueModelNodeItem previousReferrer = context.setReferrer(item);
+      try {
+        // process children
+        item.getModelItemsByName("title").forEach(child -> handleMarkup(ObjectUtils.notNull(child), context));
+        item.getModelItemsByName("prop").forEach(child -> handleProperty(ObjectUtils.notNull(child), context));
+        item.getModelItemsByName("link").forEach(child -> handleLink(ObjectUtils.notNull(child), context));
+
+        // always visit parts
+        visitParts(item, context);
+
+        // skip parameters for now. These will be processed by a separate pass.
+      } finally {
+        context.setReferrer(previousReferrer);
+      }
+    }
+  }
 
-      // process children
+  protected void resolveControl(
+      @NonNull IRequiredValueModelNodeItem item,
+      @NonNull Context context) {
+    IRequiredValueModelNodeItem previousReferrer = context.setReferrer(item);
+    try {
+      // process non-control, non-param children
       item.getModelItemsByName("title").forEach(child -> handleMarkup(ObjectUtils.notNull(child), context));
       item.getModelItemsByName("prop").forEach(child -> handleProperty(ObjectUtils.notNull(child), context));
       item.getModelItemsByName("link").forEach(child -> handleLink(ObjectUtils.notNull(child), context));
@@ -308,23 +431,11 @@ public class ReferenceCountingVisitor
       visitParts(item, context);
 
       // skip parameters for now. These will be processed by a separate pass.
+    } finally {
+      context.setReferrer(previousReferrer);
     }
   }
 
-  protected void resolveControl(
-      @NonNull IRequiredValueModelNodeItem item,
-      @NonNull Context context) {
-    // process non-control, non-param children
-    item.getModelItemsByName("title").forEach(child -> handleMarkup(ObjectUtils.notNull(child), context));
-    item.getModelItemsByName("prop").forEach(child -> handleProperty(ObjectUtils.notNull(child), context));
-    item.getModelItemsByName("link").forEach(child -> handleLink(ObjectUtils.notNull(child), context));
-
-    // always visit parts
-    visitParts(item, context);
-
-    // skip parameters for now. These will be processed by a separate pass.
-  }
-
   private static void resolveRole(@NonNull IEntityItem entity, @NonNull Context context) {
     IRequiredValueModelNodeItem item = entity.getInstance();
     item.getModelItemsByName("prop").forEach(child -> handleProperty(ObjectUtils.notNull(child), context));
@@ -381,10 +492,15 @@ public class ReferenceCountingVisitor
   private static void resolvePart(
       @NonNull IRequiredValueModelNodeItem item,
       @NonNull Context context) {
-    item.getModelItemsByName("title").forEach(child -> handleMarkup(ObjectUtils.notNull(child), context));
-    item.getModelItemsByName("prop").forEach(child -> handleProperty(ObjectUtils.notNull(child), context));
-    item.getModelItemsByName("link").forEach(child -> handleLink(ObjectUtils.notNull(child), context));
-    item.getModelItemsByName("prose").forEach(child -> handleMarkup(ObjectUtils.notNull(child), context));
+    IRequiredValueModelNodeItem previousReferrer = context.setReferrer(item);
+    try {
+      item.getModelItemsByName("title").forEach(child -> handleMarkup(ObjectUtils.notNull(child), context));
+      item.getModelItemsByName("prop").forEach(child -> handleProperty(ObjectUtils.notNull(child), context));
+      item.getModelItemsByName("link").forEach(child -> handleLink(ObjectUtils.notNull(child), context));
+      item.getModelItemsByName("prose").forEach(child -> handleMarkup(ObjectUtils.notNull(child), context));
+    } finally {
+      context.setReferrer(previousReferrer);
+    }
     // item.getModelItemsByName("part").forEach(child -> visitor.visitPart(ObjectUtils.notNull(child),
     // context));
   }
@@ -415,7 +531,7 @@ public class ReferenceCountingVisitor
       @NonNull InsertAnchorNode node,
       @NonNull Context context) {
     boolean retval = INSERT_POLICY.handleReference(contextItem, node, context);
-    if (LOGGER.isWarnEnabled() && !retval) {
+    if (LOGGER.isWarnEnabled() && !retval && !context.isReadOnly()) {
       LOGGER.atWarn().log("Unsupported insert type '{}' at '{}'",
           node.getType().toString(),
           contextItem.toPath(IPathFormatter.METAPATH_PATH_FORMATER));
@@ -427,7 +543,7 @@ public class ReferenceCountingVisitor
       @NonNull InlineLinkNode node,
       @NonNull Context context) {
     boolean result = ANCHOR_POLICY.handleReference(contextItem, node, context);
-    if (LOGGER.isWarnEnabled() && !result) {
+    if (LOGGER.isWarnEnabled() && !result && !context.isReadOnly()) {
       LOGGER.atWarn().log("Unsupported anchor with href '{}' at '{}'",
           node.getUrl().toString(),
           contextItem.toPath(IPathFormatter.METAPATH_PATH_FORMATER));
@@ -443,7 +559,7 @@ public class ReferenceCountingVisitor
     IReferencePolicy<Property> policy = PROPERTY_POLICIES.get(qname);
 
     boolean result = policy != null && policy.handleReference(item, property, context);
-    if (LOGGER.isWarnEnabled() && !result) {
+    if (LOGGER.isWarnEnabled() && !result && !context.isReadOnly()) {
       LOGGER.atWarn().log("Unsupported property '{}' at '{}'",
           property.getQName(),
           item.toPath(IPathFormatter.METAPATH_PATH_FORMATER));
@@ -461,7 +577,7 @@ public class ReferenceCountingVisitor
     }
 
     boolean result = policy != null && policy.handleReference(item, link, context);
-    if (LOGGER.isWarnEnabled() && !result) {
+    if (LOGGER.isWarnEnabled() && !result && !context.isReadOnly()) {
       LOGGER.atWarn().log("unsupported link rel '{}' at '{}'",
           link.getRel(),
           item.toPath(IPathFormatter.METAPATH_PATH_FORMATER));
@@ -485,7 +601,12 @@ public class ReferenceCountingVisitor
       if (!IIndexer.SelectionStatus.UNSELECTED
           .equals(context.getIndexer().getSelectionStatus(entity.getInstance()))) {
         // only resolve selected and unknown entities
-        handler.accept(entity, context);
+        IRequiredValueModelNodeItem previousReferrer = context.setReferrer(entity.getInstance());
+        try {
+          handler.accept(entity, context);
+        } finally {
+          context.setReferrer(previousReferrer);
+        }
       }
     }
   }
@@ -546,10 +667,24 @@ public class ReferenceCountingVisitor
     private final URI source;
     @NonNull
     private final Set<IEntityItem> resolvedEntities = new HashSet<>();
+    private final boolean readOnly;
+    @NonNull
+    private final IResolutionListener listener;
+    @Nullable
+    private final ReferenceGraph referenceGraph;
+    /**
+     * The node whose content is being processed, which is the referrer of any references found.
+     */
+    @Nullable
+    private IRequiredValueModelNodeItem referrer;
 
-    private Context(@NonNull IIndexer indexer, @NonNull URI source) {
+    private Context(@NonNull IIndexer indexer, @NonNull URI source, boolean readOnly,
+        @NonNull IResolutionListener listener, @Nullable ReferenceGraph referenceGraph) {
       this.indexer = indexer;
       this.source = source;
+      this.readOnly = readOnly;
+      this.listener = listener;
+      this.referenceGraph = referenceGraph;
     }
 
     @NonNull
@@ -568,6 +703,80 @@ public class ReferenceCountingVisitor
       return source;
     }
 
+    /**
+     * Determine if the visited content must not be modified.
+     * 
+     * @return {@code true} if only reference counts are to be updated, or {@code false} otherwise
+     */
+    public boolean isReadOnly() {
+      return readOnly;
+    }
+
+    /**
+     * Get the listener to notify of resolved and missed references.
+     * 
+     * @return the listener
+     */
+    @NonNull
+    public IResolutionListener getListener() {
+      return listener;
+    }
+
+    /**
+     * Get the graph used to record counted references.
+     * 
+     * @return the graph or {@code null} if references are only counted
+     */
+    @Nullable
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "intending to expose this field")
+    public ReferenceGraph getReferenceGraph() {
+      return referenceGraph;
+    }
+
+    /**
+     * Count a reference to an entity, recording the reference in the
+     * {@link #getReferenceGraph() reference graph} if one is used.
+     * 
+     * @param contextItem
+     *          the node containing the reference
+     * @param item
+     *          the referenced entity
+     * @param kind
+     *          the kind of reference
+     */
+    public void countReference(
+        @NonNull IRequiredValueModelNodeItem contextItem,
+        @NonNull IEntityItem item,
+        @NonNull ReferenceKind kind) {
+      item.incrementReferenceCount();
+
+      ReferenceGraph graph = referenceGraph;
+      if (graph != null) {
+        graph.add(getReferrer(contextItem), item, kind);
+      }
+    }
+
+    /**
+     * Get the node whose content contains a reference.
+     * 
+     * @param contextItem
+     *          the node containing the reference, which is used if the content being processed is
+     *          not known
+     * @return the referring node
+     */
+    @NonNull
+    private IRequiredValueModelNodeItem getReferrer(@NonNull IRequiredValueModelNodeItem contextItem) {
+      IRequiredValueModelNodeItem retval = referrer;
+      return retval == null ? contextItem : retval;
+    }
+
+    @Nullable
+    private IRequiredValueModelNodeItem setReferrer(@Nullable IRequiredValueModelNodeItem item) {
+      IRequiredValueModelNodeItem retval = referrer;
+      referrer = item;
+      return retval;
+    }
+
     public void markResolved(@NonNull IEntityItem entity) {
       resolvedEntities.add(entity);
     }
@@ -605,14 +814,16 @@ public class ReferenceCountingVisitor
         boolean normalize) {
       IEntityItem item = getIndexer().getEntity(type, identifier, normalize);
       if (item == null) {
-        if (LOGGER.isErrorEnabled()) {
+        getListener().increment(ResolutionCounter.REFERENCES_MISSED, 1);
+        if (LOGGER.isErrorEnabled() && !isReadOnly()) {
           LOGGER.atError().log("Unknown reference to {} '{}' at '{}'",
               type.toString().toLowerCase(Locale.ROOT),
               identifier,
               contextItem.toPath(IPathFormatter.METAPATH_PATH_FORMATER));
         }
       } else {
-        item.incrementReferenceCount();
+        getListener().increment(ResolutionCounter.REFERENCES_RESOLVED, 1);
+        countReference(contextItem, item, ReferenceKind.IDENTIFIER);
       }
     }
 
@@ -0,0 +1,208 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.policy;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Records the references counted by a {@link ReferenceCountingVisitor}, allowing the references
+ * made by a node and the references made to an entity to be looked up in time proportional to the
+ * number of references. The references made to an entity can also be looked up using the entity's
+ * item type and identifier.
+ * <p>
+ * The referrer of a reference is the control, group, part, parameter, role, location, party, or
+ * resource node whose content contains the reference. Each reference is tagged with its
+ * {@link ReferenceKind}.
+ * <p>
+ * A graph records the references of a single resolution. It is populated by providing it to a
+ * {@link gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolver} when resolving a document, to
+ * an {@link gov.nist.secauto.oscal.lib.profile.resolver.selection.Import}, or when creating a
+ * reference counting state using {@link ReferenceCountingVisitor#newContext}. The graph holds the
+ * nodes of the resolved documents, so it should be discarded once the caller is done with it.
+ * <p>
+ * This class is thread safe, so a graph can be populated by imports resolved concurrently.
+ */
+public class ReferenceGraph {
+  @NonNull
+  private final Map<INodeItem, List<Reference>> referrerToReferencesMap = new HashMap<>();
+  @NonNull
+  private final Map<IEntityItem, List<Reference>> referentToReferencesMap = new HashMap<>();
+  @NonNull
+  private final Map<ItemType, Map<String, List<Reference>>> identifierToReferencesMap
+      = new EnumMap<>(ItemType.class);
+  private int size;
+
+  /**
+   * Record a reference.
+   * 
+   * @param referrer
+   *          the node whose content contains the reference
+   * @param referent
+   *          the referenced entity
+   * @param kind
+   *          the kind of reference
+   */
+  public synchronized void add(
+      @NonNull IRequiredValueModelNodeItem referrer,
+      @NonNull IEntityItem referent,
+      @NonNull ReferenceKind kind) {
+    Reference reference = new Reference(referrer, referent, kind);
+    referrerToReferencesMap.computeIfAbsent(referrer, key -> new ArrayList<>()).add(reference);
+    referentToReferencesMap.computeIfAbsent(referent, key -> new ArrayList<>()).add(reference);
+    ItemType itemType = referent.getItemType();
+    identifierToReferencesMap.computeIfAbsent(itemType, key -> new HashMap<>())
+        .computeIfAbsent(normalizeIdentifier(itemType, referent.getIdentifier()), key -> new ArrayList<>())
+        .add(reference);
+    size++;
+  }
+
+  /**
+   * Get the number of recorded references.
+   * 
+   * @return the number of references
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Get the references made by the content of the provided node, in the order they were counted.
+   * 
+   * @param referrer
+   *          the referring node
+   * @return the references
+   */
+  @NonNull
+  public synchronized List<Reference> getReferencesFrom(@NonNull INodeItem referrer) {
+    List<Reference> retval = referrerToReferencesMap.get(referrer);
+    return retval == null ? CollectionUtil.emptyList() : CollectionUtil.unmodifiableList(new ArrayList<>(retval));
+  }
+
+  /**
+   * Get the references made to the provided entity, in the order they were counted.
+   * 
+   * @param referent
+   *          the referenced entity
+   * @return the references
+   */
+  @NonNull
+  public synchronized List<Reference> getReferencesTo(@NonNull IEntityItem referent) {
+    List<Reference> retval = referentToReferencesMap.get(referent);
+    return retval == null ? CollectionUtil.emptyList() : CollectionUtil.unmodifiableList(new ArrayList<>(retval));
+  }
+
+  /**
+   * Get the references made to the entity with the provided item type and identifier, in the order
+   * they were counted.
+   * <p>
+   * UUID identifiers are matched without regard to case.
+   * 
+   * @param itemType
+   *          the type of the referenced entity
+   * @param identifier
+   *          the identifier of the referenced entity
+   * @return the references
+   */
+  @NonNull
+  public synchronized List<Reference> getReferencesTo(@NonNull ItemType itemType, @NonNull String identifier) {
+    Map<String, List<Reference>> identifierMap = identifierToReferencesMap.get(itemType);
+    List<Reference> retval = identifierMap == null
+        ? null
+        : identifierMap.get(normalizeIdentifier(itemType, identifier));
+    return retval == null ? CollectionUtil.emptyList() : CollectionUtil.unmodifiableList(new ArrayList<>(retval));
+  }
+
+  @NonNull
+  private static String normalizeIdentifier(@NonNull ItemType itemType, @NonNull String identifier) {
+    return itemType.isUuid() ? ObjectUtils.notNull(identifier.toLowerCase(Locale.ROOT)) : identifier;
+  }
+
+  /**
+   * A reference from a node to an entity.
+   */
+  public static final class Reference {
+    @NonNull
+    private final IRequiredValueModelNodeItem referrer;
+    @NonNull
+    private final IEntityItem referent;
+    @NonNull
+    private final ReferenceKind kind;
+
+    private Reference(
+        @NonNull IRequiredValueModelNodeItem referrer,
+        @NonNull IEntityItem referent,
+        @NonNull ReferenceKind kind) {
+      this.referrer = referrer;
+      this.referent = referent;
+      this.kind = kind;
+    }
+
+    /**
+     * Get the node whose content contains the reference.
+     * 
+     * @return the referring node
+     */
+    @NonNull
+    public IRequiredValueModelNodeItem getReferrer() {
+      return referrer;
+    }
+
+    /**
+     * Get the referenced entity.
+     * 
+     * @return the entity
+     */
+    @NonNull
+    public IEntityItem getReferent() {
+      return referent;
+    }
+
+    /**
+     * Get the kind of reference.
+     * 
+     * @return the kind
+     */
+    @NonNull
+    public ReferenceKind getKind() {
+      return kind;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.policy;
+
+import java.util.Objects;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Identifies the kind of a reference recorded in a {@link ReferenceGraph}, which is the kind of
+ * content that made the reference along with an optional qualifier, such as the relation of a link
+ * or the name of a property.
+ */
+public final class ReferenceKind {
+  /**
+   * The kind of content that makes a reference.
+   */
+  public enum Type {
+    /**
+     * An {@code insert} in markup content.
+     */
+    INSERT,
+    /**
+     * An anchor in markup content.
+     */
+    ANCHOR,
+    /**
+     * A {@code link}, qualified by its relation.
+     */
+    LINK,
+    /**
+     * A {@code prop}, qualified by its name.
+     */
+    PROPERTY,
+    /**
+     * An identifier or UUID flag or field that refers to an entity, such as a role-id or
+     * party-uuid.
+     */
+    IDENTIFIER;
+  }
+
+  /**
+   * A reference made by an {@code insert}.
+   */
+  @NonNull
+  public static final ReferenceKind INSERT = new ReferenceKind(Type.INSERT, null);
+  /**
+   * A reference made by an anchor.
+   */
+  @NonNull
+  public static final ReferenceKind ANCHOR = new ReferenceKind(Type.ANCHOR, null);
+  /**
+   * A reference made by an identifier or UUID.
+   */
+  @NonNull
+  public static final ReferenceKind IDENTIFIER = new ReferenceKind(Type.IDENTIFIER, null);
+
+  @NonNull
+  private final Type type;
+  @Nullable
+  private final String qualifier;
+
+  /**
+   * Get the kind of a reference made by a link.
+   * 
+   * @param rel
+   *          the link's relation, if any
+   * @return the kind
+   */
+  @NonNull
+  public static ReferenceKind link(@Nullable String rel) {
+    return new ReferenceKind(Type.LINK, rel);
+  }
+
+  /**
+   * Get the kind of a reference made by a property.
+   * 
+   * @param name
+   *          the property's name
+   * @return the kind
+   */
+  @NonNull
+  public static ReferenceKind property(@Nullable String name) {
+    return new ReferenceKind(Type.PROPERTY, name);
+  }
+
+  private ReferenceKind(@NonNull Type type, @Nullable String qualifier) {
+    this.type = type;
+    this.qualifier = qualifier;
+  }
+
+  /**
+   * Get the kind of content that made the reference.
+   * 
+   * @return the type
+   */
+  @NonNull
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Get the qualifier of the reference, which is the relation of a link or the name of a property.
+   * 
+   * @return the qualifier, or {@code null} if the reference is not qualified
+   */
+  @Nullable
+  public String getQualifier() {
+    return qualifier;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ReferenceKind)) {
+      return false;
+    }
+    ReferenceKind other = (ReferenceKind) obj;
+    return type == other.type && Objects.equals(qualifier, other.qualifier);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(type, qualifier);
+  }
+
+  @Override
+  public String toString() {
+    return qualifier == null ? type.name() : type.name() + ":" + qualifier;
+  }
+}
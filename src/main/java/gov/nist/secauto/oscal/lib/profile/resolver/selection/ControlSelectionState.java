@@ -33,12 +33,13 @@ import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueMode
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.model.CatalogGroup;
 import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.NodeItemOrdinals;
 
 import org.apache.commons.lang3.tuple.Pair;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.BitSet;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -51,12 +52,43 @@ public class ControlSelectionState implements IControlSelectionState {
   @NonNull
   private final IControlFilter filter;
   @NonNull
-  private final Map<IRequiredValueModelNodeItem, SelectionState> itemSelectionState = new ConcurrentHashMap<>();
+  private final IResolutionListener listener;
+  /**
+   * The ordinals of the items whose selection state has been computed.
+   */
+  @NonNull
+  private final NodeItemOrdinals itemOrdinals = new NodeItemOrdinals();
+  /**
+   * The selected items, by ordinal.
+   */
+  @NonNull
+  private final BitSet selectedItems = new BitSet();
+  /**
+   * The selected items whose child controls are also selected by default, by ordinal.
+   */
+  @NonNull
+  private final BitSet withChildrenItems = new BitSet();
+
+  /**
+   * Construct a new selection state.
+   * <p>
+   * This class is not thread safe.
+   *
+   * @param index
+   *          the index of the catalog being selected from
+   * @param filter
+   *          the filter used to select controls
+   */
+  public ControlSelectionState(@NonNull IIndexer index, @NonNull IControlFilter filter) {
+    this(index, filter, IResolutionListener.noop());
+  }
 
   @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "provides intentional access to index state")
-  public ControlSelectionState(@NonNull IIndexer index, @NonNull IControlFilter filter) {
+  public ControlSelectionState(@NonNull IIndexer index, @NonNull IControlFilter filter,
+      @NonNull IResolutionListener listener) {
     this.index = index;
     this.filter = filter;
+    this.listener = listener;
   }
 
   @Override
@@ -70,17 +102,44 @@ public class ControlSelectionState implements IControlSelectionState {
     return filter;
   }
 
+  @Override
+  public IResolutionListener getListener() {
+    return listener;
+  }
+
   @Override
   public boolean isSelected(@NonNull IRequiredValueModelNodeItem item) {
-    return getSelectionState(item).isSelected();
+    return selectedItems.get(getSelectionOrdinal(item));
   }
 
-  @NonNull
-  protected SelectionState getSelectionState(@NonNull IRequiredValueModelNodeItem item) {
-    SelectionState retval = itemSelectionState.get(item);
-    if (retval == null) {
+  /**
+   * Determine if the child controls of the provided item are selected by default.
+   *
+   * @param item
+   *          the control or group item
+   * @return {@code true} if the item is selected along with its children, or {@code false} otherwise
+   */
+  protected boolean isWithChildren(@NonNull IRequiredValueModelNodeItem item) {
+    return withChildrenItems.get(getSelectionOrdinal(item));
+  }
+
+  /**
+   * Get the ordinal of the provided item, computing its selection state on first use.
+   * <p>
+   * An ordinal is assigned only once the state is known, since computing the state of a group
+   * recurses into its children.
+   *
+   * @param item
+   *          the control or group item
+   * @return the ordinal indexing the selection bit sets
+   */
+  private int getSelectionOrdinal(@NonNull IRequiredValueModelNodeItem item) {
+    int retval = itemOrdinals.lookup(item);
+    if (retval < 0) {
       Object itemValue = ObjectUtils.requireNonNull(item.getValue());
 
+      boolean selected;
+      boolean withChildren;
       if (itemValue instanceof Control) {
         Control control = (Control) itemValue;
 
@@ -91,51 +150,28 @@ public class ControlSelectionState implements IControlSelectionState {
 
         boolean defaultMatch = false;
         if (parentControl != null) {
-          SelectionState parentSelectionState = getSelectionState(parentItem);
-          defaultMatch = parentSelectionState.isSelected() && parentSelectionState.isWithChildren();
+          defaultMatch = isWithChildren(parentItem);
         }
 
         Pair<Boolean, Boolean> matchResult = getFilter().match(control, defaultMatch);
-        boolean selected = matchResult.getLeft();
-        boolean withChildren = matchResult.getRight();
-
-        retval = new SelectionState(selected, withChildren);
-
+        selected = matchResult.getLeft();
+        withChildren = selected && matchResult.getRight();
       } else if (itemValue instanceof CatalogGroup) {
         // get control selection status
-        boolean selected = GROUP_CHILDREN.evaluate(item).asStream()
-            .map(child -> {
-              return getSelectionState((IRequiredValueModelNodeItem) ObjectUtils.requireNonNull(child)).isSelected();
-            })
-            .reduce(false, (first, second) -> first || second);
-
-        retval = new SelectionState(selected, false);
+        selected = GROUP_CHILDREN.evaluate(item).asStream()
+            .anyMatch(child -> isSelected((IRequiredValueModelNodeItem) ObjectUtils.requireNonNull(child)));
+        withChildren = false;
       } else {
         throw new IllegalStateException(
             String.format("Selection not supported for type '%s' at path '%s'",
                 itemValue.getClass().getName(),
                 item.toPath(IPathFormatter.METAPATH_PATH_FORMATER)));
       }
-      itemSelectionState.put(item, retval);
-    }
-    return retval;
-  }
 
-  private static class SelectionState {
-    private final boolean selected;
-    private final boolean withChildren;
-
-    private SelectionState(boolean selected, boolean withChildren) {
-      this.selected = selected;
-      this.withChildren = withChildren;
-    }
-
-    public boolean isSelected() {
-      return selected;
-    }
-
-    public boolean isWithChildren() {
-      return selected && withChildren;
+      retval = itemOrdinals.assign(item);
+      selectedItems.set(retval, selected);
+      withChildrenItems.set(retval, withChildren);
     }
+    return retval;
   }
 }
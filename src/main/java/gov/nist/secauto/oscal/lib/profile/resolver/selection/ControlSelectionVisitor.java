@@ -34,6 +34,8 @@ import gov.nist.secauto.oscal.lib.model.Catalog;
 import gov.nist.secauto.oscal.lib.model.CatalogGroup;
 import gov.nist.secauto.oscal.lib.model.Control;
 import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionCounter;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.AbstractIndexingVisitor;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
@@ -122,8 +124,11 @@ public class ControlSelectionVisitor
     // these should agree
     assert state.isSelected(groupItem) == childSelected;
 
+    IResolutionListener listener = state.getListener();
+    listener.increment(ResolutionCounter.GROUPS_VISITED, 1);
     if (childSelected) {
       getIndexer(state).setSelectionStatus(groupItem, SelectionStatus.SELECTED);
+      listener.increment(ResolutionCounter.GROUPS_SELECTED, 1);
     } else {
       getIndexer(state).setSelectionStatus(groupItem, SelectionStatus.UNSELECTED);
     }
@@ -156,8 +161,11 @@ public class ControlSelectionVisitor
     super.visitControl(controlItem, childResult, state);
 
     boolean selected = state.isSelected(controlItem);
+    IResolutionListener listener = state.getListener();
+    listener.increment(ResolutionCounter.CONTROLS_VISITED, 1);
     if (selected) {
       getIndexer(state).setSelectionStatus(controlItem, SelectionStatus.SELECTED);
+      listener.increment(ResolutionCounter.CONTROLS_SELECTED, 1);
     } else {
       getIndexer(state).setSelectionStatus(controlItem, SelectionStatus.UNSELECTED);
     }
@@ -108,7 +108,16 @@ public class DefaultControlSelectionFilter implements IControlSelectionFilter {
         .orElse(NON_MATCH);
   }
 
-  private static Pattern toPattern(@NonNull ProfileSelectControlById.Matching matching) {
+  /**
+   * Convert the glob-style pattern of a {@code matching} selection into a regular expression that
+   * matches an entire control identifier.
+   * 
+   * @param matching
+   *          the matching selection
+   * @return the compiled pattern
+   */
+  @NonNull
+  public static Pattern toPattern(@NonNull ProfileSelectControlById.Matching matching) {
     String pattern = ObjectUtils.requireNonNull(matching.getPattern());
     String regex = pattern.chars().boxed().map(ch -> (char) ch.intValue()).map(ch -> {
 
@@ -142,7 +151,7 @@ public class DefaultControlSelectionFilter implements IControlSelectionFilter {
     if (LOGGER.isTraceEnabled()) {
       LOGGER.atTrace().log("regex: {}", regex);
     }
-    return Pattern.compile(regex);
+    return ObjectUtils.notNull(Pattern.compile(regex));
   }
 
   private static class Selection {
@@ -41,6 +41,10 @@ import gov.nist.secauto.oscal.lib.model.Metadata;
 import gov.nist.secauto.oscal.lib.model.Parameter;
 import gov.nist.secauto.oscal.lib.model.Metadata.Party;
 import gov.nist.secauto.oscal.lib.model.Metadata.Role;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionCounter;
+import gov.nist.secauto.oscal.lib.profile.resolver.policy.ReferenceCountingVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.policy.ReferenceGraph;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.AbstractCatalogEntityVisitor;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
@@ -50,10 +54,14 @@ import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer.SelectionSta
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.net.URI;
 import java.util.EnumSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 public class FilterNonSelectedVisitor
@@ -72,14 +80,119 @@ public class FilterNonSelectedVisitor
   }
 
   public void visitCatalog(@NonNull IDocumentNodeItem catalogItem, @NonNull IIndexer indexer) {
-    Context context = new Context(indexer);
+    Context context = new Context(indexer, null, IResolutionListener.noop());
     IResult result = visitCatalog(catalogItem, context);
 
-    IRootAssemblyNodeItem root = catalogItem.getRootAssemblyNodeItem();
+    Catalog catalog = (Catalog) catalogItem.getValue();
+    result.applyTo(catalog);
+
+    pruneMetadataAndBackMatter(catalogItem, context);
+  }
+
+  /**
+   * Count the references made by the selected content of the catalog and filter the non-selected
+   * content in a single traversal of the catalog's groups and controls.
+   * <p>
+   * This produces the same result as counting references using
+   * {@link ReferenceCountingVisitor#visitCatalog(IDocumentNodeItem, IIndexer, URI)} followed by a
+   * call to {@link #visitCatalog(IDocumentNodeItem, IIndexer)}. Since the selection status of
+   * groups and controls is already known, these are filtered as soon as their references are
+   * counted. Parameters, roles, locations, parties, and resources are kept based on their
+   * reference counts, which are only complete once the traversal is finished. These are filtered
+   * after the traversal, along with the removal of the filtered content from the index, which is
+   * needed to correctly count any remaining references to the filtered content.
+   * 
+   * @param catalogItem
+   *          the catalog document to filter
+   * @param indexer
+   *          the index of the catalog's entities, with the selection status of all groups and
+   *          controls
+   * @param baseUri
+   *          the URI used to import the catalog
+   */
+  public void visitCatalog(
+      @NonNull IDocumentNodeItem catalogItem,
+      @NonNull IIndexer indexer,
+      @NonNull URI baseUri) {
+    visitCatalog(catalogItem, indexer, baseUri, IResolutionListener.noop());
+  }
+
+  /**
+   * Count the references made by the selected content of the catalog and filter the non-selected
+   * content in a single traversal, reporting the references and pruned entities to the provided
+   * listener.
+   * 
+   * @param catalogItem
+   *          the catalog document to filter
+   * @param indexer
+   *          the index of the catalog's entities, with the selection status of all groups and
+   *          controls
+   * @param baseUri
+   *          the URI used to import the catalog
+   * @param listener
+   *          the listener to notify
+   * @see #visitCatalog(IDocumentNodeItem, IIndexer, URI)
+   */
+  public void visitCatalog(
+      @NonNull IDocumentNodeItem catalogItem,
+      @NonNull IIndexer indexer,
+      @NonNull URI baseUri,
+      @NonNull IResolutionListener listener) {
+    visitCatalog(catalogItem, indexer, baseUri, listener, null);
+  }
+
+  /**
+   * Count the references made by the selected content of the catalog and filter the non-selected
+   * content in a single traversal, recording each counted reference in the provided graph.
+   * 
+   * @param catalogItem
+   *          the catalog document to filter
+   * @param indexer
+   *          the index of the catalog's entities, with the selection status of all groups and
+   *          controls
+   * @param baseUri
+   *          the URI used to import the catalog
+   * @param listener
+   *          the listener to notify
+   * @param referenceGraph
+   *          the graph to record references in, or {@code null} to only count references
+   * @see #visitCatalog(IDocumentNodeItem, IIndexer, URI, IResolutionListener)
+   */
+  public void visitCatalog(
+      @NonNull IDocumentNodeItem catalogItem,
+      @NonNull IIndexer indexer,
+      @NonNull URI baseUri,
+      @NonNull IResolutionListener listener,
+      @Nullable ReferenceGraph referenceGraph) {
+    ReferenceCountingVisitor referenceVisitor = ReferenceCountingVisitor.instance();
+    ReferenceCountingVisitor.Context referenceContext
+        = referenceVisitor.newContext(indexer, baseUri, false, listener, referenceGraph);
+
+    Context context = new Context(indexer, referenceContext, listener);
+    IResult result = visitCatalog(catalogItem, context);
 
     Catalog catalog = (Catalog) catalogItem.getValue();
     result.applyTo(catalog);
 
+    // the reference counts are now complete
+    referenceVisitor.resolveReferencedEntities(referenceContext);
+
+    for (IRequiredValueModelNodeItem paramItem : context.getDeferredParameters()) {
+      IRequiredValueModelNodeItem parent = ObjectUtils.notNull(paramItem.getParentContentNodeItem());
+      DefaultResult paramResult = filterParameter(paramItem, parent, context);
+      // a parameter is removed from a selected parent, or is promoted to the closest selected
+      // container
+      applyTo(getSelectedContainer(parent, indexer), paramResult);
+    }
+
+    context.getDeferredRemovals().forEach(entity -> indexer.remove(ObjectUtils.notNull(entity)));
+
+    pruneMetadataAndBackMatter(catalogItem, context);
+  }
+
+  private void pruneMetadataAndBackMatter(@NonNull IDocumentNodeItem catalogItem, @NonNull Context context) {
+    IRootAssemblyNodeItem root = catalogItem.getRootAssemblyNodeItem();
+
     root.getModelItemsByName("metadata").forEach(child -> {
       assert child != null;
       visitMetadata(child, context);
@@ -114,7 +227,7 @@ public class FilterNonSelectedVisitor
         LOGGER.atDebug().log("Removing role '{}'", role.getId());
       }
       metadata.removeRole(role);
-      index.remove(entity);
+      context.pruneEntity(entity);
     }
 
     for (IEntityItem entity : IIndexer.getUnreferencedEntitiesAsStream(index.getEntitiesByItemType(ItemType.PARTY))
@@ -124,7 +237,7 @@ public class FilterNonSelectedVisitor
         LOGGER.atDebug().log("Removing party '{}'", party.getUuid());
       }
       metadata.removeParty(party);
-      index.remove(entity);
+      context.pruneEntity(entity);
     }
 
     for (IEntityItem entity : IIndexer.getUnreferencedEntitiesAsStream(index.getEntitiesByItemType(ItemType.LOCATION))
@@ -134,7 +247,7 @@ public class FilterNonSelectedVisitor
         LOGGER.atDebug().log("Removing location '{}'", location.getUuid());
       }
       metadata.removeLocation(location);
-      index.remove(entity);
+      context.pruneEntity(entity);
     }
   }
 
@@ -150,8 +263,34 @@ public class FilterNonSelectedVisitor
         LOGGER.atDebug().log("Removing resource '{}'", resource.getUuid());
       }
       backMatter.removeResource(resource);
-      index.remove(entity);
+      context.pruneEntity(entity);
+    }
+  }
+
+  @Override
+  protected DefaultResult visitGroupInternal(
+      IRequiredValueModelNodeItem item,
+      DefaultResult childResult,
+      Context context) {
+    ReferenceCountingVisitor.Context referenceContext = context.getReferenceContext();
+    if (referenceContext != null) {
+      // count the group's references before it is filtered
+      ReferenceCountingVisitor.instance().visitGroup(item, null, referenceContext);
+    }
+    return super.visitGroupInternal(item, childResult, context);
+  }
+
+  @Override
+  protected DefaultResult visitControlInternal(
+      IRequiredValueModelNodeItem item,
+      DefaultResult childResult,
+      Context context) {
+    ReferenceCountingVisitor.Context referenceContext = context.getReferenceContext();
+    if (referenceContext != null) {
+      // count the control's references before it is filtered
+      ReferenceCountingVisitor.instance().visitControl(item, null, referenceContext);
     }
+    return super.visitControlInternal(item, childResult, context);
   }
 
   @Override
@@ -179,11 +318,11 @@ public class FilterNonSelectedVisitor
       if (groupId != null) {
         // this group should always be found in the index
         IEntityItem entity = ObjectUtils.requireNonNull(index.getEntity(ItemType.GROUP, groupId, false));
-        index.remove(entity);
+        context.removeEntity(entity);
       }
 
       // remove any associated parts from the index
-      removePartsFromIndex(item, index);
+      removePartsFromIndex(item, context);
     }
     return retval;
   }
@@ -218,16 +357,17 @@ public class FilterNonSelectedVisitor
         retval.removeControl(control);
       }
       retval.appendPromoted(ObjectUtils.notNull(childResult));
-      index.remove(entity);
+      context.removeEntity(entity);
 
       // remove any associated parts from the index
-      removePartsFromIndex(item, index);
+      removePartsFromIndex(item, context);
     }
     return retval;
   }
 
   protected static void removePartsFromIndex(@NonNull IRequiredValueModelNodeItem groupOrControlItem,
-      @NonNull IIndexer index) {
+      @NonNull Context context) {
+    IIndexer index = context.getIndexer();
     CHILD_PART_METAPATH.evaluate(groupOrControlItem).asStream()
         .map(item -> (IRequiredValueModelNodeItem) item)
         .forEachOrdered(partItem -> {
@@ -236,7 +376,7 @@ public class FilterNonSelectedVisitor
           if (id != null) {
             IEntityItem entity = index.getEntity(IEntityItem.ItemType.PART, id);
             if (entity != null) {
-              index.remove(entity);
+              context.removeEntity(entity);
             }
           }
         });
@@ -245,6 +385,22 @@ public class FilterNonSelectedVisitor
   @Override
   protected DefaultResult visitParameter(IRequiredValueModelNodeItem item, IRequiredValueModelNodeItem parent,
       Context context) {
+    DefaultResult retval;
+    if (context.getReferenceContext() == null) {
+      retval = filterParameter(item, parent, context);
+    } else {
+      // the parameter's reference count is not yet complete
+      context.deferParameter(item);
+      retval = new DefaultResult();
+    }
+    return retval;
+  }
+
+  @NonNull
+  private static DefaultResult filterParameter(
+      @NonNull IRequiredValueModelNodeItem item,
+      @NonNull IRequiredValueModelNodeItem parent,
+      @NonNull Context context) {
     Parameter param = (Parameter) item.getValue();
     IIndexer index = context.getIndexer();
     // this parameter should always be found in the index
@@ -269,19 +425,56 @@ public class FilterNonSelectedVisitor
       if (SelectionStatus.SELECTED.equals(index.getSelectionStatus(parent))) {
         retval.removeParameter(param);
       }
-      index.remove(entity);
+      context.pruneEntity(entity);
     }
     return retval;
   }
 
+  @NonNull
+  private static IRequiredValueModelNodeItem getSelectedContainer(
+      @NonNull IRequiredValueModelNodeItem catalogOrGroupOrControl,
+      @NonNull IIndexer index) {
+    IRequiredValueModelNodeItem retval = catalogOrGroupOrControl;
+    while (!(retval.getValue() instanceof Catalog)
+        && !SelectionStatus.SELECTED.equals(index.getSelectionStatus(retval))) {
+      retval = ObjectUtils.notNull(retval.getParentContentNodeItem());
+    }
+    return retval;
+  }
+
+  private static void applyTo(@NonNull IRequiredValueModelNodeItem catalogOrGroupOrControl,
+      @NonNull DefaultResult result) {
+    Object value = catalogOrGroupOrControl.getValue();
+    if (value instanceof Catalog) {
+      result.applyTo((Catalog) value);
+    } else if (value instanceof CatalogGroup) {
+      result.applyTo((CatalogGroup) value);
+    } else if (value instanceof Control) {
+      result.applyTo((Control) value);
+    }
+  }
+
   protected static class Context {
 
     @NonNull
     private final IIndexer indexer;
+    @Nullable
+    private final ReferenceCountingVisitor.Context referenceContext;
+    @NonNull
+    private final List<IRequiredValueModelNodeItem> deferredParameters = new LinkedList<>();
+    @NonNull
+    private final List<IEntityItem> deferredRemovals = new LinkedList<>();
+    @NonNull
+    private final IResolutionListener listener;
 
-    private Context(@NonNull IIndexer indexer) {
+    private Context(
+        @NonNull IIndexer indexer,
+        @Nullable ReferenceCountingVisitor.Context referenceContext,
+        @NonNull IResolutionListener listener) {
       super();
       this.indexer = indexer;
+      this.referenceContext = referenceContext;
+      this.listener = listener;
     }
 
     @NonNull
@@ -289,5 +482,52 @@ public class FilterNonSelectedVisitor
     public IIndexer getIndexer() {
       return indexer;
     }
+
+    /**
+     * Get the state used to count references while filtering, if references are being counted.
+     * 
+     * @return the reference counting state, or {@code null} if references are not being counted
+     */
+    @Nullable
+    protected ReferenceCountingVisitor.Context getReferenceContext() {
+      return referenceContext;
+    }
+
+    /**
+     * Remove a filtered entity from the index.
+     * <p>
+     * If references are being counted, the removal is deferred until counting is complete, since the
+     * entity may still be referenced by content that has not yet been visited.
+     * 
+     * @param entity
+     *          the entity to remove
+     */
+    public void removeEntity(@NonNull IEntityItem entity) {
+      if (referenceContext == null) {
+        pruneEntity(entity);
+      } else {
+        listener.increment(ResolutionCounter.ENTITIES_PRUNED, 1);
+        deferredRemovals.add(entity);
+      }
+    }
+
+    private void pruneEntity(@NonNull IEntityItem entity) {
+      listener.increment(ResolutionCounter.ENTITIES_PRUNED, 1);
+      indexer.remove(entity);
+    }
+
+    private void deferParameter(@NonNull IRequiredValueModelNodeItem paramItem) {
+      deferredParameters.add(paramItem);
+    }
+
+    @NonNull
+    private List<IRequiredValueModelNodeItem> getDeferredParameters() {
+      return deferredParameters;
+    }
+
+    @NonNull
+    private List<IEntityItem> getDeferredRemovals() {
+      return deferredRemovals;
+    }
   }
 }
@@ -27,6 +27,7 @@
 package gov.nist.secauto.oscal.lib.profile.resolver.selection;
 
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -36,4 +37,14 @@ public interface IControlSelectionState {
   IIndexer getIndex();
 
   boolean isSelected(@NonNull IRequiredValueModelNodeItem item);
+
+  /**
+   * Get the listener to notify of selection activity.
+   * 
+   * @return the listener
+   */
+  @NonNull
+  default IResolutionListener getListener() {
+    return IResolutionListener.noop();
+  }
 }
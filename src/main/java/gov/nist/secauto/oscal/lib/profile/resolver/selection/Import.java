@@ -29,6 +29,8 @@ package gov.nist.secauto.oscal.lib.profile.resolver.selection;
 import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.core.util.VersionUtil;
 
+import gov.nist.secauto.metaschema.binding.io.BindingException;
+import gov.nist.secauto.metaschema.model.common.metapath.item.DefaultNodeItemFactory;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IModelNodeItem;
 import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
@@ -41,9 +43,14 @@ import gov.nist.secauto.oscal.lib.model.Control;
 import gov.nist.secauto.oscal.lib.model.Metadata;
 import gov.nist.secauto.oscal.lib.model.Parameter;
 import gov.nist.secauto.oscal.lib.model.ProfileImport;
+import gov.nist.secauto.oscal.lib.model.control.profile.IProfileSelectControlById;
 import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionEvaluationException;
 import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionException;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionPhase;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionTimer;
 import gov.nist.secauto.oscal.lib.profile.resolver.policy.ReferenceCountingVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.policy.ReferenceGraph;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.BasicIndexer;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
@@ -54,6 +61,8 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 public class Import {
 
@@ -61,13 +70,59 @@ public class Import {
   private final IDocumentNodeItem profileDocument;
   @NonNull
   private final IModelNodeItem profileImportItem;
+  @NonNull
+  private final IResolutionListener listener;
+  @Nullable
+  private final ReferenceGraph referenceGraph;
 
   public Import(
       @NonNull IDocumentNodeItem profileDocument,
       @NonNull IModelNodeItem profileImportItem) {
+    this(profileDocument, profileImportItem, IResolutionListener.noop());
+  }
+
+  /**
+   * Construct a new import, which reports the timing and activity of its resolution to the provided
+   * listener.
+   * 
+   * @param profileDocument
+   *          the profile containing the import
+   * @param profileImportItem
+   *          the import to resolve
+   * @param listener
+   *          the listener to notify
+   */
+  public Import(
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull IModelNodeItem profileImportItem,
+      @NonNull IResolutionListener listener) {
+    this(profileDocument, profileImportItem, listener, null);
+  }
+
+  /**
+   * Construct a new import, which reports the timing and activity of its resolution to the provided
+   * listener, and records the references counted while filtering the imported content in the
+   * provided graph.
+   * 
+   * @param profileDocument
+   *          the profile containing the import
+   * @param profileImportItem
+   *          the import to resolve
+   * @param listener
+   *          the listener to notify
+   * @param referenceGraph
+   *          the graph to record references in, or {@code null} to only count references
+   */
+  public Import(
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull IModelNodeItem profileImportItem,
+      @NonNull IResolutionListener listener,
+      @Nullable ReferenceGraph referenceGraph) {
 
     this.profileDocument = profileDocument;
     this.profileImportItem = profileImportItem;
+    this.listener = listener;
+    this.referenceGraph = referenceGraph;
   }
 
   protected IDocumentNodeItem getProfileItem() {
@@ -78,6 +133,22 @@ public class Import {
     return profileImportItem;
   }
 
+  @NonNull
+  protected IResolutionListener getListener() {
+    return listener;
+  }
+
+  /**
+   * Get the graph used to record the references counted while filtering the imported content.
+   * 
+   * @return the graph or {@code null} if references are only counted
+   */
+  @Nullable
+  @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "intending to expose this field")
+  protected ReferenceGraph getReferenceGraph() {
+    return referenceGraph;
+  }
+
   @NonNull
   protected ProfileImport getProfileImport() {
     return ObjectUtils.requireNonNull((ProfileImport) profileImportItem.getValue());
@@ -109,16 +180,20 @@ public class Import {
     // determine which controls and groups to keep
     IControlFilter filter = newControlFilter();
     IIndexer indexer = newIndexer();
-    IControlSelectionState state = new ControlSelectionState(indexer, filter);
+    IResolutionListener listener = getListener();
+    IControlSelectionState state = new ControlSelectionState(indexer, filter, listener);
+    URI profileUri = ObjectUtils.notNull(getProfileItem().getDocumentUri());
 
     try {
+      ResolutionTimer timer = ResolutionTimer.start();
       ControlSelectionVisitor.instance().visitCatalog(importedCatalogDocument, state);
+      timer.phaseCompleted(listener, profileUri, ResolutionPhase.SELECTION);
 
-      // process references
-      ReferenceCountingVisitor.instance().visitCatalog(importedCatalogDocument, indexer, uri);
-
-      // filter based on selections
-      FilterNonSelectedVisitor.instance().visitCatalog(importedCatalogDocument, indexer);
+      // process references and filter based on selections
+      timer = ResolutionTimer.start();
+      FilterNonSelectedVisitor.instance()
+          .visitCatalog(importedCatalogDocument, indexer, uri, listener, getReferenceGraph());
+      timer.phaseCompleted(listener, profileUri, ResolutionPhase.REFERENCE_FILTERING);
     } catch (ProfileResolutionEvaluationException ex) {
       throw new ProfileResolutionException(
           String.format("Unable to resolve profile import '%s'. %s", uri.toString(), ex.getMessage()), ex);
@@ -146,6 +221,146 @@ public class Import {
     return indexer;
   }
 
+  /**
+   * Get a key identifying the controls selected by this import.
+   * <p>
+   * Imports of the same document having the same key retain the same content from that document, so
+   * the result of {@link #select(IDocumentNodeItem)} can be shared between them.
+   * 
+   * @return the key
+   */
+  @NonNull
+  public String getSelectionKey() {
+    ProfileImport profileImport = getProfileImport();
+
+    StringBuilder builder = new StringBuilder();
+    if (profileImport.getIncludeAll() == null) {
+      builder.append("include-controls");
+      appendSelectionKey(builder, profileImport.getIncludeControls());
+    } else {
+      builder.append("include-all");
+    }
+    builder.append(" exclude-controls");
+    appendSelectionKey(builder, profileImport.getExcludeControls());
+    return ObjectUtils.notNull(builder.toString());
+  }
+
+  private static void appendSelectionKey(
+      @NonNull StringBuilder builder,
+      @Nullable List<? extends IProfileSelectControlById> selections) {
+    for (IProfileSelectControlById selection : CollectionUtil.listOrEmpty(selections)) {
+      builder.append(" [")
+          .append(selection.getWithChildControls())
+          .append(' ')
+          .append(CollectionUtil.listOrEmpty(selection.getWithIds()))
+          .append(' ')
+          .append(CollectionUtil.listOrEmpty(selection.getMatching()).stream()
+              .map(matching -> matching.getPattern())
+              .collect(Collectors.toList()))
+          .append(']');
+    }
+  }
+
+  /**
+   * Determine the content of the imported catalog retained by this import, without modifying the
+   * catalog.
+   * <p>
+   * Selection and reference counting are performed against the provided catalog. The returned index
+   * is not modified afterwards, so it can be used by concurrent calls to
+   * {@link #resolveSelected(IDocumentNodeItem, IIndexer, Catalog)} for imports having the same
+   * {@link #getSelectionKey() selection key}.
+   * 
+   * @param importedCatalogDocument
+   *          the imported catalog, which will not be modified
+   * @return the index recording the selected and referenced content
+   * @throws ProfileResolutionException
+   *           if an error occurred while selecting the content
+   */
+  @NonNull
+  public IIndexer select(@NonNull IDocumentNodeItem importedCatalogDocument) throws ProfileResolutionException {
+    ProfileImport profileImport = getProfileImport();
+    URI uri = ObjectUtils.requireNonNull(profileImport.getHref(), "profile import href is null");
+
+    // determine which content to keep, using an index that does not reassign identifiers
+    IIndexer indexer = new BasicIndexer();
+    IControlSelectionState state = new ControlSelectionState(indexer, newControlFilter());
+
+    try {
+      // the selection is counted when the copy is resolved
+      ControlSelectionVisitor.instance().visitCatalog(importedCatalogDocument, state);
+      ReferenceCountingVisitor.instance().visitCatalog(importedCatalogDocument, indexer, uri, true);
+    } catch (ProfileResolutionEvaluationException ex) {
+      throw new ProfileResolutionException(
+          String.format("Unable to resolve profile import '%s'. %s", uri.toString(), ex.getMessage()), ex);
+    }
+    return indexer;
+  }
+
+  /**
+   * Resolve the import without modifying the provided catalog.
+   * <p>
+   * Only the content recorded as retained by the provided selection is copied, and the import is
+   * resolved against this copy using {@link #resolve(IDocumentNodeItem, Catalog)}. This avoids
+   * copying content that will be discarded, which allows the provided catalog to be shared.
+   * 
+   * @param importedCatalogDocument
+   *          the imported catalog, which will not be modified
+   * @param selection
+   *          the index produced by {@link #select(IDocumentNodeItem)} for the imported catalog,
+   *          which will not be modified
+   * @param resolvedCatalog
+   *          the catalog to add the resolved content to
+   * @return the index of the resolved content
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the import
+   */
+  @NonNull
+  public IIndexer resolveSelected(
+      @NonNull IDocumentNodeItem importedCatalogDocument,
+      @NonNull IIndexer selection,
+      @NonNull Catalog resolvedCatalog)
+      throws ProfileResolutionException {
+    Catalog copy;
+    try {
+      copy = SelectedContentCopier.copy(importedCatalogDocument, selection);
+    } catch (BindingException ex) {
+      URI uri = getProfileImport().getHref();
+      throw new ProfileResolutionException(
+          String.format("Unable to copy the content of profile import '%s'. %s", uri, ex.getMessage()),
+          ex);
+    }
+
+    IDocumentNodeItem copyDocument = DefaultNodeItemFactory.instance().newDocumentNodeItem(
+        importedCatalogDocument.getRootAssemblyNodeItem().getDefinition(),
+        copy,
+        importedCatalogDocument.getDocumentUri());
+    return resolve(copyDocument, resolvedCatalog);
+  }
+
+  /**
+   * Resolve the import without modifying the provided catalog.
+   * <p>
+   * Selection and reference counting are first performed against the provided catalog without
+   * modifying it. Only the content that can be retained is then copied, and the import is resolved
+   * against this copy using {@link #resolve(IDocumentNodeItem, Catalog)}. This avoids copying
+   * content that will be discarded, which allows the provided catalog to be shared.
+   * 
+   * @param importedCatalogDocument
+   *          the imported catalog, which will not be modified
+   * @param resolvedCatalog
+   *          the catalog to add the resolved content to
+   * @return the index of the resolved content
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the import
+   */
+  @NonNull
+  public IIndexer resolveSelectively(
+      @NonNull IDocumentNodeItem importedCatalogDocument,
+      @NonNull Catalog resolvedCatalog)
+      throws ProfileResolutionException {
+    return resolveSelected(importedCatalogDocument, select(importedCatalogDocument), resolvedCatalog);
+  }
+
   private static void generateMetadata(
       @NonNull IDocumentNodeItem importedCatalogDocument,
       @NonNull Catalog resolvedCatalog,
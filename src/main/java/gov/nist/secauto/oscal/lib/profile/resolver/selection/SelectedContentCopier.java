@@ -0,0 +1,283 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.selection;
+
+import gov.nist.secauto.metaschema.binding.io.BindingException;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRootAssemblyNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.BackMatter;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Metadata;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer.SelectionStatus;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Creates a reduced copy of an imported catalog based on the selection and reference counting
+ * results produced for the original, unmodified catalog.
+ * <p>
+ * The copy contains the following:
+ * <ul>
+ * <li>the full content of selected groups and controls, excluding child groups and controls, which
+ * are copied based on their own selection status;</li>
+ * <li>a skeleton of each unselected group and control containing its identifier, class, title, part
+ * structure, and any referenced parameters, allowing references to the unselected item to be
+ * handled in the same way as the original catalog;</li>
+ * <li>all catalog level parameters; and</li>
+ * <li>the roles, locations, parties, and resources that are referenced or required to be kept.</li>
+ * </ul>
+ * <p>
+ * Performing selection, reference counting, and filtering on the copy produces the same result as
+ * performing these operations on a full copy of the original catalog, while avoiding copying
+ * content that will be discarded.
+ */
+public final class SelectedContentCopier {
+  @NonNull
+  private final IIndexer index;
+  @NonNull
+  private final Set<Object> referencedValues = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private SelectedContentCopier(@NonNull IIndexer index) {
+    this.index = index;
+
+    for (IEntityItem.ItemType itemType : IEntityItem.ItemType.values()) {
+      IIndexer.getReferencedEntitiesAsStream(index.getEntitiesByItemType(ObjectUtils.notNull(itemType)))
+          .forEachOrdered(entity -> referencedValues.add(entity.getInstanceValue()));
+    }
+  }
+
+  /**
+   * Create a reduced copy of the provided catalog.
+   * 
+   * @param catalogDocument
+   *          the original catalog, which will not be modified
+   * @param index
+   *          the index containing the selection status and reference counts produced for the
+   *          original catalog
+   * @return the reduced copy
+   * @throws BindingException
+   *           if an error occurred while copying catalog content
+   */
+  @NonNull
+  public static Catalog copy(@NonNull IDocumentNodeItem catalogDocument, @NonNull IIndexer index)
+      throws BindingException {
+    return new SelectedContentCopier(index).copyCatalog(catalogDocument);
+  }
+
+  @NonNull
+  private static <T> T copyObject(@NonNull T object) throws BindingException {
+    return ObjectUtils.notNull(OscalBindingContext.instance().copyBoundObject(object, null));
+  }
+
+  private boolean isReferenced(@NonNull Object value) {
+    return referencedValues.contains(value);
+  }
+
+  private boolean isSelected(@NonNull IRequiredValueModelNodeItem item) {
+    return SelectionStatus.SELECTED.equals(index.getSelectionStatus(item));
+  }
+
+  @NonNull
+  private Catalog copyCatalog(@NonNull IDocumentNodeItem catalogDocument) throws BindingException {
+    Catalog catalog = (Catalog) ObjectUtils.requireNonNull(catalogDocument.getValue());
+    IRootAssemblyNodeItem root = catalogDocument.getRootAssemblyNodeItem();
+
+    Catalog retval = new Catalog();
+    retval.setUuid(catalog.getUuid());
+
+    Metadata metadata = catalog.getMetadata();
+    if (metadata != null) {
+      retval.setMetadata(copyMetadata(metadata));
+    }
+
+    // catalog level parameters are always retained
+    for (Parameter param : CollectionUtil.listOrEmpty(catalog.getParams())) {
+      retval.addParam(copyObject(ObjectUtils.requireNonNull(param)));
+    }
+
+    for (IRequiredValueModelNodeItem child : root.getModelItemsByName("control")) {
+      retval.addControl(copyControl(ObjectUtils.requireNonNull(child)));
+    }
+    for (IRequiredValueModelNodeItem child : root.getModelItemsByName("group")) {
+      retval.addGroup(copyGroup(ObjectUtils.requireNonNull(child)));
+    }
+
+    BackMatter backMatter = catalog.getBackMatter();
+    if (backMatter != null) {
+      retval.setBackMatter(copyBackMatter(backMatter));
+    }
+    return retval;
+  }
+
+  @NonNull
+  private Metadata copyMetadata(@NonNull Metadata metadata) throws BindingException {
+    // only the fields used by the resolution process are retained
+    Metadata shell = new Metadata();
+    shell.setTitle(metadata.getTitle());
+    shell.setLastModified(metadata.getLastModified());
+    shell.setVersion(metadata.getVersion());
+    shell.setOscalVersion(metadata.getOscalVersion());
+
+    Metadata retval = copyObject(shell);
+    retval.setRoles(copyReferenced(metadata.getRoles()));
+    retval.setLocations(copyReferenced(metadata.getLocations()));
+    retval.setParties(copyReferenced(metadata.getParties()));
+    return retval;
+  }
+
+  @NonNull
+  private BackMatter copyBackMatter(@NonNull BackMatter backMatter) throws BindingException {
+    BackMatter retval = new BackMatter();
+    retval.setResources(copyReferenced(backMatter.getResources()));
+    return retval;
+  }
+
+  @NonNull
+  private <T> List<T> copyReferenced(@Nullable List<T> items) throws BindingException {
+    List<T> retval = new LinkedList<>();
+    for (T item : CollectionUtil.listOrEmpty(items)) {
+      if (item != null && isReferenced(item)) {
+        retval.add(copyObject(item));
+      }
+    }
+    return retval;
+  }
+
+  @NonNull
+  private List<Parameter> selectParameters(@Nullable List<Parameter> params, boolean selected) {
+    List<Parameter> retval;
+    if (selected) {
+      retval = CollectionUtil.listOrEmpty(params);
+    } else {
+      // only referenced parameters are retained by an unselected group or control
+      retval = CollectionUtil.listOrEmpty(params).stream()
+          .filter(param -> param != null && isReferenced(param))
+          .collect(Collectors.toCollection(LinkedList::new));
+    }
+    return ObjectUtils.notNull(retval);
+  }
+
+  @NonNull
+  private CatalogGroup copyGroup(@NonNull IRequiredValueModelNodeItem item) throws BindingException {
+    CatalogGroup group = (CatalogGroup) ObjectUtils.requireNonNull(item.getValue());
+    boolean selected = isSelected(item);
+
+    // build a group containing only the content to copy, without modifying the original
+    CatalogGroup shell = new CatalogGroup();
+    shell.setId(group.getId());
+    shell.setClazz(group.getClazz());
+    shell.setTitle(group.getTitle());
+    shell.setParams(selectParameters(group.getParams(), selected));
+    if (selected) {
+      shell.setProps(group.getProps());
+      shell.setLinks(group.getLinks());
+      shell.setParts(group.getParts());
+    }
+
+    CatalogGroup retval = copyObject(shell);
+    if (!selected) {
+      retval.setParts(copyPartSkeletons(group.getParts()));
+    }
+
+    for (IRequiredValueModelNodeItem child : item.getModelItemsByName("group")) {
+      retval.addGroup(copyGroup(ObjectUtils.requireNonNull(child)));
+    }
+    for (IRequiredValueModelNodeItem child : item.getModelItemsByName("control")) {
+      retval.addControl(copyControl(ObjectUtils.requireNonNull(child)));
+    }
+    return retval;
+  }
+
+  @NonNull
+  private Control copyControl(@NonNull IRequiredValueModelNodeItem item) throws BindingException {
+    Control control = (Control) ObjectUtils.requireNonNull(item.getValue());
+    boolean selected = isSelected(item);
+
+    // build a control containing only the content to copy, without modifying the original
+    Control shell = new Control();
+    shell.setId(control.getId());
+    shell.setClazz(control.getClazz());
+    shell.setTitle(control.getTitle());
+    shell.setParams(selectParameters(control.getParams(), selected));
+    if (selected) {
+      shell.setProps(control.getProps());
+      shell.setLinks(control.getLinks());
+      shell.setParts(control.getParts());
+    }
+
+    Control retval = copyObject(shell);
+    if (!selected) {
+      retval.setParts(copyPartSkeletons(control.getParts()));
+    }
+
+    for (IRequiredValueModelNodeItem child : item.getModelItemsByName("control")) {
+      Control childControl = copyControl(ObjectUtils.requireNonNull(child));
+      childControl.setParentControl(retval);
+      retval.addControl(childControl);
+    }
+    return retval;
+  }
+
+  @Nullable
+  private static List<ControlPart> copyPartSkeletons(@Nullable List<ControlPart> parts) {
+    List<ControlPart> retval = null;
+    if (parts != null && !parts.isEmpty()) {
+      retval = new LinkedList<>();
+      for (ControlPart part : parts) {
+        if (part != null) {
+          // retain the identity and structure of the part, which allows references to it to be found
+          ControlPart skeleton = new ControlPart();
+          skeleton.setId(part.getId());
+          skeleton.setName(part.getName());
+          skeleton.setNs(part.getNs());
+          skeleton.setClazz(part.getClazz());
+          skeleton.setParts(copyPartSkeletons(part.getParts()));
+          retval.add(skeleton);
+        }
+      }
+    }
+    return retval;
+  }
+}
@@ -30,10 +30,16 @@ import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueMode
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 
 import java.net.URI;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 
 public abstract class AbstractEntityItem implements IEntityItem {
+  /**
+   * Updates the reference count atomically, without the cost of an atomic object per entity.
+   */
+  private static final AtomicIntegerFieldUpdater<AbstractEntityItem> REFERENCE_COUNT_UPDATER
+      = AtomicIntegerFieldUpdater.newUpdater(AbstractEntityItem.class, "referenceCount");
 
   @NonNull
   private final String originalIdentifier;
@@ -43,7 +49,7 @@ public abstract class AbstractEntityItem implements IEntityItem {
   private final ItemType itemType;
   @NonNull
   private final URI source;
-  private int referenceCount; // 0 by default
+  private volatile int referenceCount; // 0 by default
   // private boolean resolved; // false by default
 
   protected AbstractEntityItem(@NonNull Builder builder) {
@@ -114,14 +120,12 @@ public abstract class AbstractEntityItem implements IEntityItem {
 
   @Override
   public void incrementReferenceCount() {
-    referenceCount += 1;
+    REFERENCE_COUNT_UPDATER.incrementAndGet(this);
   }
 
   @Override
   public int resetReferenceCount() {
-    int retval = referenceCount;
-    referenceCount = 0;
-    return retval;
+    return REFERENCE_COUNT_UPDATER.getAndSet(this, 0);
   }
 
   static final class Builder {
@@ -71,7 +71,7 @@ public abstract class AbstractIndexingVisitor<T, R>
   @Override
   protected void visitPart(@NonNull IRequiredValueModelNodeItem partItem,
       @NonNull IRequiredValueModelNodeItem catalogOrGroupOrControl, T state) {
-    getIndexer(state).addPart(partItem);
+    getIndexer(state).addPart(partItem, catalogOrGroupOrControl);
   }
 
   @Override
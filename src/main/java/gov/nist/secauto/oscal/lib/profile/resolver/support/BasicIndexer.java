@@ -26,7 +26,6 @@
 
 package gov.nist.secauto.oscal.lib.profile.resolver.support;
 
-import gov.nist.secauto.metaschema.model.common.datatype.adapter.UuidAdapter;
 import gov.nist.secauto.metaschema.model.common.metapath.MetapathExpression;
 import gov.nist.secauto.metaschema.model.common.metapath.MetapathExpression.ResultType;
 import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
@@ -47,26 +46,46 @@ import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 
 public class BasicIndexer implements IIndexer {
   private static final Logger LOGGER = LogManager.getLogger(ProfileResolver.class);
-  private static final MetapathExpression CONTAINER_METAPATH
+  static final MetapathExpression CONTAINER_METAPATH
       = MetapathExpression.compile("(ancestor::control|ancestor::group)[1])");
 
   @NonNull
-  private final Map<IEntityItem.ItemType, Map<String, IEntityItem>> entityTypeToIdentifierToEntityMap;
+  private final Map<IEntityItem.ItemType, EntityTable> entityTypeToEntityTableMap;
+  /**
+   * The ordinals of the nodes with a selection status or a recorded container, which index the
+   * selection bit sets.
+   */
+  @NonNull
+  private final NodeItemOrdinals nodeItemOrdinals;
+  /**
+   * The nodes with the {@link SelectionStatus#SELECTED} status, by ordinal.
+   */
   @NonNull
-  private Map<INodeItem, SelectionStatus> nodeItemToSelectionStatusMap;
+  private BitSet selectedNodeItems;
+  /**
+   * The nodes with the {@link SelectionStatus#UNSELECTED} status, by ordinal.
+   */
+  @NonNull
+  private BitSet unselectedNodeItems;
+  /**
+   * The ordinal plus one of the control or group containing each part, by part ordinal, or
+   * {@code 0} if the container was not recorded.
+   */
+  @NonNull
+  private int[] partContainerOrdinals;
 
   @Override
   public void append(@NonNull IIndexer other) {
@@ -76,50 +95,138 @@ public class BasicIndexer implements IIndexer {
       }
     }
 
-    this.nodeItemToSelectionStatusMap.putAll(other.getSelectionStatusMap());
+    appendSelectionState(other);
+  }
+
+  private void appendSelectionState(@NonNull IIndexer other) {
+    if (other instanceof BasicIndexer) {
+      // avoid building the status map, and keep the part containers
+      BasicIndexer that = (BasicIndexer) other;
+      for (int ordinal = 0; ordinal < that.nodeItemOrdinals.size(); ordinal++) {
+        INodeItem item = that.nodeItemOrdinals.getItem(ordinal);
+        SelectionStatus status = that.getSelectionStatus(ordinal);
+        if (!SelectionStatus.UNKNOWN.equals(status)) {
+          setSelectionStatus(item, status);
+        }
+        int containerOrdinal = that.getPartContainerOrdinal(ordinal);
+        if (containerOrdinal >= 0) {
+          setPartContainer(item, that.nodeItemOrdinals.getItem(containerOrdinal));
+        }
+      }
+    } else {
+      other.getSelectionStatusMap().forEach((item, status) -> setSelectionStatus(
+          ObjectUtils.notNull(item),
+          ObjectUtils.notNull(status)));
+      for (IEntityItem part : other.getEntitiesByItemType(ItemType.PART)) {
+        INodeItem container = other.getPartContainer(part.getInstance());
+        if (container != null) {
+          setPartContainer(part.getInstance(), container);
+        }
+      }
+    }
   }
 
+  /**
+   * Construct a new, empty index.
+   * <p>
+   * This class is not thread safe.
+   */
   public BasicIndexer() {
-    this.entityTypeToIdentifierToEntityMap = new EnumMap<>(IEntityItem.ItemType.class);
-    this.nodeItemToSelectionStatusMap = new ConcurrentHashMap<>();
+    this.entityTypeToEntityTableMap = new EnumMap<>(IEntityItem.ItemType.class);
+    this.nodeItemOrdinals = new NodeItemOrdinals();
+    this.selectedNodeItems = new BitSet();
+    this.unselectedNodeItems = new BitSet();
+    this.partContainerOrdinals = new int[0];
   }
 
   public BasicIndexer(IIndexer other) {
-    Map<IEntityItem.ItemType, Map<String, IEntityItem>> entities = other.getEntities();
+    this();
 
-    // copy entity map
-    this.entityTypeToIdentifierToEntityMap = new ConcurrentHashMap<>();
+    // copy the entities
     for (ItemType itemType : ItemType.values()) {
-      Map<String, IEntityItem> entityGroup = entities.get(itemType);
-      if (entityGroup != null) {
-        entityTypeToIdentifierToEntityMap.put(itemType, new LinkedHashMap<>(entityGroup));
+      for (IEntityItem entity : other.getEntitiesByItemType(ObjectUtils.notNull(itemType))) {
+        getOrCreateEntityTable(ObjectUtils.notNull(itemType)).put(entity.getIdentifier(), entity);
       }
     }
 
-    // copy selection map
-    this.nodeItemToSelectionStatusMap = new ConcurrentHashMap<>(other.getSelectionStatusMap());
+    // copy selection statuses
+    appendSelectionState(other);
   }
 
   @Override
   public SelectionStatus setSelectionStatus(@NonNull INodeItem item, @NonNull SelectionStatus selectionStatus) {
-    SelectionStatus retval = nodeItemToSelectionStatusMap.put(item, selectionStatus);
-    return retval == null ? SelectionStatus.UNKNOWN : retval;
+    int ordinal = nodeItemOrdinals.assign(item);
+    SelectionStatus retval = getSelectionStatus(ordinal);
+    selectedNodeItems.set(ordinal, SelectionStatus.SELECTED.equals(selectionStatus));
+    unselectedNodeItems.set(ordinal, SelectionStatus.UNSELECTED.equals(selectionStatus));
+    return retval;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The returned map is built on demand, since the statuses are not held in a map.
+   */
   @Override
   public Map<INodeItem, SelectionStatus> getSelectionStatusMap() {
-    return CollectionUtil.unmodifiableMap(nodeItemToSelectionStatusMap);
+    Map<INodeItem, SelectionStatus> retval = new LinkedHashMap<>();
+    for (int ordinal = 0; ordinal < nodeItemOrdinals.size(); ordinal++) {
+      SelectionStatus status = getSelectionStatus(ordinal);
+      if (!SelectionStatus.UNKNOWN.equals(status)) {
+        retval.put(nodeItemOrdinals.getItem(ordinal), status);
+      }
+    }
+    return CollectionUtil.unmodifiableMap(retval);
   }
 
   @Override
   public SelectionStatus getSelectionStatus(@NonNull INodeItem item) {
-    SelectionStatus retval = nodeItemToSelectionStatusMap.get(item);
-    return retval == null ? SelectionStatus.UNKNOWN : retval;
+    int ordinal = nodeItemOrdinals.lookup(item);
+    return ordinal < 0 ? SelectionStatus.UNKNOWN : getSelectionStatus(ordinal);
+  }
+
+  @NonNull
+  private SelectionStatus getSelectionStatus(int ordinal) {
+    SelectionStatus retval;
+    if (selectedNodeItems.get(ordinal)) {
+      retval = SelectionStatus.SELECTED;
+    } else if (unselectedNodeItems.get(ordinal)) {
+      retval = SelectionStatus.UNSELECTED;
+    } else {
+      retval = SelectionStatus.UNKNOWN;
+    }
+    return retval;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The recorded part containers are kept, since they do not depend on the selection.
+   */
   @Override
   public void resetSelectionStatus() {
-    nodeItemToSelectionStatusMap = new ConcurrentHashMap<>();
+    selectedNodeItems.clear();
+    unselectedNodeItems.clear();
+  }
+
+  private void setPartContainer(@NonNull INodeItem part, @NonNull INodeItem container) {
+    int containerOrdinal = nodeItemOrdinals.assign(container);
+    int partOrdinal = nodeItemOrdinals.assign(part);
+    if (partOrdinal >= partContainerOrdinals.length) {
+      partContainerOrdinals = Arrays.copyOf(partContainerOrdinals, nodeItemOrdinals.size() * 2);
+    }
+    partContainerOrdinals[partOrdinal] = containerOrdinal + 1;
+  }
+
+  private int getPartContainerOrdinal(int partOrdinal) {
+    return partOrdinal < partContainerOrdinals.length ? partContainerOrdinals[partOrdinal] - 1 : -1;
+  }
+
+  @Override
+  public INodeItem getPartContainer(@NonNull INodeItem part) {
+    int ordinal = nodeItemOrdinals.lookup(part);
+    int containerOrdinal = ordinal < 0 ? -1 : getPartContainerOrdinal(ordinal);
+    return containerOrdinal < 0 ? null : nodeItemOrdinals.getItem(containerOrdinal);
   }
 
   @Override
@@ -132,14 +239,19 @@ public class BasicIndexer implements IIndexer {
       break;
     case PART: {
       IRequiredValueModelNodeItem instance = entity.getInstance();
-      IIndexer.SelectionStatus status = getSelectionStatus(instance);
-      if (IIndexer.SelectionStatus.UNKNOWN.equals(status)) {
+      int ordinal = nodeItemOrdinals.lookup(instance);
+      IIndexer.SelectionStatus status = ordinal < 0 ? SelectionStatus.UNKNOWN : getSelectionStatus(ordinal);
+      int containerOrdinal = ordinal < 0 ? -1 : getPartContainerOrdinal(ordinal);
+      if (IIndexer.SelectionStatus.UNKNOWN.equals(status) && containerOrdinal >= 0) {
+        // the part has the status of the container recorded when the part was indexed
+        status = getSelectionStatus(containerOrdinal);
+      } else if (IIndexer.SelectionStatus.UNKNOWN.equals(status)) {
         // lookup the status if not known
         IRequiredValueModelNodeItem containerItem = CONTAINER_METAPATH.evaluateAs(instance, ResultType.NODE);
         status = getSelectionStatus(containerItem);
 
-        // cache the status
-        setSelectionStatus(instance, status);
+        // record the container for later lookups
+        setPartContainer(instance, containerItem);
       }
       retval = IIndexer.SelectionStatus.SELECTED.equals(status);
       break;
@@ -160,17 +272,24 @@ public class BasicIndexer implements IIndexer {
 
   @Override
   public Map<ItemType, Map<String, IEntityItem>> getEntities() {
-    return entityTypeToIdentifierToEntityMap.entrySet().stream()
-        .map(entry -> Map.entry(entry.getKey(), CollectionUtil.unmodifiableMap(entry.getValue())))
-        .collect(Collectors.toUnmodifiableMap(entry -> entry.getKey(), entry -> entry.getValue()));
+    // the identifier maps are built on demand, since the entities are not held in maps
+    Map<ItemType, Map<String, IEntityItem>> retval = new EnumMap<>(ItemType.class);
+    for (Map.Entry<ItemType, EntityTable> entry : entityTypeToEntityTableMap.entrySet()) {
+      Map<String, IEntityItem> entities = new LinkedHashMap<>();
+      for (IEntityItem entity : entry.getValue().values()) {
+        entities.put(entity.getIdentifier(), entity);
+      }
+      retval.put(entry.getKey(), CollectionUtil.unmodifiableMap(entities));
+    }
+    return CollectionUtil.unmodifiableMap(retval);
   }
 
   @Override
   @NonNull
   // TODO: rename to getEntitiesForItemType
   public Collection<IEntityItem> getEntitiesByItemType(@NonNull IEntityItem.ItemType itemType) {
-    Map<String, IEntityItem> entityGroup = entityTypeToIdentifierToEntityMap.get(itemType);
-    return entityGroup == null ? CollectionUtil.emptyList() : ObjectUtils.notNull(entityGroup.values());
+    EntityTable table = entityTypeToEntityTableMap.get(itemType);
+    return table == null ? CollectionUtil.emptyList() : table.values();
   }
   //
   // public EntityItem getEntity(@NonNull ItemType itemType, @NonNull UUID identifier) {
@@ -181,22 +300,38 @@ public class BasicIndexer implements IIndexer {
   // return getEntity(itemType, identifier, itemType.isUuid());
   // }
 
+  @Override
+  public IEntityItem getEntity(@NonNull ItemType itemType, @NonNull UUID identifier) {
+    EntityTable table = entityTypeToEntityTableMap.get(itemType);
+    return table == null ? null : table.get(identifier);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The entities of a UUID-based item type are keyed by the value of UUID-formatted identifiers, so
+   * their lookup is always insensitive to case.
+   */
   @Override
   public IEntityItem getEntity(@NonNull ItemType itemType, @NonNull String identifier, boolean normalize) {
-    Map<String, IEntityItem> entityGroup = entityTypeToIdentifierToEntityMap.get(itemType);
-    String normalizedIdentifier = normalize ? normalizeIdentifier(identifier) : identifier;
-    return entityGroup == null ? null : entityGroup.get(normalizedIdentifier);
+    EntityTable table = entityTypeToEntityTableMap.get(itemType);
+    return table == null ? null : table.get(identifier);
+  }
+
+  @NonNull
+  private EntityTable getOrCreateEntityTable(@NonNull ItemType itemType) {
+    EntityTable retval = entityTypeToEntityTableMap.get(itemType);
+    if (retval == null) {
+      retval = new EntityTable(itemType.isUuid());
+      entityTypeToEntityTableMap.put(itemType, retval);
+    }
+    return retval;
   }
 
   protected IEntityItem addItem(@NonNull IEntityItem item) {
     IEntityItem.ItemType type = item.getItemType();
 
-    Map<String, IEntityItem> entityGroup = entityTypeToIdentifierToEntityMap.get(type);
-    if (entityGroup == null) {
-      entityGroup = new LinkedHashMap<>();
-      entityTypeToIdentifierToEntityMap.put(type, entityGroup);
-    }
-    IEntityItem oldEntity = entityGroup.put(item.getIdentifier(), item);
+    IEntityItem oldEntity = getOrCreateEntityTable(type).put(item.getIdentifier(), item);
     if (oldEntity != null) {
       if (LOGGER.isWarnEnabled()) {
         LOGGER.atWarn().log("Duplicate {} found with identifier {} in index.",
@@ -217,14 +352,18 @@ public class BasicIndexer implements IIndexer {
   @Override
   public boolean remove(@NonNull IEntityItem entity) {
     IEntityItem.ItemType type = entity.getItemType();
-    Map<String, IEntityItem> entityGroup = entityTypeToIdentifierToEntityMap.get(type);
+    EntityTable table = entityTypeToEntityTableMap.get(type);
 
     boolean retval = false;
-    if (entityGroup != null) {
-      retval = entityGroup.remove(entity.getIdentifier(), entity);
+    if (table != null) {
+      retval = table.remove(entity.getIdentifier(), entity);
 
       // remove if present
-      nodeItemToSelectionStatusMap.remove(entity.getInstance());
+      int ordinal = nodeItemOrdinals.lookup(entity.getInstance());
+      if (ordinal >= 0) {
+        selectedNodeItems.clear(ordinal);
+        unselectedNodeItems.clear(ordinal);
+      }
 
       if (retval) {
         if (LOGGER.isDebugEnabled()) {
@@ -293,6 +432,21 @@ public class BasicIndexer implements IIndexer {
     return identifier == null ? null : addItem(newBuilder(item, ItemType.PART, identifier));
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The container is recorded so that the selection status of the part can be determined without
+   * evaluating a Metapath.
+   */
+  @Override
+  public IEntityItem addPart(IRequiredValueModelNodeItem item, IRequiredValueModelNodeItem container) {
+    IEntityItem retval = addPart(item);
+    if (retval != null) {
+      setPartContainer(item, container);
+    }
+    return retval;
+  }
+
   @Override
   public IEntityItem addResource(IRequiredValueModelNodeItem item) {
     Resource resource = (Resource) item.getValue();
@@ -345,8 +499,7 @@ public class BasicIndexer implements IIndexer {
    */
   @NonNull
   public String normalizeIdentifier(@NonNull String identifier) {
-    return UuidAdapter.UUID_PATTERN.matches(identifier) ? ObjectUtils.notNull(identifier.toLowerCase(Locale.ROOT))
-        : identifier;
+    return EntityTable.isUuid(identifier) ? ObjectUtils.notNull(identifier.toLowerCase(Locale.ROOT)) : identifier;
   }
   //
   // private static class ItemGroup {
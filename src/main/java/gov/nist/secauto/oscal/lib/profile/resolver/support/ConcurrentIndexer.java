@@ -0,0 +1,418 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.support;
+
+import gov.nist.secauto.metaschema.model.common.metapath.MetapathExpression.ResultType;
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.BackMatter.Resource;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Metadata.Location;
+import gov.nist.secauto.oscal.lib.model.Metadata.Party;
+import gov.nist.secauto.oscal.lib.model.Metadata.Role;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * An index that can be read and updated by multiple threads, allowing the catalog visitors to
+ * process separate parts of a catalog in parallel.
+ * <p>
+ * The entities of each item type are held in a concurrent map, and are also kept in insertion order
+ * by a sequence number assigned when their identifier is first added. The collections returned by
+ * {@link #getEntitiesByItemType(ItemType)} are weakly consistent views in this order, as they are
+ * for a {@link BasicIndexer}. Replacing an entity keeps its position.
+ * <p>
+ * A {@link BasicIndexer} should be preferred when the index is only used by a single thread, since
+ * it is more compact. Entities, selection statuses and part containers are copied in both
+ * directions by {@link #append(IIndexer)} and the copy constructors.
+ */
+public class ConcurrentIndexer implements IIndexer {
+  private static final Logger LOGGER = LogManager.getLogger(ConcurrentIndexer.class);
+
+  @NonNull
+  private final Map<ItemType, EntityGroup> entityGroups;
+  @NonNull
+  private final ConcurrentMap<INodeItem, SelectionStatus> nodeItemToSelectionStatusMap;
+  @NonNull
+  private final ConcurrentMap<INodeItem, INodeItem> partToContainerMap;
+
+  /**
+   * Construct a new, empty index.
+   */
+  public ConcurrentIndexer() {
+    // populate all groups up front, so that the group map is never modified once published
+    Map<ItemType, EntityGroup> groups = new EnumMap<>(ItemType.class);
+    for (ItemType itemType : ItemType.values()) {
+      groups.put(itemType, new EntityGroup(itemType.isUuid()));
+    }
+    this.entityGroups = CollectionUtil.unmodifiableMap(groups);
+    this.nodeItemToSelectionStatusMap = new ConcurrentHashMap<>();
+    this.partToContainerMap = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Construct a new index containing the entities, selection statuses and part containers of the
+   * provided index.
+   *
+   * @param other
+   *          the index to copy
+   */
+  public ConcurrentIndexer(@NonNull IIndexer other) {
+    this();
+    append(other);
+  }
+
+  @NonNull
+  private EntityGroup getEntityGroup(@NonNull ItemType itemType) {
+    return ObjectUtils.notNull(entityGroups.get(itemType));
+  }
+
+  @Override
+  public void append(@NonNull IIndexer other) {
+    for (ItemType itemType : ItemType.values()) {
+      for (IEntityItem entity : other.getEntitiesByItemType(ObjectUtils.notNull(itemType))) {
+        addItem(entity);
+      }
+    }
+    nodeItemToSelectionStatusMap.putAll(other.getSelectionStatusMap());
+    for (IEntityItem part : other.getEntitiesByItemType(ItemType.PART)) {
+      INodeItem container = other.getPartContainer(part.getInstance());
+      if (container != null) {
+        partToContainerMap.put(part.getInstance(), container);
+      }
+    }
+  }
+
+  protected IEntityItem addItem(@NonNull IEntityItem item) {
+    IEntityItem oldEntity = getEntityGroup(item.getItemType()).put(item.getIdentifier(), item);
+    if (oldEntity != null && LOGGER.isWarnEnabled()) {
+      LOGGER.atWarn().log("Duplicate {} found with identifier {} in index.",
+          oldEntity.getItemType().name().toLowerCase(Locale.ROOT),
+          oldEntity.getIdentifier());
+    }
+    return oldEntity;
+  }
+
+  @NonNull
+  private IEntityItem addItem(
+      @NonNull IRequiredValueModelNodeItem item,
+      @NonNull ItemType itemType,
+      @NonNull String identifier) {
+    IEntityItem retval = new AbstractEntityItem.Builder()
+        .instance(item, itemType)
+        .originalIdentifier(identifier)
+        .source(ObjectUtils.requireNonNull(item.getBaseUri(), "item must have an associated URI"))
+        .build();
+    addItem(retval);
+    return retval;
+  }
+
+  @Override
+  public IEntityItem addRole(IRequiredValueModelNodeItem item) {
+    Role role = (Role) item.getValue();
+    return addItem(item, ItemType.ROLE, ObjectUtils.requireNonNull(role.getId()));
+  }
+
+  @Override
+  public IEntityItem addLocation(IRequiredValueModelNodeItem item) {
+    Location location = (Location) item.getValue();
+    UUID identifier = ObjectUtils.requireNonNull(location.getUuid());
+    return addItem(item, ItemType.LOCATION, ObjectUtils.notNull(identifier.toString()));
+  }
+
+  @Override
+  public IEntityItem addParty(IRequiredValueModelNodeItem item) {
+    Party party = (Party) item.getValue();
+    UUID identifier = ObjectUtils.requireNonNull(party.getUuid());
+    return addItem(item, ItemType.PARTY, ObjectUtils.notNull(identifier.toString()));
+  }
+
+  @Override
+  public IEntityItem addGroup(IRequiredValueModelNodeItem item) {
+    CatalogGroup group = (CatalogGroup) item.getValue();
+    String identifier = group.getId();
+    return identifier == null ? null : addItem(item, ItemType.GROUP, identifier);
+  }
+
+  @Override
+  public IEntityItem addControl(IRequiredValueModelNodeItem item) {
+    Control control = (Control) item.getValue();
+    return addItem(item, ItemType.CONTROL, ObjectUtils.requireNonNull(control.getId()));
+  }
+
+  @Override
+  public IEntityItem addParameter(IRequiredValueModelNodeItem item) {
+    Parameter parameter = (Parameter) item.getValue();
+    return addItem(item, ItemType.PARAMETER, ObjectUtils.requireNonNull(parameter.getId()));
+  }
+
+  @Override
+  public IEntityItem addPart(IRequiredValueModelNodeItem item) {
+    ControlPart part = (ControlPart) item.getValue();
+    String identifier = part.getId();
+    return identifier == null ? null : addItem(item, ItemType.PART, identifier);
+  }
+
+  @Override
+  public IEntityItem addPart(IRequiredValueModelNodeItem item, IRequiredValueModelNodeItem container) {
+    IEntityItem retval = addPart(item);
+    if (retval != null) {
+      partToContainerMap.put(item, container);
+    }
+    return retval;
+  }
+
+  @Override
+  public IEntityItem addResource(IRequiredValueModelNodeItem item) {
+    Resource resource = (Resource) item.getValue();
+    UUID identifier = ObjectUtils.requireNonNull(resource.getUuid());
+    return addItem(item, ItemType.RESOURCE, ObjectUtils.notNull(identifier.toString()));
+  }
+
+  @Override
+  public boolean remove(@NonNull IEntityItem entity) {
+    boolean retval = getEntityGroup(entity.getItemType()).remove(entity.getIdentifier(), entity);
+    nodeItemToSelectionStatusMap.remove(entity.getInstance());
+
+    if (LOGGER.isDebugEnabled()) {
+      if (retval) {
+        LOGGER.atDebug().log("Removing {} '{}' from index.", entity.getItemType().name(), entity.getIdentifier());
+      } else {
+        LOGGER.atDebug().log("The {} entity '{}' was not found in the index to remove.",
+            entity.getItemType().name(),
+            entity.getIdentifier());
+      }
+    }
+    return retval;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * As for a {@link BasicIndexer}, the lookup of a UUID-formatted identifier of a UUID-based item
+   * type is always insensitive to case.
+   */
+  @Override
+  public IEntityItem getEntity(@NonNull ItemType itemType, @NonNull String identifier, boolean normalize) {
+    return getEntityGroup(itemType).get(identifier);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The returned collection is a weakly consistent view, which reflects some or all of the changes
+   * made to the index while it is being iterated.
+   */
+  @Override
+  public Collection<IEntityItem> getEntitiesByItemType(@NonNull ItemType itemType) {
+    return getEntityGroup(itemType).values();
+  }
+
+  @Override
+  public Map<ItemType, Map<String, IEntityItem>> getEntities() {
+    Map<ItemType, Map<String, IEntityItem>> retval = new EnumMap<>(ItemType.class);
+    for (Map.Entry<ItemType, EntityGroup> entry : entityGroups.entrySet()) {
+      Map<String, IEntityItem> identifierToEntityMap = new LinkedHashMap<>();
+      for (IEntityItem entity : entry.getValue().values()) {
+        identifierToEntityMap.put(entity.getIdentifier(), entity);
+      }
+      if (!identifierToEntityMap.isEmpty()) {
+        retval.put(entry.getKey(), CollectionUtil.unmodifiableMap(identifierToEntityMap));
+      }
+    }
+    return CollectionUtil.unmodifiableMap(retval);
+  }
+
+  @Override
+  public SelectionStatus setSelectionStatus(@NonNull INodeItem item, @NonNull SelectionStatus selectionStatus) {
+    SelectionStatus retval = SelectionStatus.UNKNOWN.equals(selectionStatus)
+        ? nodeItemToSelectionStatusMap.remove(item)
+        : nodeItemToSelectionStatusMap.put(item, selectionStatus);
+    return retval == null ? SelectionStatus.UNKNOWN : retval;
+  }
+
+  @Override
+  public Map<INodeItem, SelectionStatus> getSelectionStatusMap() {
+    return CollectionUtil.unmodifiableMap(nodeItemToSelectionStatusMap);
+  }
+
+  @Override
+  public SelectionStatus getSelectionStatus(@NonNull INodeItem item) {
+    SelectionStatus retval = nodeItemToSelectionStatusMap.get(item);
+    return retval == null ? SelectionStatus.UNKNOWN : retval;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The recorded part containers are kept, since they do not depend on the selection.
+   */
+  @Override
+  public void resetSelectionStatus() {
+    nodeItemToSelectionStatusMap.clear();
+  }
+
+  @Override
+  public INodeItem getPartContainer(@NonNull INodeItem part) {
+    return partToContainerMap.get(part);
+  }
+
+  @Override
+  public boolean isSelected(@NonNull IEntityItem entity) {
+    boolean retval;
+    switch (entity.getItemType()) {
+    case CONTROL:
+    case GROUP:
+      retval = SelectionStatus.SELECTED.equals(getSelectionStatus(entity.getInstance()));
+      break;
+    case PART: {
+      IRequiredValueModelNodeItem instance = entity.getInstance();
+      SelectionStatus status = getSelectionStatus(instance);
+      if (SelectionStatus.UNKNOWN.equals(status)) {
+        // the part has the status of its container
+        INodeItem containerItem = partToContainerMap.computeIfAbsent(instance,
+            key -> BasicIndexer.CONTAINER_METAPATH.evaluateAs(key, ResultType.NODE));
+        status = getSelectionStatus(ObjectUtils.notNull(containerItem));
+      }
+      retval = SelectionStatus.SELECTED.equals(status);
+      break;
+    }
+    case PARAMETER:
+    case LOCATION:
+    case PARTY:
+    case RESOURCE:
+    case ROLE:
+      // always "selected"
+      retval = true;
+      break;
+    default:
+      throw new UnsupportedOperationException(entity.getItemType().name());
+    }
+    return retval;
+  }
+
+  /**
+   * The entities of a single item type.
+   * <p>
+   * An entity is located by its identifier, and is also held in a map ordered by its sequence number,
+   * which provides the insertion order without sorting. Both maps are updated while the identifier's
+   * entry is locked by the identifier map, so they agree for each identifier.
+   */
+  private static final class EntityGroup {
+    private final boolean uuidKeys;
+    @NonNull
+    private final ConcurrentMap<String, Entry> identifierToEntryMap = new ConcurrentHashMap<>();
+    @NonNull
+    private final ConcurrentNavigableMap<Long, IEntityItem> sequenceToEntityMap = new ConcurrentSkipListMap<>();
+    @NonNull
+    private final Collection<IEntityItem> values = ObjectUtils.notNull(
+        Collections.unmodifiableCollection(sequenceToEntityMap.values()));
+    @NonNull
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    private EntityGroup(boolean uuidKeys) {
+      this.uuidKeys = uuidKeys;
+    }
+
+    @NonNull
+    private String toKey(@NonNull String identifier) {
+      return uuidKeys && EntityTable.isUuid(identifier)
+          ? ObjectUtils.notNull(identifier.toLowerCase(Locale.ROOT))
+          : identifier;
+    }
+
+    @Nullable
+    private IEntityItem get(@NonNull String identifier) {
+      Entry entry = identifierToEntryMap.get(toKey(identifier));
+      return entry == null ? null : entry.entity;
+    }
+
+    @Nullable
+    private IEntityItem put(@NonNull String identifier, @NonNull IEntityItem entity) {
+      IEntityItem[] oldEntity = new IEntityItem[1];
+      identifierToEntryMap.compute(toKey(identifier), (key, entry) -> {
+        // a replaced entity keeps its position
+        long sequence = entry == null ? nextSequence.getAndIncrement() : entry.sequence;
+        oldEntity[0] = entry == null ? null : entry.entity;
+        sequenceToEntityMap.put(sequence, entity);
+        return new Entry(sequence, entity);
+      });
+      return oldEntity[0];
+    }
+
+    private boolean remove(@NonNull String identifier, @NonNull IEntityItem entity) {
+      boolean[] removed = new boolean[1];
+      identifierToEntryMap.computeIfPresent(toKey(identifier), (key, entry) -> {
+        removed[0] = entry.entity == entity;
+        if (removed[0]) {
+          sequenceToEntityMap.remove(entry.sequence);
+        }
+        return removed[0] ? null : entry;
+      });
+      return removed[0];
+    }
+
+    @NonNull
+    private Collection<IEntityItem> values() {
+      return values;
+    }
+  }
+
+  private static final class Entry {
+    private final long sequence;
+    @NonNull
+    private final IEntityItem entity;
+
+    private Entry(long sequence, @NonNull IEntityItem entity) {
+      this.sequence = sequence;
+      this.entity = entity;
+    }
+  }
+}
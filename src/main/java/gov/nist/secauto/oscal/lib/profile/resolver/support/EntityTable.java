@@ -0,0 +1,449 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.support;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * An insertion ordered table of the entities of a single item type, keyed by identifier.
+ * <p>
+ * Entities are held in insertion ordered arrays, which are located using an open addressing hash
+ * table with linear probing. In a table for a UUID-based item type, identifiers in the UUID format
+ * are held as a pair of {@code long} values and are matched without regard to case. Lookups do not
+ * allocate.
+ * <p>
+ * This class is not thread safe.
+ */
+final class EntityTable {
+  private static final int INITIAL_CAPACITY = 8;
+  private static final int UUID_LENGTH = 36;
+
+  private final boolean uuidKeys;
+  /**
+   * The entities in insertion order. Removed entities are {@code null} until the table is compacted.
+   */
+  @NonNull
+  private IEntityItem[] entities;
+  /**
+   * The string keys of the entities, or {@code null} for an entity keyed by a UUID.
+   */
+  @NonNull
+  private String[] stringKeys;
+  @NonNull
+  private long[] mostSignificantBits;
+  @NonNull
+  private long[] leastSignificantBits;
+  /**
+   * The position in the entity arrays plus one of the entity in each hash slot, or {@code 0} for an
+   * empty slot.
+   */
+  @NonNull
+  private int[] slots;
+  /**
+   * The number of used positions in the entity arrays, including removed entities.
+   */
+  private int count;
+  /**
+   * The number of entities in the table.
+   */
+  private int size;
+
+  /**
+   * Construct a new table.
+   * 
+   * @param uuidKeys
+   *          {@code true} if identifiers in the UUID format are to be keyed by their value, or
+   *          {@code false} if all identifiers are matched exactly
+   */
+  EntityTable(boolean uuidKeys) {
+    this.uuidKeys = uuidKeys;
+    this.entities = new IEntityItem[INITIAL_CAPACITY];
+    this.stringKeys = new String[INITIAL_CAPACITY];
+    this.mostSignificantBits = new long[uuidKeys ? INITIAL_CAPACITY : 0];
+    this.leastSignificantBits = new long[uuidKeys ? INITIAL_CAPACITY : 0];
+    this.slots = new int[INITIAL_CAPACITY * 2];
+  }
+
+  /**
+   * Get the number of entities in the table.
+   * 
+   * @return the number of entities
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Get the entities in the table in insertion order.
+   * <p>
+   * The returned collection is a view that reflects later changes to the table.
+   * 
+   * @return the entities
+   */
+  @NonNull
+  Collection<IEntityItem> values() {
+    return new Values();
+  }
+
+  /**
+   * Lookup the entity with the provided identifier.
+   * 
+   * @param identifier
+   *          the identifier
+   * @return the entity or {@code null} if no entity has the identifier
+   */
+  @Nullable
+  IEntityItem get(@NonNull String identifier) {
+    int position = uuidKeys && isUuid(identifier)
+        ? find(parseMostSignificantBits(identifier), parseLeastSignificantBits(identifier))
+        : find(identifier);
+    return position < 0 ? null : entities[position];
+  }
+
+  /**
+   * Lookup the entity with the provided UUID identifier.
+   * 
+   * @param identifier
+   *          the identifier
+   * @return the entity or {@code null} if no entity has the identifier
+   */
+  @Nullable
+  IEntityItem get(@NonNull UUID identifier) {
+    int position = uuidKeys
+        ? find(identifier.getMostSignificantBits(), identifier.getLeastSignificantBits())
+        : find(identifier.toString());
+    return position < 0 ? null : entities[position];
+  }
+
+  /**
+   * Add the entity using the provided identifier. An existing entity with the same identifier is
+   * replaced, keeping its position in the insertion order.
+   * 
+   * @param identifier
+   *          the identifier
+   * @param entity
+   *          the entity to add
+   * @return the replaced entity or {@code null} if no entity had the identifier
+   */
+  @Nullable
+  IEntityItem put(@NonNull String identifier, @NonNull IEntityItem entity) {
+    boolean uuid = uuidKeys && isUuid(identifier);
+    long msb = uuid ? parseMostSignificantBits(identifier) : 0;
+    long lsb = uuid ? parseLeastSignificantBits(identifier) : 0;
+
+    int position = uuid ? find(msb, lsb) : find(identifier);
+    if (position >= 0) {
+      IEntityItem retval = entities[position];
+      entities[position] = entity;
+      return retval;
+    }
+
+    if (count == entities.length) {
+      resize();
+    }
+
+    position = count++;
+    entities[position] = entity;
+    if (uuid) {
+      mostSignificantBits[position] = msb;
+      leastSignificantBits[position] = lsb;
+    } else {
+      stringKeys[position] = identifier;
+    }
+    insertSlot(position);
+    size++;
+    return null;
+  }
+
+  /**
+   * Remove the entity with the provided identifier, if it is the provided entity.
+   * 
+   * @param identifier
+   *          the identifier
+   * @param entity
+   *          the entity to remove
+   * @return {@code true} if the entity was removed, or {@code false} otherwise
+   */
+  boolean remove(@NonNull String identifier, @NonNull IEntityItem entity) {
+    boolean uuid = uuidKeys && isUuid(identifier);
+    long msb = uuid ? parseMostSignificantBits(identifier) : 0;
+    long lsb = uuid ? parseLeastSignificantBits(identifier) : 0;
+
+    int mask = slots.length - 1;
+    int slot = (uuid ? hash(msb, lsb) : hash(identifier)) & mask;
+    while (slots[slot] != 0) {
+      int position = slots[slot] - 1;
+      if (uuid ? matches(position, msb, lsb) : matches(position, identifier)) {
+        if (!entity.equals(entities[position])) {
+          return false;
+        }
+        deleteSlot(slot);
+        entities[position] = null;
+        stringKeys[position] = null;
+        size--;
+        return true;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return false;
+  }
+
+  private int find(@NonNull String identifier) {
+    int mask = slots.length - 1;
+    int slot = hash(identifier) & mask;
+    while (slots[slot] != 0) {
+      int position = slots[slot] - 1;
+      if (matches(position, identifier)) {
+        return position;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private int find(long msb, long lsb) {
+    int mask = slots.length - 1;
+    int slot = hash(msb, lsb) & mask;
+    while (slots[slot] != 0) {
+      int position = slots[slot] - 1;
+      if (matches(position, msb, lsb)) {
+        return position;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private boolean matches(int position, @NonNull String identifier) {
+    return identifier.equals(stringKeys[position]);
+  }
+
+  private boolean matches(int position, long msb, long lsb) {
+    return stringKeys[position] == null
+        && mostSignificantBits[position] == msb
+        && leastSignificantBits[position] == lsb;
+  }
+
+  private int hashAt(int position) {
+    String key = stringKeys[position];
+    return key == null
+        ? hash(mostSignificantBits[position], leastSignificantBits[position])
+        : hash(key);
+  }
+
+  private static int hash(@NonNull String identifier) {
+    int hash = identifier.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  private static int hash(long msb, long lsb) {
+    long hash = msb * 0x9E3779B97F4A7C15L + lsb;
+    int retval = (int) (hash ^ (hash >>> 32));
+    return retval ^ (retval >>> 16);
+  }
+
+  private void insertSlot(int position) {
+    int mask = slots.length - 1;
+    int slot = hashAt(position) & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    slots[slot] = position + 1;
+  }
+
+  /**
+   * Empty a hash slot, shifting back later entries of the probe sequence so that no tombstone is
+   * needed.
+   * 
+   * @param slot
+   *          the slot to empty
+   */
+  private void deleteSlot(int slot) {
+    int mask = slots.length - 1;
+    int hole = slot;
+    int current = slot;
+    while (true) {
+      current = (current + 1) & mask;
+      int value = slots[current];
+      if (value == 0) {
+        break;
+      }
+      int home = hashAt(value - 1) & mask;
+      // move the entry if its home slot does not lie cyclically within (hole, current]
+      if (((current - home) & mask) >= ((current - hole) & mask)) {
+        slots[hole] = value;
+        hole = current;
+      }
+    }
+    slots[hole] = 0;
+  }
+
+  /**
+   * Make room for a new entity, compacting removed entities and growing the arrays if needed.
+   */
+  private void resize() {
+    int capacity = entities.length;
+    if (size * 2 > capacity) {
+      capacity *= 2;
+    }
+
+    IEntityItem[] newEntities = new IEntityItem[capacity];
+    String[] newStringKeys = new String[capacity];
+    long[] newMostSignificantBits = new long[uuidKeys ? capacity : 0];
+    long[] newLeastSignificantBits = new long[uuidKeys ? capacity : 0];
+
+    int newCount = 0;
+    for (int position = 0; position < count; position++) {
+      IEntityItem entity = entities[position];
+      if (entity != null) {
+        newEntities[newCount] = entity;
+        newStringKeys[newCount] = stringKeys[position];
+        if (uuidKeys) {
+          newMostSignificantBits[newCount] = mostSignificantBits[position];
+          newLeastSignificantBits[newCount] = leastSignificantBits[position];
+        }
+        newCount++;
+      }
+    }
+
+    this.entities = newEntities;
+    this.stringKeys = newStringKeys;
+    this.mostSignificantBits = newMostSignificantBits;
+    this.leastSignificantBits = newLeastSignificantBits;
+    this.count = newCount;
+    this.slots = new int[capacity * 2];
+    for (int position = 0; position < newCount; position++) {
+      insertSlot(position);
+    }
+  }
+
+  /**
+   * Determine if the identifier is in the UUID format, without regard to case.
+   * 
+   * @param identifier
+   *          the identifier
+   * @return {@code true} if the identifier is in the UUID format, or {@code false} otherwise
+   */
+  static boolean isUuid(@NonNull String identifier) {
+    if (identifier.length() != UUID_LENGTH) {
+      return false;
+    }
+    for (int index = 0; index < UUID_LENGTH; index++) {
+      char ch = identifier.charAt(index);
+      if (index == 8 || index == 13 || index == 18 || index == 23) {
+        if (ch != '-') {
+          return false;
+        }
+      } else if (hexValue(ch) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long parseMostSignificantBits(@NonNull String identifier) {
+    return parseHex(identifier, 0, 18);
+  }
+
+  private static long parseLeastSignificantBits(@NonNull String identifier) {
+    return parseHex(identifier, 19, UUID_LENGTH);
+  }
+
+  private static long parseHex(@NonNull String identifier, int start, int end) {
+    long retval = 0;
+    for (int index = start; index < end; index++) {
+      char ch = identifier.charAt(index);
+      if (ch != '-') {
+        retval = (retval << 4) | hexValue(ch);
+      }
+    }
+    return retval;
+  }
+
+  private static int hexValue(char ch) {
+    int retval;
+    if (ch >= '0' && ch <= '9') {
+      retval = ch - '0';
+    } else if (ch >= 'a' && ch <= 'f') {
+      retval = ch - 'a' + 10;
+    } else if (ch >= 'A' && ch <= 'F') {
+      retval = ch - 'A' + 10;
+    } else {
+      retval = -1;
+    }
+    return retval;
+  }
+
+  /**
+   * A view of the entities in a table.
+   */
+  private final class Values
+      extends AbstractCollection<IEntityItem> {
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Iterator<IEntityItem> iterator() {
+      return new Iterator<>() {
+        private int position = advance(0);
+
+        private int advance(int from) {
+          int retval = from;
+          while (retval < count && entities[retval] == null) {
+            retval++;
+          }
+          return retval;
+        }
+
+        @Override
+        public boolean hasNext() {
+          return position < count;
+        }
+
+        @Override
+        public IEntityItem next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          IEntityItem retval = entities[position];
+          position = advance(position + 1);
+          return retval;
+        }
+      };
+    }
+  }
+}
@@ -180,6 +180,24 @@ public interface IIndexer {
   @Nullable
   IEntityItem addPart(@NonNull IRequiredValueModelNodeItem part);
 
+  /**
+   * Add a part, along with the control or group that contains it.
+   * <p>
+   * Implementations can use the container to determine the selection status of the part.
+   *
+   * @param part
+   *          the part to add
+   * @param container
+   *          the nearest control or group containing the part
+   * @return the new entity or {@code null} if the part has no identifier
+   */
+  @Nullable
+  default IEntityItem addPart(
+      @NonNull IRequiredValueModelNodeItem part,
+      @NonNull IRequiredValueModelNodeItem container) {
+    return addPart(part);
+  }
+
   @NonNull
   IEntityItem addResource(@NonNull IRequiredValueModelNodeItem resource);
 
@@ -237,6 +255,19 @@ public interface IIndexer {
 
   void resetSelectionStatus();
 
+  /**
+   * Get the control or group recorded as containing a part, which determines the selection status of
+   * the part.
+   * 
+   * @param part
+   *          the part's node item
+   * @return the container, or {@code null} if no container was recorded for the part
+   */
+  @Nullable
+  default INodeItem getPartContainer(@NonNull INodeItem part) {
+    return null;
+  }
+
   void append(@NonNull IIndexer result);
 
   Map<ItemType, Map<String, IEntityItem>> getEntities();
@@ -0,0 +1,166 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.support;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
+
+import java.util.Arrays;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Assigns dense ordinals to node items, in the order the items are first seen, so that per-node
+ * state can be held in arrays or bit sets indexed by ordinal.
+ * <p>
+ * Node items are matched by identity. The ordinals are located using an open addressing hash table
+ * with linear probing, which holds only the ordinals, so each assigned item costs a single array
+ * reference and two hash slots.
+ * <p>
+ * This class is not thread safe.
+ */
+public final class NodeItemOrdinals {
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * The node items by ordinal.
+   */
+  @NonNull
+  private INodeItem[] items;
+  /**
+   * The ordinal plus one of the item in each hash slot, or {@code 0} for an empty slot.
+   */
+  @NonNull
+  private int[] slots;
+  private int size;
+
+  /**
+   * Construct a new, empty set of ordinals.
+   */
+  public NodeItemOrdinals() {
+    this.items = new INodeItem[INITIAL_CAPACITY];
+    this.slots = new int[INITIAL_CAPACITY * 2];
+  }
+
+  /**
+   * Get the number of ordinals assigned, which is one more than the largest ordinal.
+   * 
+   * @return the number of ordinals
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the item assigned the provided ordinal.
+   * 
+   * @param ordinal
+   *          the ordinal, which must be less than {@link #size()}
+   * @return the item
+   */
+  @NonNull
+  public INodeItem getItem(int ordinal) {
+    if (ordinal < 0 || ordinal >= size) {
+      throw new IndexOutOfBoundsException(ordinal);
+    }
+    INodeItem retval = items[ordinal];
+    assert retval != null;
+    return retval;
+  }
+
+  /**
+   * Get the ordinal of the provided item.
+   * 
+   * @param item
+   *          the item
+   * @return the ordinal or {@code -1} if no ordinal is assigned to the item
+   */
+  public int lookup(@NonNull INodeItem item) {
+    int mask = slots.length - 1;
+    int slot = hash(item) & mask;
+    int value = slots[slot];
+    while (value != 0) {
+      if (items[value - 1] == item) {
+        return value - 1;
+      }
+      slot = (slot + 1) & mask;
+      value = slots[slot];
+    }
+    return -1;
+  }
+
+  /**
+   * Get the ordinal of the provided item, assigning the next ordinal if the item does not have one.
+   * 
+   * @param item
+   *          the item
+   * @return the ordinal
+   */
+  public int assign(@NonNull INodeItem item) {
+    int mask = slots.length - 1;
+    int slot = hash(item) & mask;
+    int value = slots[slot];
+    while (value != 0) {
+      if (items[value - 1] == item) {
+        return value - 1;
+      }
+      slot = (slot + 1) & mask;
+      value = slots[slot];
+    }
+
+    int retval = size;
+    if (retval == items.length) {
+      grow();
+      return assign(item);
+    }
+    items[retval] = item;
+    slots[slot] = retval + 1;
+    size++;
+    return retval;
+  }
+
+  private void grow() {
+    int capacity = items.length * 2;
+    this.items = Arrays.copyOf(items, capacity);
+    this.slots = new int[capacity * 2];
+
+    int mask = slots.length - 1;
+    for (int ordinal = 0; ordinal < size; ordinal++) {
+      int slot = hash(items[ordinal]) & mask;
+      while (slots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = ordinal + 1;
+    }
+  }
+
+  private static int hash(@NonNull Object item) {
+    int hash = System.identityHashCode(item);
+    // identity hash codes are not well distributed in the low bits
+    hash *= 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -27,8 +27,11 @@
 package gov.nist.secauto.oscal.lib.profile.resolver.support;
 
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
 
+import java.util.UUID;
+
 import edu.umd.cs.findbugs.annotations.NonNull;
 
 public class ReassignmentIndexer
@@ -59,6 +62,12 @@ public class ReassignmentIndexer
     return builder;
   }
 
+  @Override
+  public IEntityItem getEntity(ItemType itemType, UUID identifier) {
+    // the reassignment is based on the identifier's text
+    return getEntity(itemType, ObjectUtils.notNull(identifier.toString()), false);
+  }
+
   @Override
   public IEntityItem getEntity(ItemType itemType, String identifier, boolean normalize) {
     // reassign the identifier
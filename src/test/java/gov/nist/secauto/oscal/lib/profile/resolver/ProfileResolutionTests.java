@@ -27,17 +27,31 @@
 package gov.nist.secauto.oscal.lib.profile.resolver;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import gov.nist.secauto.metaschema.binding.io.DefaultBoundLoader;
 import gov.nist.secauto.metaschema.binding.io.Format;
 import gov.nist.secauto.metaschema.binding.io.ISerializer;
 import gov.nist.secauto.metaschema.model.common.metapath.DynamicContext;
 import gov.nist.secauto.metaschema.model.common.metapath.StaticContext;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.OscalBindingContext;
 import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.Modify;
+import gov.nist.secauto.oscal.lib.model.Profile;
+import gov.nist.secauto.oscal.lib.profile.resolver.cache.DefaultResolvedCatalogCache;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionCounter;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.ResolutionPhase;
+import gov.nist.secauto.oscal.lib.profile.resolver.policy.ReferenceGraph;
+import gov.nist.secauto.oscal.lib.profile.resolver.policy.ReferenceKind;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.ImportCycleException;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
 
 import net.sf.saxon.s9api.Processor;
 import net.sf.saxon.s9api.SaxonApiException;
@@ -51,8 +65,10 @@ import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
+import org.xml.sax.InputSource;
 import org.xmlunit.assertj3.XmlAssert;
 
 import java.io.File;
@@ -60,11 +76,26 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
@@ -86,8 +117,9 @@ class ProfileResolutionTests {
   static void setup() throws SaxonApiException {
     DynamicContext context = new StaticContext().newDynamicContext();
     context.setDocumentLoader(new DefaultBoundLoader(OscalBindingContext.instance()));
-    profileResolver = new ProfileResolver();
-    profileResolver.setDynamicContext(context);
+    profileResolver = ProfileResolver.builder()
+        .dynamicContext(context)
+        .build();
 
     processor = new Processor(false);
     XsltCompiler comp = processor.newXsltCompiler();
@@ -217,6 +249,625 @@ class ProfileResolutionTests {
     assertNotNull(resolvedCatalog);
   }
 
+  @Test
+  void testConcurrentImports() throws IOException, ProfileResolutionException {
+    Path profilePath = Paths.get(JUNIT_TEST_PATH, "content/test-multiple-imports-profile.xml");
+
+    ProfileResolver sequentialResolver = new ProfileResolver();
+    Catalog expected = (Catalog) sequentialResolver.resolveProfile(profilePath).getValue();
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    Catalog actual;
+    try {
+      ProfileResolver concurrentResolver = ProfileResolver.builder()
+          .importExecutor(executor)
+          .build();
+      actual = (Catalog) concurrentResolver.resolveProfile(profilePath).getValue();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    XmlAssert.assertThat(toNormalizedXml(actual)).and(toNormalizedXml(expected)).areIdentical();
+  }
+
+  @Test
+  void testRepeatedImportResolvedOnce() throws IOException, ProfileResolutionException {
+    Path profilePath = Paths.get(JUNIT_TEST_PATH, "content/test-multiple-imports-profile.xml");
+
+    Map<String, Integer> loads = new ConcurrentHashMap<>();
+    ProfileResolver resolver = new ProfileResolver() {
+      @Override
+      protected IDocumentNodeItem loadImport(InputSource source, ResolutionContext context) throws IOException {
+        loads.merge(source.getSystemId(), 1, Integer::sum);
+        return super.loadImport(source, context);
+      }
+    };
+    Catalog actual = (Catalog) resolver.resolveProfile(profilePath).getValue();
+
+    // the abc-simple catalog is imported twice, but is only loaded once
+    Assertions.assertThat(loads).hasSize(2).allSatisfy((uri, count) -> assertEquals(1, count, uri));
+
+    Catalog expected = (Catalog) new ProfileResolver().resolveProfile(profilePath).getValue();
+    XmlAssert.assertThat(toNormalizedXml(actual)).and(toNormalizedXml(expected)).areIdentical();
+  }
+
+  @Test
+  void testResolutionListener() throws IOException, ProfileResolutionException {
+    Path profilePath = Paths.get(JUNIT_TEST_PATH, "content/test-multiple-imports-profile.xml");
+
+    Set<ResolutionPhase> phases = ConcurrentHashMap.newKeySet();
+    List<URI> imports = new CopyOnWriteArrayList<>();
+    Map<ResolutionCounter, Long> counters = new ConcurrentHashMap<>();
+    ProfileResolver resolver = ProfileResolver.builder().resolutionListener(new IResolutionListener() {
+      @Override
+      public void phaseCompleted(URI document, ResolutionPhase phase, long wallNanos, long cpuNanos) {
+        phases.add(phase);
+      }
+
+      @Override
+      public void importCompleted(URI profile, URI importedDocument, long wallNanos, long cpuNanos) {
+        imports.add(importedDocument);
+      }
+
+      @Override
+      public void increment(ResolutionCounter counter, long amount) {
+        counters.merge(counter, amount, Long::sum);
+      }
+    }).build();
+    resolver.resolveProfile(profilePath);
+
+    Assertions.assertThat(phases).contains(
+        ResolutionPhase.LOAD,
+        ResolutionPhase.SELECTION,
+        ResolutionPhase.REFERENCE_FILTERING,
+        ResolutionPhase.MERGE);
+    Assertions.assertThat(imports).hasSize(3);
+    Assertions.assertThat(counters.get(ResolutionCounter.CONTROLS_VISITED))
+        .isGreaterThanOrEqualTo(counters.get(ResolutionCounter.CONTROLS_SELECTED))
+        .isPositive();
+    Assertions.assertThat(counters.get(ResolutionCounter.ENTITIES_PRUNED)).isPositive();
+  }
+
+  @Test
+  void testResolveAll() throws IOException, ProfileResolutionException {
+    URI multipleImportsProfile = Paths.get(JUNIT_TEST_PATH, "content/test-multiple-imports-profile.xml")
+        .toAbsolutePath().toUri();
+    URI oscalVersionProfile = Paths.get(JUNIT_TEST_PATH, "content/test-oscal-version-profile.xml")
+        .toAbsolutePath().toUri();
+
+    ProfileResolver resolver = ProfileResolver.builder()
+        .importCopyMode(ProfileResolver.ImportCopyMode.SELECTIVE)
+        .build();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    Map<URI, IDocumentNodeItem> resolved;
+    try {
+      resolved = resolver.resolveAll(List.of(multipleImportsProfile, oscalVersionProfile), executor);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assertions.assertThat(resolved).containsOnlyKeys(multipleImportsProfile, oscalVersionProfile);
+    for (Map.Entry<URI, IDocumentNodeItem> entry : resolved.entrySet()) {
+      Catalog expected = (Catalog) new ProfileResolver().resolveProfile(Paths.get(entry.getKey())).getValue();
+      Catalog actual = (Catalog) entry.getValue().getValue();
+      XmlAssert.assertThat(toNormalizedXml(actual)).and(toNormalizedXml(expected)).areIdentical();
+    }
+  }
+
+  @Test
+  void testResolveAllSharesImportedProfiles(@TempDir Path tempDir) throws IOException, ProfileResolutionException {
+    URI baseProfile = Paths.get(JUNIT_TEST_PATH, "content/test-multiple-imports-profile.xml")
+        .toAbsolutePath().toUri();
+    List<URI> profileUris = List.of(
+        baseProfile,
+        writeImportingProfile(tempDir, "tailored-1.xml", baseProfile.toASCIIString()),
+        writeImportingProfile(tempDir, "tailored-2.xml", baseProfile.toASCIIString()));
+
+    Map<URI, Integer> resolutions = new ConcurrentHashMap<>();
+    ProfileResolver resolver = ProfileResolver.builder().resolutionListener(new IResolutionListener() {
+      @Override
+      public void resolutionCompleted(URI profile, long wallNanos, long cpuNanos) {
+        resolutions.merge(profile, 1, Integer::sum);
+      }
+    }).build();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    Map<URI, IDocumentNodeItem> resolved;
+    try {
+      resolved = resolver.resolveAll(profileUris, executor);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assertions.assertThat(resolved).containsOnlyKeys(profileUris);
+    // the shared profile is resolved once for the batch
+    Assertions.assertThat(resolutions).hasSize(profileUris.size())
+        .allSatisfy((uri, count) -> assertEquals(1, count, uri.toString()));
+    for (Map.Entry<URI, IDocumentNodeItem> entry : resolved.entrySet()) {
+      Catalog expected = (Catalog) new ProfileResolver().resolveProfile(Paths.get(entry.getKey())).getValue();
+      Catalog actual = (Catalog) entry.getValue().getValue();
+      XmlAssert.assertThat(toNormalizedXml(actual)).and(toNormalizedXml(expected)).areIdentical();
+    }
+  }
+
+  @Test
+  void testResolveAllImportCycle(@TempDir Path tempDir) throws IOException {
+    URI first = writeImportingProfile(tempDir, "first.xml", "second.xml");
+    URI second = writeImportingProfile(tempDir, "second.xml", "first.xml");
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      IOException ex = assertThrows(IOException.class,
+          () -> new ProfileResolver().resolveAll(List.of(first, second), executor));
+      MatcherAssert.assertThat(ex.getCause(), CoreMatchers.instanceOf(ImportCycleException.class));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testConcurrentImportsResolveSharedImportOnce(@TempDir Path tempDir)
+      throws IOException, ProfileResolutionException {
+    String baseProfile = Paths.get(JUNIT_TEST_PATH, "content/test-multiple-imports-profile.xml")
+        .toAbsolutePath().toUri().toASCIIString();
+    writeImportingProfile(tempDir, "tailored-1.xml", baseProfile);
+    writeImportingProfile(tempDir, "tailored-2.xml", baseProfile);
+    URI diamondProfile = writeImportingProfile(tempDir, "diamond.xml", "tailored-1.xml", "tailored-2.xml");
+
+    Map<URI, Integer> resolutions = new ConcurrentHashMap<>();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    ProfileResolver resolver = new ProfileResolver(ProfileResolver.builder().importExecutor(executor)) {
+      @Override
+      protected IDocumentNodeItem resolve(IDocumentNodeItem profileOrCatalog, ResolutionContext context)
+          throws IOException, ProfileResolutionException {
+        resolutions.merge(profileOrCatalog.getDocumentUri(), 1, Integer::sum);
+        return super.resolve(profileOrCatalog, context);
+      }
+    };
+
+    IDocumentNodeItem resolved;
+    try {
+      resolved = resolver.resolveProfile(Paths.get(diamondProfile));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // both branches of the diamond import the base profile, which is only resolved once
+    Assertions.assertThat(resolutions).allSatisfy((uri, count) -> assertEquals(1, count, uri.toString()));
+
+    Catalog expected = (Catalog) new ProfileResolver().resolveProfile(Paths.get(diamondProfile)).getValue();
+    Catalog actual = (Catalog) resolved.getValue();
+    XmlAssert.assertThat(toNormalizedXml(actual)).and(toNormalizedXml(expected)).areIdentical();
+  }
+
+  @Test
+  void testConcurrentImportsImportCycle(@TempDir Path tempDir) throws IOException {
+    writeImportingProfile(tempDir, "first.xml", "second.xml");
+    writeImportingProfile(tempDir, "second.xml", "first.xml");
+    String catalog = Paths.get(JUNIT_TEST_PATH, "content/test-catalog.xml")
+        .toAbsolutePath().toUri().toASCIIString();
+    URI profile = writeImportingProfile(tempDir, "profile.xml", catalog, "first.xml");
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    ProfileResolver resolver = ProfileResolver.builder()
+        .importExecutor(executor)
+        .build();
+    try {
+      IOException ex = assertThrows(IOException.class, () -> resolver.resolveProfile(Paths.get(profile)));
+      MatcherAssert.assertThat(ex.getCause(), CoreMatchers.instanceOf(ImportCycleException.class));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @NonNull
+  private static URI writeImportingProfile(
+      @NonNull Path directory,
+      @NonNull String fileName,
+      @NonNull String... hrefs) throws IOException {
+    StringBuilder imports = new StringBuilder();
+    for (String href : hrefs) {
+      imports.append("  <import href=\"").append(href).append("\">\n")
+          .append("    <include-all/>\n")
+          .append("  </import>\n");
+    }
+
+    Path path = directory.resolve(fileName);
+    Files.writeString(path, "<profile xmlns=\"http://csrc.nist.gov/ns/oscal/1.0\" uuid=\"" + UUID.randomUUID() + "\">\n"
+        + "  <metadata>\n"
+        + "    <title>" + fileName + "</title>\n"
+        + "    <last-modified>2022-01-01T00:00:00Z</last-modified>\n"
+        + "    <version>1.0</version>\n"
+        + "    <oscal-version>1.0.4</oscal-version>\n"
+        + "  </metadata>\n"
+        + imports
+        + "</profile>\n");
+    return ObjectUtils.notNull(path.toAbsolutePath().toUri());
+  }
+
+  private static String toNormalizedXml(@NonNull Catalog catalog) throws IOException {
+    // the generated identity and timestamp differ between resolutions
+    catalog.setUuid(UUID.fromString("00000000-0000-4000-8000-000000000000"));
+    catalog.getMetadata().setLastModified(ZonedDateTime.of(2022, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+    return toXml(catalog);
+  }
+
+  private static String toXml(@NonNull Catalog catalog) throws IOException {
+    StringWriter writer = new StringWriter();
+    OscalBindingContext.instance().newSerializer(Format.XML, Catalog.class).serialize(catalog, writer);
+    return writer.toString();
+  }
+
+  @Test
+  void testResolvedCatalogCache(@TempDir Path cacheDir) throws IOException, ProfileResolutionException {
+    Path profilePath = Paths.get(JUNIT_TEST_PATH, "content/test-multiple-imports-profile.xml");
+
+    ProfileResolver resolver = ProfileResolver.builder()
+        .resolvedCatalogCache(new DefaultResolvedCatalogCache(4, cacheDir))
+        .build();
+
+    IDocumentNodeItem first = resolver.resolveProfile(profilePath);
+    Catalog firstCatalog = (Catalog) first.getValue();
+    UUID firstUuid = firstCatalog.getUuid();
+    ZonedDateTime firstLastModified = firstCatalog.getMetadata().getLastModified();
+    String expected = toNormalizedXml(firstCatalog);
+
+    // modifying a resolved catalog does not affect the cached catalog
+    firstCatalog.getMetadata().setVersion("modified");
+
+    IDocumentNodeItem second = resolver.resolveProfile(profilePath);
+    Catalog secondCatalog = (Catalog) second.getValue();
+    assertNotSame(first, second);
+    assertEquals(firstLastModified, secondCatalog.getMetadata().getLastModified());
+    // each caller receives a newly identified catalog
+    assertNotEquals(firstUuid, secondCatalog.getUuid());
+    assertEquals(expected, toNormalizedXml(secondCatalog));
+
+    // a new cache using the same directory loads the stored catalog
+    ProfileResolver restartedResolver = ProfileResolver.builder()
+        .resolvedCatalogCache(new DefaultResolvedCatalogCache(4, cacheDir))
+        .build();
+
+    IDocumentNodeItem third = restartedResolver.resolveProfile(profilePath);
+    Catalog thirdCatalog = (Catalog) third.getValue();
+    assertEquals(first.getDocumentUri(), third.getDocumentUri());
+    assertEquals(firstLastModified, thirdCatalog.getMetadata().getLastModified());
+    assertNotEquals(firstUuid, thirdCatalog.getUuid());
+    assertEquals(expected, toNormalizedXml(thirdCatalog));
+  }
+
+  @Test
+  void testReferenceGraph(@TempDir Path tempDir) throws IOException, ProfileResolutionException {
+    Path profilePath = SyntheticCatalogGenerator.builder()
+        .seed(5)
+        .groupDepth(1)
+        .groupFanOut(2)
+        .controlsPerGroup(2)
+        .enhancementDepth(0)
+        .parametersPerControl(1)
+        .itemsPerStatement(2)
+        .build()
+        .write(tempDir, Format.XML);
+    Path cacheDir = ObjectUtils.notNull(Files.createDirectory(tempDir.resolve("cache")));
+
+    ProfileResolver resolver = ProfileResolver.builder()
+        .resolvedCatalogCache(new DefaultResolvedCatalogCache(4, cacheDir))
+        .build();
+    IDocumentNodeItem profile = OscalBindingContext.instance().newBoundLoader().loadAsNodeItem(profilePath);
+
+    // the cache is bypassed, so each resolution populates its own graph
+    ReferenceGraph first = new ReferenceGraph();
+    resolver.resolve(profile, first);
+    ReferenceGraph second = new ReferenceGraph();
+    resolver.resolve(profile, second);
+    assertEquals(first.size(), second.size());
+
+    // the statement and both of its items insert the control's parameter
+    List<ReferenceGraph.Reference> references = first.getReferencesTo(ItemType.PARAMETER, "ctl-1_prm_1");
+    assertEquals(3, references.size());
+    for (ReferenceGraph.Reference reference : references) {
+      assertEquals(ReferenceKind.INSERT, reference.getKind());
+      assertEquals("ctl-1_prm_1", reference.getReferent().getIdentifier());
+      assertTrue(first.getReferencesFrom(reference.getReferrer()).contains(reference));
+    }
+    assertTrue(first.getReferencesTo(ItemType.PARAMETER, "unknown").isEmpty());
+  }
+
+  @NonNull
+  private static SyntheticCatalogGenerator newModifyGenerator() {
+    return SyntheticCatalogGenerator.builder()
+        .seed(13)
+        .groupDepth(2)
+        .groupFanOut(3)
+        .controlsPerGroup(10)
+        .enhancementDepth(2)
+        .enhancementsPerControl(2)
+        .parametersPerControl(2)
+        .setParameterRatio(0.5)
+        .alterRatio(0.5)
+        .build();
+  }
+
+  @Test
+  void testConcurrentModify(@TempDir Path tempDir) throws IOException, ProfileResolutionException {
+    Path profilePath = newModifyGenerator().write(tempDir, Format.XML);
+
+    Catalog expected = (Catalog) new ProfileResolver().resolveProfile(profilePath).getValue();
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    Catalog actual;
+    try {
+      ProfileResolver concurrentResolver = ProfileResolver.builder()
+          .modifyPool(pool)
+          .build();
+      actual = (Catalog) concurrentResolver.resolveProfile(profilePath).getValue();
+    } finally {
+      pool.shutdownNow();
+    }
+
+    XmlAssert.assertThat(toNormalizedXml(actual)).and(toNormalizedXml(expected)).areIdentical();
+  }
+
+  @ParameterizedTest
+  @CsvFileSource(resources = "/profile-tests.csv", numLinesToSkip = 1)
+  void testConcurrentModifyExamples(String profileName) throws IOException, ProfileResolutionException {
+    Path profilePath = Paths.get(String.format("%s/%s_profile.xml", PROFILE_UNIT_TEST_PATH, profileName));
+
+    Catalog expected = resolveProfile(ObjectUtils.notNull(profilePath));
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    Catalog actual;
+    try {
+      ProfileResolver concurrentResolver = ProfileResolver.builder()
+          .modifyPool(pool)
+          .build();
+      actual = (Catalog) concurrentResolver.resolveProfile(profilePath).getValue();
+    } finally {
+      pool.shutdownNow();
+    }
+
+    XmlAssert.assertThat(toNormalizedXml(actual)).and(toNormalizedXml(expected)).areIdentical();
+  }
+
+  @Test
+  void testConcurrentModifyReportsFirstError(@TempDir Path tempDir) throws IOException {
+    SyntheticCatalogGenerator generator = newModifyGenerator();
+    Catalog catalog = generator.generateCatalog();
+    Profile profile = generator.generateProfile(catalog, ObjectUtils.notNull(URI.create("catalog.xml")));
+    for (String controlId : List.of("missing-1", "missing-2")) {
+      Modify.Alter alter = new Modify.Alter();
+      alter.setControlId(controlId);
+      profile.getModify().getAlters().add(alter);
+    }
+
+    OscalBindingContext context = OscalBindingContext.instance();
+    context.newSerializer(Format.XML, Catalog.class).serialize(catalog, tempDir.resolve("catalog.xml"));
+    Path profilePath = ObjectUtils.notNull(tempDir.resolve("profile.xml"));
+    context.newSerializer(Format.XML, Profile.class).serialize(profile, profilePath);
+
+    ProfileResolutionException expected = assertThrows(ProfileResolutionException.class,
+        () -> new ProfileResolver().resolveProfile(profilePath));
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      ProfileResolver concurrentResolver = ProfileResolver.builder()
+          .modifyPool(pool)
+          .build();
+      ProfileResolutionException actual = assertThrows(ProfileResolutionException.class,
+          () -> concurrentResolver.resolveProfile(profilePath));
+      assertEquals(expected.getMessage(), actual.getMessage());
+      Assertions.assertThat(actual.getMessage()).contains("missing-1");
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Write a profile that imports a generated profile, which imports a generated catalog.
+   * 
+   * @param directory
+   *          the directory to write the documents to
+   * @return the location of the importing profile
+   * @throws IOException
+   *           if an error occurred while writing the documents
+   */
+  @NonNull
+  private static Path writeChainedProfile(@NonNull Path directory) throws IOException {
+    SyntheticCatalogGenerator generator = SyntheticCatalogGenerator.builder()
+        .groupFanOut(2)
+        .controlsPerGroup(5)
+        .build();
+    generator.write(directory, Format.XML);
+
+    Profile outer = generator.generateProfile(generator.generateCatalog(),
+        ObjectUtils.notNull(URI.create("profile.xml")));
+    Path retval = ObjectUtils.notNull(directory.resolve("outer-profile.xml"));
+    OscalBindingContext.instance().newSerializer(Format.XML, Profile.class).serialize(outer, retval);
+    return retval;
+  }
+
+  @Test
+  void testDeterministicOutput(@TempDir Path tempDir) throws IOException, ProfileResolutionException {
+    Path profilePath = writeChainedProfile(ObjectUtils.notNull(tempDir));
+
+    ProfileResolver resolver = ProfileResolver.builder()
+        .deterministicOutput(true)
+        .build();
+    Catalog first = (Catalog) resolver.resolveProfile(profilePath).getValue();
+    Catalog second = (Catalog) resolver.resolveProfile(profilePath).getValue();
+
+    // identical inputs produce identical output
+    assertEquals(5, first.getUuid().version());
+    assertEquals(toXml(first), toXml(second));
+
+    // the identity changes when a transitively imported document changes
+    Files.writeString(tempDir.resolve("catalog.xml"), "\n", StandardOpenOption.APPEND);
+    Catalog changed = (Catalog) resolver.resolveProfile(profilePath).getValue();
+    assertNotEquals(first.getUuid(), changed.getUuid());
+    assertEquals(first.getMetadata().getLastModified(), changed.getMetadata().getLastModified());
+
+    // a configured timestamp is used instead of the timestamp of the inputs
+    ZonedDateTime timestamp = ZonedDateTime.of(2023, 6, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+    ProfileResolver stampedResolver = ProfileResolver.builder()
+        .deterministicOutput(true)
+        .lastModified(timestamp)
+        .build();
+    Catalog stamped = (Catalog) stampedResolver.resolveProfile(profilePath).getValue();
+    assertEquals(changed.getUuid(), stamped.getUuid());
+    assertEquals(timestamp, stamped.getMetadata().getLastModified());
+  }
+
+  @Test
+  void testDeterministicOutputCached(@TempDir Path tempDir) throws IOException, ProfileResolutionException {
+    Path profilePath = writeChainedProfile(ObjectUtils.notNull(tempDir));
+    Path cacheDir = ObjectUtils.notNull(Files.createDirectory(tempDir.resolve("cache")));
+
+    ProfileResolver resolver = ProfileResolver.builder()
+        .deterministicOutput(true)
+        .resolvedCatalogCache(new DefaultResolvedCatalogCache(4, cacheDir))
+        .build();
+    Catalog first = (Catalog) resolver.resolveProfile(profilePath).getValue();
+    Catalog cached = (Catalog) resolver.resolveProfile(profilePath).getValue();
+
+    // a cached catalog keeps its derived identity
+    assertEquals(toXml(first), toXml(cached));
+
+    // a catalog cached without deterministic output is not reused
+    ProfileResolver randomResolver = ProfileResolver.builder()
+        .resolvedCatalogCache(new DefaultResolvedCatalogCache(4, cacheDir))
+        .build();
+    Catalog random = (Catalog) randomResolver.resolveProfile(profilePath).getValue();
+    assertNotEquals(first.getUuid(), random.getUuid());
+    assertEquals(4, random.getUuid().version());
+  }
+
+  @Test
+  void testResolutionWithinLimits(@TempDir Path tempDir) throws IOException, ProfileResolutionException {
+    Path profilePath = writeChainedProfile(ObjectUtils.notNull(tempDir));
+
+    ProfileResolutionOptions options = ProfileResolutionOptions.builder()
+        .timeout(ObjectUtils.notNull(Duration.ofMinutes(5)))
+        .maxImportDepth(2)
+        .maxDocuments(2)
+        .maxControls(1000)
+        .build();
+    Catalog expected = (Catalog) new ProfileResolver().resolveProfile(profilePath).getValue();
+    Catalog actual = (Catalog) new ProfileResolver().resolveProfile(profilePath, options).getValue();
+
+    XmlAssert.assertThat(toNormalizedXml(actual)).and(toNormalizedXml(expected)).areIdentical();
+  }
+
+  @Test
+  void testResolutionLimitsExceeded(@TempDir Path tempDir) throws IOException {
+    Path profilePath = writeChainedProfile(ObjectUtils.notNull(tempDir));
+    ProfileResolver resolver = new ProfileResolver();
+
+    ResolutionLimitExceededException ex = assertThrows(ResolutionLimitExceededException.class,
+        () -> resolver.resolveProfile(profilePath, ProfileResolutionOptions.builder()
+            .maxImportDepth(1)
+            .build()));
+    assertEquals(ResolutionLimitExceededException.Limit.IMPORT_DEPTH, ex.getLimit());
+
+    ex = assertThrows(ResolutionLimitExceededException.class,
+        () -> resolver.resolveProfile(profilePath, ProfileResolutionOptions.builder()
+            .maxDocuments(1)
+            .build()));
+    assertEquals(ResolutionLimitExceededException.Limit.DOCUMENTS, ex.getLimit());
+
+    ex = assertThrows(ResolutionLimitExceededException.class,
+        () -> resolver.resolveProfile(profilePath, ProfileResolutionOptions.builder()
+            .maxControls(5)
+            .build()));
+    assertEquals(ResolutionLimitExceededException.Limit.CONTROLS, ex.getLimit());
+
+    // the limits do not affect later resolutions using the same resolver
+    assertNotNull(resolver.resolveProfile(profilePath));
+  }
+
+  @Test
+  void testResolutionCancelled(@TempDir Path tempDir) throws IOException {
+    Path profilePath = writeChainedProfile(ObjectUtils.notNull(tempDir));
+
+    CancellationToken token = new CancellationToken();
+    token.cancel();
+
+    assertThrows(ResolutionCancelledException.class,
+        () -> new ProfileResolver().resolveProfile(profilePath, ProfileResolutionOptions.builder()
+            .cancellationToken(token)
+            .build()));
+  }
+
+  @Test
+  void testResolveProfileAsync(@TempDir Path tempDir) throws IOException, ProfileResolutionException {
+    Path profilePath = writeChainedProfile(ObjectUtils.notNull(tempDir));
+    Catalog expected = (Catalog) new ProfileResolver().resolveProfile(profilePath).getValue();
+
+    // a single thread shows that no task waits on another task
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Catalog actual = (Catalog) new ProfileResolver().resolveProfileAsync(profilePath, executor)
+          .join()
+          .getValue();
+      XmlAssert.assertThat(toNormalizedXml(actual)).and(toNormalizedXml(expected)).areIdentical();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testResolveProfileAsyncMultipleImports() throws IOException, ProfileResolutionException {
+    Path profilePath = Paths.get(JUNIT_TEST_PATH, "content/test-multiple-imports-profile.xml");
+    Catalog expected = resolveProfile(ObjectUtils.notNull(profilePath));
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Catalog actual = (Catalog) new ProfileResolver().resolveProfileAsync(profilePath, executor)
+          .join()
+          .getValue();
+      XmlAssert.assertThat(toNormalizedXml(actual)).and(toNormalizedXml(expected)).areIdentical();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testResolveProfileAsyncCircularLink() {
+    Path profilePath = Paths.get(PROFILE_UNIT_TEST_PATH, "circular_profile.xml");
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      CompletionException ex = assertThrows(CompletionException.class,
+          () -> new ProfileResolver().resolveProfileAsync(ObjectUtils.notNull(profilePath), executor).join());
+      MatcherAssert.assertThat(ex.getCause(), CoreMatchers.instanceOf(IOException.class));
+      MatcherAssert.assertThat(ex.getCause().getCause(), CoreMatchers.instanceOf(ImportCycleException.class));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testCallerDynamicContextResolvesImports() throws IOException, ProfileResolutionException {
+    Path profilePath = Paths.get(JUNIT_TEST_PATH, "content/test-multiple-imports-profile.xml");
+
+    // the imports are resolved using the caller's entity resolver, not the resolver's bound loader
+    List<String> resolvedEntities = new CopyOnWriteArrayList<>();
+    DefaultBoundLoader loader = new DefaultBoundLoader(OscalBindingContext.instance());
+    loader.setEntityResolver((publicId, systemId) -> {
+      resolvedEntities.add(systemId);
+      return new InputSource(systemId);
+    });
+    DynamicContext context = new StaticContext().newDynamicContext();
+    context.setDocumentLoader(loader);
+
+    ProfileResolver resolver = new ProfileResolver();
+    Catalog actual = (Catalog) resolver.resolve(loader.loadAsNodeItem(profilePath), context).getValue();
+
+    Assertions.assertThat(resolvedEntities).isNotEmpty();
+    Catalog expected = resolveProfile(ObjectUtils.notNull(profilePath));
+    XmlAssert.assertThat(toNormalizedXml(actual)).and(toNormalizedXml(expected)).areIdentical();
+  }
+
   @Test
   @Disabled
   void testRemove() throws IOException, ProfileResolutionException, URISyntaxException {
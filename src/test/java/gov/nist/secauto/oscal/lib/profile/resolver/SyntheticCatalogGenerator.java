@@ -0,0 +1,722 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupLine;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.BackMatter;
+import gov.nist.secauto.oscal.lib.model.BackMatter.Resource;
+import gov.nist.secauto.oscal.lib.model.BackMatter.Resource.Rlink;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.IncludeAll;
+import gov.nist.secauto.oscal.lib.model.Metadata;
+import gov.nist.secauto.oscal.lib.model.Modify;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.model.Profile;
+import gov.nist.secauto.oscal.lib.model.ProfileImport;
+import gov.nist.secauto.oscal.lib.model.control.AbstractParameter;
+import gov.nist.secauto.oscal.lib.model.control.AbstractPart;
+import gov.nist.secauto.oscal.lib.model.control.catalog.AbstractCatalogGroup;
+import gov.nist.secauto.oscal.lib.model.control.catalog.AbstractControl;
+import gov.nist.secauto.oscal.lib.model.control.profile.AbstractProfileSelectControlById;
+import gov.nist.secauto.oscal.lib.model.metadata.AbstractLink;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Generates synthetic catalogs, and profiles that import them, for use in performance and stress
+ * testing.
+ * <p>
+ * The generated content is fully determined by the configuration, including the seed, so the same
+ * configuration always produces the same content. Identifiers are assigned sequentially: controls
+ * are named {@code ctl-<n>}, enhancements append {@code .<n>} to their parent's identifier, and
+ * parameters and parts are named after their control.
+ */
+public final class SyntheticCatalogGenerator {
+  private static final String CONTROL_ID_PREFIX = "ctl-";
+  private static final String ITEM_LABELS = "abcdefghijklmnopqrstuvwxyz";
+  private static final ZonedDateTime LAST_MODIFIED = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+  private static final long PROFILE_SEED_SALT = 0x5DEECE66DL;
+
+  /**
+   * Identifies how the generated profile selects controls from the generated catalog.
+   */
+  public enum Selection {
+    /**
+     * Select all controls.
+     */
+    INCLUDE_ALL,
+    /**
+     * Select a random subset of the top-level controls, along with their enhancements, by
+     * identifier.
+     */
+    WITH_IDS,
+    /**
+     * Select the controls whose identifier ends with a randomly chosen digit using a pattern.
+     */
+    MATCHING;
+  }
+
+  private final long seed;
+  private final int groupDepth;
+  private final int groupFanOut;
+  private final int controlsPerGroup;
+  private final int enhancementDepth;
+  private final int enhancementsPerControl;
+  private final int parametersPerControl;
+  private final int itemsPerStatement;
+  private final double insertDensity;
+  private final int linksPerControl;
+  private final int resources;
+  @NonNull
+  private final Selection selection;
+  private final double selectionRatio;
+  private final double setParameterRatio;
+  private final double alterRatio;
+  private final int alterDepth;
+
+  @NonNull
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private SyntheticCatalogGenerator(@NonNull Builder builder) {
+    this.seed = builder.seed;
+    this.groupDepth = builder.groupDepth;
+    this.groupFanOut = builder.groupFanOut;
+    this.controlsPerGroup = builder.controlsPerGroup;
+    this.enhancementDepth = builder.enhancementDepth;
+    this.enhancementsPerControl = builder.enhancementsPerControl;
+    this.parametersPerControl = builder.parametersPerControl;
+    this.itemsPerStatement = builder.itemsPerStatement;
+    this.insertDensity = builder.insertDensity;
+    this.linksPerControl = builder.linksPerControl;
+    this.resources = builder.resources;
+    this.selection = builder.selection;
+    this.selectionRatio = builder.selectionRatio;
+    this.setParameterRatio = builder.setParameterRatio;
+    this.alterRatio = builder.alterRatio;
+    this.alterDepth = builder.alterDepth;
+  }
+
+  /**
+   * Get the number of top-level controls in the generated catalog, which excludes enhancements.
+   * 
+   * @return the number of top-level controls
+   */
+  public long getTopLevelControlCount() {
+    long groups = 0;
+    long groupsAtDepth = 1;
+    for (int depth = 0; depth < groupDepth; depth++) {
+      groupsAtDepth *= groupFanOut;
+      groups += groupsAtDepth;
+    }
+    return groups * controlsPerGroup;
+  }
+
+  /**
+   * Get the total number of controls in the generated catalog, including enhancements.
+   * 
+   * @return the number of controls
+   */
+  public long getControlCount() {
+    long controlsPerTopLevelControl = 0;
+    long controlsAtDepth = 1;
+    for (int depth = 0; depth <= enhancementDepth; depth++) {
+      controlsPerTopLevelControl += controlsAtDepth;
+      controlsAtDepth *= enhancementsPerControl;
+    }
+    return getTopLevelControlCount() * controlsPerTopLevelControl;
+  }
+
+  /**
+   * Generate a new catalog based on the configuration.
+   * 
+   * @return the catalog
+   */
+  @NonNull
+  public Catalog generateCatalog() {
+    Random random = new Random(seed);
+
+    Catalog catalog = new Catalog();
+    catalog.setUuid(newUuid(random));
+    catalog.setMetadata(newMetadata("Synthetic Catalog"));
+
+    List<UUID> resourceUuids = new ArrayList<>(resources);
+    if (resources > 0) {
+      List<Resource> backMatterResources = new ArrayList<>(resources);
+      for (int index = 0; index < resources; index++) {
+        UUID uuid = newUuid(random);
+        resourceUuids.add(uuid);
+
+        Rlink rlink = new Rlink();
+        rlink.setHref(ObjectUtils.notNull(URI.create("https://example.com/resources/" + index)));
+
+        Resource resource = new Resource();
+        resource.setUuid(uuid);
+        resource.setTitle(MarkupLine.fromMarkdown("Resource " + index));
+        resource.setRlinks(new LinkedList<>(Collections.singletonList(rlink)));
+        backMatterResources.add(resource);
+      }
+      BackMatter backMatter = new BackMatter();
+      backMatter.setResources(backMatterResources);
+      catalog.setBackMatter(backMatter);
+    }
+
+    GenerationState state = new GenerationState(random, resourceUuids);
+    for (int index = 1; index <= groupFanOut && groupDepth > 0; index++) {
+      catalog.addGroup(newGroup("grp-" + index, 1, state));
+    }
+    return catalog;
+  }
+
+  @NonNull
+  private CatalogGroup newGroup(@NonNull String id, int depth, @NonNull GenerationState state) {
+    AbstractCatalogGroup.Builder builder = AbstractCatalogGroup.builder(id)
+        .title("Group " + id);
+
+    for (int index = 0; index < controlsPerGroup; index++) {
+      builder.control(newControl(CONTROL_ID_PREFIX + state.nextControlNumber(), 0, state));
+    }
+
+    if (depth < groupDepth) {
+      for (int index = 1; index <= groupFanOut; index++) {
+        builder.group(newGroup(id + "." + index, depth + 1, state));
+      }
+    }
+    return builder.build();
+  }
+
+  @NonNull
+  private Control newControl(@NonNull String id, int depth, @NonNull GenerationState state) {
+    Random random = state.getRandom();
+    AbstractControl.Builder builder = AbstractControl.builder(id)
+        .title("Control " + id);
+
+    List<String> paramIds = new ArrayList<>(parametersPerControl);
+    for (int index = 1; index <= parametersPerControl; index++) {
+      String paramId = id + "_prm_" + index;
+      paramIds.add(paramId);
+      builder.param(AbstractParameter.builder(paramId)
+          .label("parameter " + index)
+          .build());
+    }
+
+    AbstractPart.Builder statement = AbstractPart.builder("statement")
+        .id(id + "_smt")
+        .prose(newProse("The organization shall", paramIds, random));
+    for (int index = 0; index < itemsPerStatement; index++) {
+      String itemId = id + "_smt." + itemLabel(index);
+      statement.part(AbstractPart.builder("item")
+          .id(itemId)
+          .prose(newProse("Item " + itemLabel(index), paramIds, random))
+          .build());
+    }
+    builder.part(statement.build());
+
+    for (int index = 0; index < linksPerControl; index++) {
+      URI href;
+      if (state.getResourceUuids().isEmpty()) {
+        href = URI.create("#" + CONTROL_ID_PREFIX + (1 + random.nextInt(state.getControlNumber())));
+      } else {
+        List<UUID> uuids = state.getResourceUuids();
+        href = URI.create("#" + uuids.get(random.nextInt(uuids.size())));
+      }
+      builder.link(AbstractLink.builder(ObjectUtils.notNull(href))
+          .relation("reference")
+          .build());
+    }
+
+    if (depth < enhancementDepth) {
+      for (int index = 1; index <= enhancementsPerControl; index++) {
+        builder.control(newControl(id + "." + index, depth + 1, state));
+      }
+    }
+    return builder.build();
+  }
+
+  @NonNull
+  private String newProse(@NonNull String text, @NonNull List<String> paramIds, @NonNull Random random) {
+    StringBuilder builder = new StringBuilder(text);
+    if (!paramIds.isEmpty() && random.nextDouble() < insertDensity) {
+      builder.append(" {{ insert: param, ")
+          .append(paramIds.get(random.nextInt(paramIds.size())))
+          .append(" }}");
+    }
+    return ObjectUtils.notNull(builder.append('.').toString());
+  }
+
+  /**
+   * Generate a new profile that imports the provided catalog, which must have been generated by this
+   * generator.
+   * 
+   * @param catalog
+   *          the generated catalog to select controls from
+   * @param catalogHref
+   *          the location of the catalog used as the import's href
+   * @return the profile
+   */
+  @NonNull
+  public Profile generateProfile(@NonNull Catalog catalog, @NonNull URI catalogHref) {
+    Random random = new Random(seed ^ PROFILE_SEED_SALT);
+
+    Profile profile = new Profile();
+    profile.setUuid(newUuid(random));
+    profile.setMetadata(newMetadata("Synthetic Profile"));
+
+    ProfileImport profileImport = new ProfileImport();
+    profileImport.setHref(catalogHref);
+
+    Set<Control> selectedControls = new LinkedHashSet<>();
+    switch (selection) {
+    case WITH_IDS: {
+      AbstractProfileSelectControlById.Builder builder = AbstractProfileSelectControlById.builder()
+          .withChildControls(true);
+      for (Control control : topLevelControls(catalog)) {
+        if (random.nextDouble() < selectionRatio) {
+          builder.withId(ObjectUtils.requireNonNull(control.getId()));
+          addControlAndDescendants(control, selectedControls);
+        }
+      }
+      profileImport.setIncludeControls(new LinkedList<>(Collections.singletonList(builder.build())));
+      break;
+    }
+    case MATCHING: {
+      int digit = random.nextInt(10);
+      String pattern = CONTROL_ID_PREFIX + "*" + digit;
+      // the regex equivalent of the pattern, which is used to predict the selected controls
+      Pattern regex = Pattern.compile(Pattern.quote(CONTROL_ID_PREFIX) + ".*" + digit);
+      for (Control control : allControls(catalog)) {
+        if (regex.matcher(control.getId()).matches()) {
+          selectedControls.add(control);
+        }
+      }
+      profileImport.setIncludeControls(new LinkedList<>(Collections.singletonList(
+          AbstractProfileSelectControlById.builder()
+              .matching(ObjectUtils.notNull(Pattern.compile(pattern)))
+              .build())));
+      break;
+    }
+    case INCLUDE_ALL:
+    default:
+      profileImport.setIncludeAll(new IncludeAll());
+      selectedControls.addAll(allControls(catalog));
+      break;
+    }
+    profile.addImport(profileImport);
+
+    List<Modify.ProfileSetParameter> setParameters = new LinkedList<>();
+    List<Modify.Alter> alters = new LinkedList<>();
+    for (Control control : selectedControls) {
+      for (Parameter param : CollectionUtil.listOrEmpty(control.getParams())) {
+        if (random.nextDouble() < setParameterRatio) {
+          setParameters.add(newSetParameter(ObjectUtils.requireNonNull(param.getId())));
+        }
+      }
+      if (enhancementDepth(control) >= alterDepth && random.nextDouble() < alterRatio) {
+        alters.add(newAlter(ObjectUtils.requireNonNull(control.getId())));
+      }
+    }
+
+    if (!setParameters.isEmpty() || !alters.isEmpty()) {
+      Modify modify = new Modify();
+      if (!setParameters.isEmpty()) {
+        modify.setSetParameters(setParameters);
+      }
+      if (!alters.isEmpty()) {
+        modify.setAlters(alters);
+      }
+      profile.setModify(modify);
+    }
+    return profile;
+  }
+
+  private static int enhancementDepth(@NonNull Control control) {
+    // each enhancement appends a segment to its parent's identifier
+    String id = ObjectUtils.requireNonNull(control.getId());
+    return (int) id.chars().filter(ch -> ch == '.').count();
+  }
+
+  @NonNull
+  private static Modify.ProfileSetParameter newSetParameter(@NonNull String paramId) {
+    Modify.ProfileSetParameter setParameter = new Modify.ProfileSetParameter();
+    setParameter.setParamId(paramId);
+    setParameter.setValues(new LinkedList<>(Collections.singletonList("value of " + paramId)));
+    return setParameter;
+  }
+
+  @NonNull
+  private Modify.Alter newAlter(@NonNull String controlId) {
+    Modify.Alter alter = new Modify.Alter();
+    alter.setControlId(controlId);
+
+    String statementId = controlId + "_smt";
+    if (itemsPerStatement > 1) {
+      // remove the last item and extend the first
+      Modify.Alter.Remove remove = new Modify.Alter.Remove();
+      remove.setById(statementId + "." + itemLabel(itemsPerStatement - 1));
+      alter.setRemoves(new LinkedList<>(Collections.singletonList(remove)));
+    }
+
+    String targetId = itemsPerStatement > 0 ? statementId + "." + itemLabel(0) : statementId;
+    Modify.Alter.Add add = new Modify.Alter.Add();
+    add.setPosition("ending");
+    add.setById(targetId);
+    add.setParts(new LinkedList<>(Collections.singletonList(AbstractPart.builder("item")
+        .id(targetId + ".1")
+        .prose("Added item.")
+        .build())));
+    alter.setAdds(new LinkedList<>(Collections.singletonList(add)));
+    return alter;
+  }
+
+  /**
+   * Generate a catalog and a profile that imports it, writing them to the provided directory as
+   * {@code catalog.<ext>} and {@code profile.<ext>} in the provided format.
+   * 
+   * @param directory
+   *          the directory to write to
+   * @param format
+   *          the format to write
+   * @return the location of the written profile
+   * @throws IOException
+   *           if an error occurred while writing the content
+   */
+  @NonNull
+  public Path write(@NonNull Path directory, @NonNull Format format) throws IOException {
+    String extension = extension(format);
+
+    Catalog catalog = generateCatalog();
+    Path catalogPath = ObjectUtils.notNull(directory.resolve("catalog" + extension));
+    OscalBindingContext.instance().newSerializer(format, Catalog.class).serialize(catalog, catalogPath);
+
+    Profile profile = generateProfile(catalog, ObjectUtils.notNull(URI.create("catalog" + extension)));
+    Path profilePath = ObjectUtils.notNull(directory.resolve("profile" + extension));
+    OscalBindingContext.instance().newSerializer(format, Profile.class).serialize(profile, profilePath);
+    return profilePath;
+  }
+
+  @NonNull
+  private static String extension(@NonNull Format format) {
+    String retval;
+    switch (format) {
+    case JSON:
+      retval = ".json";
+      break;
+    case YAML:
+      retval = ".yaml";
+      break;
+    case XML:
+    default:
+      retval = ".xml";
+      break;
+    }
+    return retval;
+  }
+
+  @NonNull
+  private static List<Control> topLevelControls(@NonNull Catalog catalog) {
+    List<Control> retval = new LinkedList<>(CollectionUtil.listOrEmpty(catalog.getControls()));
+    for (CatalogGroup group : CollectionUtil.listOrEmpty(catalog.getGroups())) {
+      addTopLevelControls(group, retval);
+    }
+    return retval;
+  }
+
+  private static void addTopLevelControls(@NonNull CatalogGroup group, @NonNull List<Control> controls) {
+    controls.addAll(CollectionUtil.listOrEmpty(group.getControls()));
+    for (CatalogGroup child : CollectionUtil.listOrEmpty(group.getGroups())) {
+      addTopLevelControls(child, controls);
+    }
+  }
+
+  @NonNull
+  private static Set<Control> allControls(@NonNull Catalog catalog) {
+    Set<Control> retval = new LinkedHashSet<>();
+    for (Control control : topLevelControls(catalog)) {
+      addControlAndDescendants(control, retval);
+    }
+    return retval;
+  }
+
+  private static void addControlAndDescendants(@NonNull Control control, @NonNull Set<Control> controls) {
+    controls.add(control);
+    for (Control child : CollectionUtil.listOrEmpty(control.getControls())) {
+      addControlAndDescendants(child, controls);
+    }
+  }
+
+  @NonNull
+  private static String itemLabel(int index) {
+    return ObjectUtils.notNull(String.valueOf(ITEM_LABELS.charAt(index % ITEM_LABELS.length()))
+        + (index < ITEM_LABELS.length() ? "" : index / ITEM_LABELS.length()));
+  }
+
+  @NonNull
+  private static UUID newUuid(@NonNull Random random) {
+    long msb = random.nextLong() & ~0xF000L | 0x4000L; // version 4
+    long lsb = random.nextLong() & ~(0xC000_0000_0000_0000L) | 0x8000_0000_0000_0000L; // IETF variant
+    return new UUID(msb, lsb);
+  }
+
+  @NonNull
+  private static Metadata newMetadata(@NonNull String title) {
+    Metadata metadata = new Metadata();
+    metadata.setTitle(MarkupLine.fromMarkdown(title));
+    metadata.setLastModified(LAST_MODIFIED);
+    metadata.setVersion("1.0");
+    metadata.setOscalVersion("1.0.4");
+    return metadata;
+  }
+
+  private static final class GenerationState {
+    @NonNull
+    private final Random random;
+    @NonNull
+    private final List<UUID> resourceUuids;
+    private int controlNumber;
+
+    private GenerationState(@NonNull Random random, @NonNull List<UUID> resourceUuids) {
+      this.random = random;
+      this.resourceUuids = resourceUuids;
+    }
+
+    @NonNull
+    public Random getRandom() {
+      return random;
+    }
+
+    @NonNull
+    public List<UUID> getResourceUuids() {
+      return resourceUuids;
+    }
+
+    public int getControlNumber() {
+      return controlNumber;
+    }
+
+    public int nextControlNumber() {
+      return ++controlNumber;
+    }
+  }
+
+  public static final class Builder {
+    private long seed;
+    private int groupDepth = 1;
+    private int groupFanOut = 10;
+    private int controlsPerGroup = 10;
+    private int enhancementDepth = 1;
+    private int enhancementsPerControl = 1;
+    private int parametersPerControl = 1;
+    private int itemsPerStatement = 2;
+    private double insertDensity = 1.0;
+    private int linksPerControl;
+    private int resources;
+    @NonNull
+    private Selection selection = Selection.INCLUDE_ALL;
+    private double selectionRatio = 0.1;
+    private double setParameterRatio;
+    private double alterRatio;
+    private int alterDepth;
+
+    private Builder() {
+      // use the builder() method
+    }
+
+    @NonNull
+    public Builder seed(long value) {
+      this.seed = value;
+      return this;
+    }
+
+    @NonNull
+    public Builder groupDepth(int value) {
+      this.groupDepth = requireNonNegative(value, "groupDepth");
+      return this;
+    }
+
+    @NonNull
+    public Builder groupFanOut(int value) {
+      this.groupFanOut = requireNonNegative(value, "groupFanOut");
+      return this;
+    }
+
+    @NonNull
+    public Builder controlsPerGroup(int value) {
+      this.controlsPerGroup = requireNonNegative(value, "controlsPerGroup");
+      return this;
+    }
+
+    @NonNull
+    public Builder enhancementDepth(int value) {
+      this.enhancementDepth = requireNonNegative(value, "enhancementDepth");
+      return this;
+    }
+
+    @NonNull
+    public Builder enhancementsPerControl(int value) {
+      this.enhancementsPerControl = requireNonNegative(value, "enhancementsPerControl");
+      return this;
+    }
+
+    @NonNull
+    public Builder parametersPerControl(int value) {
+      this.parametersPerControl = requireNonNegative(value, "parametersPerControl");
+      return this;
+    }
+
+    @NonNull
+    public Builder itemsPerStatement(int value) {
+      this.itemsPerStatement = requireNonNegative(value, "itemsPerStatement");
+      return this;
+    }
+
+    /**
+     * Set the probability that a generated prose paragraph contains a parameter insert.
+     * 
+     * @param value
+     *          the probability between {@code 0.0} and {@code 1.0}
+     * @return this builder
+     */
+    @NonNull
+    public Builder insertDensity(double value) {
+      this.insertDensity = requireRatio(value, "insertDensity");
+      return this;
+    }
+
+    @NonNull
+    public Builder linksPerControl(int value) {
+      this.linksPerControl = requireNonNegative(value, "linksPerControl");
+      return this;
+    }
+
+    @NonNull
+    public Builder resources(int value) {
+      this.resources = requireNonNegative(value, "resources");
+      return this;
+    }
+
+    @NonNull
+    public Builder selection(@NonNull Selection value) {
+      this.selection = ObjectUtils.requireNonNull(value);
+      return this;
+    }
+
+    /**
+     * Set the probability that a top-level control is selected when using {@link Selection#WITH_IDS}.
+     * 
+     * @param value
+     *          the probability between {@code 0.0} and {@code 1.0}
+     * @return this builder
+     */
+    @NonNull
+    public Builder selectionRatio(double value) {
+      this.selectionRatio = requireRatio(value, "selectionRatio");
+      return this;
+    }
+
+    /**
+     * Set the probability that a parameter of a selected control is the target of a set-parameter.
+     * 
+     * @param value
+     *          the probability between {@code 0.0} and {@code 1.0}
+     * @return this builder
+     */
+    @NonNull
+    public Builder setParameterRatio(double value) {
+      this.setParameterRatio = requireRatio(value, "setParameterRatio");
+      return this;
+    }
+
+    /**
+     * Set the probability that a selected control is the target of an alter.
+     * 
+     * @param value
+     *          the probability between {@code 0.0} and {@code 1.0}
+     * @return this builder
+     */
+    @NonNull
+    public Builder alterRatio(double value) {
+      this.alterRatio = requireRatio(value, "alterRatio");
+      return this;
+    }
+
+    /**
+     * Set the minimum enhancement depth of the controls that are the target of an alter, where
+     * {@code 0} includes the top-level controls.
+     * 
+     * @param value
+     *          the minimum depth
+     * @return this builder
+     */
+    @NonNull
+    public Builder alterDepth(int value) {
+      this.alterDepth = requireNonNegative(value, "alterDepth");
+      return this;
+    }
+
+    @NonNull
+    public SyntheticCatalogGenerator build() {
+      return new SyntheticCatalogGenerator(this);
+    }
+
+    private static int requireNonNegative(int value, @NonNull String name) {
+      if (value < 0) {
+        throw new IllegalArgumentException(String.format("The value '%d' of '%s' must not be negative", value, name));
+      }
+      return value;
+    }
+
+    private static double requireRatio(double value, @NonNull String name) {
+      if (value < 0.0 || value > 1.0) {
+        throw new IllegalArgumentException(
+            String.format("The value '%f' of '%s' must be between 0.0 and 1.0", value, name));
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.ISerializer;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Modify;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.model.Profile;
+import gov.nist.secauto.oscal.lib.profile.resolver.SyntheticCatalogGenerator.Selection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class SyntheticCatalogGeneratorTest {
+
+  @NonNull
+  private static SyntheticCatalogGenerator.Builder newBuilder(long seed) {
+    return SyntheticCatalogGenerator.builder()
+        .seed(seed)
+        .groupDepth(2)
+        .groupFanOut(2)
+        .controlsPerGroup(3)
+        .enhancementDepth(1)
+        .enhancementsPerControl(2)
+        .parametersPerControl(2)
+        .insertDensity(0.5)
+        .linksPerControl(1)
+        .resources(5)
+        .selection(Selection.WITH_IDS)
+        .selectionRatio(0.5)
+        .setParameterRatio(0.5)
+        .alterRatio(0.5);
+  }
+
+  @NonNull
+  private static String toXml(@NonNull Catalog catalog) throws IOException {
+    ISerializer<Catalog> serializer = OscalBindingContext.instance().newSerializer(Format.XML, Catalog.class);
+    StringWriter writer = new StringWriter();
+    serializer.serialize(catalog, writer);
+    return ObjectUtils.notNull(writer.toString());
+  }
+
+  @Test
+  void testDeterministic() throws IOException {
+    Catalog first = newBuilder(42).build().generateCatalog();
+    Catalog second = newBuilder(42).build().generateCatalog();
+    Catalog other = newBuilder(7).build().generateCatalog();
+
+    assertThat(toXml(second)).isEqualTo(toXml(first));
+    assertThat(toXml(other)).isNotEqualTo(toXml(first));
+  }
+
+  @Test
+  void testControlCount() {
+    SyntheticCatalogGenerator generator = newBuilder(42).build();
+
+    List<Control> controls = new LinkedList<>();
+    for (CatalogGroup group : CollectionUtil.listOrEmpty(generator.generateCatalog().getGroups())) {
+      collectControls(group, controls);
+    }
+    assertThat(generator.getTopLevelControlCount()).isEqualTo(18);
+    // each top-level control has two enhancements
+    assertThat(controls).hasSize(54);
+    assertThat(generator.getControlCount()).isEqualTo(54);
+  }
+
+  @Test
+  void testDeepAlters(@NonNull @TempDir Path tempDir) throws IOException, ProfileResolutionException {
+    SyntheticCatalogGenerator generator = SyntheticCatalogGenerator.builder()
+        .seed(42)
+        .groupFanOut(2)
+        .controlsPerGroup(5)
+        .enhancementDepth(3)
+        .enhancementsPerControl(1)
+        .alterDepth(3)
+        .alterRatio(0.5)
+        .build();
+    Profile profile = generator.generateProfile(generator.generateCatalog(), ObjectUtils.notNull(URI.create("")));
+    List<Modify.Alter> alters = profile.getModify().getAlters();
+    assertThat(alters).isNotEmpty()
+        .allSatisfy(alter -> assertThat(alter.getControlId()).matches("ctl-\\d+\\.1\\.1\\.1"));
+
+    Path profilePath = generator.write(tempDir, Format.XML);
+    Catalog resolved = (Catalog) new ProfileResolver().resolveProfile(profilePath).getValue();
+
+    List<Control> controls = new LinkedList<>();
+    CollectionUtil.listOrEmpty(resolved.getGroups()).forEach(group -> collectControls(group, controls));
+    assertThat(controls).hasSize((int) generator.getControlCount());
+
+    // each altered enhancement has the added item
+    long altered = controls.stream()
+        .filter(control -> toPartIds(control).contains(control.getId() + "_smt.a.1"))
+        .count();
+    assertThat(altered).isEqualTo(alters.size());
+  }
+
+  @NonNull
+  private static List<String> toPartIds(@NonNull Control control) {
+    List<String> retval = new LinkedList<>();
+    CollectionUtil.listOrEmpty(control.getParts()).forEach(part -> collectPartIds(part, retval));
+    return retval;
+  }
+
+  private static void collectPartIds(@NonNull ControlPart part, @NonNull List<String> ids) {
+    if (part.getId() != null) {
+      ids.add(part.getId());
+    }
+    CollectionUtil.listOrEmpty(part.getParts()).forEach(child -> collectPartIds(child, ids));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Format.class)
+  void testResolveGeneratedProfile(@NonNull Format format, @NonNull @TempDir Path tempDir)
+      throws IOException, ProfileResolutionException {
+    SyntheticCatalogGenerator generator = newBuilder(42).build();
+    Profile profile = generator.generateProfile(generator.generateCatalog(), ObjectUtils.notNull(URI.create("")));
+
+    Path profilePath = generator.write(tempDir, format);
+    Catalog resolved = (Catalog) new ProfileResolver().resolveProfile(profilePath).getValue();
+
+    List<Control> controls = new LinkedList<>();
+    CollectionUtil.listOrEmpty(resolved.getControls()).forEach(control -> collectControls(control, controls));
+    CollectionUtil.listOrEmpty(resolved.getGroups()).forEach(group -> collectControls(group, controls));
+
+    // each selected control is selected with its two enhancements
+    int selected = profile.getImports().get(0).getIncludeControls().get(0).getWithIds().size();
+    assertThat(controls).hasSize(selected * 3);
+
+    long setParameters = controls.stream()
+        .flatMap(control -> CollectionUtil.listOrEmpty(control.getParams()).stream())
+        .filter(param -> isSet(param))
+        .count();
+    assertThat(setParameters).isEqualTo(profile.getModify().getSetParameters().size());
+  }
+
+  private static boolean isSet(@NonNull Parameter param) {
+    return CollectionUtil.listOrEmpty(param.getValues()).contains("value of " + param.getId());
+  }
+
+  private static void collectControls(@NonNull CatalogGroup group, @NonNull List<Control> controls) {
+    CollectionUtil.listOrEmpty(group.getControls()).forEach(control -> collectControls(control, controls));
+    CollectionUtil.listOrEmpty(group.getGroups()).forEach(child -> collectControls(child, controls));
+  }
+
+  private static void collectControls(@NonNull Control control, @NonNull List<Control> controls) {
+    controls.add(control);
+    CollectionUtil.listOrEmpty(control.getControls()).forEach(child -> collectControls(child, controls));
+  }
+}
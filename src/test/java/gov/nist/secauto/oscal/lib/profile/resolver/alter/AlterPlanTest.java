@@ -0,0 +1,199 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.alter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupLine;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.model.Property;
+import gov.nist.secauto.oscal.lib.model.control.AbstractParameter;
+import gov.nist.secauto.oscal.lib.model.control.AbstractPart;
+import gov.nist.secauto.oscal.lib.model.control.catalog.AbstractControl;
+import gov.nist.secauto.oscal.lib.model.metadata.AbstractProperty;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class AlterPlanTest {
+
+  @NonNull
+  private static Control newControl() {
+    return AbstractControl.builder("control1")
+        .title("Control 1")
+        .param(AbstractParameter.builder("param1")
+            .build())
+        .param(AbstractParameter.builder("param2")
+            .build())
+        .prop(AbstractProperty.builder("status")
+            .value("draft")
+            .build())
+        .part(AbstractPart.builder("statement")
+            .id("control1_smt")
+            .prose("statement")
+            .part(AbstractPart.builder("item")
+                .id("control1_smt.a")
+                .prose("item a")
+                .build())
+            .part(AbstractPart.builder("item")
+                .id("control1_smt.b")
+                .prose("item b")
+                .build())
+            .build())
+        .control(AbstractControl.builder("control1.1")
+            .title("Control 1.1")
+            .part(AbstractPart.builder("statement")
+                .id("control1.1_smt")
+                .prose("enhancement statement")
+                .build())
+            .build())
+        .build();
+  }
+
+  @NonNull
+  private static List<ControlPart> newParts(@NonNull String id) {
+    return ObjectUtils.notNull(Collections.singletonList(AbstractPart.builder("item")
+        .id(id)
+        .prose("added " + id)
+        .build()));
+  }
+
+  @NonNull
+  private static List<Parameter> newParams(@NonNull String id) {
+    return ObjectUtils.notNull(Collections.singletonList(AbstractParameter.builder(id)
+        .build()));
+  }
+
+  @NonNull
+  private static List<Property> newProps(@NonNull String name) {
+    return ObjectUtils.notNull(Collections.singletonList(AbstractProperty.builder(name)
+        .value("value")
+        .build()));
+  }
+
+  @NonNull
+  private static String toXml(@NonNull Control control) throws IOException {
+    Catalog catalog = new Catalog();
+    catalog.addControl(control);
+
+    StringWriter writer = new StringWriter();
+    OscalBindingContext.instance().newSerializer(Format.XML, Catalog.class).serialize(catalog, writer);
+    return ObjectUtils.notNull(writer.toString());
+  }
+
+  @Test
+  void testSameResultAsVisitors() throws IOException {
+    Control expected = newControl();
+    Control actual = newControl();
+    AlterPlan plan = new AlterPlan();
+
+    // remove by identifier
+    assertThat(RemoveVisitor.remove(expected, null, null, "control1_smt.b", null, null)).isTrue();
+    assertThat(plan.remove(actual, null, null, "control1_smt.b", null, null)).isTrue();
+
+    // add after a part
+    assertThat(AddVisitor.add(expected, AddVisitor.Position.AFTER, "control1_smt.a", null,
+        Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), newParts("control1_smt.c")))
+            .isTrue();
+    assertThat(plan.add(actual, AddVisitor.Position.AFTER, "control1_smt.a", null,
+        Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), newParts("control1_smt.c")))
+            .isTrue();
+
+    // add into an added part
+    assertThat(AddVisitor.add(expected, AddVisitor.Position.STARTING, "control1_smt.c", null,
+        Collections.emptyList(), newProps("label"), Collections.emptyList(), newParts("control1_smt.c.1")))
+            .isTrue();
+    assertThat(plan.add(actual, AddVisitor.Position.STARTING, "control1_smt.c", null,
+        Collections.emptyList(), newProps("label"), Collections.emptyList(), newParts("control1_smt.c.1")))
+            .isTrue();
+
+    // add before a parameter
+    assertThat(AddVisitor.add(expected, AddVisitor.Position.BEFORE, "param2", null,
+        newParams("param3"), Collections.emptyList(), Collections.emptyList(), Collections.emptyList()))
+            .isTrue();
+    assertThat(plan.add(actual, AddVisitor.Position.BEFORE, "param2", null,
+        newParams("param3"), Collections.emptyList(), Collections.emptyList(), Collections.emptyList()))
+            .isTrue();
+
+    // add to the control
+    MarkupLine title = MarkupLine.fromMarkdown("New Title");
+    assertThat(AddVisitor.add(expected, null, null, title,
+        Collections.emptyList(), newProps("added"), Collections.emptyList(), Collections.emptyList()))
+            .isTrue();
+    assertThat(plan.add(actual, null, null, title,
+        Collections.emptyList(), newProps("added"), Collections.emptyList(), Collections.emptyList()))
+            .isTrue();
+
+    // remove an added part, along with its children
+    assertThat(RemoveVisitor.remove(expected, null, null, "control1_smt.c", null, null)).isTrue();
+    assertThat(plan.remove(actual, null, null, "control1_smt.c", null, null)).isTrue();
+    assertThat(plan.remove(actual, null, null, "control1_smt.c.1", null, null)).isFalse();
+
+    // remove by name, which requires a traversal
+    assertThat(RemoveVisitor.remove(expected, "status", null, null, null, RemoveVisitor.TargetType.PROP)).isTrue();
+    assertThat(plan.remove(actual, "status", null, null, null, RemoveVisitor.TargetType.PROP)).isTrue();
+
+    // add to a child control, which requires a traversal
+    assertThat(AddVisitor.add(expected, AddVisitor.Position.ENDING, "control1.1_smt", null,
+        Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), newParts("control1.1_smt.a")))
+            .isTrue();
+    assertThat(plan.add(actual, AddVisitor.Position.ENDING, "control1.1_smt", null,
+        Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), newParts("control1.1_smt.a")))
+            .isTrue();
+
+    // the index remains usable after a traversal
+    assertThat(RemoveVisitor.remove(expected, null, null, "param1", null, null)).isTrue();
+    assertThat(plan.remove(actual, null, null, "param1", null, null)).isTrue();
+
+    assertThat(toXml(actual)).isEqualTo(toXml(expected));
+  }
+
+  @Test
+  void testUnmatchedTargets() {
+    Control control = newControl();
+    AlterPlan plan = new AlterPlan();
+
+    assertThat(plan.remove(control, null, null, "missing", null, null)).isFalse();
+    // the control cannot be removed from itself
+    assertThat(plan.remove(control, null, null, "control1", null, null)).isFalse();
+    assertThat(plan.add(control, AddVisitor.Position.AFTER, "missing", null,
+        Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), newParts("new")))
+            .isFalse();
+  }
+}
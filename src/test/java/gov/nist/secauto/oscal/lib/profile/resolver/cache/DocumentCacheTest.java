@@ -0,0 +1,184 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class DocumentCacheTest {
+  private static final Path CATALOG_PATH = Paths.get("src/test/resources/content/test-catalog.xml");
+
+  @Test
+  void testRepeatedLoadIsCached() throws IOException {
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+    DocumentCache cache = new DocumentCache(Long.MAX_VALUE);
+
+    IDocumentNodeItem first = cache.get(newSource(), loader::loadAsNodeItem);
+    IDocumentNodeItem second = cache.get(newSource(), loader::loadAsNodeItem);
+    assertSame(first, second);
+
+    DocumentCache.Statistics statistics = cache.getStatistics();
+    assertEquals(1, statistics.getHitCount());
+    assertEquals(1, statistics.getMissCount());
+    assertEquals(1, statistics.getLoadCount());
+    assertEquals(1, statistics.getSize());
+    assertEquals(Files.size(CATALOG_PATH), statistics.getWeight());
+  }
+
+  @Test
+  void testOversizedDocumentIsNotCached() throws IOException {
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+    DocumentCache cache = new DocumentCache(Files.size(CATALOG_PATH) - 1);
+
+    IDocumentNodeItem first = cache.get(newSource(), loader::loadAsNodeItem);
+    IDocumentNodeItem second = cache.get(newSource(), loader::loadAsNodeItem);
+    assertNotSame(first, second);
+
+    DocumentCache.Statistics statistics = cache.getStatistics();
+    assertEquals(0, statistics.getHitCount());
+    assertEquals(2, statistics.getLoadCount());
+    assertEquals(0, statistics.getSize());
+    assertEquals(0, statistics.getWeight());
+  }
+
+  @Test
+  void testChangedFileReplacesEntry(@TempDir Path tempDir) throws IOException {
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+    DocumentCache cache = new DocumentCache(Long.MAX_VALUE);
+
+    Path catalogPath = ObjectUtils.notNull(tempDir.resolve("catalog.xml"));
+    Files.copy(CATALOG_PATH, catalogPath);
+    IDocumentNodeItem first = cache.get(newSource(catalogPath), loader::loadAsNodeItem);
+
+    // change the size of the file, so that the change is detected regardless of timestamp resolution
+    Files.write(catalogPath, "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    IDocumentNodeItem second = cache.get(newSource(catalogPath), loader::loadAsNodeItem);
+    assertNotSame(first, second);
+
+    DocumentCache.Statistics statistics = cache.getStatistics();
+    assertEquals(2, statistics.getMissCount());
+    assertEquals(2, statistics.getLoadCount());
+    assertEquals(1, statistics.getSize());
+    assertEquals(Files.size(catalogPath), statistics.getWeight());
+  }
+
+  @Test
+  void testConcurrentMissesLoadOnce() throws IOException, InterruptedException, ExecutionException {
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+    DocumentCache cache = new DocumentCache(Long.MAX_VALUE);
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<IDocumentNodeItem> first = executor.submit(() -> cache.get(newSource(), source -> {
+        loads.incrementAndGet();
+        loading.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new IOException(ex);
+        }
+        return loader.loadAsNodeItem(source);
+      }));
+
+      // request the document while the first request is loading it
+      loading.await();
+      CompletableFuture<IDocumentNodeItem> second = CompletableFuture.supplyAsync(() -> {
+        try {
+          return cache.get(newSource(), source -> {
+            loads.incrementAndGet();
+            return loader.loadAsNodeItem(source);
+          });
+        } catch (IOException ex) {
+          throw new CompletionException(ex);
+        }
+      });
+      release.countDown();
+
+      assertSame(first.get(), second.get());
+      assertEquals(1, loads.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testRemoteDocumentIsNotCached() throws IOException {
+    DocumentCache cache = new DocumentCache(Long.MAX_VALUE);
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+    InputSource source = new InputSource("https://example.com/catalog.xml");
+
+    // the document is loaded without checking the remote resource
+    IDocumentNodeItem document = loader.loadAsNodeItem(newSource());
+    assertSame(document, cache.get(source, src -> document));
+    assertSame(document, cache.get(source, src -> document));
+
+    DocumentCache.Statistics statistics = cache.getStatistics();
+    assertEquals(0, statistics.getHitCount());
+    assertEquals(0, statistics.getMissCount());
+    assertEquals(2, statistics.getLoadCount());
+    assertEquals(0, statistics.getSize());
+  }
+
+  private static InputSource newSource() {
+    return newSource(CATALOG_PATH);
+  }
+
+  private static InputSource newSource(@NonNull Path path) {
+    return new InputSource(path.toAbsolutePath().toUri().toASCIIString());
+  }
+}
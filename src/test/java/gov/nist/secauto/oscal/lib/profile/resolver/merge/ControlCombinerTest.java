@@ -0,0 +1,146 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.merge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.control.AbstractParameter;
+import gov.nist.secauto.oscal.lib.model.control.catalog.AbstractCatalogGroup;
+import gov.nist.secauto.oscal.lib.model.control.catalog.AbstractControl;
+import gov.nist.secauto.oscal.lib.model.metadata.AbstractProperty;
+import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionEvaluationException;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class ControlCombinerTest {
+
+  @NonNull
+  private static AbstractControl.Builder newControl(@NonNull String id) {
+    return AbstractControl.builder(id)
+        .title("Control " + id);
+  }
+
+  /**
+   * Create a catalog with the content of two imports of control "a", each with different content.
+   * 
+   * @return the catalog
+   */
+  @NonNull
+  private static Catalog newCatalog() {
+    Catalog catalog = new Catalog();
+    catalog.addControl(newControl("a")
+        .param(AbstractParameter.builder("a_prm_1").build())
+        .prop(AbstractProperty.builder("label").value("A").build())
+        .control(newControl("a.1").build())
+        .build());
+    catalog.addControl(newControl("b").build());
+
+    CatalogGroup group = AbstractCatalogGroup.builder("group")
+        .title("Group")
+        .control(newControl("a")
+            .param(AbstractParameter.builder("a_prm_1").build())
+            .param(AbstractParameter.builder("a_prm_2").build())
+            .prop(AbstractProperty.builder("label").value("A").build())
+            .prop(AbstractProperty.builder("status").value("draft").build())
+            .control(newControl("a.1").build())
+            .control(newControl("a.2").build())
+            .build())
+        .control(newControl("c").build())
+        .build();
+    catalog.addGroup(group);
+    return catalog;
+  }
+
+  @NonNull
+  private static List<String> toIds(List<Control> controls) {
+    return CollectionUtil.listOrEmpty(controls).stream()
+        .map(Control::getId)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  void testUseFirst() {
+    Catalog catalog = newCatalog();
+    Control first = catalog.getControls().get(0);
+
+    assertEquals(1, new ControlCombiner(ControlCombiner.Method.USE_FIRST).combine(catalog));
+
+    assertEquals(List.of("a", "b"), toIds(catalog.getControls()));
+    assertEquals(List.of("c"), toIds(catalog.getGroups().get(0).getControls()));
+    assertSame(first, catalog.getControls().get(0));
+    assertEquals(List.of("a.1"), toIds(first.getControls()));
+    assertEquals(1, first.getParams().size());
+    assertEquals(1, first.getProps().size());
+  }
+
+  @Test
+  void testMerge() {
+    Catalog catalog = newCatalog();
+    Control first = catalog.getControls().get(0);
+
+    // the duplicate of a.1 is also combined
+    assertEquals(2, new ControlCombiner(ControlCombiner.Method.MERGE).combine(catalog));
+
+    assertEquals(List.of("a", "b"), toIds(catalog.getControls()));
+    assertEquals(List.of("c"), toIds(catalog.getGroups().get(0).getControls()));
+    assertSame(first, catalog.getControls().get(0));
+    assertEquals(List.of("a.1", "a.2"), toIds(first.getControls()));
+    assertEquals(List.of("a_prm_1", "a_prm_2"),
+        first.getParams().stream().map(param -> param.getId()).collect(Collectors.toList()));
+    assertEquals(List.of("label", "status"),
+        first.getProps().stream().map(prop -> prop.getName()).collect(Collectors.toList()));
+  }
+
+  @Test
+  void testKeep() {
+    Catalog catalog = newCatalog();
+
+    assertEquals(0, new ControlCombiner(ControlCombiner.Method.KEEP).combine(catalog));
+
+    assertEquals(List.of("a", "b"), toIds(catalog.getControls()));
+    assertEquals(List.of("a", "c"), toIds(catalog.getGroups().get(0).getControls()));
+  }
+
+  @Test
+  void testLookup() {
+    assertEquals(ControlCombiner.Method.USE_FIRST, ControlCombiner.Method.lookup("use-first"));
+    assertEquals(ControlCombiner.Method.MERGE, ControlCombiner.Method.lookup("merge"));
+    assertEquals(ControlCombiner.Method.KEEP, ControlCombiner.Method.lookup("keep"));
+    assertThrows(ProfileResolutionEvaluationException.class, () -> ControlCombiner.Method.lookup("other"));
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.merge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupLine;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.InsertControls;
+import gov.nist.secauto.oscal.lib.model.Merge;
+import gov.nist.secauto.oscal.lib.model.ProfileGroup;
+import gov.nist.secauto.oscal.lib.model.control.profile.AbstractProfileSelectControlById;
+import gov.nist.secauto.oscal.lib.profile.resolver.ResolvedCatalogDocument;
+import gov.nist.secauto.oscal.lib.profile.resolver.SyntheticCatalogGenerator;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.BasicIndexer;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.ControlIndexingVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.EnumSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class CustomStructuringBuilderTest {
+
+  @NonNull
+  private static Catalog newCatalog() {
+    // two groups, each with three controls having a single enhancement
+    return SyntheticCatalogGenerator.builder()
+        .groupDepth(1)
+        .groupFanOut(2)
+        .controlsPerGroup(3)
+        .enhancementDepth(1)
+        .enhancementsPerControl(1)
+        .build()
+        .generateCatalog();
+  }
+
+  @NonNull
+  private static IIndexer index(@NonNull Catalog catalog) {
+    IIndexer indexer = new BasicIndexer();
+    new ControlIndexingVisitor(ObjectUtils.notNull(EnumSet.of(IEntityItem.ItemType.CONTROL)))
+        .visitCatalog(new ResolvedCatalogDocument(catalog, ObjectUtils.notNull(URI.create("catalog.xml")))
+            .getDocument(), indexer);
+    return indexer;
+  }
+
+  @NonNull
+  private static InsertControls newInsertControls(String order, AbstractProfileSelectControlById.Builder include,
+      AbstractProfileSelectControlById.Builder exclude) {
+    InsertControls retval = new InsertControls();
+    retval.setOrder(order);
+    retval.setIncludeControls(new LinkedList<>(List.of(include.build())));
+    if (exclude != null) {
+      retval.setExcludeControls(new LinkedList<>(List.of(exclude.build())));
+    }
+    return retval;
+  }
+
+  @NonNull
+  private static List<String> toIds(List<Control> controls) {
+    return CollectionUtil.listOrEmpty(controls).stream()
+        .map(Control::getId)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  void testCustomStructuring() {
+    Catalog catalog = newCatalog();
+
+    ProfileGroup group = new ProfileGroup();
+    group.setId("custom-1");
+    group.setTitle(MarkupLine.fromMarkdown("Custom Group"));
+    group.setInsertControls(new LinkedList<>(List.of(newInsertControls(
+        "keep",
+        AbstractProfileSelectControlById.builder()
+            .withId("ctl-5")
+            .withId("ctl-2"),
+        null))));
+
+    Merge.Custom custom = new Merge.Custom();
+    custom.setGroups(new LinkedList<>(List.of(group)));
+    custom.setInsertControls(new LinkedList<>(List.of(newInsertControls(
+        "descending",
+        AbstractProfileSelectControlById.builder()
+            .matching(ObjectUtils.notNull(Pattern.compile("ctl-?.1"))),
+        AbstractProfileSelectControlById.builder()
+            .withId("ctl-6.1")))));
+
+    new CustomStructuringBuilder(index(catalog)).build(catalog, custom);
+
+    List<CatalogGroup> groups = CollectionUtil.listOrEmpty(catalog.getGroups());
+    assertEquals(1, groups.size());
+    CatalogGroup customGroup = groups.get(0);
+    assertEquals("custom-1", customGroup.getId());
+    // the controls are kept in document order
+    assertEquals(List.of("ctl-2", "ctl-5"), toIds(customGroup.getControls()));
+    // the enhancements were placed elsewhere
+    customGroup.getControls().forEach(control -> assertNull(control.getControls()));
+
+    assertEquals(List.of("ctl-5.1", "ctl-4.1", "ctl-3.1", "ctl-2.1", "ctl-1.1"), toIds(catalog.getControls()));
+  }
+
+  @Test
+  void testFirstPlacementWins() {
+    Catalog catalog = newCatalog();
+
+    Merge.Custom custom = new Merge.Custom();
+    custom.setInsertControls(new LinkedList<>(List.of(
+        newInsertControls(
+            null,
+            AbstractProfileSelectControlById.builder()
+                .withId("ctl-3")
+                .withChildControls(true),
+            null),
+        newInsertControls(
+            "ascending",
+            AbstractProfileSelectControlById.builder()
+                .withId("ctl-3.1")
+                .withId("ctl-1")
+                .withId("missing"),
+            null))));
+
+    new CustomStructuringBuilder(index(catalog)).build(catalog, custom);
+
+    assertNull(catalog.getGroups());
+    // ctl-3.1 is placed by the first directive, which places it as a sibling of its parent
+    assertEquals(List.of("ctl-3", "ctl-3.1", "ctl-1"), toIds(catalog.getControls()));
+    // unplaced enhancements remain with their parent
+    assertEquals(List.of("ctl-1.1"), toIds(catalog.getControls().get(2).getControls()));
+  }
+}
@@ -26,17 +26,23 @@
 
 package gov.nist.secauto.oscal.lib.profile.resolver.policy;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import gov.nist.secauto.metaschema.binding.io.Format;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.OscalBindingContext;
 import gov.nist.secauto.oscal.lib.model.Catalog;
 import gov.nist.secauto.oscal.lib.profile.resolver.TestUtil;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.ControlSelectionState;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.ControlSelectionVisitor;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.IControlFilter;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.IControlSelectionFilter;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.IControlSelectionState;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.BasicIndexer;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIdentifierMapper;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.ReassignmentIndexer;
@@ -77,4 +83,39 @@ class ReferenceCountingVisitorTest {
         .serialize(ObjectUtils.requireNonNull((Catalog) importedCatalogDocumentItem.getValue()), System.out);
   }
 
+  @Test
+  void testReferenceGraph() throws IOException {
+    IDocumentNodeItem importedCatalogDocumentItem = TestUtil.newImportedCatalog();
+
+    IIndexer indexer = new BasicIndexer();
+    IControlSelectionState state = new ControlSelectionState(
+        indexer,
+        IControlFilter.newInstance(IControlSelectionFilter.ALL_MATCH, IControlSelectionFilter.NONE_MATCH));
+    ControlSelectionVisitor.instance().visitCatalog(importedCatalogDocumentItem, state);
+
+    ReferenceGraph graph = new ReferenceGraph();
+    ReferenceCountingVisitor visitor = ReferenceCountingVisitor.instance();
+    ReferenceCountingVisitor.Context context = visitor.newContext(
+        indexer,
+        ObjectUtils.requireNonNull(importedCatalogDocumentItem.getBaseUri()),
+        true,
+        IResolutionListener.noop(),
+        graph);
+    visitor.visitCatalog(importedCatalogDocumentItem, context);
+    visitor.resolveReferencedEntities(context);
+
+    int count = 0;
+    for (IEntityItem.ItemType itemType : IEntityItem.ItemType.values()) {
+      for (IEntityItem entity : indexer.getEntitiesByItemType(itemType)) {
+        // every counted reference is recorded, and can be found from its referrer
+        assertEquals(entity.getReferenceCount(), graph.getReferencesTo(entity).size());
+        assertEquals(graph.getReferencesTo(entity), graph.getReferencesTo(itemType, entity.getIdentifier()));
+        for (ReferenceGraph.Reference reference : graph.getReferencesTo(entity)) {
+          assertTrue(graph.getReferencesFrom(reference.getReferrer()).contains(reference));
+        }
+        count += entity.getReferenceCount();
+      }
+    }
+    assertEquals(count, graph.size());
+  }
 }
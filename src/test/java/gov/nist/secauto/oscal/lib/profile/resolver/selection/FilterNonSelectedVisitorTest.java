@@ -30,13 +30,16 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import gov.nist.secauto.metaschema.binding.io.Format;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.OscalBindingContext;
 import gov.nist.secauto.oscal.lib.model.Catalog;
 import gov.nist.secauto.oscal.lib.model.CatalogGroup;
 import gov.nist.secauto.oscal.lib.model.Control;
 import gov.nist.secauto.oscal.lib.model.control.catalog.IControlContainer;
 import gov.nist.secauto.oscal.lib.profile.resolver.TestUtil;
+import gov.nist.secauto.oscal.lib.profile.resolver.metrics.IResolutionListener;
 import gov.nist.secauto.oscal.lib.profile.resolver.policy.ReferenceCountingVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.policy.ReferenceGraph;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.BasicIndexer;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
@@ -44,6 +47,8 @@ import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -97,4 +102,67 @@ class FilterNonSelectedVisitorTest {
     OscalBindingContext.instance().newSerializer(Format.YAML, Catalog.class)
         .serialize((Catalog) importedCatalogDocumentItem.getValue(), System.out);
   }
+
+  @Test
+  void testCountingWhileFiltering() throws IOException {
+    IDocumentNodeItem expectedDocument = TestUtil.newImportedCatalog();
+    IIndexer expectedIndexer = newSelectionIndex(expectedDocument);
+    ReferenceCountingVisitor.instance().visitCatalog(expectedDocument, expectedIndexer,
+        expectedDocument.getBaseUri());
+    FilterNonSelectedVisitor.instance().visitCatalog(expectedDocument, expectedIndexer);
+
+    IDocumentNodeItem actualDocument = TestUtil.newImportedCatalog();
+    IIndexer actualIndexer = newSelectionIndex(actualDocument);
+    FilterNonSelectedVisitor.instance().visitCatalog(actualDocument, actualIndexer, actualDocument.getBaseUri());
+
+    assertEquals(toYaml(expectedDocument), toYaml(actualDocument));
+    for (IEntityItem.ItemType itemType : IEntityItem.ItemType.values()) {
+      assertEquals(referenceCounts(expectedIndexer, itemType), referenceCounts(actualIndexer, itemType),
+          itemType.name());
+    }
+  }
+
+  @Test
+  void testReferenceGraphWhileFiltering() {
+    IDocumentNodeItem document = TestUtil.newImportedCatalog();
+    IIndexer indexer = newSelectionIndex(document);
+
+    ReferenceGraph graph = new ReferenceGraph();
+    FilterNonSelectedVisitor.instance().visitCatalog(
+        document,
+        indexer,
+        ObjectUtils.requireNonNull(document.getBaseUri()),
+        IResolutionListener.noop(),
+        graph);
+
+    // every reference counted by the fused pass is recorded, including those to retained metadata
+    for (IEntityItem.ItemType itemType : IEntityItem.ItemType.values()) {
+      for (IEntityItem entity : indexer.getEntitiesByItemType(itemType)) {
+        assertEquals(entity.getReferenceCount(), graph.getReferencesTo(entity).size(), entity.getIdentifier());
+      }
+    }
+  }
+
+  @SuppressWarnings("null")
+  private static IIndexer newSelectionIndex(IDocumentNodeItem catalogDocument) {
+    IControlFilter filter = IControlFilter.newInstance(
+        IControlSelectionFilter.ALL_MATCH,
+        IControlSelectionFilter.matchIds("control2", "control5", "control7"));
+    IIndexer indexer = new BasicIndexer();
+    ControlSelectionVisitor.instance().visitCatalog(catalogDocument, new ControlSelectionState(indexer, filter));
+    return indexer;
+  }
+
+  @SuppressWarnings("null")
+  private static Map<String, Integer> referenceCounts(IIndexer indexer, IEntityItem.ItemType itemType) {
+    return indexer.getEntitiesByItemType(itemType).stream()
+        .collect(Collectors.toMap(IEntityItem::getIdentifier, IEntityItem::getReferenceCount));
+  }
+
+  private static String toYaml(IDocumentNodeItem catalogDocument) throws IOException {
+    StringWriter writer = new StringWriter();
+    OscalBindingContext.instance().newSerializer(Format.YAML, Catalog.class)
+        .serialize((Catalog) catalogDocument.getValue(), writer);
+    return writer.toString();
+  }
 }
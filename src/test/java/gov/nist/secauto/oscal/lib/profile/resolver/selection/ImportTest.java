@@ -26,6 +26,9 @@
 
 package gov.nist.secauto.oscal.lib.profile.resolver.selection;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import gov.nist.secauto.metaschema.binding.io.BindingException;
 import gov.nist.secauto.metaschema.binding.model.IAssemblyClassBinding;
 import gov.nist.secauto.metaschema.model.common.IRootAssemblyDefinition;
 import gov.nist.secauto.metaschema.model.common.metapath.item.DefaultNodeItemFactory;
@@ -35,18 +38,23 @@ import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.OscalBindingContext;
 import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
 import gov.nist.secauto.oscal.lib.model.IncludeAll;
+import gov.nist.secauto.oscal.lib.model.Parameter;
 import gov.nist.secauto.oscal.lib.model.Profile;
 import gov.nist.secauto.oscal.lib.model.ProfileImport;
 import gov.nist.secauto.oscal.lib.model.control.catalog.AbstractControl;
 import gov.nist.secauto.oscal.lib.model.control.profile.AbstractProfileSelectControlById;
 import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionException;
+import gov.nist.secauto.oscal.lib.profile.resolver.TestUtil;
 
 import org.junit.jupiter.api.Test;
 
 import java.net.URI;
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.List;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 
@@ -112,4 +120,84 @@ class ImportTest {
     }
   }
 
+  @SuppressWarnings("null")
+  @Test
+  void testSelectiveCopy() throws ProfileResolutionException, BindingException {
+    URI cwd = Paths.get("").toUri();
+
+    // setup the profile
+    Profile profile = new Profile();
+
+    ProfileImport profileImport = new ProfileImport();
+    profileImport.setIncludeAll(new IncludeAll());
+    profileImport.setExcludeControls(List.of(
+        AbstractProfileSelectControlById.builder()
+            .withId("control2")
+            .build(),
+        AbstractProfileSelectControlById.builder()
+            .withId("control5")
+            .build(),
+        AbstractProfileSelectControlById.builder()
+            .withId("control7")
+            .build()));
+    profileImport.setHref(cwd);
+    profile.addImport(profileImport);
+
+    IDocumentNodeItem profileDocumentItem = DefaultNodeItemFactory.instance().newDocumentNodeItem(
+        IRootAssemblyDefinition.toRootAssemblyDefinition(
+            ObjectUtils.notNull(
+                (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Profile.class))),
+        profile,
+        cwd);
+    IRequiredValueModelNodeItem importItem = profileDocumentItem.getRootAssemblyNodeItem()
+        .getModelItemsByName("import").get(0);
+
+    // resolve using a full copy
+    IDocumentNodeItem importedCatalog = TestUtil.newImportedCatalog();
+    IDocumentNodeItem copiedCatalog = DefaultNodeItemFactory.instance().newDocumentNodeItem(
+        importedCatalog.getRootAssemblyNodeItem().getDefinition(),
+        OscalBindingContext.instance().copyBoundObject(importedCatalog.getValue(), null),
+        importedCatalog.getDocumentUri());
+    Catalog expected = new Catalog();
+    new Import(profileDocumentItem, importItem).resolve(copiedCatalog, expected);
+
+    // resolve selectively against the unmodified catalog
+    String original = describe((Catalog) importedCatalog.getValue());
+    Catalog actual = new Catalog();
+    new Import(profileDocumentItem, importItem).resolveSelectively(importedCatalog, actual);
+
+    assertEquals(describe(expected), describe(actual));
+    assertEquals(original, describe((Catalog) importedCatalog.getValue()));
+  }
+
+  @NonNull
+  private static String describe(@NonNull Catalog catalog) {
+    StringBuilder builder = new StringBuilder();
+    describeParams(CollectionUtil.listOrEmpty(catalog.getParams()), builder);
+    CollectionUtil.listOrEmpty(catalog.getControls()).forEach(control -> describe(control, builder));
+    CollectionUtil.listOrEmpty(catalog.getGroups()).forEach(group -> describe(group, builder));
+    return builder.toString();
+  }
+
+  private static void describe(@NonNull CatalogGroup group, @NonNull StringBuilder builder) {
+    builder.append("group ").append(group.getId()).append(" parts=")
+        .append(CollectionUtil.listOrEmpty(group.getParts()).size()).append(" (");
+    describeParams(CollectionUtil.listOrEmpty(group.getParams()), builder);
+    CollectionUtil.listOrEmpty(group.getControls()).forEach(control -> describe(control, builder));
+    CollectionUtil.listOrEmpty(group.getGroups()).forEach(child -> describe(child, builder));
+    builder.append(") ");
+  }
+
+  private static void describe(@NonNull Control control, @NonNull StringBuilder builder) {
+    builder.append("control ").append(control.getId()).append(" parts=")
+        .append(CollectionUtil.listOrEmpty(control.getParts()).size()).append(" (");
+    describeParams(CollectionUtil.listOrEmpty(control.getParams()), builder);
+    CollectionUtil.listOrEmpty(control.getControls()).forEach(child -> describe(child, builder));
+    builder.append(") ");
+  }
+
+  private static void describeParams(@NonNull List<Parameter> params, @NonNull StringBuilder builder) {
+    params.forEach(param -> builder.append("param ").append(param.getId()).append(' '));
+  }
+
 }
@@ -0,0 +1,201 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.control.AbstractPart;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer.SelectionStatus;
+
+import org.assertj.core.api.Assertions;
+import org.jmock.Expectations;
+import org.jmock.junit5.JUnit5Mockery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class ConcurrentIndexerTest {
+  private static final URI SOURCE = URI.create("https://example.com/catalog.xml");
+
+  @RegisterExtension
+  final JUnit5Mockery context = new JUnit5Mockery();
+
+  private int mockCount;
+
+  @NonNull
+  private IEntityItem newEntity(@NonNull ItemType itemType, @NonNull String identifier) {
+    IRequiredValueModelNodeItem item = context.mock(IRequiredValueModelNodeItem.class, "item" + mockCount++);
+    return new AbstractEntityItem.Builder()
+        .instance(item, itemType)
+        .originalIdentifier(identifier)
+        .source(SOURCE)
+        .build();
+  }
+
+  /**
+   * Add a part to an index, along with its selected container.
+   * 
+   * @param indexer
+   *          the index to add to
+   * @return the container of the added part
+   */
+  @NonNull
+  private IRequiredValueModelNodeItem addSelectedPart(@NonNull IIndexer indexer) {
+    IRequiredValueModelNodeItem container = context.mock(IRequiredValueModelNodeItem.class, "container");
+    IRequiredValueModelNodeItem partItem = context.mock(IRequiredValueModelNodeItem.class, "part");
+    ControlPart part = AbstractPart.builder("statement")
+        .id("part-1")
+        .build();
+    context.checking(new Expectations() {
+      {
+        allowing(partItem).getValue();
+        will(returnValue(part));
+        allowing(partItem).getBaseUri();
+        will(returnValue(SOURCE));
+      }
+    });
+
+    indexer.setSelectionStatus(container, SelectionStatus.SELECTED);
+    indexer.addPart(partItem, container);
+    return container;
+  }
+
+  /**
+   * Verify that an index holds the part added by {@link #addSelectedPart(IIndexer)}, and the state
+   * needed to determine its selection.
+   * 
+   * @param indexer
+   *          the index to verify
+   * @param container
+   *          the container of the added part
+   */
+  private static void assertSelectedPart(@NonNull IIndexer indexer, @NonNull IRequiredValueModelNodeItem container) {
+    IEntityItem part = indexer.getEntity(ItemType.PART, "part-1");
+    Assertions.assertThat(indexer.getEntitiesByItemType(ItemType.PART)).containsExactly(part);
+    assertEquals(SelectionStatus.SELECTED, indexer.getSelectionStatus(container));
+    assertSame(container, indexer.getPartContainer(part.getInstance()));
+    // the recorded container is used, since a Metapath cannot be evaluated against the mock
+    assertTrue(indexer.isSelected(part));
+  }
+
+  @Test
+  void testCopyFromBasicIndexer() {
+    BasicIndexer basic = new BasicIndexer();
+    IRequiredValueModelNodeItem container = addSelectedPart(basic);
+
+    assertSelectedPart(new ConcurrentIndexer(basic), container);
+
+    ConcurrentIndexer appended = new ConcurrentIndexer();
+    appended.append(basic);
+    assertSelectedPart(appended, container);
+  }
+
+  @Test
+  void testCopyToBasicIndexer() {
+    ConcurrentIndexer concurrent = new ConcurrentIndexer();
+    IRequiredValueModelNodeItem container = addSelectedPart(concurrent);
+
+    assertSelectedPart(new BasicIndexer(concurrent), container);
+
+    BasicIndexer appended = new BasicIndexer();
+    appended.append(concurrent);
+    assertSelectedPart(appended, container);
+  }
+
+  @Test
+  void testInsertionOrder() {
+    ConcurrentIndexer indexer = new ConcurrentIndexer();
+    IEntityItem first = newEntity(ItemType.ROLE, "first");
+    IEntityItem second = newEntity(ItemType.ROLE, "second");
+    IEntityItem replacement = newEntity(ItemType.ROLE, "first");
+
+    indexer.addItem(first);
+    indexer.addItem(second);
+    assertSame(first, indexer.addItem(replacement));
+    // a replaced entity keeps its position
+    Assertions.assertThat(indexer.getEntitiesByItemType(ItemType.ROLE)).containsExactly(replacement, second);
+
+    // only the indexed entity is removed
+    assertFalse(indexer.remove(first));
+    assertTrue(indexer.remove(replacement));
+    assertNull(indexer.getEntity(ItemType.ROLE, "first"));
+    Assertions.assertThat(indexer.getEntitiesByItemType(ItemType.ROLE)).containsExactly(second);
+  }
+
+  @Test
+  void testUuidLookupIgnoresCase() {
+    ConcurrentIndexer indexer = new ConcurrentIndexer();
+    UUID uuid = UUID.randomUUID();
+    IEntityItem party = newEntity(ItemType.PARTY, uuid.toString());
+
+    indexer.addItem(party);
+    assertSame(party, indexer.getEntity(ItemType.PARTY, uuid));
+    assertSame(party, indexer.getEntity(ItemType.PARTY, uuid.toString().toUpperCase(Locale.ROOT)));
+  }
+
+  @Test
+  void testConcurrentUpdates() {
+    ConcurrentIndexer indexer = new ConcurrentIndexer();
+    IEntityItem shared = newEntity(ItemType.CONTROL, "shared");
+    indexer.addItem(shared);
+
+    List<IEntityItem> entities = IntStream.range(0, 1000)
+        .mapToObj(i -> newEntity(ItemType.CONTROL, "control-" + i))
+        .collect(Collectors.toList());
+
+    CompletableFuture.allOf(entities.stream()
+        .map(entity -> CompletableFuture.runAsync(() -> {
+          indexer.addItem(entity);
+          shared.incrementReferenceCount();
+        }))
+        .toArray(CompletableFuture[]::new))
+        .join();
+
+    assertEquals(entities.size() + 1, indexer.getEntitiesByItemType(ItemType.CONTROL).size());
+    for (IEntityItem entity : entities) {
+      assertSame(entity, indexer.getEntity(ItemType.CONTROL, entity.getIdentifier()));
+    }
+    assertEquals(entities.size(), shared.resetReferenceCount());
+    assertEquals(0, shared.getReferenceCount());
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.assertj.core.api.Assertions;
+import org.jmock.junit5.JUnit5Mockery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+class EntityTableTest {
+  @RegisterExtension
+  final JUnit5Mockery context = new JUnit5Mockery();
+
+  @Test
+  void testStringKeys() {
+    EntityTable table = new EntityTable(false);
+    IEntityItem first = context.mock(IEntityItem.class, "first");
+    IEntityItem second = context.mock(IEntityItem.class, "second");
+    IEntityItem replacement = context.mock(IEntityItem.class, "replacement");
+
+    assertNull(table.put("ac-1", first));
+    assertNull(table.put("ac-2", second));
+    assertSame(first, table.put("ac-1", replacement));
+
+    assertSame(replacement, table.get("ac-1"));
+    assertSame(second, table.get("ac-2"));
+    assertNull(table.get("AC-1"));
+    // a replaced entity keeps its position
+    Assertions.assertThat(table.values()).containsExactly(replacement, second);
+  }
+
+  @Test
+  void testUuidKeysIgnoreCase() {
+    EntityTable table = new EntityTable(true);
+    IEntityItem entity = context.mock(IEntityItem.class);
+    UUID uuid = UUID.randomUUID();
+
+    table.put(uuid.toString(), entity);
+    assertSame(entity, table.get(uuid));
+    assertSame(entity, table.get(uuid.toString().toUpperCase(Locale.ROOT)));
+    // a non-UUID identifier is matched exactly
+    table.put("not-a-uuid", entity);
+    assertSame(entity, table.get("not-a-uuid"));
+    assertNull(table.get("NOT-A-UUID"));
+  }
+
+  @Test
+  void testRemoveAndGrowPreservesOrder() {
+    EntityTable table = new EntityTable(false);
+    List<IEntityItem> expected = new ArrayList<>();
+    for (int index = 0; index < 100; index++) {
+      IEntityItem entity = context.mock(IEntityItem.class, "entity" + index);
+      table.put("id-" + index, entity);
+      expected.add(entity);
+    }
+
+    // removing requires the mapped entity
+    assertFalse(table.remove("id-0", expected.get(1)));
+    for (int index = 0; index < 100; index += 3) {
+      assertTrue(table.remove("id-" + index, expected.get(index)));
+    }
+    for (int index = 100; index < 200; index++) {
+      IEntityItem entity = context.mock(IEntityItem.class, "entity" + index);
+      table.put("id-" + index, entity);
+      expected.add(entity);
+    }
+
+    List<IEntityItem> retained = new ArrayList<>();
+    for (int index = 0; index < expected.size(); index++) {
+      IEntityItem entity = expected.get(index);
+      if (index >= 100 || index % 3 != 0) {
+        retained.add(entity);
+        assertSame(entity, table.get("id-" + index));
+      } else {
+        assertNull(table.get("id-" + index));
+      }
+    }
+    assertEquals(retained.size(), table.size());
+    Assertions.assertThat(table.values()).containsExactlyElementsOf(retained);
+  }
+
+  @Test
+  void testIsUuid() {
+    assertTrue(EntityTable.isUuid("0c2b6f5e-4b8e-5a8e-9f3a-6f7D3C1A2E90"));
+    assertFalse(EntityTable.isUuid("0c2b6f5e-4b8e-5a8e-9f3a-6f7d3c1a2e9g"));
+    assertFalse(EntityTable.isUuid("0c2b6f5e04b8e-5a8e-9f3a-6f7d3c1a2e90"));
+    assertFalse(EntityTable.isUuid("ac-1"));
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
+
+import org.jmock.junit5.JUnit5Mockery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class NodeItemOrdinalsTest {
+  @RegisterExtension
+  final JUnit5Mockery context = new JUnit5Mockery();
+
+  @Test
+  void testAssignIsStable() {
+    NodeItemOrdinals ordinals = new NodeItemOrdinals();
+    INodeItem first = context.mock(INodeItem.class, "first");
+    INodeItem second = context.mock(INodeItem.class, "second");
+
+    assertEquals(-1, ordinals.lookup(first));
+    assertEquals(0, ordinals.assign(first));
+    assertEquals(1, ordinals.assign(second));
+    assertEquals(0, ordinals.assign(first));
+    assertEquals(1, ordinals.lookup(second));
+    assertEquals(2, ordinals.size());
+    assertSame(second, ordinals.getItem(1));
+  }
+
+  @Test
+  void testGrowKeepsOrdinals() {
+    NodeItemOrdinals ordinals = new NodeItemOrdinals();
+    List<INodeItem> items = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      INodeItem item = context.mock(INodeItem.class, "item" + i);
+      items.add(item);
+      assertEquals(i, ordinals.assign(item));
+    }
+
+    for (int i = 0; i < items.size(); i++) {
+      assertEquals(i, ordinals.lookup(items.get(i)));
+      assertSame(items.get(i), ordinals.getItem(i));
+    }
+  }
+}